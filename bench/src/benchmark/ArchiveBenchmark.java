@@ -0,0 +1,96 @@
+package benchmark;
+
+import model.Calendar;
+import model.Event;
+import model.IEvent;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a calendar holding ten years of standalone events in memory with one whose first nine
+ * years were moved into the archive. The current year benchmarks only touch the last year, the
+ * history benchmark reads a week of the archived years, decoding its months on every call.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ArchiveBenchmark {
+  private static final LocalDate FIRST_DAY = LocalDate.of(2016, 1, 1);
+  private static final LocalDate HORIZON = LocalDate.of(2025, 1, 1);
+  private static final int DAYS = 3653;
+  private static final int PROBES = 1024;
+
+  @Param({"1000000"})
+  private int size;
+
+  @Param({"false", "true"})
+  private boolean archived;
+
+  private Calendar calendar;
+  private IEvent[] fresh;
+  private int cursor;
+
+  @Setup
+  public void setup() {
+    calendar = new Calendar();
+    for (int i = 0; i < size; i++) {
+      calendar.addEvent(standalone("Event " + i, FIRST_DAY, i % DAYS, i));
+    }
+    if (archived) {
+      calendar.archiveBefore(HORIZON);
+    }
+    fresh = new IEvent[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      fresh[i] = standalone("Fresh " + i, HORIZON, i % 365, i);
+    }
+  }
+
+  @Benchmark
+  public List<IEvent> currentYearWeek() {
+    LocalDate from = HORIZON.plusDays(next() % 358);
+    return calendar.getScheduleInRange(from, from.plusDays(6));
+  }
+
+  @Benchmark
+  public Calendar currentYearAddEvent() {
+    // a snapshot shares everything with the calendar, so each call starts from the same state.
+    Calendar copy = calendar.snapshot();
+    copy.addEvent(fresh[next()]);
+    return copy;
+  }
+
+  @Benchmark
+  public List<IEvent> historyWeek() {
+    LocalDate from = FIRST_DAY.plusDays(next() * 3L % (DAYS - 372));
+    return calendar.getScheduleInRange(from, from.plusDays(6));
+  }
+
+  private int next() {
+    cursor = (cursor + 1) & (PROBES - 1);
+    return cursor;
+  }
+
+  private static IEvent standalone(String subject, LocalDate first, int days, int i) {
+    LocalDate day = first.plusDays(days);
+    LocalTime start = LocalTime.of(8 + i % 10, 0);
+    return Event.of(subject, null, null, day, start, day, start.plusMinutes(30), null);
+  }
+}
@@ -0,0 +1,29 @@
+package benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the gc profiler attached, so every result reports the allocation rate
+ * and bytes allocated per operation next to its throughput. Accepts the usual JMH command line,
+ * for example "CalendarBenchmark -p size=1000,100000 -p seriesShare=90".
+ */
+public class BenchmarkRunner {
+
+  /**
+   * Runs the benchmarks matching the given JMH command line, or all of them by default.
+   * @param args the JMH command line.
+   * @throws CommandLineOptionException if the command line can't be parsed.
+   * @throws RunnerException if a benchmark fails to run.
+   */
+  public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+    new Runner(new OptionsBuilder()
+            .parent(new CommandLineOptions(args))
+            .addProfiler(GCProfiler.class)
+            .build()).run();
+  }
+}
@@ -0,0 +1,143 @@
+package benchmark;
+
+import model.Calendar;
+import model.Event;
+import model.EventSeries;
+import model.ICalendar;
+import model.IEvent;
+import model.IEventSeries;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Calendar operations the commands lean on, over calendars of a given size. size is
+ * the total number of events held, seriesShare the percentage of them which are occurrences of
+ * one year weekday series rather than standalone events, and lazySeries whether those series are
+ * built with lazy expansion. Events are spread over ten years starting in 2025.
+ * Run it through BenchmarkRunner to get the gc allocation rate next to the throughput.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class CalendarBenchmark {
+  private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+  private static final int DAYS = 3650;
+  private static final int PROBES = 1024;
+
+  @Param({"1000", "10000", "100000", "1000000"})
+  private int size;
+
+  @Param({"0", "50"})
+  private int seriesShare;
+
+  @Param({"false"})
+  private boolean lazySeries;
+
+  private Calendar calendar;
+  private IEvent[] probes;
+  private IEvent[] fresh;
+  private int cursor;
+
+  @Setup
+  public void setup() {
+    calendar = new Calendar();
+    List<IEvent> sample = new ArrayList<>();
+    int seriesEvents = (int) ((long) size * seriesShare / 100);
+
+    // each series runs for up to a year of weekdays, the last one only for what is left over.
+    for (int made = 0, n = 0; made < seriesEvents; n++) {
+      LocalDate start = FIRST_DAY.plusDays((n * 7L) % DAYS);
+      EventSeries.EventSeriesBuilder builder = EventSeries.getBuilder()
+              .subject("Series " + n)
+              .eventStartDate(start.getDayOfMonth(), start.getMonthValue(), start.getYear())
+              .eventEndDate(start.getDayOfMonth(), start.getMonthValue(), start.getYear())
+              .eventStartTime(10, 0)
+              .eventEndTime(11, 0)
+              .weekDays("MTWRF")
+              .seriesEndDate(start.plusDays(Math.min(364, (seriesEvents - made) * 7L / 5)));
+      IEventSeries series = (lazySeries ? builder.lazyExpansion() : builder).buildSeries();
+      calendar.addEventSeries(series);
+      for (IEvent e : series) {
+        made++;
+      }
+      sample.add(series.iterator().next());
+    }
+    for (int i = 0; i < size - seriesEvents; i++) {
+      IEvent e = standalone("Event " + i, i);
+      calendar.addEvent(e);
+      if (i % 97 == 0) {
+        sample.add(e);
+      }
+    }
+
+    probes = new IEvent[PROBES];
+    fresh = new IEvent[PROBES];
+    for (int i = 0; i < PROBES; i++) {
+      probes[i] = sample.get(i % sample.size());
+      fresh[i] = standalone("Fresh " + i, i * 31);
+    }
+  }
+
+  @Benchmark
+  public Calendar addEvent() {
+    // a snapshot shares everything with the calendar, so each call starts from the same state.
+    Calendar copy = calendar.snapshot();
+    copy.addEvent(fresh[next()]);
+    return copy;
+  }
+
+  @Benchmark
+  public List<IEvent> getScheduleInRangeOfAWeek() {
+    LocalDate from = FIRST_DAY.plusDays(next() * 3L % DAYS);
+    return calendar.getScheduleInRange(from, from.plusDays(6));
+  }
+
+  @Benchmark
+  public IEventSeries getSeriesFor() {
+    return calendar.getSeriesFor(probes[next()]);
+  }
+
+  @Benchmark
+  public ICalendar copyEventsAndShiftAWeek() {
+    LocalDate from = FIRST_DAY.plusDays(next() * 3L % DAYS);
+    ICalendar target = new Calendar();
+    target.copyEventsAndShift(from, from.plusDays(6), calendar, from.plusYears(20));
+    return target;
+  }
+
+  @Benchmark
+  public ICalendar setTimeZone() {
+    return calendar.setTimeZone(ZoneId.of("Europe/Paris"));
+  }
+
+  private int next() {
+    cursor = (cursor + 1) & (PROBES - 1);
+    return cursor;
+  }
+
+  private static IEvent standalone(String subject, int i) {
+    LocalDate day = FIRST_DAY.plusDays(i % DAYS);
+    LocalTime start = LocalTime.of(8 + i % 10, 0);
+    return Event.of(subject, null, null, day, start, day, start.plusMinutes(30), null);
+  }
+}
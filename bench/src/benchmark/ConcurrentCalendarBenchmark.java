@@ -0,0 +1,96 @@
+package benchmark;
+
+import model.ConcurrentCalendar;
+import model.Event;
+import model.IEvent;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures range queries against a shared ConcurrentCalendar. readOnly runs the query on every
+ * thread, pick the thread count with -t to see how reads scale with cores. readWhileWriting runs
+ * three readers next to a writer which keeps adding and removing an event.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ConcurrentCalendarBenchmark {
+  private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+  private static final int DAYS = 365;
+
+  @Param({"10000"})
+  private int size;
+
+  private ConcurrentCalendar calendar;
+  private IEvent churn;
+
+  @Setup
+  public void setup() {
+    calendar = new ConcurrentCalendar();
+    for (int i = 0; i < size; i++) {
+      LocalDate day = FIRST_DAY.plusDays(i % DAYS);
+      LocalTime start = LocalTime.of(8 + i % 10, 0);
+      calendar.addEvent(
+              Event.of("Event " + i, null, null, day, start, day, start.plusMinutes(30), null));
+    }
+    churn = Event.of("Churn", null, null, FIRST_DAY, LocalTime.NOON,
+            FIRST_DAY, LocalTime.NOON.plusMinutes(5), null);
+  }
+
+  /**
+   * Per thread cursor so readers spread their queries over the year.
+   */
+  @State(Scope.Thread)
+  public static class Cursor {
+    private int next;
+
+    LocalDate nextWeek() {
+      next = (next + 3) % DAYS;
+      return FIRST_DAY.plusDays(next);
+    }
+  }
+
+  @Benchmark
+  @Threads(Threads.MAX)
+  public List<IEvent> readOnly(Cursor cursor) {
+    LocalDate from = cursor.nextWeek();
+    return calendar.getScheduleInRange(from, from.plusDays(6));
+  }
+
+  @Benchmark
+  @Group("readWhileWriting")
+  @GroupThreads(3)
+  public List<IEvent> reader(Cursor cursor) {
+    LocalDate from = cursor.nextWeek();
+    return calendar.getScheduleInRange(from, from.plusDays(6));
+  }
+
+  @Benchmark
+  @Group("readWhileWriting")
+  @GroupThreads(1)
+  public void writer() {
+    calendar.addEvent(churn);
+    calendar.removeEvent(churn);
+  }
+}
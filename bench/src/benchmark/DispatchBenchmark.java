@@ -0,0 +1,102 @@
+package benchmark;
+
+import controller.CommandRegistry;
+import controller.command.ParsedCommand;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures finding the command of a line, without parsing or running it, as more commands are
+ * registered next to the standard ones. The registry looks the leading words up in its trie, the
+ * chain tests the prefixes one after the other the way the controller used to, with the extra
+ * commands after the standard ones. The lines cycle through every standard command and the last
+ * extra one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DispatchBenchmark {
+  private static final String[] STANDARD = {
+      "create calendar --name Work --timezone America/New_York",
+      "edit calendar --name Work --property name Office",
+      "import calendar --name Work --file in.ics",
+      "export calendar --name Work --format csv --from 2025-06-01 --to 2025-06-30 --file o.csv",
+      "use calendar --name Work",
+      "copy event Standup on 2025-06-09T09:00 --target Home to 2025-06-10T09:00",
+      "copy events on 2025-06-09 --target Home to 2025-06-10",
+      "copy events between 2025-06-01 and 2025-06-30 --target Home to 2025-07-01",
+      "create event Standup from 2025-06-09T09:00 to 2025-06-09T09:15",
+      "edit event subject Standup from 2025-06-09T09:00 to 2025-06-09T09:15 with Sync",
+      "edit events subject Standup from 2025-06-09T09:00 with Sync",
+      "edit series subject Standup from 2025-06-09T09:00 with Sync",
+      "print events on 2025-06-09",
+      "show status on 2025-06-09T09:05",
+  };
+  private static final String[] STANDARD_PREFIXES = {
+      "create calendar", "edit calendar", "import calendar", "export calendar", "use calendar",
+      "copy event ", "copy events on ", "copy events between ", "create event ", "edit event ",
+      "edit events ", "edit series ", "print events ", "show status",
+  };
+
+  @Param({"0", "100", "10000"})
+  private int extraCommands;
+
+  private CommandRegistry registry;
+  private String[] chain;
+  private String[] lines;
+  private int cursor;
+
+  @Setup
+  public void setup() {
+    registry = CommandRegistry.standard();
+    List<String> prefixes = new ArrayList<>(List.of(STANDARD_PREFIXES));
+    for (int i = 0; i < extraCommands; i++) {
+      registry.register("extra" + i + " command", ParsedCommand.class, false, (c, s, v) -> { });
+      prefixes.add("extra" + i + " command ");
+    }
+    chain = prefixes.toArray(new String[0]);
+    List<String> probes = new ArrayList<>(List.of(STANDARD));
+    if (extraCommands > 0) {
+      probes.add("extra" + (extraCommands - 1) + " command --name Work");
+    }
+    lines = probes.toArray(new String[0]);
+  }
+
+  @Benchmark
+  public CommandRegistry.Entry<?> registry() {
+    return registry.lookup(next());
+  }
+
+  @Benchmark
+  public int startsWithChain() {
+    String line = next();
+    for (int i = 0; i < chain.length; i++) {
+      if (line.startsWith(chain[i])) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private String next() {
+    cursor = cursor + 1 == lines.length ? 0 : cursor + 1;
+    return lines[cursor];
+  }
+}
@@ -0,0 +1,82 @@
+package benchmark;
+
+import model.Event;
+import model.EventSeries;
+import model.IEvent;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the chained EventBuilder against the Event.of factory, along with the hot paths that
+ * now use the factory. Run it with the gc profiler (-prof gc) to see the bytes allocated per
+ * operation; every builder setter allocates a new builder, where Event.of only allocates the
+ * Event itself.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EventConstructionBenchmark {
+  private LocalDate date;
+  private LocalTime startTime;
+  private LocalTime endTime;
+  private IEvent event;
+
+  @Setup
+  public void setup() {
+    date = LocalDate.of(2025, 6, 2);
+    startTime = LocalTime.of(9, 0);
+    endTime = LocalTime.of(9, 15);
+    event = Event.of("Standup", null, null, date, startTime, date, endTime, null);
+  }
+
+  @Benchmark
+  public Event chainedBuilder() {
+    return Event.getBuilder()
+            .subject("Standup")
+            .description("daily")
+            .startDate(date.getDayOfMonth(), date.getMonthValue(), date.getYear())
+            .startTime(startTime.getHour(), startTime.getMinute())
+            .endDate(date.getDayOfMonth(), date.getMonthValue(), date.getYear())
+            .endTime(endTime.getHour(), endTime.getMinute())
+            .buildEvent();
+  }
+
+  @Benchmark
+  public Event directFactory() {
+    return Event.of("Standup", null, null, date, startTime, date, endTime, "daily");
+  }
+
+  @Benchmark
+  public IEvent shiftDays() {
+    return event.shiftDays(7);
+  }
+
+  @Benchmark
+  public EventSeries weekdaySeriesForAYear() {
+    return EventSeries.getBuilder()
+            .subject("Standup")
+            .eventStartDate(2, 6, 2025)
+            .eventEndDate(2, 6, 2025)
+            .eventStartTime(9, 0)
+            .eventEndTime(9, 15)
+            .weekDays("MTWRF")
+            .seriesEndDate(LocalDate.of(2026, 6, 1))
+            .buildSeries();
+  }
+}
@@ -0,0 +1,105 @@
+package benchmark;
+
+import model.Calendar;
+import model.ColumnarCalendar;
+import model.Event;
+import model.EventSeries;
+import model.ICalendar;
+import model.IEvent;
+import model.IEventSeries;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how much heap a calendar holding a given number of events keeps alive, reported as
+ * the bytesPerEvent counter next to the time taken to fill the calendar. The heap in use is read
+ * after a full collection before and after the calendar is filled, and the events and series are
+ * built inside the measurement, so whatever the calendar keeps of them counts and nothing else
+ * does. seriesShare is the percentage of the events which are occurrences of one year weekday
+ * series, and lazySeries whether those series are built with lazy expansion.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 1, time = 1)
+@Measurement(iterations = 3, time = 1)
+public class FootprintBenchmark {
+  private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+  private static final int DAYS = 3650;
+
+  @Param({"100000"})
+  private int size;
+
+  @Param({"Calendar", "ColumnarCalendar"})
+  private String calendar;
+
+  @Param({"0", "90"})
+  private int seriesShare;
+
+  @Param({"false", "true"})
+  private boolean lazySeries;
+
+  /**
+   * The heap the calendar filled last keeps alive, per event it holds.
+   */
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  @State(Scope.Thread)
+  public static class Footprint {
+    public double bytesPerEvent;
+  }
+
+  @Benchmark
+  public ICalendar fill(Footprint footprint) {
+    long before = usedHeap();
+    ICalendar filled = "Calendar".equals(calendar) ? new Calendar() : new ColumnarCalendar();
+    int seriesEvents = (int) ((long) size * seriesShare / 100);
+    for (int made = 0, n = 0; made < seriesEvents; n++) {
+      LocalDate start = FIRST_DAY.plusDays((n * 7L) % DAYS);
+      EventSeries.EventSeriesBuilder builder = EventSeries.getBuilder()
+              .subject("Series " + n)
+              .eventStartDate(start.getDayOfMonth(), start.getMonthValue(), start.getYear())
+              .eventEndDate(start.getDayOfMonth(), start.getMonthValue(), start.getYear())
+              .eventStartTime(10, 0)
+              .eventEndTime(11, 0)
+              .weekDays("MTWRF")
+              .seriesEndDate(start.plusDays(Math.min(364, (seriesEvents - made) * 7L / 5)));
+      IEventSeries series = (lazySeries ? builder.lazyExpansion() : builder).buildSeries();
+      filled.addEventSeries(series);
+      for (IEvent e : series) {
+        made++;
+      }
+    }
+    for (int i = 0; i < size - seriesEvents; i++) {
+      LocalDate day = FIRST_DAY.plusDays(i % DAYS);
+      LocalTime start = LocalTime.of(8 + i % 10, 0);
+      filled.addEvent(Event.of("Event " + i, null, null, day, start, day, start.plusMinutes(30),
+              null));
+    }
+    footprint.bytesPerEvent = (double) (usedHeap() - before) / size;
+    return filled;
+  }
+
+  // the heap in use once whatever can be collected is gone.
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
@@ -0,0 +1,84 @@
+package benchmark;
+
+import controller.command.CommandParser;
+import controller.command.ParsedCommand;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading command lines into ParsedCommands, without executing them. The subject of
+ * every line is padded to the given length, so the time per line shows how parsing grows with
+ * the length of a line. The mixed benchmark cycles through one line of every command.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ParserBenchmark {
+  @Param({"8", "128", "2048"})
+  private int subjectLength;
+
+  private String timedSeries;
+  private String allDay;
+  private String edit;
+  private String[] mixed;
+  private int cursor;
+
+  @Setup
+  public void setup() {
+    String subject = "S" + "x".repeat(subjectLength - 1);
+    timedSeries = "create event " + subject + " from 2025-06-09T09:00 to 2025-06-09T09:15"
+            + " repeats MWF for 10 times";
+    allDay = "create event " + subject + " on 2025-06-09";
+    edit = "edit event location " + subject + " from 2025-06-09T09:00 to 2025-06-09T09:15"
+            + " with ONLINE";
+    mixed = new String[] {
+        timedSeries,
+        allDay,
+        edit,
+        "create event " + subject + " from 2025-06-09T09:00 to 2025-06-09T09:15",
+        "create event " + subject + " on 2025-06-09 repeats TR until 2025-09-01",
+        "edit series subject " + subject + " from 2025-06-09T09:00 with Renamed",
+        "copy event " + subject + " on 2025-06-09T09:00 --target Work to 2025-06-10T09:00",
+        "print events from 2025-06-01T00:00 to 2025-06-30T23:59",
+        "show status on 2025-06-09T09:05",
+        "copy events between 2025-06-01 and 2025-06-30 --target Work to 2025-07-01",
+        "export calendar --name Home --format ics --from 2025-06-01 --to 2025-06-30 --file o.ics",
+    };
+  }
+
+  @Benchmark
+  public ParsedCommand createTimedSeries() {
+    return CommandParser.parse(timedSeries);
+  }
+
+  @Benchmark
+  public ParsedCommand createAllDayEvent() {
+    return CommandParser.parse(allDay);
+  }
+
+  @Benchmark
+  public ParsedCommand editEvent() {
+    return CommandParser.parse(edit);
+  }
+
+  @Benchmark
+  public ParsedCommand mixed() {
+    cursor = cursor + 1 == mixed.length ? 0 : cursor + 1;
+    return CommandParser.parse(mixed[cursor]);
+  }
+}
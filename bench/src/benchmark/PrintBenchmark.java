@@ -0,0 +1,97 @@
+package benchmark;
+
+import controller.command.CreateCommand;
+import controller.command.PrintCommand;
+import model.Calendar;
+import view.ITextView;
+import view.StreamingTextView;
+import view.TextView;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures printing a year of events to /dev/null, so the time is formatting and the calls made to
+ * write. TextView writes to a PrintStream set up like System.out, which flushes every line, the
+ * streaming view collects the lines and writes them to a BufferedWriter in chunks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PrintBenchmark {
+  private static final LocalDate FIRST_DAY = LocalDate.of(2025, 1, 1);
+
+  @Param({"1", "8"})
+  private int eventsPerDay;
+
+  private Calendar calendar;
+  private PrintCommand print;
+  private PrintStream stdoutLike;
+  private Writer buffered;
+  private ITextView lineView;
+  private StreamingTextView streamingView;
+
+  @Setup
+  public void setup() throws IOException {
+    calendar = new Calendar();
+    ITextView ignored = new TextView(new StringBuilder());
+    for (int day = 0; day < 365; day++) {
+      LocalDate date = FIRST_DAY.plusDays(day);
+      for (int i = 0; i < eventsPerDay; i++) {
+        new CreateCommand(String.format("create event Meeting%d from %sT%02d:00 to %sT%02d:30",
+                i, date, 8 + i, date, 8 + i)).execute(calendar, ignored);
+      }
+    }
+    print = new PrintCommand("print events from 2025-01-01T00:00 to 2025-12-31T23:59");
+    stdoutLike = new PrintStream(new BufferedOutputStream(
+            new FileOutputStream("/dev/null"), 128), true);
+    buffered = new BufferedWriter(new OutputStreamWriter(new FileOutputStream("/dev/null")),
+            StreamingTextView.DEFAULT_CHUNK);
+    lineView = new TextView(stdoutLike);
+    streamingView = new StreamingTextView(buffered);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    stdoutLike.close();
+    buffered.close();
+  }
+
+  @Benchmark
+  public void textView() throws IOException {
+    lineView.clearTextBuffer();
+    print.execute(calendar, lineView);
+    lineView.displayTextInBuffer();
+  }
+
+  @Benchmark
+  public void streamingTextView() throws IOException {
+    streamingView.clearTextBuffer();
+    print.execute(calendar, streamingView);
+    streamingView.displayTextInBuffer();
+    streamingView.flush();
+  }
+}
@@ -0,0 +1,141 @@
+package benchmark;
+
+import controller.CalendarController;
+import controller.HeadlessPipeline;
+import controller.ScriptReader;
+import model.CalendarManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading a headless script through a Scanner with reading it through a ScriptReader.
+ * The lines benchmarks only split and decode the script, the replay benchmarks run it through
+ * the controller as well, with its output thrown away, and the pipelined replay runs it through
+ * a HeadlessPipeline instead. The script creates one event per line
+ * over the days after 2025-01-01, then prints a few of those days.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class ScriptReaderBenchmark {
+  private static final Appendable DISCARD = new Appendable() {
+    @Override
+    public Appendable append(CharSequence csq) {
+      return this;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) {
+      return this;
+    }
+
+    @Override
+    public Appendable append(char c) {
+      return this;
+    }
+  };
+
+  @Param({"1000000"})
+  private int lines;
+
+  private Path script;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException {
+    script = Files.createTempFile("script", ".txt");
+    LocalDate first = LocalDate.of(2025, 1, 1);
+    try (BufferedWriter out = Files.newBufferedWriter(script)) {
+      out.write("create calendar --name Bench --timezone America/New_York\n");
+      out.write("use calendar --name Bench\n");
+      for (int i = 0; i < lines; i++) {
+        LocalDate day = first.plusDays(i / 10);
+        int hour = 8 + i % 10;
+        out.write(String.format("create event Event%d from %sT%02d:00 to %sT%02d:30%n",
+                i, day, hour, day, hour));
+      }
+      for (int i = 0; i < 100; i++) {
+        out.write("print events on " + first.plusDays(i) + "\n");
+      }
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(script);
+  }
+
+  @Benchmark
+  public long scannerLines() throws IOException {
+    long chars = 0;
+    try (Reader in = new FileReader(script.toFile())) {
+      Scanner scanner = new Scanner(in);
+      while (scanner.hasNextLine()) {
+        chars += scanner.nextLine().length();
+      }
+    }
+    return chars;
+  }
+
+  @Benchmark
+  public long scriptReaderLines() throws IOException {
+    long chars = 0;
+    try (ScriptReader in = ScriptReader.open(script)) {
+      for (CharSequence line = in.nextLine(); line != null; line = in.nextLine()) {
+        chars += line.length();
+      }
+    }
+    return chars;
+  }
+
+  @Benchmark
+  public CalendarManager scannerReplay() throws IOException {
+    CalendarManager mgr = new CalendarManager();
+    try (Reader in = new FileReader(script.toFile())) {
+      new CalendarController(mgr, in, DISCARD).goo();
+    }
+    return mgr;
+  }
+
+  @Benchmark
+  public CalendarManager scriptReaderReplay() throws IOException {
+    CalendarManager mgr = new CalendarManager();
+    try (ScriptReader in = ScriptReader.open(script)) {
+      new CalendarController(mgr, in, DISCARD).goo();
+    }
+    return mgr;
+  }
+
+  @Benchmark
+  public CalendarManager pipelinedReplay() throws IOException {
+    CalendarManager mgr = new CalendarManager();
+    try (ScriptReader in = ScriptReader.open(script)) {
+      new HeadlessPipeline(mgr, in, DISCARD).run();
+    }
+    return mgr;
+  }
+}
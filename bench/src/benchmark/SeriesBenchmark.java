@@ -0,0 +1,79 @@
+package benchmark;
+
+import model.Event;
+import model.EventSeries;
+import model.IEvent;
+import model.SeriesEditor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building a weekday EventSeries and editing it with SeriesEditor.replaceRange, for
+ * series running a given number of years. lazySeries picks lazy expansion over the eager list.
+ * Run it through BenchmarkRunner to get the gc allocation rate next to the throughput.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SeriesBenchmark {
+  @Param({"1", "10"})
+  private int years;
+
+  @Param({"false", "true"})
+  private boolean lazySeries;
+
+  private EventSeries series;
+  private IEvent midpoint;
+  private IEvent replacement;
+
+  @Setup
+  public void setup() {
+    series = build();
+    List<IEvent> occurrences = new ArrayList<>();
+    series.forEach(occurrences::add);
+    midpoint = occurrences.get(occurrences.size() / 2);
+    replacement = Event.of("Moved standup", null, null, midpoint.getStartDate(),
+            midpoint.getStartTime().plusHours(1), midpoint.getEndDate(),
+            midpoint.getEndTime().plusHours(1), null);
+  }
+
+  @Benchmark
+  public EventSeries construct() {
+    return build();
+  }
+
+  @Benchmark
+  public EventSeries replaceRangeFromTheMiddle() {
+    return new SeriesEditor(series).replaceRange(midpoint, replacement).getSeries();
+  }
+
+  private EventSeries build() {
+    EventSeries.EventSeriesBuilder builder = EventSeries.getBuilder()
+            .subject("Standup")
+            .eventStartDate(2, 6, 2025)
+            .eventEndDate(2, 6, 2025)
+            .eventStartTime(9, 0)
+            .eventEndTime(9, 15)
+            .weekDays("MTWRF")
+            .seriesEndDate(LocalDate.of(2025, 6, 1).plusYears(years));
+    return (lazySeries ? builder.lazyExpansion() : builder).buildSeries();
+  }
+}
@@ -1,23 +1,76 @@
 
-import java.io.FileReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 
 import controller.CalendarController;
 import controller.GuiController;
+import controller.HeadlessPipeline;
+import controller.ScriptReader;
 import model.CalendarManager;
+import model.CalendarStore;
+import model.ConcurrentCalendarManager;
+import model.ICalendarManager;
+import model.JournaledCalendarManager;
+import model.LazyCalendarManager;
+import model.LoggedCalendar;
 import view.CalendarGuiView;
+import view.StreamingTextView;
 
 /**
  * The main program and entry point.
  */
 public class CalendarApp {
+  // roughly how much memory the calendars of a --store directory may keep loaded.
+  private static final long STORE_BUDGET_BYTES = 256L << 20;
 
   /**
    * The enetry point.
    * @param args command line args
    */
   public static void main(String[] args) throws Exception {
-    CalendarManager mgr = new CalendarManager();
+    ICalendarManager mgr = new CalendarManager();
+
+    if (args.length >= 2 && "--data".equals(args[0])) {    // keep calendars in a directory
+      JournaledCalendarManager journaled = JournaledCalendarManager.open(Paths.get(args[1]));
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> checkpointAndClose(journaled)));
+      mgr = journaled;
+      args = Arrays.copyOfRange(args, 2, args.length);
+    } else if (args.length >= 2 && "--log".equals(args[0])) {   // log the default calendar
+      LoggedCalendar logged = LoggedCalendar.open(Paths.get(args[1]));
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> close(logged)));
+      mgr.addCalendar("default", logged);
+      args = Arrays.copyOfRange(args, 2, args.length);
+    } else if (args.length >= 2 && "--store".equals(args[0])) {   // load calendars on demand
+      String dir = args[1];
+      args = Arrays.copyOfRange(args, 2, args.length);
+      if (args.length >= 1 && "--load-all".equals(args[0])) {   // every calendar, in parallel
+        args = Arrays.copyOfRange(args, 1, args.length);
+        CalendarStore store = CalendarStore.open(Paths.get(dir));
+        ICalendarManager loaded = store.loadInParallel(new ConcurrentCalendarManager(),
+                ForkJoinPool.commonPool());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> saveAndClose(store, loaded)));
+        mgr = loaded;
+      } else {
+        LocalDate horizon = null;
+        if (args.length >= 2 && "--archive-days".equals(args[0])) {  // archive older events
+          horizon = LocalDate.now().minusDays(Integer.parseInt(args[1]));
+          args = Arrays.copyOfRange(args, 2, args.length);
+        }
+        LazyCalendarManager lazy = LazyCalendarManager.open(Paths.get(dir), STORE_BUDGET_BYTES,
+                horizon);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> saveAndClose(lazy)));
+        mgr = lazy;
+      }
+    }
 
     if (args.length == 0) {                       // GUI
       CalendarGuiView gui = new CalendarGuiView();
@@ -38,8 +91,13 @@ public class CalendarApp {
             throw new IllegalArgumentException(
                     "Usage: --mode headless <script-file>");
           }
-          try (FileReader r = new FileReader(args[2])) {
-            new CalendarController(mgr, r, System.out).goo();
+          // writes straight to stdout in large chunks, System.out flushes every line.
+          Writer out = new BufferedWriter(new OutputStreamWriter(
+                  new FileOutputStream(FileDescriptor.out)), StreamingTextView.DEFAULT_CHUNK);
+          try (ScriptReader r = ScriptReader.open(Paths.get(args[2]))) {
+            new HeadlessPipeline(mgr, r, out).run();
+          } finally {
+            out.flush();
           }
           return;
 
@@ -48,8 +106,46 @@ public class CalendarApp {
       }
     }
     System.err.println("Invalid arguments. "
-            + "Usage:\n  (no args) GUI\n  --mode interactive\n"
-            + "  --mode headless <script>");
+            + "Usage:\n  [<storage>] (no args) GUI\n"
+            + "  [<storage>] --mode interactive\n"
+            + "  [<storage>] --mode headless <script>\n"
+            + "where <storage> is --data <dir>, --log <dir> (the default calendar only)\n"
+            + "  or --store <dir> [--archive-days <n> | --load-all]");
     System.exit(1);
   }
+
+  // leaves a fresh snapshot behind, so the next start has no journal to replay.
+  private static void checkpointAndClose(JournaledCalendarManager mgr) {
+    try {
+      mgr.checkpoint();
+      mgr.close();
+    } catch (IOException e) {
+      System.err.println("Could not save calendars: " + e.getMessage());
+    }
+  }
+
+  private static void close(LoggedCalendar calendar) {
+    try {
+      calendar.close();
+    } catch (IOException e) {
+      System.err.println("Could not save calendars: " + e.getMessage());
+    }
+  }
+
+  private static void saveAndClose(CalendarStore store, ICalendarManager mgr) {
+    try {
+      store.save(mgr);
+      store.close();
+    } catch (IOException e) {
+      System.err.println("Could not save calendars: " + e.getMessage());
+    }
+  }
+
+  private static void saveAndClose(LazyCalendarManager mgr) {
+    try {
+      mgr.close();
+    } catch (IOException e) {
+      System.err.println("Could not save calendars: " + e.getMessage());
+    }
+  }
 }
@@ -0,0 +1,197 @@
+package controller;
+
+import model.Calendar;
+import model.ICalendar;
+import model.IEvent;
+import model.IEventSeries;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * The calendar the commands of a batch work on while it commits. Added events are held back and
+ * handed to the calendar underneath in one addEvents call, which checks them all and takes them
+ * all or none, just before anything else reads or changes the calendar, or the batch ends. So a
+ * block which only creates events reaches the calendar in one call, while every edit splits the
+ * held back events into another call. A snapshot of the calendar is taken just before the first
+ * change reaches it, so a batch failing part way through puts the snapshot back, with every event
+ * and series where it was before. A calendar taking no snapshots has each change which reached it
+ * undone by another call instead, latest first, which leaves events put back after the others.
+ *
+ * <p>The changes are ordinary calls on the calendar underneath. A calendar which records its
+ * changes, such as a journaled or logged one, records each of them as it is made, and records the
+ * rollback as it happens, so a crash part way through a commit or its rollback leaves part of the
+ * block on disk. A batch is all or nothing only for the calendar in memory.
+ */
+final class BatchCalendar implements ICalendar {
+  private final ICalendar calendar;
+  private final List<IEvent> added = new ArrayList<>();
+  // the calendar as it was before the batch changed it, taken on the first change, and null
+  // before that or if the calendar takes no snapshots, in which case each change is undone.
+  private Calendar before;
+  private boolean changed;
+  private final Deque<Runnable> undo = new ArrayDeque<>();
+
+  /**
+   * Starts a batch over the given calendar.
+   * @param calendar the calendar the batch changes.
+   */
+  BatchCalendar(ICalendar calendar) {
+    this.calendar = calendar;
+  }
+
+  /**
+   * Hands the events held back to the calendar.
+   * @throws IllegalArgumentException if the calendar won't take them, in which case it took none.
+   */
+  void flush() {
+    if (added.isEmpty()) {
+      return;
+    }
+    List<IEvent> events = new ArrayList<>(added);
+    added.clear();
+    change();
+    calendar.addEvents(events);
+    remember(() -> events.forEach(calendar::removeEvent));
+  }
+
+  /**
+   * Drops the events held back and takes back every change made so far, by putting back the
+   * snapshot taken before the first one. For a calendar taking no snapshots, the changes are
+   * undone latest first, and a change which can't be undone doesn't stop the others from being
+   * undone.
+   * @param cause why the batch is rolled back, which gets any failure to take a change back added
+   *              as a suppressed exception, so it isn't hidden by it.
+   */
+  void rollback(RuntimeException cause) {
+    added.clear();
+    if (before != null) {
+      try {
+        calendar.revertTo(before);
+      } catch (RuntimeException e) {
+        cause.addSuppressed(e);
+      }
+      return;
+    }
+    while (!undo.isEmpty()) {
+      try {
+        undo.pop().run();
+      } catch (RuntimeException e) {
+        cause.addSuppressed(e);
+      }
+    }
+  }
+
+  @Override
+  public ZoneId getTimeZone() {
+    return calendar.getTimeZone();
+  }
+
+  @Override
+  public ICalendar setTimeZone(ZoneId timeZone) {
+    throw notInBatch("change the time zone");
+  }
+
+  @Override
+  public void addEvent(IEvent event) {
+    added.add(event);
+  }
+
+  @Override
+  public void addEvents(Collection<IEvent> events) {
+    added.addAll(events);
+  }
+
+  @Override
+  public void removeEvent(IEvent event) {
+    flush();
+    change();
+    calendar.removeEvent(event);
+    remember(() -> calendar.addEvent(event));
+  }
+
+  @Override
+  public void addEventSeries(IEventSeries series) {
+    flush();
+    change();
+    calendar.addEventSeries(series);
+    remember(() -> calendar.removeEventSeries(series));
+  }
+
+  @Override
+  public void removeEventSeries(IEventSeries series) {
+    flush();
+    change();
+    calendar.removeEventSeries(series);
+    remember(() -> calendar.addEventSeries(series));
+  }
+
+  @Override
+  public void replaceEvent(IEvent oldEvent, IEvent newEvent) {
+    flush();
+    change();
+    calendar.replaceEvent(oldEvent, newEvent);
+    remember(() -> calendar.replaceEvent(newEvent, oldEvent));
+  }
+
+  @Override
+  public void copyEventsAndShift(LocalDate rangeStart, LocalDate rangeEnd, ICalendar from,
+          LocalDate atStartDate) {
+    throw notInBatch("copy events");
+  }
+
+  @Override
+  public void copyEvents(LocalDate rangeStart, LocalDate rangeEnd, ICalendar from) {
+    throw notInBatch("copy events");
+  }
+
+  @Override
+  public List<IEvent> getEvents() {
+    flush();
+    return calendar.getEvents();
+  }
+
+  @Override
+  public List<IEvent> getScheduleInRange(LocalDate start, LocalDate end) {
+    flush();
+    return calendar.getScheduleInRange(start, end);
+  }
+
+  @Override
+  public IEventSeries getSeriesFor(IEvent event) {
+    flush();
+    return calendar.getSeriesFor(event);
+  }
+
+  @Override
+  public void replaceSeries(IEventSeries oldSeries, IEventSeries newSeries) {
+    flush();
+    change();
+    calendar.replaceSeries(oldSeries, newSeries);
+    remember(() -> calendar.replaceSeries(newSeries, oldSeries));
+  }
+
+  // takes the snapshot to roll back to, just before the first change reaches the calendar.
+  private void change() {
+    if (!changed) {
+      before = calendar.snapshot();
+      changed = true;
+    }
+  }
+
+  // keeps the change undoing one made, needed only without a snapshot to roll back to.
+  private void remember(Runnable undoing) {
+    if (before == null) {
+      undo.push(undoing);
+    }
+  }
+
+  private static IllegalArgumentException notInBatch(String what) {
+    return new IllegalArgumentException("Can't " + what + " inside a batch");
+  }
+}
@@ -1,20 +1,7 @@
 package controller;
 
-import controller.command.Command;
-import controller.command.CopyEventCommand;
-import controller.command.CopyEventsBetweenCommand;
-import controller.command.CopyEventsOnDateCommand;
-import controller.command.CreateCalendarCommand;
-import controller.command.CreateCommand;
-import controller.command.EditCalendarCommand;
-import controller.command.EditCommand;
-import controller.command.PrintCommand;
-import controller.command.ShowCommand;
-import controller.command.UseCalendarCommand;
-import model.ICalendar;
 import model.ICalendarManager;
-import view.ITextView;
-import view.TextView;
+import view.StreamingTextView;
 
 import java.io.IOException;
 import java.io.Reader;
@@ -24,10 +11,12 @@ import java.util.Scanner;
  * Controller.
  */
 public class CalendarController {
-  private final Scanner         scanner;
-  private final ICalendarManager mgr;
-  private String                 currentCalendarName;
-  private final ITextView       view;
+  static final CommandRegistry COMMANDS = CommandRegistry.standard();
+
+  private final Scanner           scanner;
+  private final ScriptReader      script;
+  private final CommandSession    session;
+  private final StreamingTextView view;
 
   /**
    * Controller.
@@ -37,124 +26,75 @@ public class CalendarController {
    * @param out  where to send output
    */
   public CalendarController(ICalendarManager mgr, Reader in, Appendable out) {
-    this.mgr                  = mgr;
     this.scanner              = new Scanner(in);
-    this.view                 = new TextView(out);
-    this.currentCalendarName  = null;
+    this.script               = null;
+    this.session              = new CommandSession(mgr);
+    this.view                 = new StreamingTextView(out);
   }
 
   /**
-   * Main loop: read lines, dispatch to the right Command, render via TextView.
+   * Controller for replaying a script, which reads it through a ScriptReader instead of a
+   * Scanner.
+   *
+   * @param mgr     the calendar‐of‐calendars
+   * @param script  the script to replay
+   * @param out     where to send output
    */
-  public void goo() throws IOException {
-    while (scanner.hasNextLine()) {
-      String line = scanner.nextLine().trim();
-      view.clearTextBuffer();
-
-      // ───────── Manager‐level commands ─────────
-      if (line.startsWith("create calendar")) {
-        new CreateCalendarCommand(line).execute(mgr, view);
-        view.displayTextInBuffer();
-        continue;
-      }
-      if (line.startsWith("edit calendar")) {
-        new EditCalendarCommand(line).execute(mgr, view);
-        view.displayTextInBuffer();
-        continue;
-      }
-      if (line.startsWith("use calendar")) {
-        UseCalendarCommand uc = new UseCalendarCommand(line);
-        String name = uc.getCalendarName();
-        // assert it exists
-        mgr.getCalendar(name);
-        currentCalendarName = name;
-        view.takeMessage("Using calendar: " + name);
-        view.displayTextInBuffer();
-        continue;
-      }
-
-      // ───────── Copy commands (need a calendar selected) ─────────
-      if (line.startsWith("copy event ")) {
-        if (currentCalendarName == null) {
-          view.takeMessage("ERROR: no calendar selected. Use \"use calendar --name <name>\"");
-          view.displayTextInBuffer();
-          continue;
-        }
-        Command c = new CopyEventCommand(line, mgr, currentCalendarName);
-        try {
-          c.execute(mgr.getCalendar(currentCalendarName), view);
-        } catch (IllegalArgumentException iae) {
-          view.takeMessage(iae.getMessage());
-        }
-        view.displayTextInBuffer();
-        continue;
-      }
+  public CalendarController(ICalendarManager mgr, ScriptReader script, Appendable out) {
+    this.scanner              = null;
+    this.script               = script;
+    this.session              = new CommandSession(mgr);
+    this.view                 = new StreamingTextView(out);
+  }
 
-      if (line.startsWith("copy events on ")) {
-        if (currentCalendarName == null) {
-          view.takeMessage("ERROR: no calendar selected. Use \"use calendar --name <name>\"");
-          view.displayTextInBuffer();
-          continue;
-        }
-        Command c = new CopyEventsOnDateCommand(line, mgr, currentCalendarName);
-        try {
-          c.execute(mgr.getCalendar(currentCalendarName), view);
-        } catch (IllegalArgumentException iae) {
-          view.takeMessage(iae.getMessage());
-        }
+  /**
+   * Main loop: read lines, look up their command in the registry, run it and render via
+   * the view. A user typing commands sees the output of each line before the next one is read, a
+   * script's output is written in large chunks, and all of it by the time the loop returns.
+   */
+  public void goo() throws IOException {
+    try {
+      String line;
+      while ((line = nextLine()) != null) {
+        view.clearTextBuffer();
+        ParsedLine.parse(line, COMMANDS).run(session, view);
         view.displayTextInBuffer();
-        continue;
-      }
-
-      if (line.startsWith("copy events between ")) {
-        if (currentCalendarName == null) {
-          view.takeMessage("ERROR: no calendar selected. Use \"use calendar --name <name>\"");
-          view.displayTextInBuffer();
-          continue;
+        if (script == null) {
+          view.flush();
         }
-        Command c = new CopyEventsBetweenCommand(line, mgr, currentCalendarName);
-        try {
-          c.execute(mgr.getCalendar(currentCalendarName), view);
-        } catch (IllegalArgumentException iae) {
-          view.takeMessage(iae.getMessage());
-        }
-        view.displayTextInBuffer();
-        continue;
       }
+      view.clearTextBuffer();
+      session.endOfInput(view);
+      view.displayTextInBuffer();
+    } finally {
+      view.flush();
+    }
+  }
 
-      // ─────── All remaining commands are calendar‐scoped
-      if (currentCalendarName == null) {
-        view.takeMessage("ERROR: no calendar selected. Use \"use calendar --name <name>\"");
-        view.displayTextInBuffer();
-        continue;
-      }
-      ICalendar cal = mgr.getCalendar(currentCalendarName);
-
-      Command cmd;
-      if (line.startsWith("create event ")) {
-        cmd = new CreateCommand(line);
-      } else if (line.startsWith("edit event ")
-              || line.startsWith("edit events ")
-              || line.startsWith("edit series ")) {
-        cmd = new EditCommand(line);
-      } else if (line.startsWith("print events ")) {
-        cmd = new PrintCommand(line);
-      } else if (line.startsWith("show status on ")) {
-        cmd = new ShowCommand(line);
-      } else {
-        view.takeMessage("Unknown command: " + line);
-        view.displayTextInBuffer();
-        continue;
-      }
+  // the next line without surrounding whitespace, or null once the input is used up.
+  private String nextLine() throws IOException {
+    if (script == null) {
+      return scanner.hasNextLine() ? scanner.nextLine().trim() : null;
+    }
+    CharSequence next = script.nextLine();
+    return next == null ? null : trimmed(next);
+  }
 
-      // Run the calendar‐scoped command
-      try {
-        cmd.execute(cal, view);
-      } catch (IllegalArgumentException iae) {
-        // report malformed commands or lookup failures
-        view.takeMessage(iae.getMessage());
-      }
-      view.displayTextInBuffer();
+  /**
+   * Returns the line without surrounding whitespace. Trims the view, so the only copy made is
+   * the command itself.
+   * @param line the line as read.
+   * @return the trimmed line.
+   */
+  static String trimmed(CharSequence line) {
+    int start = 0;
+    int end = line.length();
+    while (start < end && line.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && line.charAt(end - 1) <= ' ') {
+      end--;
     }
+    return line.subSequence(start, end).toString();
   }
 }
@@ -0,0 +1,98 @@
+package controller;
+
+import view.ITextView;
+import view.TextView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The lines of an open batch block, between "begin batch" and "commit" or "abort". The lines are
+ * parsed as they come, but only run on commit, all of them against the calendar in use at the
+ * start of the block, and either every change they make stays or none does, see BatchCalendar
+ * for what that means for a calendar kept on disk. Runs of created events between edits reach
+ * the calendar as one bulk addition. Only the commands creating and editing events may be
+ * staged; any other line fails the block.
+ */
+final class CommandBatch {
+  private final String calendarName;
+  private final List<ParsedLine> lines = new ArrayList<>();
+  private int failures;
+
+  /**
+   * Opens a block on the given calendar.
+   * @param calendarName the name of the calendar in use.
+   */
+  CommandBatch(String calendarName) {
+    this.calendarName = calendarName;
+  }
+
+  /**
+   * Stages a line to run on commit.
+   * @param line the line.
+   */
+  void stage(ParsedLine line) {
+    lines.add(line);
+  }
+
+  /**
+   * Records a line which couldn't be staged, after which the block can no longer commit.
+   */
+  void fail() {
+    failures++;
+  }
+
+  /**
+   * Runs the staged lines, keeping what they change only if all of them succeed. The messages
+   * of the lines are passed on once they did, otherwise why the block was rolled back.
+   * @param session the session the block belongs to, no longer holding it.
+   * @param view where to report to.
+   * @throws RuntimeException anything but an IllegalArgumentException a command throws, after
+   *         the changes made are taken back, with any failure to take one back suppressed.
+   */
+  void commit(CommandSession session, ITextView view) {
+    if (failures > 0) {
+      view.takeMessage("Batch rolled back: " + failures + " of its lines failed, none of its "
+              + lines.size() + " commands were run");
+      return;
+    }
+    BatchCalendar staged = new BatchCalendar(session.getManager().getCalendar(calendarName));
+    ITextView messages = new TextView(new StringBuilder());
+    session.stageOn(staged);
+    try {
+      for (ParsedLine line : lines) {
+        line.apply(session, messages);
+      }
+      staged.flush();
+    } catch (RuntimeException e) {
+      staged.rollback(e);
+      if (!(e instanceof IllegalArgumentException)) {
+        throw e;
+      }
+      view.takeMessage("Batch rolled back: " + e.getMessage());
+      return;
+    } finally {
+      session.stageOn(null);
+    }
+    for (String message : messages.getTextInBuffer()) {
+      view.takeMessage(message);
+    }
+    view.takeMessage("Committed " + lines.size() + " commands to calendar: " + calendarName);
+  }
+
+  /**
+   * Drops the staged lines.
+   * @param view where to report to.
+   */
+  void abort(ITextView view) {
+    view.takeMessage("Batch aborted: " + lines.size() + " commands dropped");
+  }
+
+  /**
+   * Drops the staged lines of a block the input ended in before its "commit" or "abort".
+   * @param view where to report to.
+   */
+  void abortAtEnd(ITextView view) {
+    view.takeMessage("Batch aborted at end of input: " + lines.size() + " commands dropped");
+  }
+}
@@ -0,0 +1,281 @@
+package controller;
+
+import controller.command.CommandParser;
+import controller.command.CopyEventCommand;
+import controller.command.CopyEventsBetweenCommand;
+import controller.command.CopyEventsOnDateCommand;
+import controller.command.CreateCalendarCommand;
+import controller.command.CreateCommand;
+import controller.command.EditCalendarCommand;
+import controller.command.EditCommand;
+import controller.command.ExportCalendarCommand;
+import controller.command.ImportCalendarCommand;
+import controller.command.ParsedCommand;
+import controller.command.PrintCommand;
+import controller.command.ShowCommand;
+import view.ITextView;
+
+/**
+ * The commands of the text controller, keyed by the words a command line starts with, such as
+ * "create event" or "copy events between". The keys are kept in a trie of words, so finding the
+ * command of a line costs one hash lookup per leading word, however many commands there are, and
+ * copies nothing out of the line.
+ * The handlers keep no state of their own, everything a command changes lives in the session,
+ * so one registry serves any number of lines and sessions. The standard handlers call the static
+ * run method of each command class, so no command object is created per line.
+ */
+public final class CommandRegistry {
+
+  /**
+   * Carries out one kind of command.
+   * @param <T> the kind of command handled.
+   */
+  public interface Handler<T extends ParsedCommand> {
+    /**
+     * Carries out the command.
+     * @param command the command, parsed.
+     * @param session what the command works on.
+     * @param view where the command reports to.
+     * @throws IllegalArgumentException if the command can't be carried out.
+     */
+    void handle(T command, CommandSession session, ITextView view);
+  }
+
+  /**
+   * A command as registered: how to parse its lines and how to carry it out.
+   * @param <T> the kind of command.
+   */
+  public static final class Entry<T extends ParsedCommand> {
+    private final Class<T> kind;
+    private final boolean needsCalendar;
+    private final Handler<? super T> handler;
+
+    private Entry(Class<T> kind, boolean needsCalendar, Handler<? super T> handler) {
+      this.kind = kind;
+      this.needsCalendar = needsCalendar;
+      this.handler = handler;
+    }
+
+    /**
+     * Returns whether the command works on the calendar in use, so one has to be picked first.
+     * @return whether a calendar is needed.
+     */
+    public boolean needsCalendar() {
+      return needsCalendar;
+    }
+
+    /**
+     * Parses a line of the command.
+     * @param line the command line.
+     * @return the command it holds.
+     * @throws IllegalArgumentException if the line is malformed.
+     */
+    public T parse(CharSequence line) {
+      return CommandParser.parse(line, kind);
+    }
+
+    /**
+     * Carries out a command parsed by this entry.
+     * @param command the command, parsed.
+     * @param session what the command works on.
+     * @param view where the command reports to.
+     * @throws IllegalArgumentException if the command fails.
+     */
+    public void execute(ParsedCommand command, CommandSession session, ITextView view) {
+      handler.handle(kind.cast(command), session, view);
+    }
+
+    /**
+     * Parses the line and carries out the command it holds.
+     * @param line the command line.
+     * @param session what the command works on.
+     * @param view where the command reports to.
+     * @throws IllegalArgumentException if the line is malformed or the command fails.
+     */
+    public void run(CharSequence line, CommandSession session, ITextView view) {
+      handler.handle(parse(line), session, view);
+    }
+  }
+
+  // one node per word of a registered prefix. the words after it are kept in an open addressed
+  // table, so a line's words can be looked up where they are, without copying them out.
+  private static final class Node {
+    private String[] words = new String[4];
+    private Node[] next = new Node[4];
+    private int size;
+    private Entry<?> entry;
+
+    // the node after the given part of a line, or null.
+    Node get(CharSequence line, int start, int end) {
+      int mask = words.length - 1;
+      for (int i = hash(line, start, end) & mask; words[i] != null; i = (i + 1) & mask) {
+        if (matches(words[i], line, start, end)) {
+          return next[i];
+        }
+      }
+      return null;
+    }
+
+    // the node after the given word, added if there is none yet.
+    Node add(String word) {
+      Node node = get(word, 0, word.length());
+      if (node != null) {
+        return node;
+      }
+      if (2 * (size + 1) > words.length) {
+        String[] oldWords = words;
+        Node[] oldNext = next;
+        words = new String[oldWords.length * 2];
+        next = new Node[oldWords.length * 2];
+        for (int i = 0; i < oldWords.length; i++) {
+          if (oldWords[i] != null) {
+            put(oldWords[i], oldNext[i]);
+          }
+        }
+      }
+      node = new Node();
+      put(word, node);
+      size++;
+      return node;
+    }
+
+    private void put(String word, Node node) {
+      int mask = words.length - 1;
+      int i = hash(word, 0, word.length()) & mask;
+      while (words[i] != null) {
+        i = (i + 1) & mask;
+      }
+      words[i] = word;
+      next[i] = node;
+    }
+
+    private static int hash(CharSequence text, int start, int end) {
+      int h = 0;
+      for (int i = start; i < end; i++) {
+        h = 31 * h + text.charAt(i);
+      }
+      return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(String word, CharSequence text, int start, int end) {
+      if (word.length() != end - start) {
+        return false;
+      }
+      for (int i = 0; i < word.length(); i++) {
+        if (word.charAt(i) != text.charAt(start + i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  private final Node root = new Node();
+
+  /**
+   * Registers a command under the words its lines start with. A longer prefix wins over a
+   * shorter one, so "copy events on" and "copy events between" may go to different commands.
+   * @param prefix the leading words, separated by single spaces.
+   * @param kind the kind of command the lines parse to.
+   * @param needsCalendar whether the command works on the calendar in use.
+   * @param handler what carries the command out.
+   * @param <T> the kind of command.
+   * @return this registry.
+   * @throws IllegalArgumentException if the prefix is empty or already registered.
+   */
+  public <T extends ParsedCommand> CommandRegistry register(String prefix, Class<T> kind,
+          boolean needsCalendar, Handler<? super T> handler) {
+    if (prefix.isBlank()) {
+      throw new IllegalArgumentException("A command needs a prefix");
+    }
+    Node node = root;
+    for (String word : prefix.trim().split(" +")) {
+      node = node.add(word);
+    }
+    if (node.entry != null) {
+      throw new IllegalArgumentException("Already registered: " + prefix);
+    }
+    node.entry = new Entry<>(kind, needsCalendar, handler);
+    return this;
+  }
+
+  /**
+   * Finds the command a line starts with, by the longest registered prefix of its words.
+   * @param line the command line.
+   * @return the command, or null if the line starts with none.
+   */
+  public Entry<?> lookup(CharSequence line) {
+    Node node = root;
+    Entry<?> found = null;
+    int length = line.length();
+    int i = 0;
+    while (true) {
+      while (i < length && Character.isWhitespace(line.charAt(i))) {
+        i++;
+      }
+      int start = i;
+      while (i < length && !Character.isWhitespace(line.charAt(i))) {
+        i++;
+      }
+      if (start == i) {
+        return found;
+      }
+      node = node.get(line, start, i);
+      if (node == null) {
+        return found;
+      }
+      if (node.entry != null) {
+        found = node.entry;
+      }
+    }
+  }
+
+  /**
+   * Returns a registry of every command of the text controller.
+   * @return the registry.
+   */
+  public static CommandRegistry standard() {
+    return new CommandRegistry()
+            .register("create calendar", ParsedCommand.CreateCalendar.class, false,
+                    (c, s, v) -> CreateCalendarCommand.run(c, s.getManager(), v))
+            .register("edit calendar", ParsedCommand.EditCalendar.class, false,
+                    (c, s, v) -> EditCalendarCommand.run(c, s.getManager(), v))
+            .register("import calendar", ParsedCommand.ImportCalendar.class, false,
+                    (c, s, v) -> ImportCalendarCommand.run(c, s.getManager(), v))
+            .register("export calendar", ParsedCommand.ExportCalendar.class, false,
+                    (c, s, v) -> ExportCalendarCommand.run(c, s.getManager(), v))
+            .register("use calendar", ParsedCommand.UseCalendar.class, false,
+                    (c, s, v) -> {
+                      s.use(c.getName());
+                      v.takeMessage("Using calendar: " + c.getName());
+                    })
+            .register("copy event", ParsedCommand.CopyEvent.class, true,
+                    (c, s, v) -> CopyEventCommand.run(c, s.getManager(), s.getCalendar(), v))
+            .register("copy events on", ParsedCommand.CopyEventsOn.class, true,
+                    (c, s, v) -> CopyEventsOnDateCommand.run(c, s.getManager(), s.getCalendar(), v))
+            .register("copy events between", ParsedCommand.CopyEventsBetween.class, true,
+                    (c, s, v) -> CopyEventsBetweenCommand.run(c, s.getManager(),
+                            s.getCalendarName(), s.getCalendar(), v))
+            .register("create event", ParsedCommand.CreateEvent.class, true,
+                    (c, s, v) -> CreateCommand.run(c, s.getCalendar(), v))
+            .register("edit event", ParsedCommand.EditEvent.class, true,
+                    (c, s, v) -> EditCommand.run(c, s.getCalendar(), v))
+            .register("edit events", ParsedCommand.EditEvent.class, true,
+                    (c, s, v) -> EditCommand.run(c, s.getCalendar(), v))
+            .register("edit series", ParsedCommand.EditEvent.class, true,
+                    (c, s, v) -> EditCommand.run(c, s.getCalendar(), v))
+            .register("print events", ParsedCommand.PrintEvents.class, true,
+                    (c, s, v) -> PrintCommand.run(c, s.getCalendar(), v))
+            .register("show status", ParsedCommand.ShowStatus.class, true,
+                    (c, s, v) -> ShowCommand.run(c, s.getCalendar(), v))
+            .register("begin batch", ParsedCommand.BeginBatch.class, true,
+                    (c, s, v) -> {
+                      s.beginBatch();
+                      v.takeMessage("Started a batch on calendar: " + s.getCalendarName());
+                    })
+            .register("commit", ParsedCommand.EndBatch.class, false,
+                    (c, s, v) -> s.endBatch().commit(s, v))
+            .register("abort", ParsedCommand.EndBatch.class, false,
+                    (c, s, v) -> s.endBatch().abort(v));
+  }
+}
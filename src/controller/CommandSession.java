@@ -0,0 +1,119 @@
+package controller;
+
+import model.ICalendar;
+import model.ICalendarManager;
+import view.ITextView;
+
+/**
+ * What the commands of one text session work on: the calendars, and which of them is in use.
+ */
+public final class CommandSession {
+  private final ICalendarManager manager;
+  private String calendarName;
+  // the open batch block, and the calendar its commands work on while it commits.
+  private CommandBatch batch;
+  private ICalendar staging;
+
+  /**
+   * Starts a session over the given calendars, with none of them in use.
+   * @param manager the calendars.
+   */
+  public CommandSession(ICalendarManager manager) {
+    this.manager = manager;
+  }
+
+  /**
+   * Returns the calendars of the session.
+   * @return the calendar manager.
+   */
+  public ICalendarManager getManager() {
+    return manager;
+  }
+
+  /**
+   * Returns the name of the calendar in use.
+   * @return the name, or null if no calendar was picked yet.
+   */
+  public String getCalendarName() {
+    return calendarName;
+  }
+
+  /**
+   * Returns the calendar in use.
+   * @return the calendar.
+   * @throws IllegalArgumentException if no calendar was picked, or it is gone.
+   */
+  public ICalendar getCalendar() {
+    if (staging != null) {
+      return staging;
+    }
+    if (calendarName == null) {
+      throw new IllegalArgumentException("No calendar selected");
+    }
+    return manager.getCalendar(calendarName);
+  }
+
+  /**
+   * Picks the calendar to use from now on.
+   * @param name the name of the calendar.
+   * @throws IllegalArgumentException if there is no calendar of that name.
+   */
+  public void use(String name) {
+    manager.getCalendar(name);
+    calendarName = name;
+  }
+
+  /**
+   * Returns the open batch block.
+   * @return the batch, or null if no batch is open.
+   */
+  CommandBatch getBatch() {
+    return batch;
+  }
+
+  /**
+   * Opens a batch block on the calendar in use.
+   * @throws IllegalArgumentException if no calendar is in use, or a batch is open already.
+   */
+  void beginBatch() {
+    if (batch != null) {
+      throw new IllegalArgumentException("A batch is already open");
+    }
+    getCalendar();
+    batch = new CommandBatch(calendarName);
+  }
+
+  /**
+   * Closes the open batch block.
+   * @return the batch closed.
+   * @throws IllegalArgumentException if no batch is open.
+   */
+  CommandBatch endBatch() {
+    if (batch == null) {
+      throw new IllegalArgumentException("No batch is open");
+    }
+    CommandBatch ended = batch;
+    batch = null;
+    return ended;
+  }
+
+  /**
+   * Ends the session once its input is used up. A batch block left open is aborted, its lines
+   * never run.
+   * @param view where to report to.
+   */
+  void endOfInput(ITextView view) {
+    if (batch != null) {
+      endBatch().abortAtEnd(view);
+    }
+  }
+
+  /**
+   * Makes the commands of the session work on the given calendar rather than the one in use,
+   * until it is set back to null.
+   * @param calendar the calendar, or null for the one in use.
+   */
+  void stageOn(ICalendar calendar) {
+    staging = calendar;
+  }
+}
@@ -0,0 +1,199 @@
+package controller;
+
+import model.ICalendarManager;
+import view.ITextView;
+import view.TextView;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Replays a script the way CalendarController does, in three stages on three threads. A reader
+ * thread reads the lines and looks up and parses their commands, the calling thread runs the
+ * commands against the calendars one after the other, in script order, and a writer thread
+ * writes what they print. The stages hand lines and output on in batches through bounded queues,
+ * so reading ahead never holds more than a few batches in memory. The output is the same as
+ * CalendarController's for the same script, line for line.
+ */
+public final class HeadlessPipeline {
+  // how many lines the reader hands on at once, and how many batches may wait in a queue.
+  private static final int BATCH = 512;
+  private static final int DEPTH = 8;
+  private static final ParsedLine[] END_OF_SCRIPT = new ParsedLine[0];
+  private static final String END_OF_OUTPUT = new String();
+
+  private final ICalendarManager mgr;
+  private final ScriptReader script;
+  private final Appendable out;
+
+  private volatile Throwable readFailure;
+  private volatile Throwable writeFailure;
+
+  /**
+   * Creates a pipeline replaying the script.
+   *
+   * @param mgr     the calendar‐of‐calendars
+   * @param script  the script to replay
+   * @param out     where to send output
+   */
+  public HeadlessPipeline(ICalendarManager mgr, ScriptReader script, Appendable out) {
+    this.mgr = mgr;
+    this.script = script;
+    this.out = out;
+  }
+
+  /**
+   * Replays the whole script, and returns once all of its output is written.
+   * @throws IOException if the script can't be read or the output can't be written.
+   * @throws RuntimeException anything else a command throws, after the output of the commands
+   *         before it is written.
+   */
+  public void run() throws IOException {
+    BlockingQueue<ParsedLine[]> lines = new ArrayBlockingQueue<>(DEPTH);
+    BlockingQueue<String> output = new ArrayBlockingQueue<>(DEPTH);
+    Thread reader = new Thread(() -> read(lines), "headless-reader");
+    Thread writer = new Thread(() -> write(output), "headless-writer");
+    reader.setDaemon(true);
+    writer.setDaemon(true);
+    reader.start();
+    writer.start();
+
+    try {
+      execute(lines, output);
+    } finally {
+      // stops the reader if the executor stopped early, it may be waiting for room in the queue.
+      reader.interrupt();
+      finish(output, writer);
+    }
+    // a failed write comes first, the reader may have failed only because it was stopped.
+    rethrow(writeFailure);
+    rethrow(readFailure);
+  }
+
+  // the reader stage: reads and parses lines until the script ends or reading fails.
+  private void read(BlockingQueue<ParsedLine[]> lines) {
+    try {
+      ParsedLine[] batch = new ParsedLine[BATCH];
+      int size = 0;
+      for (CharSequence line = script.nextLine(); line != null; line = script.nextLine()) {
+        batch[size++] = ParsedLine.parse(CalendarController.trimmed(line),
+                CalendarController.COMMANDS);
+        if (size == BATCH) {
+          lines.put(batch);
+          batch = new ParsedLine[BATCH];
+          size = 0;
+        }
+      }
+      if (size > 0) {
+        lines.put(Arrays.copyOf(batch, size));
+      }
+    } catch (InterruptedException e) {
+      return;
+    } catch (IOException | RuntimeException | Error e) {
+      readFailure = e;
+    }
+    try {
+      lines.put(END_OF_SCRIPT);
+    } catch (InterruptedException e) {
+      // the executor has stopped already.
+    }
+  }
+
+  // the executor stage: runs the commands in order, collecting a batch's output at a time.
+  private void execute(BlockingQueue<ParsedLine[]> lines, BlockingQueue<String> output)
+          throws InterruptedIOException {
+    CommandSession session = new CommandSession(mgr);
+    StringBuilder text = new StringBuilder();
+    ITextView view = new TextView(text);
+    try {
+      for (ParsedLine[] batch = lines.take(); batch != END_OF_SCRIPT; batch = lines.take()) {
+        if (writeFailure != null) {
+          // like the controller, stops at the first output which can't be written.
+          return;
+        }
+        try {
+          for (ParsedLine line : batch) {
+            view.clearTextBuffer();
+            line.run(session, view);
+            view.displayTextInBuffer();
+          }
+        } finally {
+          // hands on the output of the lines run so far, even if a command failed.
+          if (text.length() > 0) {
+            output.put(text.toString());
+            text.setLength(0);
+          }
+        }
+      }
+      if (readFailure == null && writeFailure == null) {
+        // like the controller, a batch left open when the script ends is aborted.
+        view.clearTextBuffer();
+        session.endOfInput(view);
+        view.displayTextInBuffer();
+        if (text.length() > 0) {
+          output.put(text.toString());
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while replaying the script");
+    } catch (IOException e) {
+      // a TextView over a StringBuilder never fails to write.
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // the writer stage: writes output until it ends. once writing failed, the rest is dropped, so
+  // the executor never waits for room in the queue.
+  private void write(BlockingQueue<String> output) {
+    try {
+      for (String text = output.take(); text != END_OF_OUTPUT; text = output.take()) {
+        if (writeFailure == null) {
+          try {
+            out.append(text);
+          } catch (IOException | RuntimeException | Error e) {
+            writeFailure = e;
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      // only the pipeline itself interrupts its threads, and only to stop them.
+    }
+  }
+
+  // ends the output and waits for the writer to write all of it.
+  private static void finish(BlockingQueue<String> output, Thread writer) {
+    boolean interrupted = false;
+    boolean ended = false;
+    while (!ended || writer.isAlive()) {
+      try {
+        if (!ended) {
+          output.put(END_OF_OUTPUT);
+          ended = true;
+        }
+        writer.join();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void rethrow(Throwable failure) throws IOException {
+    if (failure instanceof IOException) {
+      throw (IOException) failure;
+    }
+    if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    }
+    if (failure instanceof Error) {
+      throw (Error) failure;
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package controller;
+
+import controller.command.ParsedCommand;
+import view.ITextView;
+
+/**
+ * A command line read ahead of running it: the command it starts with, and that command parsed,
+ * or why it couldn't be. Parsing doesn't depend on what ran before, so lines can be read on
+ * another thread than the one running them, and still run exactly as if read one at a time.
+ */
+final class ParsedLine {
+  private final String line;
+  private final CommandRegistry.Entry<?> entry;
+  private final ParsedCommand command;
+  private final String error;
+
+  private ParsedLine(String line, CommandRegistry.Entry<?> entry, ParsedCommand command,
+          String error) {
+    this.line = line;
+    this.entry = entry;
+    this.command = command;
+    this.error = error;
+  }
+
+  /**
+   * Looks up and parses a command line.
+   * @param line the line, without surrounding whitespace.
+   * @param commands the commands the line may hold.
+   * @return the line, parsed.
+   */
+  static ParsedLine parse(String line, CommandRegistry commands) {
+    CommandRegistry.Entry<?> entry = commands.lookup(line);
+    if (entry == null) {
+      return new ParsedLine(line, null, null, null);
+    }
+    try {
+      return new ParsedLine(line, entry, entry.parse(line), null);
+    } catch (IllegalArgumentException iae) {
+      return new ParsedLine(line, entry, null, iae.getMessage());
+    }
+  }
+
+  /**
+   * Runs the command of the line, reporting anything that goes wrong to the view.
+   * @param session what the command works on.
+   * @param view where the command reports to.
+   */
+  void run(CommandSession session, ITextView view) {
+    CommandBatch batch = session.getBatch();
+    if (batch != null && !(command instanceof ParsedCommand.EndBatch)) {
+      stage(batch, view);
+    } else if ((entry == null || entry.needsCalendar()) && session.getCalendarName() == null) {
+      // only the commands on calendars themselves run before one is picked, as anything else,
+      // unknown lines included, is taken to be meant for a calendar.
+      view.takeMessage("ERROR: no calendar selected. Use \"use calendar --name <name>\"");
+    } else if (entry == null) {
+      view.takeMessage("Unknown command: " + line);
+    } else if (command == null) {
+      // report malformed commands
+      view.takeMessage(error);
+    } else {
+      try {
+        entry.execute(command, session, view);
+      } catch (IllegalArgumentException iae) {
+        // report lookup failures
+        view.takeMessage(iae.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Runs the command of the line, which must have parsed, letting anything it throws through.
+   * @param session what the command works on.
+   * @param view where the command reports to.
+   */
+  void apply(CommandSession session, ITextView view) {
+    entry.execute(command, session, view);
+  }
+
+  // holds the line back until the batch commits, or reports why it can't wait and fails the
+  // batch. only the commands changing the events of the calendar in use can.
+  private void stage(CommandBatch batch, ITextView view) {
+    if (command instanceof ParsedCommand.CreateEvent
+            || command instanceof ParsedCommand.EditEvent) {
+      batch.stage(this);
+      return;
+    }
+    if (entry == null) {
+      view.takeMessage("Unknown command: " + line);
+    } else if (command == null) {
+      view.takeMessage(error);
+    } else {
+      view.takeMessage("Not allowed inside a batch: " + line);
+    }
+    batch.fail();
+  }
+}
@@ -0,0 +1,205 @@
+package controller;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads a UTF-8 script line by line through one large direct buffer. Lines are split on line
+ * feeds and decoded by hand into a reusable character array, which the caller sees through a
+ * CharSequence, so reading a line allocates nothing. Unlike a Scanner there is no pattern
+ * matching, and the file is read in large blocks instead of a few kilobytes at a time.
+ */
+public final class ScriptReader implements Closeable {
+  static final int BUFFER_BYTES = 1 << 20;
+  private static final char REPLACEMENT = '\uFFFD';
+
+  private final ReadableByteChannel channel;
+  private final ByteBuffer buffer;
+  private final Line line;
+
+  /**
+   * Creates a reader over the given channel.
+   * @param channel where to read the script from, closed with this reader.
+   */
+  public ScriptReader(ReadableByteChannel channel) {
+    this(channel, BUFFER_BYTES);
+  }
+
+  /**
+   * Creates a reader with a buffer of the given size.
+   * @param channel where to read the script from, closed with this reader.
+   * @param capacity the size of the buffer in bytes.
+   */
+  ScriptReader(ReadableByteChannel channel, int capacity) {
+    this.channel = channel;
+    this.buffer = ByteBuffer.allocateDirect(Math.max(4, capacity));
+    this.buffer.flip();
+    this.line = new Line(new char[256], 0, 0);
+  }
+
+  /**
+   * Opens the given script file.
+   * @param file the script.
+   * @return a reader positioned at the first line.
+   * @throws IOException if the file can't be opened.
+   */
+  public static ScriptReader open(Path file) throws IOException {
+    return new ScriptReader(FileChannel.open(file, StandardOpenOption.READ));
+  }
+
+  /**
+   * Reads the next line, without its line feed or a carriage return before it. The returned
+   * sequence is only valid until the next call, use toString to keep it.
+   * @return the next line, or null at the end of the script.
+   * @throws IOException if the script can't be read.
+   */
+  public CharSequence nextLine() throws IOException {
+    if (!buffer.hasRemaining() && !fill()) {
+      return null;
+    }
+    char[] chars = line.chars;
+    int length = 0;
+    while (buffer.hasRemaining() || fill()) {
+      int pos = buffer.position();
+      int limit = buffer.limit();
+      while (pos < limit) {
+        byte b = buffer.get(pos++);
+        if (b == '\n') {
+          buffer.position(pos);
+          return line.reset(chars, withoutCarriageReturn(chars, length));
+        }
+        if (length + 2 > chars.length) {
+          chars = Arrays.copyOf(chars, chars.length * 2);
+        }
+        if (b >= 0) {
+          chars[length++] = (char) b;
+        } else {
+          buffer.position(pos);
+          length = decode(b, chars, length);
+          pos = buffer.position();
+          limit = buffer.limit();
+        }
+      }
+      buffer.position(pos);
+    }
+    return line.reset(chars, withoutCarriageReturn(chars, length));
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  // decodes the rest of the sequence started by the given lead byte, returns the new length.
+  private int decode(byte lead, char[] chars, int length) throws IOException {
+    int extra;
+    int codePoint;
+    if ((lead & 0xE0) == 0xC0) {
+      extra = 1;
+      codePoint = lead & 0x1F;
+    } else if ((lead & 0xF0) == 0xE0) {
+      extra = 2;
+      codePoint = lead & 0x0F;
+    } else if ((lead & 0xF8) == 0xF0) {
+      extra = 3;
+      codePoint = lead & 0x07;
+    } else {
+      chars[length] = REPLACEMENT;
+      return length + 1;
+    }
+    for (int i = 0; i < extra; i++) {
+      if (!buffer.hasRemaining() && !fill()) {
+        chars[length] = REPLACEMENT;
+        return length + 1;
+      }
+      byte next = buffer.get(buffer.position());
+      if ((next & 0xC0) != 0x80) {
+        // leaves the byte alone, it starts the next character.
+        chars[length] = REPLACEMENT;
+        return length + 1;
+      }
+      buffer.get();
+      codePoint = (codePoint << 6) | (next & 0x3F);
+    }
+    if (codePoint < 0x10000) {
+      chars[length] = (char) codePoint;
+      return length + 1;
+    }
+    if (codePoint > Character.MAX_CODE_POINT) {
+      chars[length] = REPLACEMENT;
+      return length + 1;
+    }
+    chars[length] = Character.highSurrogate(codePoint);
+    chars[length + 1] = Character.lowSurrogate(codePoint);
+    return length + 2;
+  }
+
+  // refills the buffer once everything in it was read, false at the end of the channel.
+  private boolean fill() throws IOException {
+    buffer.clear();
+    int read;
+    do {
+      read = channel.read(buffer);
+    } while (read == 0);
+    buffer.flip();
+    return read > 0;
+  }
+
+  private static int withoutCarriageReturn(char[] chars, int length) {
+    return length > 0 && chars[length - 1] == '\r' ? length - 1 : length;
+  }
+
+  /**
+   * A view of part of a character array.
+   */
+  private static final class Line implements CharSequence {
+    private char[] chars;
+    private final int offset;
+    private int length;
+
+    private Line(char[] chars, int offset, int length) {
+      this.chars = chars;
+      this.offset = offset;
+      this.length = length;
+    }
+
+    private Line reset(char[] chars, int length) {
+      this.chars = chars;
+      this.length = length;
+      return this;
+    }
+
+    @Override
+    public int length() {
+      return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+      if (index < 0 || index >= length) {
+        throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+      }
+      return chars[offset + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      if (start < 0 || end > length || start > end) {
+        throw new IndexOutOfBoundsException(
+                "start " + start + ", end " + end + ", length " + length);
+      }
+      return new Line(chars, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+      return new String(chars, offset, length);
+    }
+  }
+}
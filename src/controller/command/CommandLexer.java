@@ -0,0 +1,57 @@
+package controller.command;
+
+import java.util.Arrays;
+
+/**
+ * Splits a command line into its words in a single pass. Words are separated by whitespace, and
+ * a word starting with a double quote runs up to the next one, so it may hold spaces of its own.
+ * The quotes themselves are not part of the word.
+ */
+final class CommandLexer {
+  private CommandLexer() {
+  }
+
+  /**
+   * Splits the line into its words.
+   * @param line the command line.
+   * @return the words of the line, in order.
+   * @throws IllegalArgumentException if a quoted word is never closed.
+   */
+  static String[] tokenize(CharSequence line) {
+    String[] tokens = new String[16];
+    int count = 0;
+    int length = line.length();
+    int i = 0;
+    while (true) {
+      while (i < length && Character.isWhitespace(line.charAt(i))) {
+        i++;
+      }
+      if (i == length) {
+        break;
+      }
+      int start = i;
+      int end;
+      if (line.charAt(i) == '"') {
+        start++;
+        end = start;
+        while (end < length && line.charAt(end) != '"') {
+          end++;
+        }
+        if (end == length) {
+          throw new IllegalArgumentException("Unterminated quote in: \"" + line + "\"");
+        }
+        i = end + 1;
+      } else {
+        while (i < length && !Character.isWhitespace(line.charAt(i))) {
+          i++;
+        }
+        end = i;
+      }
+      if (count == tokens.length) {
+        tokens = Arrays.copyOf(tokens, count * 2);
+      }
+      tokens[count++] = line.subSequence(start, end).toString();
+    }
+    return Arrays.copyOf(tokens, count);
+  }
+}
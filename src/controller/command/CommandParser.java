@@ -0,0 +1,553 @@
+package controller.command;
+
+import model.CalendarExporter;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Reads command lines into ParsedCommands. A line is split into words once by the CommandLexer,
+ * and the grammar then walks those words from left to right, so reading a line costs time in
+ * proportion to its length. The words at the start of a line pick the command. The clauses
+ * after them, such as "from DATETIME" or "--name NAME", may come in any order, but each only
+ * once.
+ */
+public final class CommandParser {
+  private static final Set<String> EVENT_PROPERTIES = new HashSet<>(
+          Arrays.asList("subject", "start", "end", "description", "location", "status"));
+  private static final String WEEKDAYS = "MTWRFSU";
+
+  private final CharSequence line;
+  private final String[] tokens;
+  private int next;
+
+  private CommandParser(CharSequence line) {
+    this.line = line;
+    this.tokens = CommandLexer.tokenize(line);
+  }
+
+  /**
+   * Reads a command line.
+   * @param line the line.
+   * @return the command it holds.
+   * @throws IllegalArgumentException if the line is not a command, or one of its values can't be
+   *         read.
+   */
+  public static ParsedCommand parse(CharSequence line) {
+    return new CommandParser(line).command();
+  }
+
+  /**
+   * Reads a command line which must hold a command of the given kind.
+   * @param line the line.
+   * @param kind the kind of command expected.
+   * @param <T> the kind of command expected.
+   * @return the command it holds.
+   * @throws IllegalArgumentException if the line is not a command of that kind, or one of its
+   *         values can't be read.
+   */
+  public static <T extends ParsedCommand> T parse(CharSequence line, Class<T> kind) {
+    ParsedCommand command = parse(line);
+    if (!kind.isInstance(command)) {
+      throw new IllegalArgumentException("Unexpected command: \"" + line + "\"");
+    }
+    return kind.cast(command);
+  }
+
+  // ---------------------------------------------------------------------------------------------
+  // the grammar, one method per command.
+
+  private ParsedCommand command() {
+    switch (word()) {
+      case "create":
+        switch (word()) {
+          case "event":
+            return createEvent();
+          case "calendar":
+            return createCalendar();
+          default:
+            break;
+        }
+        break;
+      case "edit":
+        String what = word();
+        switch (what) {
+          case "event":
+            return editEvent(what, ParsedCommand.EditEvent.Scope.EVENT);
+          case "events":
+            return editEvent(what, ParsedCommand.EditEvent.Scope.EVENTS);
+          case "series":
+            return editEvent(what, ParsedCommand.EditEvent.Scope.SERIES);
+          case "calendar":
+            return editCalendar();
+          default:
+            break;
+        }
+        break;
+      case "print":
+        if (word().equals("events")) {
+          return printEvents();
+        }
+        break;
+      case "show":
+        if (word().equals("status")) {
+          return showStatus();
+        }
+        break;
+      case "copy":
+        switch (word()) {
+          case "event":
+            return copyEvent();
+          case "events":
+            return copyEvents();
+          default:
+            break;
+        }
+        break;
+      case "use":
+        if (word().equals("calendar")) {
+          return useCalendar();
+        }
+        break;
+      case "export":
+        if (word().equals("calendar")) {
+          return exportCalendar();
+        }
+        break;
+      case "import":
+        if (word().equals("calendar")) {
+          return importCalendar();
+        }
+        break;
+      case "begin":
+        if (word().equals("batch")) {
+          return alone(new ParsedCommand.BeginBatch(), "begin batch");
+        }
+        break;
+      case "commit":
+        return alone(new ParsedCommand.EndBatch(true), "commit");
+      case "abort":
+        return alone(new ParsedCommand.EndBatch(false), "abort");
+      default:
+        break;
+    }
+    throw new IllegalArgumentException("Unknown command: " + line);
+  }
+
+  private ParsedCommand createEvent() {
+    String subject = value("event");
+    LocalDateTime from = null;
+    LocalDateTime to = null;
+    LocalDate on = null;
+    String days = null;
+    Integer count = null;
+    LocalDate until = null;
+    while (more()) {
+      String keyword = word();
+      switch (keyword) {
+        case "from":
+          from = once(from, dateTime(value(keyword)), keyword);
+          break;
+        case "to":
+          to = once(to, dateTime(value(keyword)), keyword);
+          break;
+        case "on":
+          on = once(on, date(value(keyword)), keyword);
+          break;
+        case "repeats":
+          days = once(days, weekdays(value(keyword)), keyword);
+          break;
+        case "for":
+          count = once(count, count(value(keyword)), keyword);
+          expect("times", "create");
+          break;
+        case "until":
+          until = once(until, date(value(keyword)), keyword);
+          break;
+        default:
+          throw malformed("create");
+      }
+    }
+    boolean timed = from != null && to != null && on == null;
+    boolean allDay = on != null && from == null && to == null;
+    if (!(timed || allDay)
+            || (days == null) != (count == null && until == null)
+            || (count != null && until != null)) {
+      throw malformed("create");
+    }
+    if (timed) {
+      if (days == null) {
+        return new ParsedCommand.CreateTimedEvent(subject, from, to);
+      }
+      return count != null
+              ? new ParsedCommand.CreateTimedSeries(subject, from, to, days, count)
+              : new ParsedCommand.CreateTimedSeriesUntil(subject, from, to, days, until);
+    }
+    if (days == null) {
+      return new ParsedCommand.CreateAllDayEvent(subject, on);
+    }
+    return count != null
+            ? new ParsedCommand.CreateAllDaySeries(subject, on, days, count)
+            : new ParsedCommand.CreateAllDaySeriesUntil(subject, on, days, until);
+  }
+
+  private ParsedCommand editEvent(String what, ParsedCommand.EditEvent.Scope scope) {
+    String property = value(what);
+    String subject = value(property);
+    LocalDateTime from = null;
+    LocalDateTime to = null;
+    String newValue = null;
+    while (more()) {
+      String keyword = word();
+      switch (keyword) {
+        case "from":
+          from = once(from, dateTime(value(keyword)), keyword);
+          break;
+        case "to":
+          to = once(to, dateTime(value(keyword)), keyword);
+          break;
+        case "with":
+          newValue = once(newValue, value(keyword), keyword);
+          break;
+        default:
+          throw malformed("edit");
+      }
+    }
+    if (from == null || newValue == null
+            || (to == null) == (scope == ParsedCommand.EditEvent.Scope.EVENT)) {
+      throw malformed("edit");
+    }
+    if (!EVENT_PROPERTIES.contains(property)) {
+      throw new IllegalArgumentException("Invalid property: \"" + property + "\"");
+    }
+    return new ParsedCommand.EditEvent(scope, property, subject, from, to, newValue);
+  }
+
+  private ParsedCommand printEvents() {
+    LocalDate on = null;
+    LocalDateTime from = null;
+    LocalDateTime to = null;
+    while (more()) {
+      String keyword = word();
+      switch (keyword) {
+        case "on":
+          on = once(on, date(value(keyword)), keyword);
+          break;
+        case "from":
+          from = once(from, dateTime(value(keyword)), keyword);
+          break;
+        case "to":
+          to = once(to, dateTime(value(keyword)), keyword);
+          break;
+        default:
+          throw malformed("print");
+      }
+    }
+    if (on != null && from == null && to == null) {
+      return new ParsedCommand.PrintEvents(on, on);
+    }
+    if (on == null && from != null && to != null) {
+      return new ParsedCommand.PrintEvents(from.toLocalDate(), to.toLocalDate());
+    }
+    throw malformed("print");
+  }
+
+  private ParsedCommand showStatus() {
+    expect("on", "show");
+    LocalDateTime at = dateTime(value("on"));
+    if (more()) {
+      throw malformed("show");
+    }
+    return new ParsedCommand.ShowStatus(at);
+  }
+
+  private ParsedCommand copyEvent() {
+    String subject = value("event");
+    LocalDateTime at = null;
+    String target = null;
+    LocalDateTime to = null;
+    while (more()) {
+      String keyword = word();
+      switch (keyword) {
+        case "on":
+          at = once(at, dateTime(value(keyword)), keyword);
+          break;
+        case "--target":
+          target = once(target, value(keyword), keyword);
+          break;
+        case "to":
+          to = once(to, dateTime(value(keyword)), keyword);
+          break;
+        default:
+          throw malformed("copy");
+      }
+    }
+    if (at == null || target == null || to == null) {
+      throw malformed("copy");
+    }
+    return new ParsedCommand.CopyEvent(subject, at, target, to);
+  }
+
+  private ParsedCommand copyEvents() {
+    String form = word();
+    if (!form.equals("on") && !form.equals("between")) {
+      throw malformed("copy");
+    }
+    LocalDate start = date(value(form));
+    LocalDate end = null;
+    String target = null;
+    LocalDate to = null;
+    while (more()) {
+      String keyword = word();
+      switch (keyword) {
+        case "and":
+          end = once(end, date(value(keyword)), keyword);
+          break;
+        case "--target":
+          target = once(target, value(keyword), keyword);
+          break;
+        case "to":
+          to = once(to, date(value(keyword)), keyword);
+          break;
+        default:
+          throw malformed("copy");
+      }
+    }
+    if (target == null || to == null || (end == null) == form.equals("between")) {
+      throw malformed("copy");
+    }
+    return end == null
+            ? new ParsedCommand.CopyEventsOn(start, target, to)
+            : new ParsedCommand.CopyEventsBetween(start, end, target, to);
+  }
+
+  private ParsedCommand createCalendar() {
+    String name = null;
+    String zone = null;
+    while (more()) {
+      String keyword = word();
+      switch (keyword) {
+        case "--name":
+          name = once(name, value(keyword), keyword);
+          break;
+        case "--timezone":
+          zone = once(zone, value(keyword), keyword);
+          break;
+        default:
+          throw malformed("create calendar");
+      }
+    }
+    if (name == null || zone == null) {
+      throw malformed("create calendar");
+    }
+    return new ParsedCommand.CreateCalendar(name, zone(zone));
+  }
+
+  private ParsedCommand editCalendar() {
+    String name = null;
+    String property = null;
+    String newValue = null;
+    while (more()) {
+      String keyword = word();
+      switch (keyword) {
+        case "--name":
+          name = once(name, value(keyword), keyword);
+          break;
+        case "--property":
+          property = once(property, value(keyword), keyword);
+          newValue = value(property);
+          break;
+        default:
+          throw malformed("edit calendar");
+      }
+    }
+    if (name == null || property == null) {
+      throw malformed("edit calendar");
+    }
+    return new ParsedCommand.EditCalendar(name, property, newValue);
+  }
+
+  private ParsedCommand useCalendar() {
+    expect("--name", "use calendar");
+    String name = value("--name");
+    if (more()) {
+      throw malformed("use calendar");
+    }
+    return new ParsedCommand.UseCalendar(name);
+  }
+
+  // a command of its leading words alone, which takes no clauses.
+  private ParsedCommand alone(ParsedCommand command, String name) {
+    if (more()) {
+      throw malformed(name);
+    }
+    return command;
+  }
+
+  private ParsedCommand exportCalendar() {
+    String name = null;
+    String format = null;
+    LocalDate from = null;
+    LocalDate to = null;
+    String file = null;
+    while (more()) {
+      String keyword = word();
+      switch (keyword) {
+        case "--name":
+          name = once(name, value(keyword), keyword);
+          break;
+        case "--format":
+          format = once(format, value(keyword), keyword);
+          break;
+        case "--from":
+          from = once(from, dayOf(value(keyword)), keyword);
+          break;
+        case "--to":
+          to = once(to, dayOf(value(keyword)), keyword);
+          break;
+        case "--file":
+          file = once(file, value(keyword), keyword);
+          break;
+        default:
+          throw malformed("export calendar");
+      }
+    }
+    if (name == null || format == null || from == null || to == null || file == null) {
+      throw malformed("export calendar");
+    }
+    return new ParsedCommand.ExportCalendar(name, format(format), from, to, file);
+  }
+
+  private ParsedCommand importCalendar() {
+    String name = null;
+    String file = null;
+    while (more()) {
+      String keyword = word();
+      switch (keyword) {
+        case "--name":
+          name = once(name, value(keyword), keyword);
+          break;
+        case "--file":
+          file = once(file, value(keyword), keyword);
+          break;
+        default:
+          throw malformed("import calendar");
+      }
+    }
+    if (name == null || file == null) {
+      throw malformed("import calendar");
+    }
+    return new ParsedCommand.ImportCalendar(name, file);
+  }
+
+  // ---------------------------------------------------------------------------------------------
+  // walking the words.
+
+  // whether any words are left.
+  private boolean more() {
+    return next < tokens.length;
+  }
+
+  // the next word, or an empty string once there are none left.
+  private String word() {
+    return next < tokens.length ? tokens[next++] : "";
+  }
+
+  // the word after the keyword just read, which must be there.
+  private String value(String keyword) {
+    if (next == tokens.length) {
+      throw new IllegalArgumentException(
+              String.format("No word found after \"%s\" in: \"%s\"", keyword, line));
+    }
+    return tokens[next++];
+  }
+
+  // reads the given word, which must come next.
+  private void expect(String expected, String command) {
+    if (!word().equals(expected)) {
+      throw malformed(command);
+    }
+  }
+
+  // the value of a clause, which must not have been given before.
+  private <T> T once(T current, T value, String keyword) {
+    if (current != null) {
+      throw new IllegalArgumentException(
+              String.format("\"%s\" is given twice in: \"%s\"", keyword, line));
+    }
+    return value;
+  }
+
+  private IllegalArgumentException malformed(String command) {
+    return new IllegalArgumentException("Malformed " + command + " command: \"" + line + "\"");
+  }
+
+  // ---------------------------------------------------------------------------------------------
+  // reading values.
+
+  private static LocalDateTime dateTime(String text) {
+    try {
+      return LocalDateTime.parse(text);
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("Invalid date and time: " + text);
+    }
+  }
+
+  private static LocalDate date(String text) {
+    try {
+      return LocalDate.parse(text);
+    } catch (DateTimeParseException e) {
+      throw new IllegalArgumentException("Invalid date: " + text);
+    }
+  }
+
+  // accepts a date, or a date and time of which only the date is used.
+  private static LocalDate dayOf(String text) {
+    return text.indexOf('T') >= 0 ? dateTime(text).toLocalDate() : date(text);
+  }
+
+  private static String weekdays(String text) {
+    if (text.isEmpty()) {
+      throw new IllegalArgumentException("Invalid weekdays: " + text);
+    }
+    for (int i = 0; i < text.length(); i++) {
+      if (WEEKDAYS.indexOf(text.charAt(i)) < 0) {
+        throw new IllegalArgumentException("Invalid weekdays: " + text);
+      }
+    }
+    return text;
+  }
+
+  private static int count(String text) {
+    try {
+      return Integer.parseInt(text);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid repeat count: " + text);
+    }
+  }
+
+  private static ZoneId zone(String text) {
+    try {
+      return ZoneId.of(text);
+    } catch (DateTimeException e) {
+      throw new IllegalArgumentException("Invalid timezone: " + text);
+    }
+  }
+
+  private static CalendarExporter.Format format(String text) {
+    switch (text.toLowerCase()) {
+      case "ics":
+        return CalendarExporter.Format.ICS;
+      case "csv":
+        return CalendarExporter.Format.CSV;
+      default:
+        throw new IllegalArgumentException("Invalid format: " + text);
+    }
+  }
+}
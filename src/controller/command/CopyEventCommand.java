@@ -14,7 +14,7 @@ import java.util.List;
  * Command for copying one event.
  */
 public class CopyEventCommand implements Command {
-  private final String cmd;
+  private final ParsedCommand.CopyEvent copy;
   private final ICalendarManager mgr;
 
   /**
@@ -23,22 +23,42 @@ public class CopyEventCommand implements Command {
    * @param cmd        test command
    * @param mgr        manager
    * @param srcCalName the calendar to operate from
+   * @throws IllegalArgumentException if the string is not a copy event command.
    */
   public CopyEventCommand(String cmd, ICalendarManager mgr, String srcCalName) {
-    this.cmd = cmd.trim();
+    this(CommandParser.parse(cmd, ParsedCommand.CopyEvent.class), mgr);
+  }
+
+  /**
+   * Makes object for a command already parsed.
+   *
+   * @param copy the parsed command
+   * @param mgr  manager
+   */
+  public CopyEventCommand(ParsedCommand.CopyEvent copy, ICalendarManager mgr) {
+    this.copy = copy;
     this.mgr = mgr;
   }
 
   @Override
   public void execute(ICalendar srcCal, ITextView view) {
-    // parse out pieces
-    String subject = Command.getWordAfter("copy event", cmd);
-    String onStr = Command.getWordAfter("on", cmd);
-    String target = Command.getWordAfter("--target", cmd);
-    String toStr = Command.getWordAfter("to", cmd);
+    run(copy, mgr, srcCal, view);
+  }
 
-    LocalDateTime origDT = LocalDateTime.parse(onStr);
-    LocalDateTime newStartDT = LocalDateTime.parse(toStr);
+  /**
+   * Runs a parsed copy event command without creating a command object for it.
+   *
+   * @param copy the parsed command.
+   * @param mgr the manager holding the target calendar.
+   * @param srcCal the calendar to copy from.
+   * @param view where to report to.
+   */
+  public static void run(ParsedCommand.CopyEvent copy, ICalendarManager mgr,
+          ICalendar srcCal, ITextView view) {
+    String subject = copy.getSubject();
+    String target = copy.getTarget();
+    LocalDateTime origDT = copy.getAt();
+    LocalDateTime newStartDT = copy.getTo();
 
     // 1) find the matching event in the source calendar
     List<IEvent> candidates = srcCal.getScheduleInRange(
@@ -66,26 +86,10 @@ public class CopyEventCommand implements Command {
 
     // 3) build the new event in the target calendar
     LocalDateTime newEndDT = newStartDT.plusMinutes(minutes);
-    Event.EventBuilder b = Event.getBuilder()
-            .subject(toCopy.getSubject())
-            // optional fields
-            .description(toCopy.getDescription())
-            .location(toCopy.getLocation())
-            .status(toCopy.getStatus())
-            // start at newStartDT
-            .startDate(newStartDT.getDayOfMonth(),
-                    newStartDT.getMonthValue(),
-                    newStartDT.getYear())
-            .startTime(newStartDT.getHour(),
-                    newStartDT.getMinute())
-            // end at newEndDT
-            .endDate(newEndDT.getDayOfMonth(),
-                    newEndDT.getMonthValue(),
-                    newEndDT.getYear())
-            .endTime(newEndDT.getHour(),
-                    newEndDT.getMinute());
-
-    IEvent copied = b.buildEvent();
+    IEvent copied = Event.of(toCopy.getSubject(), toCopy.getLocation(), toCopy.getStatus(),
+            newStartDT.toLocalDate(), newStartDT.toLocalTime(),
+            newEndDT.toLocalDate(), newEndDT.toLocalTime(),
+            toCopy.getDescription());
 
     // 4) perform the copy
     ICalendar dstCal = mgr.getCalendar(target);
@@ -4,13 +4,11 @@ import model.ICalendar;
 import model.ICalendarManager;
 import view.ITextView;
 
-import java.time.LocalDate;
-
 /**
  * Copy events between dates.
  */
 public class CopyEventsBetweenCommand implements Command {
-  private final String cmd;
+  private final ParsedCommand.CopyEventsBetween copy;
   private final ICalendarManager mgr;
   private final String currentCalendar;
 
@@ -20,31 +18,51 @@ public class CopyEventsBetweenCommand implements Command {
    * @param cmd             string command
    * @param mgr             manager
    * @param currentCalendar to be operated on
+   * @throws IllegalArgumentException if the string is not a copy events between command.
    */
   public CopyEventsBetweenCommand(String cmd,
                                   ICalendarManager mgr,
                                   String currentCalendar) {
-    this.cmd = cmd.trim();
+    this(CommandParser.parse(cmd, ParsedCommand.CopyEventsBetween.class), mgr, currentCalendar);
+  }
+
+  /**
+   * Constructor from a command already parsed.
+   *
+   * @param copy            the parsed command
+   * @param mgr             manager
+   * @param currentCalendar to be operated on
+   */
+  public CopyEventsBetweenCommand(ParsedCommand.CopyEventsBetween copy,
+                                  ICalendarManager mgr,
+                                  String currentCalendar) {
+    this.copy = copy;
     this.mgr = mgr;
     this.currentCalendar = currentCalendar;
   }
 
   @Override
   public void execute(ICalendar srcCal, ITextView view) {
-    String startStr = Command.getWordAfter("between", cmd);
-    String endStr = Command.getWordAfter("and", cmd);
-    String target = Command.getWordAfter("--target", cmd);
-    String toDate = Command.getWordAfter("to", cmd);
+    run(copy, mgr, currentCalendar, srcCal, view);
+  }
 
+  /**
+   * Runs a parsed copy events between command without creating a command object for it.
+   *
+   * @param copy the parsed command.
+   * @param mgr the manager holding the target calendar.
+   * @param currentCalendar the name of the calendar copied from.
+   * @param srcCal the calendar to copy from.
+   * @param view where to report to.
+   */
+  public static void run(ParsedCommand.CopyEventsBetween copy, ICalendarManager mgr,
+          String currentCalendar, ICalendar srcCal, ITextView view) {
+    String target = copy.getTarget();
     ICalendar dstCal = mgr.getCalendar(target);
 
-    LocalDate dStart = LocalDate.parse(startStr);
-    LocalDate dEnd = LocalDate.parse(endStr);
-    LocalDate atStart = LocalDate.parse(toDate);
-
-    dstCal.copyEventsAndShift(dStart, dEnd, srcCal, atStart);
+    dstCal.copyEventsAndShift(copy.getStart(), copy.getEnd(), srcCal, copy.getTo());
 
     view.takeMessage(String.format("Copied events %s --> %s from %s to %s starting %s",
-            startStr, endStr, currentCalendar, target, toDate));
+            copy.getStart(), copy.getEnd(), currentCalendar, target, copy.getTo()));
   }
 }
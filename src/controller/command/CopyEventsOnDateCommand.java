@@ -4,14 +4,11 @@ import model.ICalendar;
 import model.ICalendarManager;
 import view.ITextView;
 
-import java.time.LocalDate;
-
-
 /**
  * Copy events on a given date to calendar.
  */
 public class CopyEventsOnDateCommand implements Command {
-  private final String cmd;
+  private final ParsedCommand.CopyEventsOn copy;
   private final ICalendarManager mgr;
 
   /**
@@ -20,29 +17,47 @@ public class CopyEventsOnDateCommand implements Command {
    * @param cmd             string
    * @param mgr             manager
    * @param currentCalendar to be operated on
+   * @throws IllegalArgumentException if the string is not a copy events on command.
    */
   public CopyEventsOnDateCommand(String cmd,
                                  ICalendarManager mgr,
                                  String currentCalendar) {
-    this.cmd = cmd.trim();
+    this(CommandParser.parse(cmd, ParsedCommand.CopyEventsOn.class), mgr);
+  }
+
+  /**
+   * Copies events on given date, from a command already parsed.
+   *
+   * @param copy the parsed command
+   * @param mgr  manager
+   */
+  public CopyEventsOnDateCommand(ParsedCommand.CopyEventsOn copy, ICalendarManager mgr) {
+    this.copy = copy;
     this.mgr = mgr;
   }
 
   @Override
   public void execute(ICalendar srcCal, ITextView view) {
-    String dateStr = Command.getWordAfter("copy events on", cmd);
-    String target = Command.getWordAfter("--target", cmd);
-    String toDate = Command.getWordAfter("to", cmd);
+    run(copy, mgr, srcCal, view);
+  }
 
+  /**
+   * Runs a parsed copy events on command without creating a command object for it.
+   *
+   * @param copy the parsed command.
+   * @param mgr the manager holding the target calendar.
+   * @param srcCal the calendar to copy from.
+   * @param view where to report to.
+   */
+  public static void run(ParsedCommand.CopyEventsOn copy, ICalendarManager mgr,
+          ICalendar srcCal, ITextView view) {
+    String target = copy.getTarget();
     ICalendar dstCal = mgr.getCalendar(target);
 
-    LocalDate dSource = LocalDate.parse(dateStr);
-    LocalDate dTarget = LocalDate.parse(toDate);
-
     // this will shift each event by the difference in days
-    dstCal.copyEventsAndShift(dSource, dSource, srcCal, dTarget);
+    dstCal.copyEventsAndShift(copy.getDate(), copy.getDate(), srcCal, copy.getTo());
 
     view.takeMessage(String.format("Copied all events on %s to %s starting %s",
-            dateStr, target, toDate));
+            copy.getDate(), target, copy.getTo()));
   }
 }
@@ -1,6 +1,5 @@
 package controller.command;
 
-import java.time.DateTimeException;
 import java.time.ZoneId;
 
 import model.Calendar;
@@ -12,15 +11,26 @@ import view.ITextView;
  * Create a new calendar.
  */
 public class CreateCalendarCommand implements ManagerCommand {
-  private final String cmd;
+  private final ParsedCommand.CreateCalendar create;
 
   /**
    * Constrcuts the command.
    *
    * @param cmd string
+   * @throws IllegalArgumentException if the string is not a create calendar command, or its
+   *         time zone is not known.
    */
   public CreateCalendarCommand(String cmd) {
-    this.cmd = cmd;
+    this(CommandParser.parse(cmd, ParsedCommand.CreateCalendar.class));
+  }
+
+  /**
+   * Constructs the command from a command already parsed.
+   *
+   * @param create the parsed command
+   */
+  public CreateCalendarCommand(ParsedCommand.CreateCalendar create) {
+    this.create = create;
   }
 
   /**
@@ -30,17 +40,21 @@ public class CreateCalendarCommand implements ManagerCommand {
    * @param view view to be seen
    */
   public void execute(ICalendarManager mgr, ITextView view) {
-    // parse: --name NAME --timezone ZONE
-    String name = Command.getWordAfter("--name", cmd);
-    String tz = Command.getWordAfter("--timezone", cmd);
-    // validate ZoneId.of(tz)
-    ZoneId zid;
-    try {
-      zid = ZoneId.of(tz);
-    } catch (DateTimeException e) {
-      throw new IllegalArgumentException("Invalid timezone: " + tz);
-    }
+    run(create, mgr, view);
+  }
+
+  /**
+   * Runs a parsed create calendar command without creating a command object for it.
+   *
+   * @param create the parsed command.
+   * @param mgr the manager to add the calendar to.
+   * @param view where to report to.
+   */
+  public static void run(ParsedCommand.CreateCalendar create,
+          ICalendarManager mgr, ITextView view) {
+    String name = create.getName();
+    ZoneId zid = create.getZone();
     mgr.addCalendar(name, new Calendar(zid));
-    view.takeMessage("Created calendar \"" + name + "\" in timezone " + tz);
+    view.takeMessage("Created calendar \"" + name + "\" in timezone " + zid.getId());
   }
 }
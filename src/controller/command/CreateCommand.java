@@ -9,40 +9,56 @@ import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Creates an event within calendar.
  */
 public class CreateCommand implements Command {
-  private final String cmd;
+  private static final LocalTime ALL_DAY_START = LocalTime.of(8, 0);
+  private static final LocalTime ALL_DAY_END = LocalTime.of(17, 0);
+  private final ParsedCommand.CreateEvent create;
 
   /**
    * Creates an event.
    *
    * @param command string
+   * @throws IllegalArgumentException if the string is not a create event command.
    */
   public CreateCommand(String command) {
-    this.cmd = command.trim();
+    this(CommandParser.parse(command, ParsedCommand.CreateEvent.class));
+  }
+
+  /**
+   * Creates an event from a command already parsed.
+   *
+   * @param create the parsed command, any of the forms of create event.
+   */
+  public CreateCommand(ParsedCommand.CreateEvent create) {
+    this.create = create;
   }
 
   @Override
   public void execute(ICalendar model, ITextView view) {
-    if (!cmd.startsWith("create event ")) {
-      throw new IllegalArgumentException("Expected 'create event ...' but got: \"" + cmd + "\"");
-    }
-
-    // ─── Case 1: single timed event ───────────────────────────────────
-    if (cmd.contains(" from ")
-            && cmd.contains(" to ")
-            && !cmd.contains(" on ")
-            && !cmd.contains(" repeats ")) {
+    run(create, model, view);
+  }
 
-      String subject = Command.getWordAfter("event", cmd);
-      String fromS = Command.getWordAfter("from", cmd);
-      String toS = Command.getWordAfter("to", cmd);
+  /**
+   * Runs a parsed create event without creating a command object for it.
+   *
+   * @param create the parsed command.
+   * @param model the calendar to create the event in.
+   * @param view where to report to.
+   */
+  public static void run(ParsedCommand.CreateEvent create, ICalendar model, ITextView view) {
+    String subject = create.getSubject();
 
-      LocalDateTime fromDT = LocalDateTime.parse(fromS);
-      LocalDateTime toDT = LocalDateTime.parse(toS);
+    // ─── Case 1: single timed event ───────────────────────────────────
+    if (create instanceof ParsedCommand.CreateTimedEvent) {
+      ParsedCommand.CreateTimedEvent c = (ParsedCommand.CreateTimedEvent) create;
+      LocalDateTime fromDT = c.getFrom();
+      LocalDateTime toDT = c.getTo();
 
       IEvent e = Event.getBuilder()
               .subject(subject)
@@ -57,91 +73,26 @@ public class CreateCommand implements Command {
     }
 
     // ─── Case 2: timed series for N times ─────────────────────────────
-    if (cmd.contains(" from ")
-            && cmd.contains(" to ")
-            && cmd.contains(" repeats ")
-            && cmd.contains(" for ")
-            && cmd.contains(" times")) {
-
-      String subject = Command.getWordAfter("event", cmd);
-      String fromS = Command.getWordAfter("from", cmd);
-      String toS = Command.getWordAfter("to", cmd);
-      String days = Command.getWordAfter("repeats", cmd);
-      String countS = Command.getWordAfter("for", cmd);
-
-      int count;
-      try {
-        count = Integer.parseInt(countS);
-      } catch (NumberFormatException ex) {
-        throw new IllegalArgumentException("Invalid repeat count: " + countS);
-      }
-
-      LocalDateTime fromDT = LocalDateTime.parse(fromS);
-      LocalTime startT = fromDT.toLocalTime();
-      LocalTime endT = LocalDateTime.parse(toS).toLocalTime();
-      LocalDate cursor = fromDT.toLocalDate();
-
-      int created = 0;
-      while (created < count) {
-        DayOfWeek dow = cursor.getDayOfWeek();
-        if (days.indexOf(firstCharOf(dow)) >= 0) {
-          IEvent e = Event.getBuilder()
-                  .subject(subject)
-                  .startDate(cursor.getDayOfMonth(), cursor.getMonthValue(), cursor.getYear())
-                  .startTime(startT.getHour(), startT.getMinute())
-                  .endDate(cursor.getDayOfMonth(), cursor.getMonthValue(), cursor.getYear())
-                  .endTime(endT.getHour(), endT.getMinute())
-                  .buildEvent();
-          model.addEvent(e);
-          created++;
-        }
-        cursor = cursor.plusDays(1);
-      }
+    if (create instanceof ParsedCommand.CreateTimedSeries) {
+      ParsedCommand.CreateTimedSeries c = (ParsedCommand.CreateTimedSeries) create;
+      model.addEvents(occurrences(subject, c.getFrom().toLocalDate(),
+              c.getFrom().toLocalTime(), c.getTo().toLocalTime(), c.getDays(),
+              c.getCount(), LocalDate.MAX));
       return;
     }
 
     // ─── Case 3: timed series until <date> ────────────────────────────
-    if (cmd.contains(" from ")
-            && cmd.contains(" to ")
-            && cmd.contains(" repeats ")
-            && cmd.contains(" until ")) {
-
-      String subject = Command.getWordAfter("event", cmd);
-      String fromS = Command.getWordAfter("from", cmd);
-      String toS = Command.getWordAfter("to", cmd);
-      String days = Command.getWordAfter("repeats", cmd);
-      String untilS = Command.getWordAfter("until", cmd);
-
-      LocalDateTime fromDT = LocalDateTime.parse(fromS);
-      LocalTime startT = fromDT.toLocalTime();
-      LocalTime endT = LocalDateTime.parse(toS).toLocalTime();
-      LocalDate cursor = fromDT.toLocalDate();
-      LocalDate endDate = LocalDate.parse(untilS);
-
-      while (!cursor.isAfter(endDate)) {
-        DayOfWeek dow = cursor.getDayOfWeek();
-        if (days.indexOf(firstCharOf(dow)) >= 0) {
-          IEvent e = Event.getBuilder()
-                  .subject(subject)
-                  .startDate(cursor.getDayOfMonth(), cursor.getMonthValue(), cursor.getYear())
-                  .startTime(startT.getHour(), startT.getMinute())
-                  .endDate(cursor.getDayOfMonth(), cursor.getMonthValue(), cursor.getYear())
-                  .endTime(endT.getHour(), endT.getMinute())
-                  .buildEvent();
-          model.addEvent(e);
-        }
-        cursor = cursor.plusDays(1);
-      }
+    if (create instanceof ParsedCommand.CreateTimedSeriesUntil) {
+      ParsedCommand.CreateTimedSeriesUntil c = (ParsedCommand.CreateTimedSeriesUntil) create;
+      model.addEvents(occurrences(subject, c.getFrom().toLocalDate(),
+              c.getFrom().toLocalTime(), c.getTo().toLocalTime(), c.getDays(),
+              Integer.MAX_VALUE, c.getUntil()));
       return;
     }
 
     // ─── Case 4: single all‐day event ────────────────────────────────
-    if (cmd.contains(" on ")
-            && !cmd.contains(" repeats ")) {
-
-      String subject = Command.getWordAfter("event", cmd);
-      String onS = Command.getWordAfter("on", cmd);
-      LocalDate d = LocalDate.parse(onS);
+    if (create instanceof ParsedCommand.CreateAllDayEvent) {
+      LocalDate d = ((ParsedCommand.CreateAllDayEvent) create).getOn();
 
       IEvent e = Event.getBuilder()
               .subject(subject)
@@ -156,73 +107,33 @@ public class CreateCommand implements Command {
     }
 
     // ─── Case 5: all‐day series for N times ───────────────────────────
-    if (cmd.contains(" on ")
-            && cmd.contains(" repeats ")
-            && cmd.contains(" for ")
-            && cmd.contains(" times")) {
-
-      String subject = Command.getWordAfter("event", cmd);
-      String onS = Command.getWordAfter("on", cmd);
-      String days = Command.getWordAfter("repeats", cmd);
-      String countS = Command.getWordAfter("for", cmd);
-
-      int count;
-      try {
-        count = Integer.parseInt(countS);
-      } catch (NumberFormatException ex) {
-        throw new IllegalArgumentException("Invalid repeat count: " + countS);
-      }
-
-      LocalDate cursor = LocalDate.parse(onS);
-      int created = 0;
-      while (created < count) {
-        DayOfWeek dow = cursor.getDayOfWeek();
-        if (days.indexOf(firstCharOf(dow)) >= 0) {
-          IEvent e = Event.getBuilder()
-                  .subject(subject)
-                  .startDate(cursor.getDayOfMonth(), cursor.getMonthValue(), cursor.getYear())
-                  .startTime(8, 0)
-                  .endDate(cursor.getDayOfMonth(), cursor.getMonthValue(), cursor.getYear())
-                  .endTime(17, 0)
-                  .buildEvent();
-          model.addEvent(e);
-          created++;
-        }
-        cursor = cursor.plusDays(1);
-      }
+    if (create instanceof ParsedCommand.CreateAllDaySeries) {
+      ParsedCommand.CreateAllDaySeries c = (ParsedCommand.CreateAllDaySeries) create;
+      model.addEvents(occurrences(subject, c.getOn(), ALL_DAY_START, ALL_DAY_END, c.getDays(),
+              c.getCount(), LocalDate.MAX));
       return;
     }
 
     // ─── Case 6: all‐day series until <date> ──────────────────────────
-    if (cmd.contains(" on ")
-            && cmd.contains(" repeats ")
-            && cmd.contains(" until ")) {
-
-      String subject = Command.getWordAfter("event", cmd);
-      String onS = Command.getWordAfter("on", cmd);
-      String days = Command.getWordAfter("repeats", cmd);
-      String untilS = Command.getWordAfter("until", cmd);
-
-      LocalDate cursor = LocalDate.parse(onS);
-      LocalDate end = LocalDate.parse(untilS);
-      while (!cursor.isAfter(end)) {
-        DayOfWeek dow = cursor.getDayOfWeek();
-        if (days.indexOf(firstCharOf(dow)) >= 0) {
-          IEvent e = Event.getBuilder()
-                  .subject(subject)
-                  .startDate(cursor.getDayOfMonth(), cursor.getMonthValue(), cursor.getYear())
-                  .startTime(8, 0)
-                  .endDate(cursor.getDayOfMonth(), cursor.getMonthValue(), cursor.getYear())
-                  .endTime(17, 0)
-                  .buildEvent();
-          model.addEvent(e);
-        }
-        cursor = cursor.plusDays(1);
+    ParsedCommand.CreateAllDaySeriesUntil c = (ParsedCommand.CreateAllDaySeriesUntil) create;
+    model.addEvents(occurrences(subject, c.getOn(), ALL_DAY_START, ALL_DAY_END, c.getDays(),
+            Integer.MAX_VALUE, c.getUntil()));
+  }
+
+  // the events on the given days from the first day on, until there are count of them or the
+  // next one would fall after the last day.
+  private static List<IEvent> occurrences(String subject, LocalDate first, LocalTime startT,
+          LocalTime endT, String days, int count, LocalDate last) {
+    LocalDate cursor = first;
+    List<IEvent> occurrences = new ArrayList<>();
+    while (occurrences.size() < count && !cursor.isAfter(last)) {
+      DayOfWeek dow = cursor.getDayOfWeek();
+      if (days.indexOf(firstCharOf(dow)) >= 0) {
+        occurrences.add(Event.of(subject, null, null, cursor, startT, cursor, endT, null));
       }
-      return;
+      cursor = cursor.plusDays(1);
     }
-
-    throw new IllegalArgumentException("Malformed create command: \"" + cmd + "\"");
+    return occurrences;
   }
 
   private static char firstCharOf(DayOfWeek d) {
@@ -11,29 +11,43 @@ import java.time.ZoneId;
  * Command to edit an existing calendar's name or timezone.
  */
 public class EditCalendarCommand implements ManagerCommand {
-  private final String cmd;
+  private final ParsedCommand.EditCalendar edit;
 
   /**
    * Constructs the command used to edit calendars.
    *
    * @param cmd string
+   * @throws IllegalArgumentException if the string is not an edit calendar command.
    */
   public EditCalendarCommand(String cmd) {
-    this.cmd = cmd.trim();
+    this(CommandParser.parse(cmd, ParsedCommand.EditCalendar.class));
+  }
+
+  /**
+   * Constructs the command from a command already parsed.
+   *
+   * @param edit the parsed command
+   */
+  public EditCalendarCommand(ParsedCommand.EditCalendar edit) {
+    this.edit = edit;
   }
 
   @Override
   public void execute(ICalendarManager mgr, ITextView view) {
-    // 1) extract the calendar we're talking about
-    String oldName = Command.getWordAfter("--name", cmd);
-
-    // 2) extract which property
-    String property = Command.getWordAfter("--property", cmd);
+    run(edit, mgr, view);
+  }
 
-    // 3) now grab the new value _after_ the "--property <property>" flag,
-    //    so we don't accidentally pick up the wrong token if property="name"
-    String flag = "--property " + property;
-    String newValue = Command.getWordAfter(flag, cmd);
+  /**
+   * Runs a parsed edit calendar command without creating a command object for it.
+   *
+   * @param edit the parsed command.
+   * @param mgr the manager holding the calendar.
+   * @param view where to report to.
+   */
+  public static void run(ParsedCommand.EditCalendar edit, ICalendarManager mgr, ITextView view) {
+    String oldName = edit.getName();
+    String property = edit.getProperty();
+    String newValue = edit.getValue();
 
     switch (property) {
       case "name":
@@ -13,10 +13,7 @@ import view.ITextView;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Handles “edit event …”, “edit events …” and “edit series …” commands.
@@ -25,71 +22,43 @@ import java.util.Set;
  */
 public class EditCommand implements Command {
 
-  private static final Set<String> VALID_PROPERTIES = new HashSet<>(
-          Arrays.asList("subject", "start", "end", "description", "location", "status")
-  );
-
-  private final String command;
+  private final ParsedCommand.EditEvent edit;
 
   /**
    * Constructs command.
    * @param command string
+   * @throws IllegalArgumentException if the string is not an edit command.
    */
   public EditCommand(String command) {
-    this.command = command.trim();
+    this(CommandParser.parse(command, ParsedCommand.EditEvent.class));
+  }
+
+  /**
+   * Constructs command from a command already parsed.
+   * @param edit the parsed command.
+   */
+  public EditCommand(ParsedCommand.EditEvent edit) {
+    this.edit = edit;
   }
 
   @Override
   public void execute(ICalendar model, ITextView view) {
-    String property = null;
-    String subject = null;
-    LocalDateTime fromDT = null;
-    LocalDateTime toDT = null;
-    String newValue = null;
-
-    // 1) Determine which form we're in, and extract parts
-    if (command.startsWith("edit event ")
-            && command.contains(" from ")
-            && command.contains(" to ")
-            && command.contains(" with ")) {
-
-      // single‐instance edit
-      property = Command.getWordAfter("edit event", command);
-      subject = Command.getWordAfter(property, command);
-      fromDT = LocalDateTime.parse(Command.getWordAfter("from", command));
-      toDT = LocalDateTime.parse(Command.getWordAfter("to", command));
-      newValue = Command.getWordAfter("with", command);
-
-    } else if (command.startsWith("edit events ")
-            && command.contains(" from ")
-            && command.contains(" with ")
-            && !command.contains(" to ")) {
-
-      // tail‐of‐series edit
-      property = Command.getWordAfter("edit events", command);
-      subject = Command.getWordAfter(property, command);
-      fromDT = LocalDateTime.parse(Command.getWordAfter("from", command));
-      newValue = Command.getWordAfter("with", command);
-
-    } else if (command.startsWith("edit series ")
-            && command.contains(" from ")
-            && command.contains(" with ")
-            && !command.contains(" to ")) {
-
-      // whole‐series edit
-      property = Command.getWordAfter("edit series", command);
-      subject = Command.getWordAfter(property, command);
-      fromDT = LocalDateTime.parse(Command.getWordAfter("from", command));
-      newValue = Command.getWordAfter("with", command);
-
-    } else {
-      throw new IllegalArgumentException("Malformed edit command: \"" + command + "\"");
-    }
+    run(edit, model, view);
+  }
 
-    // Validate property
-    if (!VALID_PROPERTIES.contains(property)) {
-      throw new IllegalArgumentException("Invalid property: \"" + property + "\"");
-    }
+  /**
+   * Runs a parsed edit command without creating a command object for it.
+   *
+   * @param edit the parsed command.
+   * @param model the calendar holding the events.
+   * @param view where to report to.
+   */
+  public static void run(ParsedCommand.EditEvent edit, ICalendar model, ITextView view) {
+    String property = edit.getProperty();
+    String subject = edit.getSubject();
+    LocalDateTime fromDT = edit.getFrom();
+    LocalDateTime toDT = edit.getTo();
+    String newValue = edit.getValue();
 
     // Break out date/time pieces
     LocalDate fromDate = fromDT.toLocalDate();
@@ -184,11 +153,11 @@ public class EditCommand implements Command {
     // Series‐aware replacement
     IEventSeries series = model.getSeriesFor(oldEvent);
 
-    if (command.startsWith("edit event ")) {
+    if (edit.getScope() == ParsedCommand.EditEvent.Scope.EVENT) {
       // single-instance only
       model.replaceEvent(oldEvent, updated);
 
-    } else if (command.startsWith("edit events ")) {
+    } else if (edit.getScope() == ParsedCommand.EditEvent.Scope.EVENTS) {
       // tail‐of‐series (the event + all after it)
       if (series == null) {
         model.replaceEvent(oldEvent, updated);
@@ -0,0 +1,63 @@
+package controller.command;
+
+import model.CalendarExporter;
+import model.ICalendarManager;
+import view.ITextView;
+
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+
+/**
+ * Command to export the events of a calendar within a date range to an iCalendar or CSV file.
+ */
+public class ExportCalendarCommand implements ManagerCommand {
+  private final ParsedCommand.ExportCalendar export;
+
+  /**
+   * Constructs the command used to export calendars.
+   *
+   * @param cmd string
+   * @throws IllegalArgumentException if the string is not an export calendar command, or one of
+   *         its dates or its format is invalid.
+   */
+  public ExportCalendarCommand(String cmd) {
+    this(CommandParser.parse(cmd, ParsedCommand.ExportCalendar.class));
+  }
+
+  /**
+   * Constructs the command from a command already parsed.
+   *
+   * @param export the parsed command
+   */
+  public ExportCalendarCommand(ParsedCommand.ExportCalendar export) {
+    this.export = export;
+  }
+
+  @Override
+  public void execute(ICalendarManager mgr, ITextView view) {
+    run(export, mgr, view);
+  }
+
+  /**
+   * Runs a parsed export command without creating a command object for it.
+   *
+   * @param export the parsed command.
+   * @param mgr the manager holding the calendar.
+   * @param view where to report to.
+   */
+  public static void run(ParsedCommand.ExportCalendar export,
+          ICalendarManager mgr, ITextView view) {
+    String name = export.getName();
+    String file = export.getFile();
+
+    int written;
+    try {
+      written = CalendarExporter.export(mgr.getCalendar(name), export.getFormat(),
+              export.getFrom(), export.getTo(), Paths.get(file));
+    } catch (IOException | InvalidPathException e) {
+      throw new IllegalArgumentException("Cannot export to " + file + ": " + e.getMessage());
+    }
+    view.takeMessage(String.format("Exported %d events from \"%s\" to %s", written, name, file));
+  }
+}
@@ -0,0 +1,66 @@
+package controller.command;
+
+import model.ICalendarManager;
+import model.IcsImporter;
+import view.ITextView;
+
+import java.io.IOException;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+
+/**
+ * Command to import the events of an iCalendar (.ics) file into an existing calendar.
+ */
+public class ImportCalendarCommand implements ManagerCommand {
+  private final ParsedCommand.ImportCalendar imports;
+
+  /**
+   * Constructs the command used to import calendars.
+   *
+   * @param cmd string
+   * @throws IllegalArgumentException if the string is not an import calendar command.
+   */
+  public ImportCalendarCommand(String cmd) {
+    this(CommandParser.parse(cmd, ParsedCommand.ImportCalendar.class));
+  }
+
+  /**
+   * Constructs the command from a command already parsed.
+   *
+   * @param imports the parsed command
+   */
+  public ImportCalendarCommand(ParsedCommand.ImportCalendar imports) {
+    this.imports = imports;
+  }
+
+  @Override
+  public void execute(ICalendarManager mgr, ITextView view) {
+    run(imports, mgr, view);
+  }
+
+  /**
+   * Runs a parsed import command without creating a command object for it.
+   *
+   * @param imports the parsed command.
+   * @param mgr the manager holding the calendar.
+   * @param view where to report to.
+   */
+  public static void run(ParsedCommand.ImportCalendar imports,
+          ICalendarManager mgr, ITextView view) {
+    String name = imports.getName();
+    String file = imports.getFile();
+
+    IcsImporter.Result result;
+    try {
+      result = new IcsImporter(mgr.getCalendar(name)).importFrom(Paths.get(file));
+    } catch (IOException | InvalidPathException e) {
+      throw new IllegalArgumentException("Cannot import " + file + ": " + e.getMessage());
+    }
+    view.takeMessage(String.format("Imported %d events and %d series into \"%s\"",
+            result.getEvents(), result.getSeries(), name));
+    if (result.getSkipped() > 0) {
+      view.takeMessage(String.format("Skipped %d entries which could not be imported",
+              result.getSkipped()));
+    }
+  }
+}
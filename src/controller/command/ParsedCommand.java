@@ -0,0 +1,740 @@
+package controller.command;
+
+import model.CalendarExporter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * A command line as read by the CommandParser, with every value already turned into its type.
+ * There is one subclass for every form a command takes, and the commands execute from these
+ * rather than from the text of the line.
+ */
+public abstract class ParsedCommand {
+  private ParsedCommand() {
+  }
+
+  /**
+   * Any of the forms of "create event".
+   */
+  public abstract static class CreateEvent extends ParsedCommand {
+    private final String subject;
+
+    private CreateEvent(String subject) {
+      this.subject = subject;
+    }
+
+    /**
+     * Returns the subject of the events created.
+     * @return the subject.
+     */
+    public String getSubject() {
+      return subject;
+    }
+  }
+
+  /**
+   * "create event SUBJECT from DATETIME to DATETIME".
+   */
+  public static final class CreateTimedEvent extends CreateEvent {
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+
+    CreateTimedEvent(String subject, LocalDateTime from, LocalDateTime to) {
+      super(subject);
+      this.from = from;
+      this.to = to;
+    }
+
+    /**
+     * Returns when the event starts.
+     * @return the start.
+     */
+    public LocalDateTime getFrom() {
+      return from;
+    }
+
+    /**
+     * Returns when the event ends.
+     * @return the end.
+     */
+    public LocalDateTime getTo() {
+      return to;
+    }
+  }
+
+  /**
+   * "create event SUBJECT from DATETIME to DATETIME repeats DAYS for N times".
+   */
+  public static final class CreateTimedSeries extends CreateEvent {
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final String days;
+    private final int count;
+
+    CreateTimedSeries(String subject, LocalDateTime from, LocalDateTime to, String days,
+            int count) {
+      super(subject);
+      this.from = from;
+      this.to = to;
+      this.days = days;
+      this.count = count;
+    }
+
+    /**
+     * Returns when the first occurrence may start at the earliest.
+     * @return the start.
+     */
+    public LocalDateTime getFrom() {
+      return from;
+    }
+
+    /**
+     * Returns the end of the first day, of which only the time is used.
+     * @return the end.
+     */
+    public LocalDateTime getTo() {
+      return to;
+    }
+
+    /**
+     * Returns the days the series repeats on, as letters of MTWRFSU.
+     * @return the days.
+     */
+    public String getDays() {
+      return days;
+    }
+
+    /**
+     * Returns how many occurrences the series has.
+     * @return the number of occurrences.
+     */
+    public int getCount() {
+      return count;
+    }
+  }
+
+  /**
+   * "create event SUBJECT from DATETIME to DATETIME repeats DAYS until DATE".
+   */
+  public static final class CreateTimedSeriesUntil extends CreateEvent {
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final String days;
+    private final LocalDate until;
+
+    CreateTimedSeriesUntil(String subject, LocalDateTime from, LocalDateTime to, String days,
+            LocalDate until) {
+      super(subject);
+      this.from = from;
+      this.to = to;
+      this.days = days;
+      this.until = until;
+    }
+
+    /**
+     * Returns when the first occurrence may start at the earliest.
+     * @return the start.
+     */
+    public LocalDateTime getFrom() {
+      return from;
+    }
+
+    /**
+     * Returns the end of the first day, of which only the time is used.
+     * @return the end.
+     */
+    public LocalDateTime getTo() {
+      return to;
+    }
+
+    /**
+     * Returns the days the series repeats on, as letters of MTWRFSU.
+     * @return the days.
+     */
+    public String getDays() {
+      return days;
+    }
+
+    /**
+     * Returns the last day an occurrence may fall on.
+     * @return the last day.
+     */
+    public LocalDate getUntil() {
+      return until;
+    }
+  }
+
+  /**
+   * "create event SUBJECT on DATE".
+   */
+  public static final class CreateAllDayEvent extends CreateEvent {
+    private final LocalDate on;
+
+    CreateAllDayEvent(String subject, LocalDate on) {
+      super(subject);
+      this.on = on;
+    }
+
+    /**
+     * Returns the day of the event.
+     * @return the day.
+     */
+    public LocalDate getOn() {
+      return on;
+    }
+  }
+
+  /**
+   * "create event SUBJECT on DATE repeats DAYS for N times".
+   */
+  public static final class CreateAllDaySeries extends CreateEvent {
+    private final LocalDate on;
+    private final String days;
+    private final int count;
+
+    CreateAllDaySeries(String subject, LocalDate on, String days, int count) {
+      super(subject);
+      this.on = on;
+      this.days = days;
+      this.count = count;
+    }
+
+    /**
+     * Returns the first day an occurrence may fall on.
+     * @return the first day.
+     */
+    public LocalDate getOn() {
+      return on;
+    }
+
+    /**
+     * Returns the days the series repeats on, as letters of MTWRFSU.
+     * @return the days.
+     */
+    public String getDays() {
+      return days;
+    }
+
+    /**
+     * Returns how many occurrences the series has.
+     * @return the number of occurrences.
+     */
+    public int getCount() {
+      return count;
+    }
+  }
+
+  /**
+   * "create event SUBJECT on DATE repeats DAYS until DATE".
+   */
+  public static final class CreateAllDaySeriesUntil extends CreateEvent {
+    private final LocalDate on;
+    private final String days;
+    private final LocalDate until;
+
+    CreateAllDaySeriesUntil(String subject, LocalDate on, String days, LocalDate until) {
+      super(subject);
+      this.on = on;
+      this.days = days;
+      this.until = until;
+    }
+
+    /**
+     * Returns the first day an occurrence may fall on.
+     * @return the first day.
+     */
+    public LocalDate getOn() {
+      return on;
+    }
+
+    /**
+     * Returns the days the series repeats on, as letters of MTWRFSU.
+     * @return the days.
+     */
+    public String getDays() {
+      return days;
+    }
+
+    /**
+     * Returns the last day an occurrence may fall on.
+     * @return the last day.
+     */
+    public LocalDate getUntil() {
+      return until;
+    }
+  }
+
+  /**
+   * "edit event PROPERTY SUBJECT from DATETIME to DATETIME with VALUE", and "edit events" and
+   * "edit series", which have no "to".
+   */
+  public static final class EditEvent extends ParsedCommand {
+    /**
+     * Which events of a series an edit changes.
+     */
+    public enum Scope {
+      /** Only the event named. */
+      EVENT,
+      /** The event named and every later one of its series. */
+      EVENTS,
+      /** Every event of the series. */
+      SERIES
+    }
+
+    private final Scope scope;
+    private final String property;
+    private final String subject;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+    private final String value;
+
+    EditEvent(Scope scope, String property, String subject, LocalDateTime from,
+            LocalDateTime to, String value) {
+      this.scope = scope;
+      this.property = property;
+      this.subject = subject;
+      this.from = from;
+      this.to = to;
+      this.value = value;
+    }
+
+    /**
+     * Returns which events the edit changes.
+     * @return the scope.
+     */
+    public Scope getScope() {
+      return scope;
+    }
+
+    /**
+     * Returns the property changed, one of subject, start, end, description, location and
+     * status.
+     * @return the property.
+     */
+    public String getProperty() {
+      return property;
+    }
+
+    /**
+     * Returns the subject of the event named.
+     * @return the subject.
+     */
+    public String getSubject() {
+      return subject;
+    }
+
+    /**
+     * Returns when the event named starts.
+     * @return the start.
+     */
+    public LocalDateTime getFrom() {
+      return from;
+    }
+
+    /**
+     * Returns when the event named ends, which only "edit event" gives.
+     * @return the end, or null.
+     */
+    public LocalDateTime getTo() {
+      return to;
+    }
+
+    /**
+     * Returns the new value of the property, as written.
+     * @return the new value.
+     */
+    public String getValue() {
+      return value;
+    }
+  }
+
+  /**
+   * "print events on DATE" and "print events from DATETIME to DATETIME".
+   */
+  public static final class PrintEvents extends ParsedCommand {
+    private final LocalDate start;
+    private final LocalDate end;
+
+    PrintEvents(LocalDate start, LocalDate end) {
+      this.start = start;
+      this.end = end;
+    }
+
+    /**
+     * Returns the first day printed.
+     * @return the first day.
+     */
+    public LocalDate getStart() {
+      return start;
+    }
+
+    /**
+     * Returns the last day printed.
+     * @return the last day.
+     */
+    public LocalDate getEnd() {
+      return end;
+    }
+  }
+
+  /**
+   * "show status on DATETIME".
+   */
+  public static final class ShowStatus extends ParsedCommand {
+    private final LocalDateTime at;
+
+    ShowStatus(LocalDateTime at) {
+      this.at = at;
+    }
+
+    /**
+     * Returns the moment asked about.
+     * @return the moment.
+     */
+    public LocalDateTime getAt() {
+      return at;
+    }
+  }
+
+  /**
+   * "copy event SUBJECT on DATETIME --target NAME to DATETIME".
+   */
+  public static final class CopyEvent extends ParsedCommand {
+    private final String subject;
+    private final LocalDateTime at;
+    private final String target;
+    private final LocalDateTime to;
+
+    CopyEvent(String subject, LocalDateTime at, String target, LocalDateTime to) {
+      this.subject = subject;
+      this.at = at;
+      this.target = target;
+      this.to = to;
+    }
+
+    /**
+     * Returns the subject of the event copied.
+     * @return the subject.
+     */
+    public String getSubject() {
+      return subject;
+    }
+
+    /**
+     * Returns when the event copied starts.
+     * @return the start.
+     */
+    public LocalDateTime getAt() {
+      return at;
+    }
+
+    /**
+     * Returns the name of the calendar copied into.
+     * @return the calendar name.
+     */
+    public String getTarget() {
+      return target;
+    }
+
+    /**
+     * Returns when the copy starts.
+     * @return the start of the copy.
+     */
+    public LocalDateTime getTo() {
+      return to;
+    }
+  }
+
+  /**
+   * "copy events on DATE --target NAME to DATE".
+   */
+  public static final class CopyEventsOn extends ParsedCommand {
+    private final LocalDate date;
+    private final String target;
+    private final LocalDate to;
+
+    CopyEventsOn(LocalDate date, String target, LocalDate to) {
+      this.date = date;
+      this.target = target;
+      this.to = to;
+    }
+
+    /**
+     * Returns the day copied.
+     * @return the day.
+     */
+    public LocalDate getDate() {
+      return date;
+    }
+
+    /**
+     * Returns the name of the calendar copied into.
+     * @return the calendar name.
+     */
+    public String getTarget() {
+      return target;
+    }
+
+    /**
+     * Returns the day the events are copied to.
+     * @return the day of the copies.
+     */
+    public LocalDate getTo() {
+      return to;
+    }
+  }
+
+  /**
+   * "copy events between DATE and DATE --target NAME to DATE".
+   */
+  public static final class CopyEventsBetween extends ParsedCommand {
+    private final LocalDate start;
+    private final LocalDate end;
+    private final String target;
+    private final LocalDate to;
+
+    CopyEventsBetween(LocalDate start, LocalDate end, String target, LocalDate to) {
+      this.start = start;
+      this.end = end;
+      this.target = target;
+      this.to = to;
+    }
+
+    /**
+     * Returns the first day copied.
+     * @return the first day.
+     */
+    public LocalDate getStart() {
+      return start;
+    }
+
+    /**
+     * Returns the last day copied.
+     * @return the last day.
+     */
+    public LocalDate getEnd() {
+      return end;
+    }
+
+    /**
+     * Returns the name of the calendar copied into.
+     * @return the calendar name.
+     */
+    public String getTarget() {
+      return target;
+    }
+
+    /**
+     * Returns the day the first day is copied to.
+     * @return the first day of the copies.
+     */
+    public LocalDate getTo() {
+      return to;
+    }
+  }
+
+  /**
+   * "create calendar --name NAME --timezone ZONE".
+   */
+  public static final class CreateCalendar extends ParsedCommand {
+    private final String name;
+    private final ZoneId zone;
+
+    CreateCalendar(String name, ZoneId zone) {
+      this.name = name;
+      this.zone = zone;
+    }
+
+    /**
+     * Returns the name of the new calendar.
+     * @return the name.
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Returns the time zone of the new calendar.
+     * @return the time zone.
+     */
+    public ZoneId getZone() {
+      return zone;
+    }
+  }
+
+  /**
+   * "edit calendar --name NAME --property PROPERTY VALUE".
+   */
+  public static final class EditCalendar extends ParsedCommand {
+    private final String name;
+    private final String property;
+    private final String value;
+
+    EditCalendar(String name, String property, String value) {
+      this.name = name;
+      this.property = property;
+      this.value = value;
+    }
+
+    /**
+     * Returns the name of the calendar edited.
+     * @return the name.
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Returns the property changed, either name or timezone.
+     * @return the property.
+     */
+    public String getProperty() {
+      return property;
+    }
+
+    /**
+     * Returns the new value of the property, as written.
+     * @return the new value.
+     */
+    public String getValue() {
+      return value;
+    }
+  }
+
+  /**
+   * "use calendar --name NAME".
+   */
+  public static final class UseCalendar extends ParsedCommand {
+    private final String name;
+
+    UseCalendar(String name) {
+      this.name = name;
+    }
+
+    /**
+     * Returns the name of the calendar to use.
+     * @return the name.
+     */
+    public String getName() {
+      return name;
+    }
+  }
+
+  /**
+   * "export calendar --name NAME --format ics|csv --from DATE --to DATE --file PATH".
+   */
+  public static final class ExportCalendar extends ParsedCommand {
+    private final String name;
+    private final CalendarExporter.Format format;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final String file;
+
+    ExportCalendar(String name, CalendarExporter.Format format, LocalDate from, LocalDate to,
+            String file) {
+      this.name = name;
+      this.format = format;
+      this.from = from;
+      this.to = to;
+      this.file = file;
+    }
+
+    /**
+     * Returns the name of the calendar exported.
+     * @return the name.
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Returns the format of the file written.
+     * @return the format.
+     */
+    public CalendarExporter.Format getFormat() {
+      return format;
+    }
+
+    /**
+     * Returns the first day exported.
+     * @return the first day.
+     */
+    public LocalDate getFrom() {
+      return from;
+    }
+
+    /**
+     * Returns the last day exported.
+     * @return the last day.
+     */
+    public LocalDate getTo() {
+      return to;
+    }
+
+    /**
+     * Returns the path of the file written, as written.
+     * @return the path.
+     */
+    public String getFile() {
+      return file;
+    }
+  }
+
+  /**
+   * "import calendar --name NAME --file PATH".
+   */
+  public static final class ImportCalendar extends ParsedCommand {
+    private final String name;
+    private final String file;
+
+    ImportCalendar(String name, String file) {
+      this.name = name;
+      this.file = file;
+    }
+
+    /**
+     * Returns the name of the calendar imported into.
+     * @return the name.
+     */
+    public String getName() {
+      return name;
+    }
+
+    /**
+     * Returns the path of the file read, as written.
+     * @return the path.
+     */
+    public String getFile() {
+      return file;
+    }
+  }
+
+  /**
+   * "begin batch".
+   */
+  public static final class BeginBatch extends ParsedCommand {
+    BeginBatch() {
+    }
+  }
+
+  /**
+   * "commit" or "abort", which end a batch.
+   */
+  public static final class EndBatch extends ParsedCommand {
+    private final boolean commit;
+
+    EndBatch(boolean commit) {
+      this.commit = commit;
+    }
+
+    /**
+     * Returns whether the batch is to be applied, rather than dropped.
+     * @return true for "commit", false for "abort".
+     */
+    public boolean isCommit() {
+      return commit;
+    }
+  }
+}
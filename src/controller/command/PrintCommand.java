@@ -4,8 +4,6 @@ import model.ICalendar;
 import model.IEvent;
 import view.ITextView;
 
-import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
 
@@ -14,63 +12,70 @@ import java.util.List;
  */
 public class PrintCommand implements Command {
 
-  private final String command;
+  private final ParsedCommand.PrintEvents print;
 
   /**
    * Constructor.
    *
    * @param command string
+   * @throws IllegalArgumentException if the string is not a print command.
    */
   public PrintCommand(String command) {
+    this(CommandParser.parse(command, ParsedCommand.PrintEvents.class));
+  }
 
-    this.command = command.trim();
+  /**
+   * Constructor from a command already parsed.
+   *
+   * @param print the parsed command.
+   */
+  public PrintCommand(ParsedCommand.PrintEvents print) {
+    this.print = print;
   }
 
   @Override
   public void execute(ICalendar model, ITextView view) {
-    // “print events on <date>”
-    if (command.startsWith("print events on ")
-            && !command.contains(" to ")) {
-
-      String dateStr = Command.getWordAfter("on", command);
-      LocalDate d = LocalDate.parse(dateStr);
-      List<IEvent> events = model.getScheduleInRange(d, d);
-      for (IEvent e : events) {
-        view.takeMessage(formatLine(e));
-      }
-      return;
-    }
-
-    // “print events from <dt1> to <dt2>”
-    if (command.startsWith("print events from ")
-            && command.contains(" to ")) {
+    run(print, model, view);
+  }
 
-      LocalDateTime dt1 = LocalDateTime.parse(Command.getWordAfter("from", command));
-      LocalDateTime dt2 = LocalDateTime.parse(Command.getWordAfter("to", command));
-      List<IEvent> events = model.getScheduleInRange(dt1.toLocalDate(), dt2.toLocalDate());
-      for (IEvent e : events) {
-        view.takeMessage(formatLine(e));
-      }
-      return;
+  /**
+   * Runs a parsed print command without creating a command object for it.
+   *
+   * @param print the parsed command.
+   * @param model the calendar to print.
+   * @param view where to report to.
+   */
+  public static void run(ParsedCommand.PrintEvents print, ICalendar model, ITextView view) {
+    List<IEvent> events = model.getScheduleInRange(print.getStart(), print.getEnd());
+    StringBuilder sb = new StringBuilder(64);
+    for (IEvent e : events) {
+      sb.setLength(0);
+      view.takeMessage(formatLine(e, sb));
     }
-
-    throw new IllegalArgumentException("Malformed print command: \"" + command + "\"");
   }
 
-  private String formatLine(IEvent e) {
-    StringBuilder sb = new StringBuilder("• ");
+  // formats into one builder reused for all lines, without going through String.format.
+  private static String formatLine(IEvent e, StringBuilder sb) {
+    sb.append("• ");
     sb.append(e.getSubject());
     if (e.isAllDayEvent()) {
       sb.append(" (All day)");
     } else {
-      LocalTime st = e.getStartTime();
-      LocalTime et = e.getEndTime();
-      sb.append(String.format(" %02d:%02d–%02d:%02d",
-              st.getHour(), st.getMinute(), et.getHour(), et.getMinute()));
+      sb.append(' ');
+      appendTime(sb, e.getStartTime()).append('–');
+      appendTime(sb, e.getEndTime());
     }
     if (e.getLocation() != null) {
       sb.append(" @ ").append(e.getLocation());
     }
     return sb.toString();
   }
+
+  private static StringBuilder appendTime(StringBuilder sb, LocalTime t) {
+    return twoDigits(twoDigits(sb, t.getHour()).append(':'), t.getMinute());
+  }
+
+  private static StringBuilder twoDigits(StringBuilder sb, int value) {
+    return sb.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+  }
 }
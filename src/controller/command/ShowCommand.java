@@ -4,7 +4,6 @@ import model.ICalendar;
 import view.ITextView;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -12,25 +11,39 @@ import java.util.List;
  */
 public class ShowCommand implements Command {
 
-  private final String command;
+  private final ParsedCommand.ShowStatus show;
 
   /**
    * Show status on a day, show available or busy.
    * @param command string
+   * @throws IllegalArgumentException if the string is not a show command.
    */
   public ShowCommand(String command) {
-    this.command = command.trim();
+    this(CommandParser.parse(command, ParsedCommand.ShowStatus.class));
+  }
+
+  /**
+   * Show status on a day, from a command already parsed.
+   * @param show the parsed command.
+   */
+  public ShowCommand(ParsedCommand.ShowStatus show) {
+    this.show = show;
   }
 
   @Override
   public void execute(ICalendar model, ITextView view) {
-    final String prefix = "show status on ";
-    if (!command.startsWith(prefix)) {
-      throw new IllegalArgumentException("Malformed show command: \"" + command + "\"");
-    }
-    String dtStr = Command.getWordAfter("on", command);
-    LocalDateTime dt = LocalDateTime.parse(dtStr);
-    LocalDate d = dt.toLocalDate();
+    run(show, model, view);
+  }
+
+  /**
+   * Runs a parsed show status command without creating a command object for it.
+   *
+   * @param show the parsed command.
+   * @param model the calendar to look at.
+   * @param view where to report to.
+   */
+  public static void run(ParsedCommand.ShowStatus show, ICalendar model, ITextView view) {
+    LocalDate d = show.getAt().toLocalDate();
     List<?> evs = model.getScheduleInRange(d,d);
     view.takeMessage(evs.isEmpty() ? "Available" : "Busy");
   }
@@ -7,26 +7,34 @@ import view.ITextView;
  * Lets user switch calendar.
  */
 public class UseCalendarCommand implements ManagerCommand {
-  private final String cmd;
+  private final ParsedCommand.UseCalendar use;
 
   /**
    * Constructs command.
    * @param cmd string
+   * @throws IllegalArgumentException if the string is not a use calendar command.
    */
   public UseCalendarCommand(String cmd) {
-    this.cmd = cmd.trim();
+    this(CommandParser.parse(cmd, ParsedCommand.UseCalendar.class));
   }
 
   /**
-   * Extracts the calendar name after “--name”.
+   * Constructs command from a command already parsed.
+   * @param use the parsed command
+   */
+  public UseCalendarCommand(ParsedCommand.UseCalendar use) {
+    this.use = use;
+  }
+
+  /**
+   * Returns the calendar name given after “--name”.
    */
   public String getCalendarName() {
-    return Command.getWordAfter("--name", cmd);
+    return use.getName();
   }
 
   @Override
   public void execute(ICalendarManager mgr, ITextView view) {
-    // Parse out the name
     String name = getCalendarName();
     // Ensure it exists (will throw if not)
     mgr.getCalendar(name);
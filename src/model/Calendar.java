@@ -3,25 +3,62 @@ package model;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 /**
- * A Calendar which stores Events and Event Series separately. This Implementation is immutable.
+ * A Calendar which stores Events and Event Series separately. Every collection behind the
+ * calendar is persistent, updates swap in a new version which shares structure with the old
+ * one, so taking a snapshot or deriving a new calendar never copies the stored events.
+ * Old standalone events can be moved into a compressed archive with archiveBefore, after which
+ * only lookups reaching back to their months pay for them.
  */
 public class Calendar implements ICalendar {
   private static final IDateTimeFacade facade = new DateTimeFacade();
-  private final List<IEvent> eventList;
-  private final List<IEventSeries> seriesList;
+  // events starting the same day come back standalone events first, in the order they were
+  // added, then the occurrences of each series, in the order the series were added. the index
+  // ranks standalone events by their position in eventList, and occurrences by the position of
+  // their series in seriesList, counted from here.
+  private static final long SERIES_RANK = 1L << 62;
   private final ZoneId zone;
+  private PersistentList<IEvent> eventList;
+  private PersistentList<IEventSeries> seriesList;
+  // every standalone event and series occurrence, ordered by start date, then by rank.
+  private EventIndex index;
+  // how many copies of each event the calendar holds. keys hash on the fields equals() uses.
+  private PersistentHashMap<IEvent, Integer> occurrences;
+  // the series owning each series occurrence.
+  private PersistentHashMap<IEvent, IEventSeries> owners;
+  // lazy series are never expanded into the structures above, they answer for themselves. they
+  // are keyed by their position in seriesList, so they are visited in the order they were added.
+  private PersistentTreeMap<Long, IEventSeries> lazySeries;
+  // the same lazy series, filed under every epoch month their occurrences can start in, so a
+  // lookup only asks the series reaching its months.
+  private PersistentTreeMap<Integer, PersistentTreeMap<Long, IEventSeries>> lazyByMonth;
+  // standalone events moved out of the structures above by archiveBefore.
+  private EventArchive archive;
+  // the events getEvents() returns after the archived ones, built on first use and dropped on
+  // every change. archived events are decoded afresh on each call, never kept here.
+  private List<IEvent> allEvents;
+  // counts the changes made to the calendar. each month of standalone events, keyed by its
+  // epoch month, and the series remember the count at their last change, so a store can find
+  // what changed since it last saved.
+  private long version;
+  private PersistentTreeMap<Integer, Long> monthVersions;
+  private long seriesVersion;
 
   /**
   *  Creates a new calendar With the default timezone of EST.
   */
   public Calendar() {
-    eventList = new ArrayList<>();
-    seriesList = new ArrayList<>();
-    zone = ZoneId.of("America/New_York");
+    this(ZoneId.of("America/New_York"));
   }
 
   /**
@@ -29,15 +66,242 @@ public class Calendar implements ICalendar {
    * @param zone The time zone this calendar will represent.
    */
   public Calendar(ZoneId zone) {
-    eventList = new ArrayList<>();
-    seriesList = new ArrayList<>();
     this.zone = zone;
+    eventList = PersistentList.empty();
+    seriesList = PersistentList.empty();
+    index = EventIndex.empty();
+    occurrences = PersistentHashMap.empty();
+    owners = PersistentHashMap.empty();
+    lazySeries = PersistentTreeMap.empty();
+    lazyByMonth = PersistentTreeMap.empty();
+    archive = EventArchive.empty();
+    monthVersions = PersistentTreeMap.empty();
   }
 
-  private Calendar(List<IEvent> eventList, List<IEventSeries> seriesList, ZoneId zone) {
-    this.eventList = new ArrayList<>(eventList);
-    this.seriesList = new ArrayList<>(seriesList);
+  // shares every structure of other, later changes to either calendar are not seen by the other.
+  private Calendar(Calendar other, ZoneId zone) {
     this.zone = zone;
+    this.eventList = other.eventList;
+    this.seriesList = other.seriesList;
+    this.index = other.index;
+    this.occurrences = other.occurrences;
+    this.owners = other.owners;
+    this.lazySeries = other.lazySeries;
+    this.lazyByMonth = other.lazyByMonth;
+    this.archive = other.archive;
+    this.allEvents = other.allEvents;
+    this.version = other.version;
+    this.monthVersions = other.monthVersions;
+    this.seriesVersion = other.seriesVersion;
+  }
+
+  /**
+   * Returns a copy of this calendar as it is right now. The copy shares structure with this
+   * calendar, so it is made in constant time, and neither calendar sees later changes made to
+   * the other. A snapshot which is never changed can be read from any thread.
+   * @return a calendar holding the same events and series as this one.
+   */
+  @Override
+  public Calendar snapshot() {
+    return new Calendar(this, zone);
+  }
+
+  /**
+   * Puts back what this calendar held when the given snapshot of it was taken, in constant time.
+   * The change count goes on rising, and the months and series changed since the snapshot count
+   * as changed once more, so a store writes them back.
+   * @param snapshot a snapshot taken of this calendar.
+   * @throws IllegalArgumentException if the snapshot is in another time zone.
+   */
+  @Override
+  public void revertTo(Calendar snapshot) {
+    if (!snapshot.zone.equals(zone)) {
+      throw new IllegalArgumentException("Snapshot is in another time zone: " + snapshot.zone);
+    }
+    List<Integer> months = monthsChangedSince(snapshot.version);
+    boolean series = seriesVersion > snapshot.version;
+    eventList = snapshot.eventList;
+    seriesList = snapshot.seriesList;
+    index = snapshot.index;
+    occurrences = snapshot.occurrences;
+    owners = snapshot.owners;
+    lazySeries = snapshot.lazySeries;
+    lazyByMonth = snapshot.lazyByMonth;
+    archive = snapshot.archive;
+    allEvents = snapshot.allEvents;
+    for (int month : months) {
+      changed(firstDayOf(month));
+    }
+    if (series) {
+      seriesChanged();
+    }
+  }
+
+  /**
+   * Rebuilds a calendar from events and series which are known to be distinct, such as ones read
+   * back from a saved calendar. Nothing is checked for duplicates.
+   * @param zone the time zone of the calendar.
+   * @param events the standalone events, in the order they were added.
+   * @param series the event series, in the order they were added.
+   * @return a calendar holding the given events and series.
+   */
+  static Calendar restore(ZoneId zone, List<IEvent> events, List<IEventSeries> series) {
+    Calendar calendar = new Calendar(zone);
+    for (IEvent e : events) {
+      calendar.eventList = calendar.eventList.append(e);
+      calendar.track(e);
+    }
+    for (IEventSeries s : series) {
+      calendar.seriesList = calendar.seriesList.append(s);
+      calendar.trackSeries(s);
+    }
+    return calendar;
+  }
+
+  /**
+   * Moves the standalone events starting before the horizon into the archive. They are kept
+   * deflated there, one segment per month, and only decoded when a lookup reaches their month,
+   * so queries over later dates no longer pay for them. Series occurrences stay in memory. No
+   * event changes, so neither does the change count.
+   * @param horizon the first date whose events stay in memory.
+   * @return the number of events archived.
+   */
+  public int archiveBefore(LocalDate horizon) {
+    Map<Integer, List<IEvent>> byMonth = new TreeMap<>();
+    for (IEvent e : index.inRange(LocalDate.MIN, horizon.minusDays(1))) {
+      if (!owners.containsKey(e)) {
+        byMonth.computeIfAbsent(monthOf(e.getStartDate()), m -> new ArrayList<>()).add(e);
+      }
+    }
+    int moved = 0;
+    for (Map.Entry<Integer, List<IEvent>> month : byMonth.entrySet()) {
+      archive = archive.add(month.getKey(), month.getValue());
+      moved += month.getValue().size();
+    }
+    if (moved * 4L < occurrences.size()) {
+      for (List<IEvent> events : byMonth.values()) {
+        for (IEvent e : events) {
+          eventList = eventList.removeFirst(e);
+          untrack(e);
+        }
+      }
+      return moved;
+    }
+    // rebuilding what is left beats removing most of the calendar one event at a time.
+    List<IEvent> kept = new ArrayList<>();
+    for (IEvent e : eventList) {
+      if (!e.getStartDate().isBefore(horizon) || owners.containsKey(e)) {
+        kept.add(e);
+      }
+    }
+    Calendar rest = restore(zone, kept, seriesList.toList());
+    // the ranks in the rebuilt index are the positions in the rebuilt lists.
+    eventList = rest.eventList;
+    seriesList = rest.seriesList;
+    index = rest.index;
+    occurrences = rest.occurrences;
+    owners = rest.owners;
+    lazySeries = rest.lazySeries;
+    lazyByMonth = rest.lazyByMonth;
+    allEvents = null;
+    return moved;
+  }
+
+  /**
+   * Returns the standalone events of this calendar, the archived ones first by start date, then
+   * the others in the order they were added.
+   * @return a new list of the standalone events.
+   */
+  List<IEvent> getStandaloneEvents() {
+    List<IEvent> events = archive.toList();
+    for (IEvent e : eventList) {
+      events.add(e);
+    }
+    return events;
+  }
+
+  /**
+   * Returns the event series of this calendar, in the order they were added.
+   * @return a new list of the series.
+   */
+  List<IEventSeries> getEventSeries() {
+    return seriesList.toList();
+  }
+
+  /**
+   * Returns the number of changes made to this calendar, counting those made before it was
+   * copied from another one.
+   * @return the change count.
+   */
+  long version() {
+    return version;
+  }
+
+  /**
+   * Returns the change count as of the last change to the event series.
+   * @return the change count of the last series change, or 0 if there was none.
+   */
+  long seriesVersion() {
+    return seriesVersion;
+  }
+
+  /**
+   * Returns the months whose standalone events changed after the given change count.
+   * @param since the change count to compare against.
+   * @return the epoch months changed since then, in order.
+   */
+  List<Integer> monthsChangedSince(long since) {
+    List<Integer> months = new ArrayList<>();
+    monthVersions.forEach((month, changed) -> {
+      if (changed > since) {
+        months.add(month);
+      }
+    });
+    return months;
+  }
+
+  /**
+   * Returns the standalone events starting in the given month, ordered by start date.
+   * @param month the epoch month, as given by monthOf.
+   * @return a new list of the events.
+   */
+  List<IEvent> standaloneEventsIn(int month) {
+    LocalDate first = firstDayOf(month);
+    List<IEvent> events = new ArrayList<>();
+    for (IEvent e : index.inRange(first, first.plusMonths(1).minusDays(1))) {
+      if (!owners.containsKey(e)) {
+        events.add(e);
+      }
+    }
+    List<IEvent> archived = archive.inRange(first, first.plusMonths(1).minusDays(1));
+    return archived.isEmpty() ? events : mergeByStartDate(archived, events);
+  }
+
+  /**
+   * Returns how many events the calendar holds in memory: every standalone event and series
+   * occurrence, and one for each lazy series. Archived events are not counted.
+   * @return the number of events held.
+   */
+  int storedEvents() {
+    return occurrences.size() + lazySeries.size();
+  }
+
+  /**
+   * Returns the epoch month of the given date, the number of months since January of year 0.
+   * @param date the date.
+   * @return the month of the date.
+   */
+  static int monthOf(LocalDate date) {
+    return date.getYear() * 12 + date.getMonthValue() - 1;
+  }
+
+  /**
+   * Returns the first day of the given epoch month.
+   * @param month the epoch month, as given by monthOf.
+   * @return the first day of the month.
+   */
+  static LocalDate firstDayOf(int month) {
+    return LocalDate.of(Math.floorDiv(month, 12), Math.floorMod(month, 12) + 1, 1);
   }
 
   @Override
@@ -48,14 +312,32 @@ public class Calendar implements ICalendar {
   @Override
   public void copyEventsAndShift(
           LocalDate rangeStart, LocalDate rangeEnd, ICalendar from, LocalDate atStartDate) {
+    List<IEvent> shifted = shiftedCopies(rangeStart, rangeEnd, from, atStartDate);
+    if (!shifted.isEmpty()) {
+      addEvents(shifted);
+    }
+  }
 
+  /**
+   * Returns the events of a calendar starting within a range, in order, moved by as many days
+   * as lie between the start of the range and the given date. Calendars which record their
+   * changes add these, so the record holds the copied events rather than where they came from.
+   * @param rangeStart the first date of the range.
+   * @param rangeEnd the last date of the range.
+   * @param from the calendar to copy from.
+   * @param atStartDate the date the start of the range moves to.
+   * @return a new list of the moved events, empty if the range holds none.
+   * @throws IllegalArgumentException if the events can't be moved that far.
+   */
+  static List<IEvent> shiftedCopies(
+          LocalDate rangeStart, LocalDate rangeEnd, ICalendar from, LocalDate atStartDate) {
     List<IEvent> events = from.getScheduleInRange(rangeStart, rangeEnd)
             .stream()
             .sorted(new EventComparator())
             .collect(Collectors.toList());
 
     if (events.isEmpty()) {
-      return;
+      return events;
     }
     long shift = facade.daysBetween(rangeStart, atStartDate);
 
@@ -63,9 +345,11 @@ public class Calendar implements ICalendar {
       throw new IllegalArgumentException("Cannot shift. Try a smaller number.");
     }
 
+    List<IEvent> shifted = new ArrayList<>(events.size());
     for (IEvent event : events) {
-      eventList.add(event.shiftDays((int) shift));
+      shifted.add(event.shiftDays((int) shift));
     }
+    return shifted;
   }
 
   @Override
@@ -74,123 +358,336 @@ public class Calendar implements ICalendar {
   }
 
   @Override
-  public ICalendar setTimeZone(ZoneId timeZone) {
-    List<IEvent> shiftedEventList = new ArrayList<>(eventList);
-    List<IEventSeries> shiftedSeriesList = new ArrayList<>(seriesList);
-
-    // this hunk needs to be moved out and into a more suited class.
-    for (IEvent e : eventList) {
-      shiftedEventList.add(e.shiftTimeZone(zone, timeZone));
+  public Calendar setTimeZone(ZoneId timeZone) {
+    if (zone.getRules().equals(timeZone.getRules())) {
+      // nothing moves, so the new calendar can share everything with this one.
+      return new Calendar(this, timeZone);
+    }
+    // shift everything into a new calendar. we don't want to keep a stale state in the case that
+    // the shift fails. archived events are decoded and shifted into memory with the rest.
+    Calendar shifted = new Calendar(timeZone);
+    for (IEvent e : getStandaloneEvents()) {
+      IEvent moved = e.shiftTimeZone(zone, timeZone);
+      shifted.eventList = shifted.eventList.append(moved);
+      shifted.track(moved);
     }
     for (IEventSeries s : seriesList) {
-      shiftedSeriesList.add(( s.shiftTimeZone(zone, timeZone)));
+      IEventSeries moved = s.shiftTimeZone(zone, timeZone);
+      shifted.seriesList = shifted.seriesList.append(moved);
+      shifted.trackSeries(moved);
     }
-
-
-    // shift everything before mutating. we don't want to keep a stale state in the case that the
-    // shift fails.
-    return new Calendar(shiftedEventList, shiftedSeriesList, timeZone);
+    return shifted;
   }
 
   @Override
   public void addEvent(IEvent event) {
     ensureDistinct(event);
-    eventList.add(event);
+    ensureNotArchived(List.of(event), "Duplicate event: ");
+    eventList = eventList.append(event);
+    track(event);
+    changed(event.getStartDate());
+  }
+
+  @Override
+  public void addEvents(Collection<IEvent> events) {
+    // check the whole batch first, so a clash leaves the calendar untouched.
+    Set<IEvent> seen = new HashSet<>();
+    for (IEvent e : events) {
+      ensureDistinct(e);
+      if (!seen.add(e)) {
+        throw new IllegalArgumentException("Duplicate event: " + e);
+      }
+    }
+    ensureNotArchived(seen, "Duplicate event: ");
+    for (IEvent e : events) {
+      eventList = eventList.append(e);
+      count(e);
+      changed(e.getStartDate());
+    }
+    // the index takes the whole batch in one update, rather than one per event.
+    index = index.addAll(events, eventList::positionOf);
   }
 
   @Override
   public void removeEvent(IEvent event) {
-    eventList.remove(event);
+    PersistentList<IEvent> updated = eventList.removeFirst(event);
+    if (updated != eventList) {
+      eventList = updated;
+      untrack(event);
+      changed(event.getStartDate());
+      return;
+    }
+    EventArchive shrunk = archive.remove(event);
+    if (shrunk != archive) {
+      archive = shrunk;
+      allEvents = null;
+      changed(event.getStartDate());
+    }
   }
 
   @Override
   public void addEventSeries(IEventSeries series) {
-    if (series == null || series.getEvents().isEmpty()) {
+    if (series == null || !series.iterator().hasNext()) {
       throw new IllegalArgumentException("Event series cannot be null or empty");
     }
-    for (IEvent e : series.getEvents()) {
-      ensureDistinct(e);
+    // one pass over the series, checking against the calendar and the series itself.
+    Set<IEvent> seen = new HashSet<>();
+    for (IEvent e : series) {
+      if (occurrences.containsKey(e) || inLazySeries(e) != null || !seen.add(e)) {
+        throw new IllegalArgumentException("Duplicate event in series: " + e);
+      }
     }
-    seriesList.add(series);
+    ensureNotArchived(seen, "Duplicate event in series: ");
+    seriesList = seriesList.append(series);
+    trackSeries(series);
+    seriesChanged();
   }
 
   @Override
   public void removeEventSeries(IEventSeries series) {
-    seriesList.remove(series);
+    IEventSeries stored = seriesList.firstEqual(series);
+    if (stored != null) {
+      long position = seriesList.positionOf(series);
+      seriesList = seriesList.removeFirst(series);
+      untrackSeries(stored, position);
+      seriesChanged();
+    }
   }
 
   @Override
   public void replaceEvent(IEvent oldEvent, IEvent newEvent) {
-    int idx = eventList.indexOf(oldEvent);
-    if (idx < 0) {
-      throw new IllegalArgumentException("Event to replace not found: " + oldEvent);
+    IEvent stored = eventList.firstEqual(oldEvent);
+    if (stored == null) {
+      EventArchive shrunk = archive.remove(oldEvent);
+      if (shrunk == archive) {
+        throw new IllegalArgumentException("Event to replace not found: " + oldEvent);
+      }
+      // the replacement is a fresh change, so it is kept in memory rather than archived.
+      archive = shrunk;
+      eventList = eventList.append(newEvent);
+      track(newEvent);
+      changed(oldEvent.getStartDate());
+      changed(newEvent.getStartDate());
+      return;
     }
-    eventList.set(idx, newEvent);
+    eventList = eventList.replaceFirst(oldEvent, newEvent);
+    untrack(stored);
+    track(newEvent);
+    changed(stored.getStartDate());
+    changed(newEvent.getStartDate());
   }
 
   @Override
   public List<IEvent> getEvents() {
-    List<IEvent> allEvents = new ArrayList<>(eventList);
-    for (IEventSeries s : seriesList) {
-      allEvents.addAll(s.getEvents());
+    if (allEvents == null) {
+      List<IEvent> events = new ArrayList<>();
+      for (IEvent e : eventList) {
+        events.add(e);
+      }
+      for (IEventSeries s : seriesList) {
+        events.addAll(s.getEvents());
+      }
+      allEvents = List.copyOf(events);
     }
-    return List.copyOf(allEvents);
+    if (archive.size() == 0) {
+      return allEvents;
+    }
+    List<IEvent> events = archive.toList();
+    events.addAll(allEvents);
+    return Collections.unmodifiableList(events);
   }
 
   @Override
   public List<IEvent> getScheduleInRange(LocalDate start, LocalDate end) {
-    List<IEvent> results = new ArrayList<>();
-    for (IEvent e : eventList) {
-      LocalDate d = e.getStartDate();
-      if ((d.isEqual(start) || d.isAfter(start))
-              && (d.isEqual(end) || d.isBefore(end))) {
-        results.add(e);
-      }
-    }
-    for (IEventSeries s : seriesList) {
-      for (IEvent e : s.getEvents()) {
-        LocalDate d = e.getStartDate();
-        if ((d.isEqual(start) || d.isAfter(start))
-                && (d.isEqual(end) || d.isBefore(end))) {
-          results.add(e);
+    // the index keeps events ordered by start date, so no sorting is needed here. the lazy series
+    // reaching the range are expanded over it and ranked like the occurrences of eager series,
+    // so the index merges them in the order an eager calendar would hold them.
+    List<IEvent> extra = new ArrayList<>();
+    List<Long> extraRanks = new ArrayList<>();
+    if (!start.isAfter(end)) {
+      TreeMap<Long, IEventSeries> reaching = new TreeMap<>();
+      lazyByMonth.forEachInRange(monthOf(start), monthOf(end),
+              (month, series) -> series.forEach(reaching::put));
+      for (Map.Entry<Long, IEventSeries> series : reaching.entrySet()) {
+        for (IEvent e : series.getValue().getEventsInRange(start, end)) {
+          extra.add(e);
+          extraRanks.add(SERIES_RANK + series.getKey());
         }
       }
     }
-    return results.stream()
-            .sorted(new EventComparator())
-            .collect(Collectors.toList());
+    List<IEvent> results = extra.isEmpty() ? index.inRange(start, end)
+            : index.inRange(start, end, extra,
+                    extraRanks.stream().mapToLong(Long::longValue).toArray());
+    List<IEvent> archived = archive.inRange(start, end);
+    return archived.isEmpty() ? results : mergeByStartDate(archived, results);
   }
 
   @Override
   public IEventSeries getSeriesFor(IEvent event) {
-    for (IEventSeries s : seriesList) {
-      if (s.getEvents().contains(event)) {
-        return s;
-      }
-    }
-    return null;
+    IEventSeries owner = owners.get(event);
+    return owner != null ? owner : inLazySeries(event);
   }
 
   @Override
   public void replaceSeries(IEventSeries oldSeries, IEventSeries newSeries) {
-    int idx = seriesList.indexOf(oldSeries);
-    if (idx < 0) {
+    IEventSeries stored = seriesList.firstEqual(oldSeries);
+    if (stored == null) {
       throw new IllegalArgumentException("Series to replace not found: " + oldSeries);
     }
-    seriesList.set(idx, newSeries);
+    long position = seriesList.positionOf(oldSeries);
+    seriesList = seriesList.replaceFirst(oldSeries, newSeries);
+    untrackSeries(stored, position);
+    trackSeries(newSeries);
+    seriesChanged();
   }
 
   private void ensureDistinct(IEvent e) {
-    for (IEvent existing : eventList) {
-      if (existing.equals(e)) {
-        throw new IllegalArgumentException("Duplicate event: " + e);
+    if (occurrences.containsKey(e)) {
+      throw new IllegalArgumentException("Duplicate event: " + e);
+    }
+    if (inLazySeries(e) != null) {
+      throw new IllegalArgumentException("Duplicate event in series: " + e);
+    }
+  }
+
+  // checks archived events in one go, so each archived month is decoded at most once.
+  private void ensureNotArchived(Collection<IEvent> events, String message) {
+    IEvent archived = archive.findAny(events);
+    if (archived != null) {
+      throw new IllegalArgumentException(message + archived);
+    }
+  }
+
+  private IEventSeries inLazySeries(IEvent e) {
+    PersistentTreeMap<Long, IEventSeries> reaching = lazyByMonth.get(monthOf(e.getStartDate()));
+    if (reaching == null) {
+      return null;
+    }
+    for (Iterator<IEventSeries> it = reaching.values(); it.hasNext(); ) {
+      IEventSeries s = it.next();
+      if (s.containsEvent(e)) {
+        return s;
       }
     }
-    for (IEventSeries s : seriesList) {
-      for (IEvent existing : s.getEvents()) {
-        if (existing.equals(e)) {
-          throw new IllegalArgumentException("Duplicate event in series: " + e);
-        }
+    return null;
+  }
+
+  // merges two lists which are each ordered by start date into one ordered list.
+  private static List<IEvent> mergeByStartDate(List<IEvent> first, List<IEvent> second) {
+    List<IEvent> merged = new ArrayList<>(first.size() + second.size());
+    int i = 0;
+    int j = 0;
+    while (i < first.size() && j < second.size()) {
+      if (facade.isAfter(first.get(i).getStartDate(), second.get(j).getStartDate())) {
+        merged.add(second.get(j++));
+      } else {
+        merged.add(first.get(i++));
+      }
+    }
+    merged.addAll(first.subList(i, first.size()));
+    merged.addAll(second.subList(j, second.size()));
+    return merged;
+  }
+
+  // counts a change to the standalone events starting in the month of the given date.
+  private void changed(LocalDate date) {
+    version++;
+    monthVersions = monthVersions.put(monthOf(date), version);
+  }
+
+  private void seriesChanged() {
+    version++;
+    seriesVersion = version;
+  }
+
+  // keeps the start date index and the duplicate counts in step with the stored events.
+  // every change passes through here, so this is also where the cached getEvents() list is dropped.
+  private void track(IEvent e) {
+    track(e, eventList.positionOf(e));
+  }
+
+  private void track(IEvent e, long rank) {
+    index = index.add(e, rank);
+    count(e);
+  }
+
+  // the part of track besides the index, for events the index already took in bulk.
+  private void count(IEvent e) {
+    Integer count = occurrences.get(e);
+    occurrences = occurrences.put(e, count == null ? 1 : count + 1);
+    allEvents = null;
+  }
+
+  private void trackSeries(IEventSeries series) {
+    allEvents = null;
+    long position = seriesList.positionOf(series);
+    if (series.isLazy()) {
+      lazySeries = lazySeries.put(position, series);
+      for (int month : monthsReached(series)) {
+        PersistentTreeMap<Long, IEventSeries> filed = lazyByMonth.get(month);
+        lazyByMonth = lazyByMonth.put(month,
+                (filed == null ? PersistentTreeMap.<Long, IEventSeries>empty() : filed)
+                        .put(position, series));
+      }
+      return;
+    }
+    long rank = SERIES_RANK + position;
+    for (IEvent e : series) {
+      track(e, rank);
+      // the first series added keeps ownership, matching a front to back search.
+      if (!owners.containsKey(e)) {
+        owners = owners.put(e, series);
+      }
+    }
+  }
+
+  // the epoch months the occurrences of a lazy series can start in.
+  private static int[] monthsReached(IEventSeries series) {
+    LocalDate[] span;
+    if (series instanceof EventSeries) {
+      span = ((EventSeries) series).startDateSpan();
+    } else {
+      span = new LocalDate[] {LocalDate.MAX, LocalDate.MIN};
+      for (IEvent e : series) {
+        span[0] = e.getStartDate().isBefore(span[0]) ? e.getStartDate() : span[0];
+        span[1] = e.getStartDate().isAfter(span[1]) ? e.getStartDate() : span[1];
+      }
+      if (span[0].isAfter(span[1])) {
+        return new int[0];
+      }
+    }
+    int first = monthOf(span[0]);
+    int[] months = new int[monthOf(span[1]) - first + 1];
+    for (int i = 0; i < months.length; i++) {
+      months[i] = first + i;
+    }
+    return months;
+  }
+
+  private void untrack(IEvent e) {
+    index = index.remove(e);
+    Integer count = occurrences.get(e);
+    if (count != null) {
+      occurrences = count == 1 ? occurrences.remove(e) : occurrences.put(e, count - 1);
+    }
+    allEvents = null;
+  }
+
+  // position is where the series was in seriesList before it was taken out.
+  private void untrackSeries(IEventSeries series, long position) {
+    allEvents = null;
+    if (series.isLazy()) {
+      lazySeries = lazySeries.remove(position);
+      for (int month : monthsReached(series)) {
+        PersistentTreeMap<Long, IEventSeries> filed = lazyByMonth.get(month).remove(position);
+        lazyByMonth = filed.isEmpty() ? lazyByMonth.remove(month) : lazyByMonth.put(month, filed);
+      }
+      return;
+    }
+    for (IEvent e : series) {
+      untrack(e);
+      if (owners.get(e) == series) {
+        owners = owners.remove(e);
       }
     }
   }
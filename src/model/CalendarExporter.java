@@ -0,0 +1,398 @@
+package model;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Writes the events of a calendar within a date range out as an iCalendar (RFC 5545) or CSV file.
+ * The range is read a week at a time and every event is written as soon as it is read, through a
+ * fixed size buffer, so only one week of events is held at once however large the calendar is.
+ *
+ * <p>In iCalendar files, an event series is written once, as an event with an RRULE covering the
+ * part of the series within the range, when its first occurrence in the range is met. Occurrences
+ * which were edited individually and start within the range follow it as events with a
+ * RECURRENCE-ID, and the rule leaves out the dates of those moved out of the range. A series
+ * whose occurrences no longer follow its rule is written occurrence by occurrence. CSV files hold
+ * one row per event, series occurrences included, in the columns most calendar applications
+ * import.
+ */
+public final class CalendarExporter {
+  /**
+   * The file formats a calendar can be exported to.
+   */
+  public enum Format {
+    ICS,
+    CSV
+  }
+
+  static final int WINDOW_DAYS = 7;
+  static final int BUFFER_BYTES = 1 << 16;
+  private static final int ICS_LINE_BYTES = 75;
+  private static final String[] DAY_CODES = {"MO", "TU", "WE", "TH", "FR", "SA", "SU"};
+  private static final String CSV_HEADER = "Subject,Start Date,Start Time,End Date,End Time,"
+          + "All Day Event,Description,Location,Private\r\n";
+  private final ICalendar calendar;
+  private final ZoneId zone;
+  private final ChannelWriter out;
+  // every series met so far, and whether it was written as a rule.
+  private final Map<IEventSeries, Boolean> seenSeries;
+  // UIDs are numbered within an export, and the random suffix keeps them apart from those of
+  // other exports, so importing two exports into one calendar doesn't merge their events.
+  private final String uidSuffix;
+  private int uid;
+  private LocalDateTime stamp;
+
+  private CalendarExporter(ICalendar calendar, ChannelWriter out) {
+    this.calendar = calendar;
+    this.zone = calendar.getTimeZone();
+    this.out = out;
+    this.seenSeries = new IdentityHashMap<>();
+    this.uidSuffix = "-" + UUID.randomUUID();
+  }
+
+  /**
+   * Writes the events of the calendar starting within the given dates to a file, replacing it.
+   * @param calendar the calendar to export.
+   * @param format the format to write.
+   * @param from the first date, inclusive.
+   * @param to the last date, inclusive.
+   * @param file where to write.
+   * @return the number of events written, counting a series written as a rule as one.
+   * @throws IOException if the file can't be written.
+   */
+  public static int export(ICalendar calendar, Format format, LocalDate from, LocalDate to,
+                           Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      return export(calendar, format, from, to, channel);
+    }
+  }
+
+  /**
+   * Writes the events of the calendar starting within the given dates to a channel. The channel
+   * is left open.
+   * @param calendar the calendar to export.
+   * @param format the format to write.
+   * @param from the first date, inclusive.
+   * @param to the last date, inclusive.
+   * @param channel where to write.
+   * @return the number of events written, counting a series written as a rule as one.
+   * @throws IOException if the channel can't be written.
+   */
+  public static int export(ICalendar calendar, Format format, LocalDate from, LocalDate to,
+                           WritableByteChannel channel) throws IOException {
+    if (from.isAfter(to)) {
+      throw new IllegalArgumentException("Start date " + from + " is after end date " + to);
+    }
+    ChannelWriter out = new ChannelWriter(channel, BUFFER_BYTES);
+    CalendarExporter exporter = new CalendarExporter(calendar, out);
+    int written = format == Format.ICS ? exporter.writeIcs(from, to) : exporter.writeCsv(from, to);
+    out.flush();
+    return written;
+  }
+
+  // ---------------------------------------------------------------------------------------------
+  // iCalendar.
+
+  private int writeIcs(LocalDate from, LocalDate to) throws IOException {
+    stamp = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS);
+    line("BEGIN:VCALENDAR");
+    line("VERSION:2.0");
+    line("PRODID:-//Calendar//Export//EN");
+    out.append("X-WR-TIMEZONE:");
+    text(zone.getId());
+    out.append("\r\n");
+    int written = 0;
+    for (LocalDate start = from; !start.isAfter(to); start = start.plusDays(WINDOW_DAYS)) {
+      LocalDate end = min(start.plusDays(WINDOW_DAYS - 1), to);
+      for (IEvent e : calendar.getScheduleInRange(start, end)) {
+        IEventSeries owner = calendar.getSeriesFor(e);
+        if (owner == null) {
+          writeEvent(e, nextUid("e"), null);
+          written++;
+        } else if (!seenSeries.containsKey(owner)) {
+          int rule = writeSeries(owner, from, to);
+          seenSeries.put(owner, rule > 0);
+          if (rule < 0) {
+            writeEvent(e, nextUid("e"), null);
+            written++;
+          }
+          written += Math.max(rule, 0);
+        } else if (!seenSeries.get(owner)) {
+          writeEvent(e, nextUid("e"), null);
+          written++;
+        }
+      }
+    }
+    line("END:VCALENDAR");
+    return written;
+  }
+
+  // writes the part of a series within the range as its rule and its edited occurrences,
+  // returning how many events were written, or -1 if it has no rule there.
+  private int writeSeries(IEventSeries series, LocalDate from, LocalDate to)
+          throws IOException {
+    if (!(series instanceof EventSeries)) {
+      return -1;
+    }
+    EventSeries lazy = ((EventSeries) series).asLazy();
+    Set<DayOfWeek> days = lazy.getWeekDays();
+    IEvent base = lazy.getBaseEvent();
+    LocalDate first = max(base.getStartDate(), from);
+    LocalDate last = min(lazy.getSeriesEndDate(), to);
+    while (!days.contains(first.getDayOfWeek()) && !first.isAfter(last)) {
+      first = first.plusDays(1);
+    }
+    if (!lazy.isLazy() || days.isEmpty() || first.isAfter(last)) {
+      return -1;
+    }
+    // edited occurrences of the rule dates within the range, and those moved in from outside it.
+    NavigableMap<LocalDate, IEvent> inRule = lazy.getOverrides().subMap(first, true, last, true);
+    List<IEvent> movedIn = new ArrayList<>();
+    for (Map.Entry<LocalDate, IEvent> entry : lazy.getOverrides().entrySet()) {
+      if (!inRule.containsKey(entry.getKey()) && within(entry.getValue(), from, to)) {
+        movedIn.add(entry.getValue());
+      }
+    }
+    String id = nextUid("s");
+    line("BEGIN:VEVENT");
+    property("UID", id);
+    dateTime("DTSTAMP", stamp, true);
+    dateTime("DTSTART", LocalDateTime.of(first, base.getStartTime()), false);
+    dateTime("DTEND", LocalDateTime.of(first, base.getEndTime()), false);
+    out.append("RRULE:FREQ=WEEKLY;BYDAY=");
+    boolean separate = false;
+    // in week order, whatever order the series keeps its days in.
+    for (DayOfWeek day : DayOfWeek.values()) {
+      if (!days.contains(day)) {
+        continue;
+      }
+      if (separate) {
+        out.append(',');
+      }
+      out.append(DAY_CODES[day.ordinal()]);
+      separate = true;
+    }
+    // a rule on a zoned start must end in UTC.
+    out.append(";UNTIL=");
+    utc(LocalDateTime.of(last, LocalTime.of(23, 59, 59)));
+    out.append("\r\n");
+    for (Map.Entry<LocalDate, IEvent> entry : inRule.entrySet()) {
+      if (!within(entry.getValue(), from, to)) {
+        dateTime("EXDATE", LocalDateTime.of(entry.getKey(), base.getStartTime()), false);
+      }
+    }
+    details(base);
+    line("END:VEVENT");
+
+    int written = 1;
+    for (Map.Entry<LocalDate, IEvent> entry : inRule.entrySet()) {
+      if (within(entry.getValue(), from, to)) {
+        writeEvent(entry.getValue(), id,
+                LocalDateTime.of(entry.getKey(), base.getStartTime()));
+      }
+    }
+    for (IEvent e : movedIn) {
+      writeEvent(e, nextUid("e"), null);
+      written++;
+    }
+    return written;
+  }
+
+  // a UID unique to this export, numbered in the order events are written.
+  private String nextUid(String kind) {
+    return kind + ++uid + uidSuffix;
+  }
+
+  private static boolean within(IEvent e, LocalDate from, LocalDate to) {
+    return !e.getStartDate().isBefore(from) && !e.getStartDate().isAfter(to);
+  }
+
+  private void writeEvent(IEvent e, String id, LocalDateTime recurrenceId) throws IOException {
+    line("BEGIN:VEVENT");
+    property("UID", id);
+    dateTime("DTSTAMP", stamp, true);
+    if (recurrenceId != null) {
+      dateTime("RECURRENCE-ID", recurrenceId, false);
+    }
+    dateTime("DTSTART", LocalDateTime.of(e.getStartDate(), e.getStartTime()), false);
+    dateTime("DTEND", LocalDateTime.of(e.getEndDate(), e.getEndTime()), false);
+    details(e);
+    line("END:VEVENT");
+  }
+
+  private void details(IEvent e) throws IOException {
+    property("SUMMARY", e.getSubject());
+    if (e.getDescription() != null) {
+      property("DESCRIPTION", e.getDescription());
+    }
+    if (e.getLocation() != null) {
+      property("LOCATION", e.getLocation() == EventLocation.ONLINE ? "Online" : "Physical");
+    }
+    if (e.getStatus() != null) {
+      property("CLASS", e.getStatus().name());
+    }
+  }
+
+  private void property(String name, String value) throws IOException {
+    out.append(name).append(':');
+    text(value);
+    out.append("\r\n");
+  }
+
+  private void dateTime(String name, LocalDateTime at, boolean inUtc) throws IOException {
+    out.append(name);
+    if (inUtc) {
+      out.append(':');
+      basic(at);
+      out.append('Z');
+    } else {
+      out.append(";TZID=");
+      text(zone.getId());
+      out.append(':');
+      basic(at);
+    }
+    out.append("\r\n");
+  }
+
+  private void utc(LocalDateTime local) throws IOException {
+    basic(local.atZone(zone).withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime());
+    out.append('Z');
+  }
+
+  // yyyyMMddTHHmmss
+  private void basic(LocalDateTime at) throws IOException {
+    out.appendPadded(at.getYear(), 4).appendPadded(at.getMonthValue(), 2)
+            .appendPadded(at.getDayOfMonth(), 2).append('T')
+            .appendPadded(at.getHour(), 2).appendPadded(at.getMinute(), 2)
+            .appendPadded(at.getSecond(), 2);
+  }
+
+  private void line(String text) throws IOException {
+    out.append(text).append("\r\n");
+  }
+
+  // escapes a text value, folding it onto continuation lines to keep lines within 75 bytes.
+  private void text(String value) throws IOException {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      boolean pair = Character.isHighSurrogate(c) && i + 1 < value.length()
+              && Character.isLowSurrogate(value.charAt(i + 1));
+      boolean escaped = c == '\\' || c == ';' || c == ',' || c == '\n';
+      int width = pair ? 4 : escaped ? 2 : ChannelWriter.utf8Length(c);
+      if (c == '\r') {
+        continue;
+      }
+      if (out.column() + width > ICS_LINE_BYTES) {
+        out.append("\r\n ");
+      }
+      if (pair) {
+        out.append(value.subSequence(i, i + 2));
+        i++;
+      } else if (c == '\n') {
+        out.append("\\n");
+      } else {
+        if (escaped) {
+          out.append('\\');
+        }
+        out.append(c);
+      }
+    }
+  }
+
+  // ---------------------------------------------------------------------------------------------
+  // CSV.
+
+  private int writeCsv(LocalDate from, LocalDate to) throws IOException {
+    out.append(CSV_HEADER);
+    int written = 0;
+    for (LocalDate start = from; !start.isAfter(to); start = start.plusDays(WINDOW_DAYS)) {
+      List<IEvent> window = calendar.getScheduleInRange(start,
+              min(start.plusDays(WINDOW_DAYS - 1), to));
+      for (IEvent e : window) {
+        writeRow(e);
+        written++;
+      }
+    }
+    return written;
+  }
+
+  private void writeRow(IEvent e) throws IOException {
+    boolean allDay = e.isAllDayEvent();
+    field(e.getSubject());
+    out.append(',');
+    date(e.getStartDate());
+    out.append(',');
+    if (!allDay) {
+      time(e.getStartTime());
+    }
+    out.append(',');
+    date(e.getEndDate());
+    out.append(',');
+    if (!allDay) {
+      time(e.getEndTime());
+    }
+    out.append(allDay ? ",True," : ",False,");
+    if (e.getDescription() != null) {
+      field(e.getDescription());
+    }
+    out.append(',');
+    if (e.getLocation() != null) {
+      out.append(e.getLocation() == EventLocation.ONLINE ? "Online" : "Physical");
+    }
+    out.append(e.getStatus() == EventStatus.PRIVATE ? ",True\r\n" : ",False\r\n");
+  }
+
+  // MM/dd/yyyy
+  private void date(LocalDate date) throws IOException {
+    out.appendPadded(date.getMonthValue(), 2).append('/')
+            .appendPadded(date.getDayOfMonth(), 2).append('/')
+            .appendPadded(date.getYear(), 4);
+  }
+
+  // hh:mm AM
+  private void time(LocalTime time) throws IOException {
+    int hour = time.getHour() % 12 == 0 ? 12 : time.getHour() % 12;
+    out.appendPadded(hour, 2).append(':').appendPadded(time.getMinute(), 2)
+            .append(time.getHour() < 12 ? " AM" : " PM");
+  }
+
+  // quotes fields holding separators, doubling any quotes inside them.
+  private void field(String value) throws IOException {
+    boolean quote = false;
+    for (int i = 0; i < value.length() && !quote; i++) {
+      char c = value.charAt(i);
+      quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+    }
+    if (!quote) {
+      out.append(value);
+      return;
+    }
+    out.append('"').append(value.replace("\"", "\"\"")).append('"');
+  }
+
+  private static LocalDate min(LocalDate a, LocalDate b) {
+    return a.isBefore(b) ? a : b;
+  }
+
+  private static LocalDate max(LocalDate a, LocalDate b) {
+    return a.isAfter(b) ? a : b;
+  }
+}
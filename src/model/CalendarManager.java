@@ -11,6 +11,8 @@ import java.util.Map;
  */
 public class CalendarManager implements ICalendarManager {
   Map<String, ICalendar> calendars;
+  // counts the calendars added, removed and renamed, so a store can tell its index is stale.
+  private volatile long version;
 
   public CalendarManager() {
     this.calendars = new HashMap<>();
@@ -37,20 +39,38 @@ public class CalendarManager implements ICalendarManager {
 
     ICalendar oldCalendar =  calendars.get(oldName);
 
-    calendars.remove(oldName);
+    // adds the new name first, so a lock-free reader always finds the calendar under one name.
     calendars.put(newName, oldCalendar);
+    calendars.remove(oldName);
+    changed();
   }
 
   @Override
   public void addCalendar(String name, ICalendar calendar) {
     assertNameNotTaken(name);
     calendars.put(name, calendar);
+    changed();
   }
 
   @Override
   public void removeCalendar(String name) {
     assertContainsCalendar(name, "Cannot remove calendar that doesn't exist: " + name);
     calendars.remove(name);
+    changed();
+  }
+
+  /**
+   * Returns the number of times a calendar was added, removed or renamed. Changes to the events
+   * of a calendar are counted by the calendar itself.
+   * @return the change count.
+   */
+  long version() {
+    return version;
+  }
+
+  // only ever called by one thread at a time, ConcurrentCalendarManager serializes its changes.
+  private void changed() {
+    version++;
   }
 
   private void assertContainsCalendar(String name) {
@@ -74,6 +94,7 @@ public class CalendarManager implements ICalendarManager {
     final String defaultName = "default";
     if (!calendars.containsKey(defaultName)) {
       calendars.put(defaultName, new Calendar());  // model.Calendar
+      changed();
     }
     return calendars.get(defaultName);
   }
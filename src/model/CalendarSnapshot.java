@@ -0,0 +1,271 @@
+package model;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+
+/**
+ * Saves every calendar of a calendar manager into a compact binary file, and loads it back.
+ * Saving streams the file out calendar by calendar. Loading maps the file into memory and hands
+ * back calendars which decode their events from the mapping only once they are used, so even a
+ * very large snapshot is loaded in time proportional to the number of calendars.
+ *
+ * <p>The file is laid out as follows, all numbers big endian:
+ * <pre>
+ * header     magic int, version short
+ * calendars  one section per calendar, see below
+ * strings    count int, then (offset int, length int) per string, then the UTF-8 bytes
+ * directory  count int, then (name id int, zone id int, section offset long,
+ *            event count int, series count int) per calendar
+ * trailer    strings offset long, directory offset long, magic int
+ * </pre>
+ * A calendar section holds its standalone events as fixed size records in the order they were
+ * added, followed by one int per event giving the record numbers ordered by start, followed by
+ * its series. An event record is start and end in minutes since the epoch (long, long), then the
+ * subject and description string ids (int, int, -1 for none), then the location and status
+ * ordinals (byte, byte, -1 for none). A series is its base event record, a week day mask byte,
+ * its end date as an epoch day long, a lazy flag byte and a count int, followed by that many
+ * occurrence records for an eager series, or that many (rule date epoch day long, record) pairs
+ * holding the edited occurrences of a lazy series.
+ */
+public final class CalendarSnapshot {
+  static final int MAGIC = 0x43414C53;
+  static final short VERSION = 1;
+  static final int HEADER_BYTES = 6;
+  static final int TRAILER_BYTES = 20;
+  static final int RECORD_BYTES = 26;
+  static final int MINUTES_PER_DAY = 24 * 60;
+
+  private CalendarSnapshot() {
+  }
+
+  /**
+   * Writes every calendar of the manager to the given file, replacing it. The file is written
+   * next to its final place first, so a failed save leaves any previous snapshot intact.
+   * @param manager the calendars to save.
+   * @param file where to save them.
+   * @throws IOException if the file can't be written.
+   * @throws IllegalArgumentException if a calendar holds a series this format can't describe.
+   */
+  public static void save(ICalendarManager manager, Path file) throws IOException {
+    Path partial = file.resolveSibling(file.getFileName() + ".partial");
+    try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(partial), 1 << 16))) {
+      new Writer(out).write(manager);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(partial);
+      throw e;
+    }
+    try {
+      Files.move(partial, file,
+              StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /**
+   * Loads the calendars saved in the given file into a new calendar manager. Each calendar
+   * decodes its events from the mapped file the first time it is used.
+   * @param file the snapshot to load.
+   * @return a manager holding the saved calendars.
+   * @throws IOException if the file can't be read or isn't a calendar snapshot.
+   */
+  public static CalendarManager load(Path file) throws IOException {
+    SnapshotFile snapshot = SnapshotFile.map(file);
+    CalendarManager manager = new CalendarManager();
+    int position = snapshot.directory();
+    int count = snapshot.getInt(position);
+    position += 4;
+    for (int i = 0; i < count; i++) {
+      String name = snapshot.string(snapshot.getInt(position));
+      ZoneId zone = ZoneId.of(snapshot.string(snapshot.getInt(position + 4)));
+      int section = (int) snapshot.getLong(position + 8);
+      int events = snapshot.getInt(position + 16);
+      int series = snapshot.getInt(position + 20);
+      manager.addCalendar(name, new MappedCalendar(snapshot, zone, section, events, series));
+      position += 24;
+    }
+    return manager;
+  }
+
+  /**
+   * Streams one snapshot out, collecting the strings it meets along the way.
+   */
+  private static final class Writer {
+    private final DataOutputStream out;
+    private final Map<String, Integer> ids;
+    private final List<String> strings;
+
+    private Writer(DataOutputStream out) {
+      this.out = out;
+      this.ids = new HashMap<>();
+      this.strings = new ArrayList<>();
+    }
+
+    private void write(ICalendarManager manager) throws IOException {
+      out.writeInt(MAGIC);
+      out.writeShort(VERSION);
+
+      List<String> names = manager.getCalendars();
+      int[] directory = new int[names.size() * 4];
+      long[] sections = new long[names.size()];
+      for (int i = 0; i < names.size(); i++) {
+        ICalendar calendar = manager.getCalendar(names.get(i));
+        List<IEvent> events = new ArrayList<>();
+        List<IEventSeries> series = new ArrayList<>();
+        contentsOf(calendar, events, series);
+
+        directory[4 * i] = id(names.get(i));
+        directory[4 * i + 1] = id(calendar.getTimeZone().getId());
+        directory[4 * i + 2] = events.size();
+        directory[4 * i + 3] = series.size();
+        sections[i] = out.size();
+        writeSection(events, series);
+      }
+
+      long stringsOffset = out.size();
+      writeStrings();
+      long directoryOffset = out.size();
+      out.writeInt(names.size());
+      for (int i = 0; i < names.size(); i++) {
+        out.writeInt(directory[4 * i]);
+        out.writeInt(directory[4 * i + 1]);
+        out.writeLong(sections[i]);
+        out.writeInt(directory[4 * i + 2]);
+        out.writeInt(directory[4 * i + 3]);
+      }
+      out.writeLong(stringsOffset);
+      out.writeLong(directoryOffset);
+      out.writeInt(MAGIC);
+      if (out.size() == Integer.MAX_VALUE) {
+        // DataOutputStream stops counting here, and the file could not be mapped anyway.
+        throw new IOException("Calendar snapshot is larger than 2GB");
+      }
+    }
+
+    private void writeSection(List<IEvent> events, List<IEventSeries> series) throws IOException {
+      long[] starts = new long[events.size()];
+      for (int i = 0; i < events.size(); i++) {
+        IEvent e = events.get(i);
+        starts[i] = minutesOf(e.getStartDate(), e.getStartTime());
+        writeRecord(e);
+      }
+      // record numbers ordered by start, ties keep the order the events were added in.
+      Integer[] order = new Integer[events.size()];
+      Arrays.setAll(order, i -> i);
+      Arrays.sort(order, Comparator.comparingLong(i -> starts[i]));
+      for (int i : order) {
+        out.writeInt(i);
+      }
+
+      for (IEventSeries s : series) {
+        if (!(s instanceof EventSeries)) {
+          throw new IllegalArgumentException("Cannot save series of type " + s.getClass());
+        }
+        EventSeries es = (EventSeries) s;
+        writeRecord(es.getBaseEvent());
+        int mask = 0;
+        for (DayOfWeek day : es.getWeekDays()) {
+          mask |= 1 << day.ordinal();
+        }
+        out.writeByte(mask);
+        out.writeLong(es.getSeriesEndDate().toEpochDay());
+        out.writeBoolean(es.isLazy());
+        if (es.isLazy()) {
+          NavigableMap<LocalDate, IEvent> overrides = es.getOverrides();
+          out.writeInt(overrides.size());
+          for (Map.Entry<LocalDate, IEvent> entry : overrides.entrySet()) {
+            out.writeLong(entry.getKey().toEpochDay());
+            writeRecord(entry.getValue());
+          }
+        } else {
+          List<IEvent> occurrences = es.getEvents();
+          out.writeInt(occurrences.size());
+          for (IEvent e : occurrences) {
+            writeRecord(e);
+          }
+        }
+      }
+    }
+
+    private void writeRecord(IEvent e) throws IOException {
+      out.writeLong(minutesOf(e.getStartDate(), e.getStartTime()));
+      out.writeLong(minutesOf(e.getEndDate(), e.getEndTime()));
+      out.writeInt(id(e.getSubject()));
+      out.writeInt(e.getDescription() == null ? -1 : id(e.getDescription()));
+      out.writeByte(e.getLocation() == null ? -1 : e.getLocation().ordinal());
+      out.writeByte(e.getStatus() == null ? -1 : e.getStatus().ordinal());
+    }
+
+    private void writeStrings() throws IOException {
+      byte[][] encoded = new byte[strings.size()][];
+      out.writeInt(strings.size());
+      int offset = 0;
+      for (int i = 0; i < encoded.length; i++) {
+        encoded[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(offset);
+        out.writeInt(encoded[i].length);
+        offset += encoded[i].length;
+      }
+      for (byte[] bytes : encoded) {
+        out.write(bytes);
+      }
+    }
+
+    private int id(String s) {
+      Integer id = ids.get(s);
+      if (id == null) {
+        id = strings.size();
+        ids.put(s, id);
+        strings.add(s);
+      }
+      return id;
+    }
+  }
+
+  /**
+   * Splits a calendar into its standalone events and its series, without expanding lazy series.
+   * @param calendar the calendar to split.
+   * @param events where to add the standalone events, in the order they were added.
+   * @param series where to add the series, in the order they were added.
+   */
+  static void contentsOf(ICalendar calendar, List<IEvent> events, List<IEventSeries> series) {
+    Calendar snapshot = calendar.snapshot();
+    if (snapshot != null) {
+      events.addAll(snapshot.getStandaloneEvents());
+      series.addAll(snapshot.getEventSeries());
+      return;
+    }
+    Map<IEventSeries, Boolean> seen = new IdentityHashMap<>();
+    for (IEvent e : calendar.getEvents()) {
+      IEventSeries owner = calendar.getSeriesFor(e);
+      if (owner == null) {
+        events.add(e);
+      } else if (seen.put(owner, Boolean.TRUE) == null) {
+        series.add(owner);
+      }
+    }
+  }
+
+  static long minutesOf(LocalDate date, LocalTime time) {
+    return date.toEpochDay() * MINUTES_PER_DAY + time.toSecondOfDay() / 60;
+  }
+}
@@ -0,0 +1,528 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the calendars of a manager in a directory and saves them incrementally. Each calendar
+ * has a folder holding one file per month of standalone events and one file for its series.
+ * Calendars count their changes and remember which months, and whether their series, each change
+ * touched, so a save only rewrites the files of months which changed since the last save and
+ * skips unchanged calendars altogether. The cost of a save follows the edits, not the size of
+ * the calendars.
+ *
+ * <p>The directory is laid out as follows:
+ * <pre>
+ * index.bin               magic int, count int, then (name, folder int, zone) per calendar
+ * &lt;folder&gt;/series.bin     the series of the calendar, count int then each series
+ * &lt;folder&gt;/yyyy-mm.bin    the standalone events starting in that month, ordered by start
+ * </pre>
+ * Every file is replaced atomically, the index last. A save cut short can leave a calendar with
+ * some of its months saved and others not, but never a half written file.
+ *
+ * <p>Calendars, concurrent calendars, calendars loaded from a snapshot and calendars loaded in
+ * parallel are saved incrementally. Any other calendar is rewritten in full on every save. A
+ * background flush reads the calendars from its own thread, so it needs calendars which are safe
+ * to share, such as the ones a ConcurrentCalendarManager hands out.
+ */
+public final class CalendarStore implements Closeable {
+  static final int MAGIC = 0x43414C44;
+  private static final String INDEX = "index.bin";
+  private static final String SERIES = "series.bin";
+  private static final String SUFFIX = ".bin";
+
+  private final Path directory;
+  // what was last saved of each calendar, keyed by the calendar object itself. a calendar
+  // replaced by another, as when its time zone changes, is written again in full.
+  private final Map<ICalendar, Saved> saved;
+  private int nextFolder;
+  private ICalendarManager indexed;
+  private long indexedVersion;
+  private ScheduledExecutorService flusher;
+  private IOException flushFailure;
+
+  private CalendarStore(Path directory) {
+    this.directory = directory;
+    this.saved = new IdentityHashMap<>();
+  }
+
+  /**
+   * What was last saved of one calendar.
+   */
+  static final class Saved {
+    private final int folder;
+    // the change count of the calendar when it was saved, -1 if it was never saved.
+    private long version;
+    // the months which have a file.
+    private final Set<Integer> months;
+
+    private Saved(int folder) {
+      this.folder = folder;
+      this.version = -1;
+      this.months = new TreeSet<>();
+    }
+  }
+
+  /**
+   * One calendar listed in the index.
+   */
+  static final class IndexEntry {
+    final String name;
+    final Saved saved;
+    final ZoneId zone;
+
+    IndexEntry(String name, Saved saved, ZoneId zone) {
+      this.name = name;
+      this.saved = saved;
+      this.zone = zone;
+    }
+  }
+
+  /**
+   * Opens the store kept in the given directory, creating the directory if needed. Nothing is
+   * loaded until load is called.
+   * @param directory the directory holding the calendars.
+   * @return the store.
+   * @throws IOException if the directory can't be created.
+   */
+  public static CalendarStore open(Path directory) throws IOException {
+    Files.createDirectories(directory);
+    CalendarStore store = new CalendarStore(directory);
+    try (DirectoryStream<Path> folders = Files.newDirectoryStream(directory)) {
+      for (Path folder : folders) {
+        String name = folder.getFileName().toString();
+        if (Files.isDirectory(folder) && name.chars().allMatch(Character::isDigit)) {
+          store.nextFolder = Math.max(store.nextFolder, Integer.parseInt(name) + 1);
+        }
+      }
+    }
+    return store;
+  }
+
+  /**
+   * Adds every calendar kept in the store to the given manager. The calendars count as saved, so
+   * the next save only writes what changes after this.
+   * @param manager the manager to add the calendars to, which must not hold any of their names.
+   * @param <M> the type of the manager.
+   * @return the given manager.
+   * @throws IOException if the files can't be read or are not calendar files.
+   */
+  public synchronized <M extends ICalendarManager> M load(M manager) throws IOException {
+    for (IndexEntry entry : readIndex()) {
+      manager.addCalendar(entry.name, read(entry.saved, entry.zone));
+      ICalendar added = manager.getCalendar(entry.name);
+      if (added.snapshot() == null) {
+        entry.saved.version = -1;
+      }
+      saved.put(added, entry.saved);
+    }
+    indexed = manager;
+    indexedVersion = versionOf(manager);
+    return manager;
+  }
+
+  /**
+   * Adds every calendar kept in the store to the given manager like load does, but reads and
+   * indexes the calendars in parallel on the given pool. Every calendar is in the manager once
+   * this returns, and the default calendar is already read. The others are read in the
+   * background, and a call to one which isn't read yet waits for it.
+   * @param manager the manager to add the calendars to, which must not hold any of their names.
+   * @param pool the pool to read the calendars on.
+   * @param <M> the type of the manager.
+   * @return the given manager.
+   * @throws IOException if the index or the default calendar can't be read. A later use of
+   *                     another calendar which can't be read throws an UncheckedIOException.
+   */
+  public synchronized <M extends ICalendarManager> M loadInParallel(M manager, ForkJoinPool pool)
+          throws IOException {
+    List<IndexEntry> entries = readIndex();
+    // the default calendar goes first, so it is ready as soon as it can be.
+    entries.sort(Comparator.comparing(entry -> !"default".equals(entry.name)));
+    boolean shared = manager instanceof ConcurrentCalendarManager;
+    LoadingCalendar defaultCalendar = null;
+    for (IndexEntry entry : entries) {
+      LoadingCalendar loading = new LoadingCalendar(entry.zone, pool.submit(() -> {
+        Calendar calendar;
+        try {
+          calendar = readFolder(entry.saved, entry.zone);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        return shared ? new ConcurrentCalendar(calendar) : calendar;
+      }));
+      manager.addCalendar(entry.name, loading);
+      saved.put(loading, entry.saved);
+      if ("default".equals(entry.name)) {
+        defaultCalendar = loading;
+      }
+    }
+    indexed = manager;
+    indexedVersion = versionOf(manager);
+    if (defaultCalendar != null) {
+      try {
+        defaultCalendar.loaded();
+      } catch (UncheckedIOException e) {
+        throw e.getCause();
+      }
+    }
+    return manager;
+  }
+
+  /**
+   * Writes whatever changed in the manager's calendars since the last save or load, and drops
+   * the files of calendars which are no longer in the manager.
+   * @param manager the calendars to save.
+   * @return the number of files written.
+   * @throws IOException if a file can't be written.
+   * @throws IllegalArgumentException if a calendar holds a series this store can't describe.
+   */
+  public synchronized int save(ICalendarManager manager) throws IOException {
+    // read first, so a change made while saving leaves the index stale for the next save.
+    long managerVersion = versionOf(manager);
+    boolean indexStale = manager != indexed || managerVersion != indexedVersion
+            || managerVersion < 0;
+    Map<ICalendar, Saved> live = new IdentityHashMap<>();
+    List<IndexEntry> entries = new ArrayList<>();
+    int written = 0;
+    for (String name : manager.getCalendars()) {
+      ICalendar calendar = manager.getCalendar(name);
+      Saved s = saved.get(calendar);
+      if (s == null) {
+        // noted right away, so a save which fails part way reuses the folder next time.
+        s = allocate();
+        saved.put(calendar, s);
+        indexStale = true;
+      }
+      written += write(calendar, s);
+      live.put(calendar, s);
+      entries.add(new IndexEntry(name, s, calendar.getTimeZone()));
+    }
+    if (indexStale) {
+      writeIndex(entries);
+      written++;
+      for (Map.Entry<ICalendar, Saved> e : saved.entrySet()) {
+        if (!live.containsKey(e.getKey())) {
+          deleteFolder(e.getValue());
+        }
+      }
+    }
+    saved.clear();
+    saved.putAll(live);
+    indexed = manager;
+    indexedVersion = managerVersion;
+    return written;
+  }
+
+  /**
+   * Saves the manager's calendars every period from a background thread, until the store is
+   * closed. A failed save is retried on the next period and reported by close.
+   * @param manager the calendars to save, which must be safe to read from another thread.
+   * @param period the time between saves.
+   * @param unit the unit of the period.
+   * @throws IllegalArgumentException if the store already flushes in the background.
+   */
+  public synchronized void flushEvery(ICalendarManager manager, long period, TimeUnit unit) {
+    if (flusher != null) {
+      throw new IllegalArgumentException("Already flushing in the background");
+    }
+    flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "calendar-store-flush");
+      thread.setDaemon(true);
+      return thread;
+    });
+    flusher.scheduleWithFixedDelay(() -> flush(manager), period, period, unit);
+  }
+
+  /**
+   * Stops the background flush, if there is one, and waits for a save in progress to finish.
+   * Nothing is saved by closing, call save first to keep the latest changes.
+   * @throws IOException if the last background save failed.
+   */
+  @Override
+  public void close() throws IOException {
+    ScheduledExecutorService running;
+    synchronized (this) {
+      running = flusher;
+      flusher = null;
+    }
+    if (running != null) {
+      running.shutdown();
+      try {
+        running.awaitTermination(1, TimeUnit.MINUTES);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    synchronized (this) {
+      if (flushFailure != null) {
+        IOException failure = flushFailure;
+        flushFailure = null;
+        throw failure;
+      }
+    }
+  }
+
+  private synchronized void flush(ICalendarManager manager) {
+    try {
+      save(manager);
+      flushFailure = null;
+    } catch (IOException e) {
+      flushFailure = e;
+    }
+  }
+
+  /**
+   * Reads the calendars listed in the index, without loading any of them.
+   * @return the calendars in the order they are listed, none if there is no index yet.
+   * @throws IOException if the index can't be read.
+   */
+  synchronized List<IndexEntry> readIndex() throws IOException {
+    Path index = directory.resolve(INDEX);
+    List<IndexEntry> entries = new ArrayList<>();
+    if (!Files.exists(index)) {
+      return entries;
+    }
+    try (DataInputStream in = input(index)) {
+      if (in.readInt() != MAGIC) {
+        throw new IOException("Not a calendar store index: " + index);
+      }
+      int count = in.readInt();
+      for (int i = 0; i < count; i++) {
+        String name = in.readUTF();
+        Saved s = new Saved(in.readInt());
+        entries.add(new IndexEntry(name, s, ZoneId.of(in.readUTF())));
+      }
+    }
+    return entries;
+  }
+
+  /**
+   * Writes the index, replacing the previous one.
+   * @param entries the calendars to list, in order.
+   * @throws IOException if the index can't be written.
+   */
+  synchronized void writeIndex(List<IndexEntry> entries) throws IOException {
+    replace(directory.resolve(INDEX), out -> {
+      out.writeInt(MAGIC);
+      out.writeInt(entries.size());
+      for (IndexEntry entry : entries) {
+        out.writeUTF(entry.name);
+        out.writeInt(entry.saved.folder);
+        out.writeUTF(entry.zone.getId());
+      }
+    });
+  }
+
+  /**
+   * Picks a folder for a calendar which was never saved.
+   * @return the saved state of a calendar with nothing written yet.
+   */
+  synchronized Saved allocate() {
+    return new Saved(nextFolder++);
+  }
+
+  /**
+   * Writes the files of the calendar which changed since it was saved.
+   * @param calendar the calendar.
+   * @param s what was last saved of it, updated to match the calendar.
+   * @return the number of files written.
+   * @throws IOException if a file can't be written.
+   */
+  synchronized int write(ICalendar calendar, Saved s) throws IOException {
+    // the calendar as it is right now, which counts its changes unless it is null.
+    Calendar current = calendar.snapshot();
+    if (current == null) {
+      // nothing tells what changed, so all of it is written.
+      List<IEvent> events = new ArrayList<>();
+      List<IEventSeries> series = new ArrayList<>();
+      CalendarSnapshot.contentsOf(calendar, events, series);
+      return writeAll(s, events, series);
+    }
+    if (s.version < 0) {
+      int written = writeAll(s, current.getStandaloneEvents(), current.getEventSeries());
+      s.version = current.version();
+      return written;
+    }
+    if (current.version() == s.version) {
+      return 0;
+    }
+    int written = 0;
+    if (current.seriesVersion() > s.version) {
+      writeSeries(s, current.getEventSeries());
+      written++;
+    }
+    for (int month : current.monthsChangedSince(s.version)) {
+      writeMonth(s, month, current.standaloneEventsIn(month));
+      written++;
+    }
+    s.version = current.version();
+    return written;
+  }
+
+  private int writeAll(Saved s, List<IEvent> events, List<IEventSeries> series)
+          throws IOException {
+    Files.createDirectories(folder(s.folder));
+    Map<Integer, List<IEvent>> byMonth = new TreeMap<>();
+    for (IEvent e : events) {
+      byMonth.computeIfAbsent(Calendar.monthOf(e.getStartDate()), m -> new ArrayList<>()).add(e);
+    }
+    for (int month : new ArrayList<>(s.months)) {
+      if (!byMonth.containsKey(month)) {
+        writeMonth(s, month, List.of());
+      }
+    }
+    for (Map.Entry<Integer, List<IEvent>> e : byMonth.entrySet()) {
+      e.getValue().sort(new EventComparator());
+      writeMonth(s, e.getKey(), e.getValue());
+    }
+    writeSeries(s, series);
+    return byMonth.size() + 1;
+  }
+
+  private void writeMonth(Saved s, int month, List<IEvent> events) throws IOException {
+    Path file = folder(s.folder).resolve(monthFile(month));
+    if (events.isEmpty()) {
+      Files.deleteIfExists(file);
+      s.months.remove(month);
+      return;
+    }
+    replace(file, out -> EventCodec.writeEvents(out, events));
+    s.months.add(month);
+  }
+
+  private void writeSeries(Saved s, List<IEventSeries> series) throws IOException {
+    replace(folder(s.folder).resolve(SERIES), out -> {
+      out.writeInt(series.size());
+      for (IEventSeries each : series) {
+        EventCodec.writeSeries(out, each);
+      }
+    });
+  }
+
+  /**
+   * Reads one calendar back from its folder, noting which months have a file.
+   * @param s where the calendar was saved, updated to match the calendar read.
+   * @param zone the time zone of the calendar.
+   * @return the calendar, with no changes counted.
+   * @throws IOException if the files can't be read.
+   */
+  synchronized Calendar read(Saved s, ZoneId zone) throws IOException {
+    return readFolder(s, zone);
+  }
+
+  // touches nothing but s and the calendar's folder, so calendars can be read in parallel.
+  private Calendar readFolder(Saved s, ZoneId zone) throws IOException {
+    Path folder = folder(s.folder);
+    List<IEventSeries> series = new ArrayList<>();
+    try (DataInputStream in = input(folder.resolve(SERIES))) {
+      int count = in.readInt();
+      for (int i = 0; i < count; i++) {
+        series.add(EventCodec.readSeries(in));
+      }
+    }
+    s.months.clear();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(folder, "*-*" + SUFFIX)) {
+      for (Path file : files) {
+        s.months.add(monthOf(file.getFileName().toString()));
+      }
+    }
+    List<IEvent> events = new ArrayList<>();
+    for (int month : s.months) {
+      try (DataInputStream in = input(folder.resolve(monthFile(month)))) {
+        events.addAll(EventCodec.readEvents(in));
+      }
+    }
+    Calendar calendar = Calendar.restore(zone, events, series);
+    // the files hold every change so far, later ones are counted from the fresh calendar.
+    s.version = calendar.version();
+    return calendar;
+  }
+
+  private static long versionOf(ICalendarManager manager) {
+    return manager instanceof CalendarManager ? ((CalendarManager) manager).version() : -1;
+  }
+
+  private Path folder(int folder) {
+    return directory.resolve(Integer.toString(folder));
+  }
+
+  private static String monthFile(int month) {
+    LocalDate first = Calendar.firstDayOf(month);
+    return String.format("%04d-%02d%s", first.getYear(), first.getMonthValue(), SUFFIX);
+  }
+
+  private static int monthOf(String file) throws IOException {
+    try {
+      int dash = file.lastIndexOf('-');
+      int year = Integer.parseInt(file.substring(0, dash));
+      int month = Integer.parseInt(file.substring(dash + 1, file.length() - SUFFIX.length()));
+      return Calendar.monthOf(LocalDate.of(year, month, 1));
+    } catch (RuntimeException e) {
+      throw new IOException("Not a month file: " + file, e);
+    }
+  }
+
+  /**
+   * Deletes the files of a calendar which is no longer kept.
+   * @param s where the calendar was saved.
+   * @throws IOException if the files can't be deleted.
+   */
+  synchronized void deleteFolder(Saved s) throws IOException {
+    Path path = folder(s.folder);
+    if (!Files.isDirectory(path)) {
+      return;
+    }
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(path)) {
+      for (Path file : files) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(path);
+  }
+
+  private static DataInputStream input(Path file) throws IOException {
+    return new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+  }
+
+  // writes the file next to its place first, so a failed write leaves the old one intact.
+  private static void replace(Path file, JournaledCalendarManager.Body body) throws IOException {
+    Path partial = file.resolveSibling(file.getFileName() + ".partial");
+    try (DataOutputStream out = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(partial), 1 << 16))) {
+      body.write(out);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(partial);
+      throw e;
+    }
+    try {
+      Files.move(partial, file,
+              StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+}
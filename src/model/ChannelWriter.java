@@ -0,0 +1,161 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes text to a channel as UTF-8 through one reusable buffer, which is handed to the channel
+ * whenever it fills up. Numbers are written digit by digit, so writing a line allocates nothing.
+ */
+final class ChannelWriter implements Closeable {
+  private final WritableByteChannel channel;
+  private final ByteBuffer buffer;
+  // bytes written since the last line break, for formats which limit their line length.
+  private int column;
+
+  /**
+   * Creates a writer with a buffer of the given size.
+   * @param channel where to write.
+   * @param capacity the size of the buffer in bytes, at least 4.
+   */
+  ChannelWriter(WritableByteChannel channel, int capacity) {
+    this.channel = channel;
+    this.buffer = ByteBuffer.allocateDirect(Math.max(4, capacity));
+  }
+
+  /**
+   * Returns the number of bytes written since the last line feed.
+   * @return the current column, in bytes.
+   */
+  int column() {
+    return column;
+  }
+
+  /**
+   * Returns how many bytes the given character takes up in UTF-8. A surrogate counts for half of
+   * the four bytes of its pair.
+   * @param c the character.
+   * @return the number of bytes.
+   */
+  static int utf8Length(char c) {
+    if (c < 0x80) {
+      return 1;
+    }
+    if (c < 0x800 || Character.isSurrogate(c)) {
+      return 2;
+    }
+    return 3;
+  }
+
+  /**
+   * Writes a single character.
+   * @param c the character.
+   * @return this writer.
+   * @throws IOException if the channel can't be written.
+   */
+  ChannelWriter append(char c) throws IOException {
+    if (buffer.remaining() < 3) {
+      drain();
+    }
+    if (c < 0x80) {
+      buffer.put((byte) c);
+      column = c == '\n' ? 0 : column + 1;
+    } else if (c < 0x800) {
+      buffer.put((byte) (0xC0 | (c >> 6)));
+      buffer.put((byte) (0x80 | (c & 0x3F)));
+      column += 2;
+    } else if (Character.isSurrogate(c)) {
+      // pairs are encoded by append(CharSequence), a lone surrogate can't be encoded.
+      buffer.put((byte) '?');
+      column++;
+    } else {
+      buffer.put((byte) (0xE0 | (c >> 12)));
+      buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+      buffer.put((byte) (0x80 | (c & 0x3F)));
+      column += 3;
+    }
+    return this;
+  }
+
+  /**
+   * Writes every character of the given text.
+   * @param s the text.
+   * @return this writer.
+   * @throws IOException if the channel can't be written.
+   */
+  ChannelWriter append(CharSequence s) throws IOException {
+    for (int i = 0; i < s.length(); i++) {
+      char c = s.charAt(i);
+      if (Character.isHighSurrogate(c) && i + 1 < s.length()
+              && Character.isLowSurrogate(s.charAt(i + 1))) {
+        appendCodePoint(Character.toCodePoint(c, s.charAt(++i)));
+      } else {
+        append(c);
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Writes a non-negative number, padded with zeros to at least the given width.
+   * @param value the number.
+   * @param width the least number of digits.
+   * @return this writer.
+   * @throws IOException if the channel can't be written.
+   */
+  ChannelWriter appendPadded(int value, int width) throws IOException {
+    int digits = 1;
+    for (int v = value; v >= 10; v /= 10) {
+      digits++;
+    }
+    for (int i = digits; i < width; i++) {
+      append('0');
+    }
+    int divisor = 1;
+    for (int i = 1; i < digits; i++) {
+      divisor *= 10;
+    }
+    for (; divisor > 0; divisor /= 10) {
+      append((char) ('0' + value / divisor % 10));
+    }
+    return this;
+  }
+
+  /**
+   * Hands everything written so far to the channel.
+   * @throws IOException if the channel can't be written.
+   */
+  void flush() throws IOException {
+    drain();
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      channel.close();
+    }
+  }
+
+  private void appendCodePoint(int codePoint) throws IOException {
+    if (buffer.remaining() < 4) {
+      drain();
+    }
+    buffer.put((byte) (0xF0 | (codePoint >> 18)));
+    buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+    buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+    buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+    column += 4;
+  }
+
+  private void drain() throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+}
@@ -0,0 +1,533 @@
+package model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A Calendar which stores its events in primitive columns rather than as Event objects. Start and
+ * end points are stored as epoch minutes, subjects and descriptions as ids into a string
+ * dictionary, and status and location as bytes. IEvents are only built when they are asked for,
+ * so a stored event costs a few dozen bytes instead of an Event with its dates and times.
+ * The occurrences of a series are rows like any other event, and the series itself only keeps
+ * its rule, so eager and lazy series cost the same here: a row per occurrence. Rows stay in the
+ * order they were added in, which is the order events starting the same day come back in.
+ */
+public class ColumnarCalendar implements ICalendar {
+  private static final IDateTimeFacade facade = new DateTimeFacade();
+  private static final int MINUTES_PER_DAY = 24 * 60;
+  private static final byte NONE = -1;
+  private static final int STANDALONE = -1;
+  // which rows a lookup may match.
+  private static final int ANY_ROW = 0;
+  private static final int STANDALONE_ROW = 1;
+  private static final int SERIES_ROW = 2;
+  private static final EventLocation[] LOCATIONS = EventLocation.values();
+  private static final EventStatus[] STATUSES = EventStatus.values();
+
+  private final ZoneId zone;
+
+  // one slot per row.
+  private int size;
+  private long[] starts;
+  private long[] ends;
+  private int[] subjects;
+  private int[] descriptions;
+  private byte[] locations;
+  private byte[] statuses;
+  private int[] seriesIds;
+
+  // subjects and descriptions, each stored once.
+  private final List<String> dictionary;
+  private final Map<String, Integer> dictionaryIds;
+
+  // series are referred to by their position in this list, removed series leave a null behind.
+  private final List<SeriesRule> seriesRules;
+
+  // open addressing table of row + 1 (0 is empty), hashed on the fields Event.equals uses.
+  private int[] table;
+
+  // rows sorted by start date, packed as (epoch day << 32 | row). rebuilt after writes.
+  private long[] order;
+  private boolean ordered;
+
+  /**
+   * Creates a new columnar calendar With the default timezone of EST.
+   */
+  public ColumnarCalendar() {
+    this(ZoneId.of("America/New_York"));
+  }
+
+  /**
+   * Creates a new columnar calendar in the specified zone.
+   * @param zone The time zone this calendar will represent.
+   */
+  public ColumnarCalendar(ZoneId zone) {
+    this.zone = zone;
+    this.size = 0;
+    this.starts = new long[16];
+    this.ends = new long[16];
+    this.subjects = new int[16];
+    this.descriptions = new int[16];
+    this.locations = new byte[16];
+    this.statuses = new byte[16];
+    this.seriesIds = new int[16];
+    this.dictionary = new ArrayList<>();
+    this.dictionaryIds = new HashMap<>();
+    this.seriesRules = new ArrayList<>();
+    this.table = new int[32];
+    this.order = new long[0];
+    this.ordered = true;
+  }
+
+  @Override
+  public ZoneId getTimeZone() {
+    return zone;
+  }
+
+  @Override
+  public ICalendar setTimeZone(ZoneId timeZone) {
+    // shift everything into a new calendar, so a failed shift leaves this one untouched.
+    ColumnarCalendar shifted = new ColumnarCalendar(timeZone);
+    for (int row = 0; row < size; row++) {
+      if (seriesIds[row] == STANDALONE) {
+        shifted.appendRow(eventAt(row).shiftTimeZone(zone, timeZone), STANDALONE);
+      }
+    }
+    for (int slot = 0; slot < seriesRules.size(); slot++) {
+      if (seriesRules.get(slot) != null) {
+        shifted.appendSeries(eventSeries(seriesAt(slot).shiftTimeZone(zone, timeZone)),
+                shifted.seriesRules.size());
+      }
+    }
+    return shifted;
+  }
+
+  @Override
+  public void addEvent(IEvent event) {
+    if (findRow(event, ANY_ROW) >= 0) {
+      throw new IllegalArgumentException("Duplicate event: " + event);
+    }
+    appendRow(event, STANDALONE);
+  }
+
+  @Override
+  public void addEvents(Collection<IEvent> events) {
+    Set<IEvent> seen = new HashSet<>();
+    for (IEvent e : events) {
+      if (findRow(e, ANY_ROW) >= 0 || !seen.add(e)) {
+        throw new IllegalArgumentException("Duplicate event: " + e);
+      }
+    }
+    for (IEvent e : events) {
+      appendRow(e, STANDALONE);
+    }
+  }
+
+  @Override
+  public void removeEvent(IEvent event) {
+    int row = findRow(event, STANDALONE_ROW);
+    if (row >= 0) {
+      removeRows(row, 1);
+    }
+  }
+
+  @Override
+  public void addEventSeries(IEventSeries series) {
+    if (series == null || !series.iterator().hasNext()) {
+      throw new IllegalArgumentException("Event series cannot be null or empty");
+    }
+    Set<IEvent> seen = new HashSet<>();
+    for (IEvent e : series) {
+      if (findRow(e, ANY_ROW) >= 0 || !seen.add(e)) {
+        throw new IllegalArgumentException("Duplicate event in series: " + e);
+      }
+    }
+    appendSeries(eventSeries(series), seriesRules.size());
+  }
+
+  @Override
+  public void removeEventSeries(IEventSeries series) {
+    int slot = slotOf(series);
+    if (slot >= 0) {
+      SeriesRule rule = seriesRules.get(slot);
+      removeRows(rule.firstRow, rule.rows);
+      seriesRules.set(slot, null);
+    }
+  }
+
+  @Override
+  public void replaceEvent(IEvent oldEvent, IEvent newEvent) {
+    int row = findRow(oldEvent, STANDALONE_ROW);
+    if (row < 0) {
+      throw new IllegalArgumentException("Event to replace not found: " + oldEvent);
+    }
+    unhash(row);
+    writeRow(row, newEvent, STANDALONE);
+    hash(row);
+    ordered = false;
+  }
+
+  @Override
+  public void copyEventsAndShift(
+          LocalDate rangeStart, LocalDate rangeEnd, ICalendar from, LocalDate atStartDate) {
+    List<IEvent> events = from.getScheduleInRange(rangeStart, rangeEnd);
+    if (events.isEmpty()) {
+      return;
+    }
+    long shift = facade.daysBetween(rangeStart, atStartDate);
+
+    if (shift > Integer.MAX_VALUE || shift < Integer.MIN_VALUE) {
+      throw new IllegalArgumentException("Cannot shift. Try a smaller number.");
+    }
+
+    List<IEvent> shifted = new ArrayList<>(events.size());
+    for (IEvent event : events) {
+      shifted.add(event.shiftDays((int) shift));
+    }
+    addEvents(shifted);
+  }
+
+  @Override
+  public void copyEvents(LocalDate rangeStart, LocalDate rangeEnd, ICalendar from) {
+    copyEventsAndShift(rangeStart, rangeEnd, from, rangeStart);
+  }
+
+  @Override
+  public List<IEvent> getEvents() {
+    List<IEvent> events = new ArrayList<>(size);
+    for (int row = 0; row < size; row++) {
+      events.add(eventAt(row));
+    }
+    return List.copyOf(events);
+  }
+
+  @Override
+  public List<IEvent> getScheduleInRange(LocalDate start, LocalDate end) {
+    List<IEvent> results = new ArrayList<>();
+    if (start.isAfter(end)) {
+      return results;
+    }
+    ensureOrdered();
+    int i = firstAtOrAfter(start.toEpochDay() << 32);
+    long last = (end.toEpochDay() << 32) | 0xFFFFFFFFL;
+    for (; i < size && order[i] <= last; i++) {
+      results.add(eventAt((int) order[i]));
+    }
+    return results;
+  }
+
+  @Override
+  public IEventSeries getSeriesFor(IEvent event) {
+    int row = findRow(event, SERIES_ROW);
+    return row < 0 ? null : seriesAt(seriesIds[row]);
+  }
+
+  @Override
+  public void replaceSeries(IEventSeries oldSeries, IEventSeries newSeries) {
+    int slot = slotOf(oldSeries);
+    if (slot < 0) {
+      throw new IllegalArgumentException("Series to replace not found: " + oldSeries);
+    }
+    EventSeries replacement = eventSeries(newSeries);
+    SeriesRule rule = seriesRules.get(slot);
+    removeRows(rule.firstRow, rule.rows);
+    appendSeries(replacement, slot);
+  }
+
+  // ───────── series ─────────
+
+  // what a series keeps besides its occurrences, which are the rows from firstRow on.
+  private static final class SeriesRule {
+    private final Event base;
+    private final Set<DayOfWeek> weekDays;
+    private final LocalDate endDate;
+    private final boolean lazy;
+    private int firstRow;
+    private int rows;
+
+    private SeriesRule(EventSeries series, int firstRow) {
+      this.base = series.getBaseEvent();
+      this.weekDays = series.getWeekDays();
+      this.endDate = series.getSeriesEndDate();
+      this.lazy = series.isLazy();
+      this.firstRow = firstRow;
+    }
+  }
+
+  // the rule of a series can only be read from an EventSeries.
+  private static EventSeries eventSeries(IEventSeries series) {
+    if (!(series instanceof EventSeries)) {
+      throw new IllegalArgumentException("Cannot hold series of type " + series.getClass());
+    }
+    return (EventSeries) series;
+  }
+
+  // appends the occurrences of a series as rows of the given slot, and keeps only its rule.
+  private void appendSeries(EventSeries series, int slot) {
+    SeriesRule rule = new SeriesRule(series, size);
+    if (slot == seriesRules.size()) {
+      seriesRules.add(rule);
+    } else {
+      seriesRules.set(slot, rule);
+    }
+    for (IEvent e : series) {
+      appendRow(e, slot);
+      rule.rows++;
+    }
+  }
+
+  // rebuilds the series of a slot from its rule and its rows.
+  private EventSeries seriesAt(int slot) {
+    SeriesRule rule = seriesRules.get(slot);
+    List<IEvent> events = new ArrayList<>(rule.rows);
+    for (int row = rule.firstRow; row < rule.firstRow + rule.rows; row++) {
+      events.add(eventAt(row));
+    }
+    EventSeries series = EventSeries.restoreEager(rule.base, rule.weekDays, rule.endDate, events);
+    return rule.lazy ? series.asLazy() : series;
+  }
+
+  // the slot holding a series equal to the given one, found through its first occurrence, or -1.
+  private int slotOf(IEventSeries series) {
+    Iterator<IEvent> events = series.iterator();
+    if (!events.hasNext()) {
+      return -1;
+    }
+    int row = findRow(events.next(), SERIES_ROW);
+    if (row < 0 || !seriesAt(seriesIds[row]).equals(series)) {
+      return -1;
+    }
+    return seriesIds[row];
+  }
+
+  // ───────── rows ─────────
+
+  private void appendRow(IEvent event, int seriesId) {
+    if (size == starts.length) {
+      grow();
+    }
+    writeRow(size, event, seriesId);
+    size++;
+    hash(size - 1);
+    ordered = false;
+  }
+
+  private void writeRow(int row, IEvent event, int seriesId) {
+    starts[row] = minutesOf(event.getStartDate(), event.getStartTime());
+    ends[row] = minutesOf(event.getEndDate(), event.getEndTime());
+    subjects[row] = intern(event.getSubject());
+    descriptions[row] = event.getDescription() == null ? -1 : intern(event.getDescription());
+    locations[row] = event.getLocation() == null ? NONE : (byte) event.getLocation().ordinal();
+    statuses[row] = event.getStatus() == null ? NONE : (byte) event.getStatus().ordinal();
+    seriesIds[row] = seriesId;
+  }
+
+  // removes count rows from first on, moving the rows after them up so every row keeps its place
+  // in the order. the table holds row numbers, so the moved rows are renumbered in place.
+  private void removeRows(int first, int count) {
+    for (int row = first; row < first + count; row++) {
+      unhash(row);
+    }
+    int after = first + count;
+    int moved = size - after;
+    System.arraycopy(starts, after, starts, first, moved);
+    System.arraycopy(ends, after, ends, first, moved);
+    System.arraycopy(subjects, after, subjects, first, moved);
+    System.arraycopy(descriptions, after, descriptions, first, moved);
+    System.arraycopy(locations, after, locations, first, moved);
+    System.arraycopy(statuses, after, statuses, first, moved);
+    System.arraycopy(seriesIds, after, seriesIds, first, moved);
+    size -= count;
+    for (int i = 0; i < table.length; i++) {
+      if (table[i] > after) {
+        table[i] -= count;
+      }
+    }
+    for (SeriesRule rule : seriesRules) {
+      if (rule != null && rule.firstRow >= after) {
+        rule.firstRow -= count;
+      }
+    }
+    ordered = false;
+  }
+
+  private IEvent eventAt(int row) {
+    return Event.of(
+            dictionary.get(subjects[row]),
+            locations[row] == NONE ? null : LOCATIONS[locations[row]],
+            statuses[row] == NONE ? null : STATUSES[statuses[row]],
+            dateOf(starts[row]), timeOf(starts[row]),
+            dateOf(ends[row]), timeOf(ends[row]),
+            descriptions[row] < 0 ? null : dictionary.get(descriptions[row]));
+  }
+
+  private void grow() {
+    int capacity = starts.length * 2;
+    starts = Arrays.copyOf(starts, capacity);
+    ends = Arrays.copyOf(ends, capacity);
+    subjects = Arrays.copyOf(subjects, capacity);
+    descriptions = Arrays.copyOf(descriptions, capacity);
+    locations = Arrays.copyOf(locations, capacity);
+    statuses = Arrays.copyOf(statuses, capacity);
+    seriesIds = Arrays.copyOf(seriesIds, capacity);
+  }
+
+  // ───────── dictionary ─────────
+
+  private int intern(String s) {
+    Integer id = dictionaryIds.get(s);
+    if (id == null) {
+      id = dictionary.size();
+      dictionary.add(s);
+      dictionaryIds.put(s, id);
+    }
+    return id;
+  }
+
+  private int idOf(String s) {
+    Integer id = dictionaryIds.get(s);
+    return id == null ? -1 : id;
+  }
+
+  // ───────── hash table ─────────
+
+  // finds a row of the given kind which is equal to the event, or -1.
+  private int findRow(IEvent event, int kind) {
+    int subject = idOf(event.getSubject());
+    if (subject < 0) {
+      return -1;
+    }
+    long start = minutesOf(event.getStartDate(), event.getStartTime());
+    long end = minutesOf(event.getEndDate(), event.getEndTime());
+    int mask = table.length - 1;
+    for (int i = hashOf(subject, start, end) & mask; table[i] != 0; i = (i + 1) & mask) {
+      int row = table[i] - 1;
+      if (matches(row, subject, start, end)
+              && (kind == ANY_ROW || (kind == STANDALONE_ROW) == (seriesIds[row] == STANDALONE))) {
+        return row;
+      }
+    }
+    return -1;
+  }
+
+  private boolean matches(int row, int subject, long start, long end) {
+    return subjects[row] == subject && starts[row] == start && ends[row] == end;
+  }
+
+  private void hash(int row) {
+    // keep the table at most half full. a rehash places every row, this one included.
+    if (size * 2 > table.length) {
+      rehash(table.length * 2);
+      return;
+    }
+    int mask = table.length - 1;
+    int i = hashOfRow(row) & mask;
+    while (table[i] != 0) {
+      i = (i + 1) & mask;
+    }
+    table[i] = row + 1;
+  }
+
+  // removes a row from the table, shifting later entries back so no probe chain is broken.
+  private void unhash(int row) {
+    int mask = table.length - 1;
+    int i = hashOfRow(row) & mask;
+    while (table[i] != row + 1) {
+      i = (i + 1) & mask;
+    }
+    int j = i;
+    while (true) {
+      j = (j + 1) & mask;
+      if (table[j] == 0) {
+        break;
+      }
+      int home = hashOfRow(table[j] - 1) & mask;
+      boolean stays = (i <= j) ? (i < home && home <= j) : (i < home || home <= j);
+      if (!stays) {
+        table[i] = table[j];
+        i = j;
+      }
+    }
+    table[i] = 0;
+  }
+
+  private void rehash(int capacity) {
+    table = new int[capacity];
+    int mask = capacity - 1;
+    for (int row = 0; row < size; row++) {
+      int i = hashOfRow(row) & mask;
+      while (table[i] != 0) {
+        i = (i + 1) & mask;
+      }
+      table[i] = row + 1;
+    }
+  }
+
+  private int hashOfRow(int row) {
+    return hashOf(subjects[row], starts[row], ends[row]);
+  }
+
+  private static int hashOf(int subject, long start, long end) {
+    long h = subject * 0x9E3779B97F4A7C15L;
+    h ^= start * 0xC2B2AE3D27D4EB4FL;
+    h ^= end * 0x165667B19E3779F9L;
+    h ^= h >>> 29;
+    return (int) (h ^ (h >>> 32));
+  }
+
+  // ───────── ordering ─────────
+
+  private void ensureOrdered() {
+    if (ordered) {
+      return;
+    }
+    if (order.length < size) {
+      order = new long[starts.length];
+    }
+    for (int row = 0; row < size; row++) {
+      order[row] = (Math.floorDiv(starts[row], MINUTES_PER_DAY) << 32) | row;
+    }
+    Arrays.sort(order, 0, size);
+    ordered = true;
+  }
+
+  private int firstAtOrAfter(long key) {
+    int lo = 0;
+    int hi = size;
+    while (lo < hi) {
+      int mid = (lo + hi) >>> 1;
+      if (order[mid] < key) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  // ───────── time conversions ─────────
+
+  private static long minutesOf(LocalDate date, LocalTime time) {
+    return date.toEpochDay() * MINUTES_PER_DAY + time.getHour() * 60 + time.getMinute();
+  }
+
+  private static LocalDate dateOf(long minutes) {
+    return LocalDate.ofEpochDay(Math.floorDiv(minutes, MINUTES_PER_DAY));
+  }
+
+  private static LocalTime timeOf(long minutes) {
+    int minuteOfDay = Math.floorMod(minutes, MINUTES_PER_DAY);
+    return LocalTime.of(minuteOfDay / 60, minuteOfDay % 60);
+  }
+}
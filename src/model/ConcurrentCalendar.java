@@ -0,0 +1,150 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A Calendar which can be shared between threads. The events are held in a Calendar snapshot
+ * which is never changed once published. Reads go straight to the current snapshot without
+ * locking, so any number of readers run in parallel and each call sees one consistent state.
+ * Changes are serialized: each one is applied to a fresh snapshot, which shares structure with
+ * the current one, and then published in its place. A change which throws publishes nothing.
+ */
+public class ConcurrentCalendar implements ICalendar {
+  private final Object writeLock = new Object();
+  private volatile Calendar current;
+
+  /**
+   *  Creates a new calendar With the default timezone of EST.
+   */
+  public ConcurrentCalendar() {
+    this(new Calendar());
+  }
+
+  /**
+   * Creates a calendar with the specified zone.
+   * @param zone The time zone this calendar will represent.
+   */
+  public ConcurrentCalendar(ZoneId zone) {
+    this(new Calendar(zone));
+  }
+
+  /**
+   * Creates a calendar holding the events and series of the given calendar, as they are now.
+   * Later changes to the given calendar are not seen by this one.
+   * @param calendar the calendar to start from.
+   */
+  public ConcurrentCalendar(Calendar calendar) {
+    current = calendar.snapshot();
+  }
+
+  /**
+   * Returns the calendar as it is right now. The snapshot never changes, so several reads made
+   * against it all agree with each other.
+   * @return a snapshot of this calendar.
+   */
+  @Override
+  public Calendar snapshot() {
+    return current.snapshot();
+  }
+
+  @Override
+  public void revertTo(Calendar snapshot) {
+    update(c -> c.revertTo(snapshot));
+  }
+
+  /**
+   * Moves the standalone events starting before the horizon into the archive, see
+   * Calendar.archiveBefore. Readers see the events either all in memory or all archived.
+   * @param horizon the first date whose events stay in memory.
+   * @return the number of events archived.
+   */
+  public int archiveBefore(LocalDate horizon) {
+    int[] moved = new int[1];
+    update(c -> moved[0] = c.archiveBefore(horizon));
+    return moved[0];
+  }
+
+  @Override
+  public ZoneId getTimeZone() {
+    return current.getTimeZone();
+  }
+
+  @Override
+  public ICalendar setTimeZone(ZoneId timeZone) {
+    return new ConcurrentCalendar(current.setTimeZone(timeZone));
+  }
+
+  @Override
+  public void addEvent(IEvent event) {
+    update(c -> c.addEvent(event));
+  }
+
+  @Override
+  public void addEvents(Collection<IEvent> events) {
+    update(c -> c.addEvents(events));
+  }
+
+  @Override
+  public void removeEvent(IEvent event) {
+    update(c -> c.removeEvent(event));
+  }
+
+  @Override
+  public void addEventSeries(IEventSeries series) {
+    update(c -> c.addEventSeries(series));
+  }
+
+  @Override
+  public void removeEventSeries(IEventSeries series) {
+    update(c -> c.removeEventSeries(series));
+  }
+
+  @Override
+  public void replaceEvent(IEvent oldEvent, IEvent newEvent) {
+    update(c -> c.replaceEvent(oldEvent, newEvent));
+  }
+
+  @Override
+  public void copyEventsAndShift(
+          LocalDate rangeStart, LocalDate rangeEnd, ICalendar from, LocalDate atStartDate) {
+    update(c -> c.copyEventsAndShift(rangeStart, rangeEnd, from, atStartDate));
+  }
+
+  @Override
+  public void copyEvents(LocalDate rangeStart, LocalDate rangeEnd, ICalendar from) {
+    update(c -> c.copyEvents(rangeStart, rangeEnd, from));
+  }
+
+  @Override
+  public List<IEvent> getEvents() {
+    return current.getEvents();
+  }
+
+  @Override
+  public List<IEvent> getScheduleInRange(LocalDate start, LocalDate end) {
+    return current.getScheduleInRange(start, end);
+  }
+
+  @Override
+  public IEventSeries getSeriesFor(IEvent event) {
+    return current.getSeriesFor(event);
+  }
+
+  @Override
+  public void replaceSeries(IEventSeries oldSeries, IEventSeries newSeries) {
+    update(c -> c.replaceSeries(oldSeries, newSeries));
+  }
+
+  // applies the change to a private snapshot, then publishes it once the change went through.
+  private void update(Consumer<Calendar> change) {
+    synchronized (writeLock) {
+      Calendar next = current.snapshot();
+      change.accept(next);
+      current = next;
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package model;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A calendar manager which can be shared between threads. Lookups read a concurrent map without
+ * locking, while adding, removing and renaming calendars are serialized with each other. Plain
+ * Calendars handed to this manager are wrapped in a ConcurrentCalendar, so every calendar it
+ * hands out is safe to share as well.
+ */
+public class ConcurrentCalendarManager extends CalendarManager {
+
+  /**
+   * Creates a manager holding no calendars.
+   */
+  public ConcurrentCalendarManager() {
+    this.calendars = new ConcurrentHashMap<>();
+  }
+
+  @Override
+  public ICalendar getCalendar(String name) {
+    ICalendar calendar = calendars.get(name);
+    if (calendar == null) {
+      throw new IllegalArgumentException("Calendar '" + name + "' not found");
+    }
+    return calendar;
+  }
+
+  @Override
+  public synchronized void changeName(String oldName, String newName) {
+    super.changeName(oldName, newName);
+  }
+
+  @Override
+  public synchronized void addCalendar(String name, ICalendar calendar) {
+    if (calendar instanceof Calendar) {
+      calendar = new ConcurrentCalendar((Calendar) calendar);
+    }
+    super.addCalendar(name, calendar);
+  }
+
+  @Override
+  public synchronized void removeCalendar(String name) {
+    super.removeCalendar(name);
+  }
+
+  @Override
+  public synchronized ICalendar getOrCreateDefault() {
+    ICalendar calendar = calendars.get("default");
+    if (calendar == null) {
+      calendar = new ConcurrentCalendar();
+      super.addCalendar("default", calendar);
+    }
+    return calendar;
+  }
+}
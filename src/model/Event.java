@@ -64,7 +64,6 @@ public class Event implements IEvent {
      * @return EventBuilder
      */
     public EventBuilder description(String description) {
-      String message = "Description set to: " + description;
       return new EventBuilder(
               this.subject, this.location,
               this.startDate, this.startTime,
@@ -216,41 +215,14 @@ public class Event implements IEvent {
      * @return Event
      */
     public Event buildEvent() {
-      if (startDate == null || startTime == null || subject == null) {
-        throw new IllegalArgumentException(
-                "The start date, time, and the subject of the event must all be set"
-        );
-      }
-
-      if (endDate == null || endTime == null) {
-        int defaultDay = startDate.getDayOfMonth();
-        int defaultMonth = startDate.getMonthValue();
-        int defaultYear = startDate.getYear();
-        return new EventBuilder(
-                this.subject, this.location,
-                this.startDate, LocalTime.of(8, 0),
-                LocalDate.of(defaultYear, defaultMonth, defaultDay), LocalTime.of(17, 0),
-                this.description, this.status
-        ).buildEvent();
-      }
-
-      if (startDate.equals(endDate)) {
-        if (facade.isAfter(startTime, endTime)) {
-          throw new IllegalArgumentException(
-                  "Start time cannot be after end time when their dates are the same"
-          );
-        }
-      } else if (facade.isAfter(startDate, endDate)) {
-        throw new IllegalArgumentException(
-                "Invalid Start and end dates: " + startDate + ", " + endDate
-        );
-      }
-
-      return new Event(subject, location, status,
+      return Event.of(subject, location, status,
               startDate, startTime, endDate, endTime, description);
     }
   }
 
+  private static final LocalTime DEFAULT_START_TIME = LocalTime.of(8, 0);
+  private static final LocalTime DEFAULT_END_TIME = LocalTime.of(17, 0);
+
   private final String subject;
   private final LocalDate startDate;
   private final LocalTime startTime;
@@ -280,6 +252,55 @@ public class Event implements IEvent {
     this.description = description;
   }
 
+  /**
+   * Constructs an Event from all of its fields at once, with the same validation as
+   * EventBuilder.buildEvent(). This skips the intermediate builders, so it is the cheaper choice
+   * when every field is already at hand, such as when expanding, copying or shifting events.
+   * If either the end date or end time is missing, the event becomes an all day event
+   * (8:00 to 17:00) on its start date.
+   *
+   * @param subject the subject.
+   * @param location the location, or null.
+   * @param status the status, or null.
+   * @param startDate the start date.
+   * @param startTime the start time.
+   * @param endDate the end date, or null.
+   * @param endTime the end time, or null.
+   * @param description the description, or null.
+   * @return Event
+   */
+  public static Event of(
+          String subject, EventLocation location, EventStatus status,
+          LocalDate startDate, LocalTime startTime,
+          LocalDate endDate, LocalTime endTime,
+          String description) {
+    if (startDate == null || startTime == null || subject == null) {
+      throw new IllegalArgumentException(
+              "The start date, time, and the subject of the event must all be set"
+      );
+    }
+
+    if (endDate == null || endTime == null) {
+      return new Event(subject, location, status,
+              startDate, DEFAULT_START_TIME, startDate, DEFAULT_END_TIME, description);
+    }
+
+    if (startDate.equals(endDate)) {
+      if (facade.isAfter(startTime, endTime)) {
+        throw new IllegalArgumentException(
+                "Start time cannot be after end time when their dates are the same"
+        );
+      }
+    } else if (facade.isAfter(startDate, endDate)) {
+      throw new IllegalArgumentException(
+              "Invalid Start and end dates: " + startDate + ", " + endDate
+      );
+    }
+
+    return new Event(subject, location, status,
+            startDate, startTime, endDate, endTime, description);
+  }
+
   /**
    * Gets a new EventBuilder for safer construction of an event.
    *
@@ -330,30 +351,18 @@ public class Event implements IEvent {
             .withZoneSameInstant(to);
     ZonedDateTime fullEndTime = ZonedDateTime.of(endDate , endTime, from).withZoneSameInstant(to);
 
-    return Event.editEvent(this)
-            .startTime(fullStartTime.getHour(), fullStartTime.getMinute())
-            .endTime(fullEndTime.getHour(), fullEndTime.getMinute())
-            .startDate(fullStartTime.getDayOfMonth(), fullStartTime.getMonth().getValue(),
-                    fullStartTime.getYear())
-            .endDate(fullEndTime.getDayOfMonth(), fullEndTime.getMonth().getValue(),
-                    fullEndTime.getYear())
-            .buildEvent();
+    return Event.of(subject, location, status,
+            fullStartTime.toLocalDate(), fullStartTime.toLocalTime().withSecond(0).withNano(0),
+            fullEndTime.toLocalDate(), fullEndTime.toLocalTime().withSecond(0).withNano(0),
+            description);
   }
 
   @Override
   public IEvent shiftDays(int days) {
-    LocalDate shiftStart = facade.stepDays(this.startDate, days);
-    LocalDate shiftEnd = facade.stepDays(this.endDate, days);
-    return Event.editEvent(this).startDate(
-            facade.dayOf(shiftStart),
-            facade.monthOf(shiftStart),
-            facade.yearOf(shiftStart)
-    ).endDate(
-            facade.dayOf(shiftEnd),
-            facade.monthOf(shiftEnd),
-            facade.yearOf(shiftEnd)
-    )
-            .buildEvent();
+    return Event.of(subject, location, status,
+            facade.stepDays(this.startDate, days), startTime,
+            facade.stepDays(this.endDate, days), endTime,
+            description);
   }
 
 
@@ -0,0 +1,223 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The cold tier of a calendar: standalone events kept as one deflated segment per month of
+ * their start date. A segment is never changed once written, and it is only decoded when a
+ * lookup touches its month, so archived events cost a few bytes each until they are asked for.
+ * The archive is immutable as well, adding or removing events returns a new archive sharing the
+ * untouched segments with this one.
+ */
+final class EventArchive {
+  private static final EventArchive EMPTY = new EventArchive(PersistentTreeMap.empty(), 0);
+  // the segments by epoch month, as given by Calendar.monthOf.
+  private final PersistentTreeMap<Integer, Segment> segments;
+  private final int size;
+
+  private EventArchive(PersistentTreeMap<Integer, Segment> segments, int size) {
+    this.segments = segments;
+    this.size = size;
+  }
+
+  /**
+   * The events of one month, encoded with EventCodec and deflated.
+   */
+  private static final class Segment {
+    private final byte[] data;
+    private final int count;
+
+    private Segment(List<IEvent> events) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      // buffered, since the deflater runs on every write it is handed.
+      try (DataOutputStream out = new DataOutputStream(
+              new BufferedOutputStream(new DeflaterOutputStream(bytes)))) {
+        EventCodec.writeEvents(out, events);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      this.data = bytes.toByteArray();
+      this.count = events.size();
+    }
+
+    // decodes the events, ordered by start date.
+    private List<IEvent> events() {
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+              new InflaterInputStream(new ByteArrayInputStream(data))))) {
+        return EventCodec.readEvents(in);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  /**
+   * Returns the empty archive.
+   * @return an archive holding no events.
+   */
+  static EventArchive empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Returns the number of events in the archive.
+   * @return the number of archived events.
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Returns how many bytes the segments of the archive take up.
+   * @return the compressed size of every segment.
+   */
+  long compressedBytes() {
+    long[] bytes = new long[1];
+    segments.forEach((month, segment) -> bytes[0] += segment.data.length);
+    return bytes[0];
+  }
+
+  /**
+   * Returns an archive which also holds the given events of one month. The month's segment, if
+   * there is one, is written again with the events added after the ones it already holds.
+   * @param month the epoch month every event starts in.
+   * @param events the events, ordered by start date.
+   * @return the updated archive.
+   */
+  EventArchive add(int month, List<IEvent> events) {
+    if (events.isEmpty()) {
+      return this;
+    }
+    Segment old = segments.get(month);
+    List<IEvent> merged = events;
+    if (old != null) {
+      merged = new ArrayList<>(old.count + events.size());
+      List<IEvent> held = old.events();
+      int i = 0;
+      int j = 0;
+      while (i < held.size() && j < events.size()) {
+        if (held.get(i).getStartDate().isAfter(events.get(j).getStartDate())) {
+          merged.add(events.get(j++));
+        } else {
+          merged.add(held.get(i++));
+        }
+      }
+      merged.addAll(held.subList(i, held.size()));
+      merged.addAll(events.subList(j, events.size()));
+    }
+    return new EventArchive(segments.put(month, new Segment(merged)), size + events.size());
+  }
+
+  /**
+   * Returns an archive without a single event equal to the given one.
+   * @param event the event to remove.
+   * @return the updated archive, or this archive if it held no equal event.
+   */
+  EventArchive remove(IEvent event) {
+    int month = Calendar.monthOf(event.getStartDate());
+    Segment segment = segments.get(month);
+    if (segment == null) {
+      return this;
+    }
+    List<IEvent> events = segment.events();
+    if (!events.remove(event)) {
+      return this;
+    }
+    PersistentTreeMap<Integer, Segment> updated = events.isEmpty()
+            ? segments.remove(month) : segments.put(month, new Segment(events));
+    return new EventArchive(updated, size - 1);
+  }
+
+  /**
+   * Tells whether the archive holds an event equal to the given one. Only the segment of the
+   * event's month is decoded.
+   * @param event the event to look for.
+   * @return true if an equal event is archived.
+   */
+  boolean contains(IEvent event) {
+    Segment segment = segments.get(Calendar.monthOf(event.getStartDate()));
+    return segment != null && segment.events().contains(event);
+  }
+
+  /**
+   * Returns the first of the given events which the archive holds, decoding each segment they
+   * touch once.
+   * @param events the events to look for.
+   * @return an archived event equal to one of the given ones, or null if there is none.
+   */
+  IEvent findAny(Collection<? extends IEvent> events) {
+    if (segments.isEmpty()) {
+      return null;
+    }
+    Map<Integer, List<IEvent>> byMonth = new HashMap<>();
+    for (IEvent e : events) {
+      int month = Calendar.monthOf(e.getStartDate());
+      if (segments.get(month) != null) {
+        byMonth.computeIfAbsent(month, m -> new ArrayList<>()).add(e);
+      }
+    }
+    for (Map.Entry<Integer, List<IEvent>> entry : byMonth.entrySet()) {
+      HashSet<IEvent> held = new HashSet<>(segments.get(entry.getKey()).events());
+      for (IEvent e : entry.getValue()) {
+        if (held.contains(e)) {
+          return e;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns every archived event starting between start and end (both inclusive), ordered by
+   * start date. Only the segments of the months overlapping the range are decoded.
+   * @param start the first date of the range.
+   * @param end the last date of the range.
+   * @return a new list holding the events found.
+   */
+  List<IEvent> inRange(LocalDate start, LocalDate end) {
+    List<IEvent> results = new ArrayList<>();
+    if (start.isAfter(end) || segments.isEmpty()) {
+      return results;
+    }
+    segments.forEachInRange(clampedMonth(start), clampedMonth(end), (month, segment) -> {
+      for (IEvent e : segment.events()) {
+        if (!e.getStartDate().isBefore(start) && !e.getStartDate().isAfter(end)) {
+          results.add(e);
+        }
+      }
+    });
+    return results;
+  }
+
+  /**
+   * Returns every archived event, ordered by start date.
+   * @return a new list holding the events.
+   */
+  List<IEvent> toList() {
+    List<IEvent> results = new ArrayList<>(size);
+    segments.forEach((month, segment) -> results.addAll(segment.events()));
+    return results;
+  }
+
+  // the epoch month of the date, clamped so that dates far outside of any calendar still fit.
+  private static int clampedMonth(LocalDate date) {
+    long month = date.getYear() * 12L + date.getMonthValue() - 1;
+    return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, month));
+  }
+}
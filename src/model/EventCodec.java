@@ -0,0 +1,216 @@
+package model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Writes events and event series in a compact binary form and reads them back, with every
+ * string written inline as its length in bytes followed by its UTF-8 bytes, so strings of any
+ * length can be written. An event is its start and end in minutes since the epoch, its subject,
+ * its description, location and status. A series is its base event, a week day mask, its end date,
+ * a lazy flag and then either every occurrence (eager) or the edited occurrences keyed by their
+ * rule date (lazy).
+ */
+final class EventCodec {
+  private static final EventLocation[] LOCATIONS = EventLocation.values();
+  private static final EventStatus[] STATUSES = EventStatus.values();
+
+  private EventCodec() {
+  }
+
+  /**
+   * Writes a single event.
+   * @param out where to write.
+   * @param e the event.
+   * @throws IOException if writing fails.
+   */
+  static void writeEvent(DataOutput out, IEvent e) throws IOException {
+    out.writeLong(CalendarSnapshot.minutesOf(e.getStartDate(), e.getStartTime()));
+    out.writeLong(CalendarSnapshot.minutesOf(e.getEndDate(), e.getEndTime()));
+    writeString(out, e.getSubject());
+    writeNullable(out, e.getDescription());
+    out.writeByte(e.getLocation() == null ? -1 : e.getLocation().ordinal());
+    out.writeByte(e.getStatus() == null ? -1 : e.getStatus().ordinal());
+  }
+
+  /**
+   * Reads a single event written by writeEvent.
+   * @param in where to read from.
+   * @return the event.
+   * @throws IOException if reading fails.
+   */
+  static Event readEvent(DataInput in) throws IOException {
+    long start = in.readLong();
+    long end = in.readLong();
+    String subject = readString(in);
+    String description = readNullable(in);
+    byte location = in.readByte();
+    byte status = in.readByte();
+    return Event.of(subject,
+            location < 0 ? null : LOCATIONS[location],
+            status < 0 ? null : STATUSES[status],
+            SnapshotFile.dateOf(start), SnapshotFile.timeOf(start),
+            SnapshotFile.dateOf(end), SnapshotFile.timeOf(end),
+            description);
+  }
+
+  /**
+   * Writes a list of events, prefixed by its size.
+   * @param out where to write.
+   * @param events the events.
+   * @throws IOException if writing fails.
+   */
+  static void writeEvents(DataOutput out, List<IEvent> events) throws IOException {
+    out.writeInt(events.size());
+    for (IEvent e : events) {
+      writeEvent(out, e);
+    }
+  }
+
+  /**
+   * Reads a list of events written by writeEvents.
+   * @param in where to read from.
+   * @return the events, in order.
+   * @throws IOException if reading fails.
+   */
+  static List<IEvent> readEvents(DataInput in) throws IOException {
+    int count = in.readInt();
+    List<IEvent> events = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      events.add(readEvent(in));
+    }
+    return events;
+  }
+
+  /**
+   * Writes an event series without expanding it, if it is lazy.
+   * @param out where to write.
+   * @param series the series.
+   * @throws IOException if writing fails.
+   * @throws IllegalArgumentException if the series isn't an EventSeries.
+   */
+  static void writeSeries(DataOutput out, IEventSeries series) throws IOException {
+    if (!(series instanceof EventSeries)) {
+      throw new IllegalArgumentException("Cannot write series of type " + series.getClass());
+    }
+    EventSeries es = (EventSeries) series;
+    writeEvent(out, es.getBaseEvent());
+    out.writeByte(maskOf(es.getWeekDays()));
+    out.writeLong(es.getSeriesEndDate().toEpochDay());
+    out.writeBoolean(es.isLazy());
+    if (es.isLazy()) {
+      NavigableMap<LocalDate, IEvent> overrides = es.getOverrides();
+      out.writeInt(overrides.size());
+      for (Map.Entry<LocalDate, IEvent> entry : overrides.entrySet()) {
+        out.writeLong(entry.getKey().toEpochDay());
+        writeEvent(out, entry.getValue());
+      }
+    } else {
+      writeEvents(out, es.getEvents());
+    }
+  }
+
+  /**
+   * Reads an event series written by writeSeries.
+   * @param in where to read from.
+   * @return an EventSeries equal to the one written.
+   * @throws IOException if reading fails.
+   */
+  static EventSeries readSeries(DataInput in) throws IOException {
+    Event base = readEvent(in);
+    Set<DayOfWeek> weekDays = SnapshotFile.weekDaysOf(in.readByte());
+    LocalDate endDate = LocalDate.ofEpochDay(in.readLong());
+    if (in.readBoolean()) {
+      int count = in.readInt();
+      NavigableMap<LocalDate, IEvent> overrides = new TreeMap<>();
+      for (int i = 0; i < count; i++) {
+        LocalDate date = LocalDate.ofEpochDay(in.readLong());
+        overrides.put(date, readEvent(in));
+      }
+      return EventSeries.restoreLazy(base, weekDays, endDate, overrides);
+    }
+    return EventSeries.restoreEager(base, weekDays, endDate, readEvents(in));
+  }
+
+  /**
+   * Encodes a record of a journal or log: its type, then whatever the body writes.
+   * @param type the kind of record.
+   * @param body writes the rest of the record.
+   * @return the record.
+   * @throws IllegalArgumentException if the body can't describe what it writes, such as a series
+   *         which isn't an EventSeries.
+   */
+  static byte[] record(int type, JournaledCalendarManager.Body body) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    try {
+      out.writeByte(type);
+      body.write(out);
+    } catch (IOException e) {
+      // writing to memory doesn't fail.
+      throw new IllegalStateException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Writes a string as its length in bytes followed by its UTF-8 bytes. Unlike writeUTF, this
+   * takes strings of any length, such as a long imported description.
+   * @param out where to write.
+   * @param s the string.
+   * @throws IOException if writing fails.
+   */
+  static void writeString(DataOutput out, String s) throws IOException {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Reads a string written by writeString.
+   * @param in where to read from.
+   * @return the string.
+   * @throws IOException if reading fails or the length is negative.
+   */
+  static String readString(DataInput in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      throw new IOException("Negative string length: " + length);
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  // one bit per day, Monday first, as SnapshotFile.weekDaysOf reads it.
+  private static int maskOf(Set<DayOfWeek> days) {
+    int mask = 0;
+    for (DayOfWeek day : days) {
+      mask |= 1 << day.ordinal();
+    }
+    return mask;
+  }
+
+  private static void writeNullable(DataOutput out, String s) throws IOException {
+    out.writeBoolean(s != null);
+    if (s != null) {
+      writeString(out, s);
+    }
+  }
+
+  private static String readNullable(DataInput in) throws IOException {
+    return in.readBoolean() ? readString(in) : null;
+  }
+}
@@ -0,0 +1,200 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * A start date index over IEvents. Events are bucketed by their start date inside a sorted map,
+ * so a range lookup only visits the dates inside of the range and hands the events back already
+ * ordered by start date. Events sharing a start date are ordered by a rank the caller gives each
+ * of them, and keep the order they were added in when their ranks are equal.
+ * The index is immutable, adding or removing an event returns a new index sharing the untouched
+ * buckets with this one.
+ */
+class EventIndex {
+  private static final EventIndex EMPTY = new EventIndex(PersistentTreeMap.empty());
+  private final PersistentTreeMap<LocalDate, Bucket> byStartDate;
+
+  private EventIndex(PersistentTreeMap<LocalDate, Bucket> byStartDate) {
+    this.byStartDate = byStartDate;
+  }
+
+  /**
+   * Returns the empty index.
+   * @return an index holding no events.
+   */
+  static EventIndex empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Returns an index which also holds the given event.
+   * @param event the event to add.
+   * @param rank where the event goes among the events starting the same day.
+   * @return the updated index.
+   */
+  EventIndex add(IEvent event, long rank) {
+    Bucket bucket = byStartDate.get(event.getStartDate());
+    Bucket grown = bucket == null ? new Bucket(new IEvent[] {event}, new long[] {rank})
+            : bucket.with(new IEvent[] {event}, new long[] {rank});
+    return new EventIndex(byStartDate.put(event.getStartDate(), grown));
+  }
+
+  /**
+   * Returns an index which also holds all of the given events. The events are grouped by start
+   * date first, so each date touched is copied and put once, however many events it gains.
+   * @param events the events to add, in the order to add them in.
+   * @param rank where each event goes among the events starting the same day.
+   * @return the updated index.
+   */
+  EventIndex addAll(Collection<IEvent> events, ToLongFunction<IEvent> rank) {
+    Map<LocalDate, List<IEvent>> byDate = new HashMap<>();
+    for (IEvent e : events) {
+      byDate.computeIfAbsent(e.getStartDate(), d -> new ArrayList<>()).add(e);
+    }
+    PersistentTreeMap<LocalDate, Bucket> updated = byStartDate;
+    for (Map.Entry<LocalDate, List<IEvent>> date : byDate.entrySet()) {
+      IEvent[] added = date.getValue().toArray(new IEvent[0]);
+      long[] ranks = new long[added.length];
+      for (int i = 0; i < added.length; i++) {
+        ranks[i] = rank.applyAsLong(added[i]);
+      }
+      Bucket bucket = updated.get(date.getKey());
+      updated = updated.put(date.getKey(),
+              (bucket == null ? Bucket.EMPTY : bucket).with(added, ranks));
+    }
+    return new EventIndex(updated);
+  }
+
+  /**
+   * Returns an index without a single event equal to the given one.
+   * @param event the event to remove.
+   * @return the updated index, or this index if it held no equal event.
+   */
+  EventIndex remove(IEvent event) {
+    Bucket bucket = byStartDate.get(event.getStartDate());
+    int at = bucket == null ? -1 : Arrays.asList(bucket.events).indexOf(event);
+    if (at < 0) {
+      return this;
+    }
+    if (bucket.events.length == 1) {
+      return new EventIndex(byStartDate.remove(event.getStartDate()));
+    }
+    return new EventIndex(byStartDate.put(event.getStartDate(), bucket.without(at)));
+  }
+
+  /**
+   * Returns every event starting between start and end (both inclusive), ordered by start date.
+   * @param start the first date of the range.
+   * @param end the last date of the range.
+   * @return a new list holding the events found.
+   */
+  List<IEvent> inRange(LocalDate start, LocalDate end) {
+    List<IEvent> results = new ArrayList<>();
+    if (start.isAfter(end)) {
+      return results;
+    }
+    byStartDate.forEachInRange(start, end,
+            (date, bucket) -> results.addAll(Arrays.asList(bucket.events)));
+    return results;
+  }
+
+  /**
+   * Returns every event starting between start and end (both inclusive) along with the given
+   * extra events, ordered by start date. Each extra event goes among the events of its day by its
+   * rank, as if it had been added to the index, but the index is left as it is.
+   * @param start the first date of the range.
+   * @param end the last date of the range.
+   * @param extra the events to merge in, each starting inside of the range.
+   * @param ranks where each extra event goes among the events starting the same day.
+   * @return a new list holding the events found and the extra events.
+   */
+  List<IEvent> inRange(LocalDate start, LocalDate end, List<IEvent> extra, long[] ranks) {
+    TreeMap<LocalDate, List<Integer>> byDate = new TreeMap<>();
+    for (int i = 0; i < extra.size(); i++) {
+      byDate.computeIfAbsent(extra.get(i).getStartDate(), d -> new ArrayList<>()).add(i);
+    }
+    Deque<Map.Entry<LocalDate, List<Integer>>> pending = new ArrayDeque<>(byDate.entrySet());
+    List<IEvent> results = new ArrayList<>(extra.size());
+    if (!start.isAfter(end)) {
+      byStartDate.forEachInRange(start, end, (date, bucket) -> {
+        while (!pending.isEmpty() && pending.peek().getKey().isBefore(date)) {
+          Bucket added = extraBucket(pending.poll().getValue(), extra, ranks);
+          results.addAll(Arrays.asList(added.events));
+        }
+        if (!pending.isEmpty() && pending.peek().getKey().equals(date)) {
+          Bucket added = extraBucket(pending.poll().getValue(), extra, ranks);
+          results.addAll(Arrays.asList(bucket.with(added.events, added.ranks).events));
+        } else {
+          results.addAll(Arrays.asList(bucket.events));
+        }
+      });
+    }
+    while (!pending.isEmpty()) {
+      results.addAll(Arrays.asList(extraBucket(pending.poll().getValue(), extra, ranks).events));
+    }
+    return results;
+  }
+
+  // the extra events at the given positions, as one day's bucket.
+  private static Bucket extraBucket(List<Integer> at, List<IEvent> extra, long[] ranks) {
+    IEvent[] events = new IEvent[at.size()];
+    long[] eventRanks = new long[at.size()];
+    for (int i = 0; i < events.length; i++) {
+      events[i] = extra.get(at.get(i));
+      eventRanks[i] = ranks[at.get(i)];
+    }
+    return Bucket.EMPTY.with(events, eventRanks);
+  }
+
+  // the events starting on one day, in rank order, next to their ranks. never changed once made.
+  private static final class Bucket {
+    static final Bucket EMPTY = new Bucket(new IEvent[0], new long[0]);
+    final IEvent[] events;
+    final long[] ranks;
+
+    Bucket(IEvent[] events, long[] ranks) {
+      this.events = events;
+      this.ranks = ranks;
+    }
+
+    // a copy also holding the given events, each after every event of the same or lower rank.
+    Bucket with(IEvent[] added, long[] addedRanks) {
+      IEvent[] grownEvents = Arrays.copyOf(events, events.length + added.length);
+      long[] grownRanks = Arrays.copyOf(ranks, ranks.length + added.length);
+      int size = events.length;
+      for (int i = 0; i < added.length; i++) {
+        int at = size;
+        while (at > 0 && grownRanks[at - 1] > addedRanks[i]) {
+          at--;
+        }
+        System.arraycopy(grownEvents, at, grownEvents, at + 1, size - at);
+        System.arraycopy(grownRanks, at, grownRanks, at + 1, size - at);
+        grownEvents[at] = added[i];
+        grownRanks[at] = addedRanks[i];
+        size++;
+      }
+      return new Bucket(grownEvents, grownRanks);
+    }
+
+    // a copy without the event at the given position.
+    Bucket without(int at) {
+      IEvent[] shrunkEvents = new IEvent[events.length - 1];
+      long[] shrunkRanks = new long[ranks.length - 1];
+      System.arraycopy(events, 0, shrunkEvents, 0, at);
+      System.arraycopy(events, at + 1, shrunkEvents, at, events.length - at - 1);
+      System.arraycopy(ranks, 0, shrunkRanks, 0, at);
+      System.arraycopy(ranks, at + 1, shrunkRanks, at, ranks.length - at - 1);
+      return new Bucket(shrunkEvents, shrunkRanks);
+    }
+  }
+}
@@ -0,0 +1,446 @@
+package model;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The files behind a LoggedCalendar: an append-only log of changes split into segments, on top
+ * of a base holding the whole calendar as it was at the end of some segment. Each segment and the
+ * base is a Journal, so records are checksummed and a record cut short by a crash is dropped.
+ * A segment is sealed once it holds about segmentBytes, and the next change starts a new one.
+ *
+ * <p>Sealing a segment takes a snapshot of the calendar, which costs nothing since calendars are
+ * persistent. Once the sealed segments outgrow the base, a background thread writes the latest
+ * such snapshot as a new base and deletes the segments it covers, so superseded records are
+ * dropped without ever reading the log back, and the files stay proportional to the live events.
+ *
+ * <p>The directory holds base-&lt;n&gt;.log, covering every segment up to n, and
+ * segment-&lt;n&gt;.log for each later segment. A base is written next to its place and moved
+ * in, and segments it covers are deleted only afterwards, so a crash at any point recovers the
+ * same calendar.
+ */
+final class EventLog implements Closeable {
+  static final int BASE = 0;
+  static final int BASE_EVENTS = 1;
+  static final int BASE_SERIES = 2;
+  static final int ADD_EVENT = 10;
+  static final int ADD_EVENTS = 11;
+  static final int REMOVE_EVENT = 12;
+  static final int REPLACE_EVENT = 13;
+  static final int ADD_SERIES = 14;
+  static final int REMOVE_SERIES = 15;
+  static final int REPLACE_SERIES = 16;
+  static final int SET_ZONE = 17;
+  private static final int BASE_CHUNK = 4096;
+  private static final Pattern FILE = Pattern.compile("(base|segment)-(\\d+)\\.log");
+
+  private final Path directory;
+  private final long segmentBytes;
+  // what is on disk: the base and its size, and the size of each sealed segment after it.
+  private long baseSeq;
+  private long baseBytes;
+  private final TreeMap<Long, Long> sealed;
+  private long sealedBytes;
+  // the segment taking new records, only created with its first record.
+  private long activeSeq;
+  private Journal active;
+  // the calendar as of the end of the last sealed segment, the next base to write.
+  private Calendar latestSealed;
+  private ExecutorService compactor;
+  private boolean compacting;
+  private IOException failure;
+  // built while opening, handed over once.
+  private Calendar recovered;
+
+  private EventLog(Path directory, long segmentBytes) {
+    this.directory = directory;
+    this.segmentBytes = segmentBytes;
+    this.sealed = new TreeMap<>();
+  }
+
+  /**
+   * Opens the log kept in the given directory, creating it, with an empty calendar in the given
+   * zone, if there is none yet.
+   * @param directory the directory of the log.
+   * @param zone the time zone of a new calendar, ignored if the log exists.
+   * @param segmentBytes roughly how large a segment grows before the next one is started.
+   * @return the log, with the calendar it holds ready to be taken with recovered.
+   * @throws IOException if the files can't be read or are not log files.
+   */
+  static EventLog open(Path directory, ZoneId zone, long segmentBytes) throws IOException {
+    Files.createDirectories(directory);
+    TreeMap<Long, Path> bases = new TreeMap<>();
+    TreeMap<Long, Path> segments = new TreeMap<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+      for (Path file : files) {
+        Matcher m = FILE.matcher(file.getFileName().toString());
+        if (m.matches()) {
+          (m.group(1).equals("base") ? bases : segments).put(Long.parseLong(m.group(2)), file);
+        } else if (file.getFileName().toString().endsWith(".partial")) {
+          Files.delete(file);
+        }
+      }
+    }
+    if (bases.isEmpty()) {
+      if (!segments.isEmpty()) {
+        throw new IOException("Calendar log has segments but no base: " + directory);
+      }
+      EventLog log = new EventLog(directory, segmentBytes);
+      log.recovered = new Calendar(zone);
+      log.baseBytes = log.writeBase(0, log.recovered);
+      log.activeSeq = 1;
+      return log;
+    }
+    long baseSeq = bases.lastKey();
+    Calendar calendar = readBase(bases.get(baseSeq));
+    EventLog log = new EventLog(directory, segmentBytes);
+    log.baseSeq = baseSeq;
+    log.baseBytes = Files.size(bases.get(baseSeq));
+    for (Path stale : bases.headMap(baseSeq).values()) {
+      Files.delete(stale);
+    }
+    for (Map.Entry<Long, Path> segment : segments.entrySet()) {
+      if (segment.getKey() <= baseSeq) {
+        Files.delete(segment.getValue());
+        continue;
+      }
+      long size = Files.size(segment.getValue());
+      calendar = replay(segment.getValue(), calendar);
+      long intact = Files.size(segment.getValue());
+      if (intact < size && !segment.getKey().equals(segments.lastKey())) {
+        throw new IOException("Calendar log segment is damaged: " + segment.getValue());
+      }
+      log.sealed.put(segment.getKey(), intact);
+      log.sealedBytes += intact;
+    }
+    // whatever was written before stays sealed, new records start a new segment.
+    log.activeSeq = (segments.isEmpty() ? baseSeq : Math.max(baseSeq, segments.lastKey())) + 1;
+    log.recovered = calendar;
+    log.latestSealed = calendar.snapshot();
+    log.compactIfWorthIt();
+    return log;
+  }
+
+  /**
+   * Hands over the calendar read when the log was opened.
+   * @return the calendar, which the caller keeps up to date with the records it appends.
+   */
+  Calendar recovered() {
+    Calendar calendar = recovered;
+    recovered = null;
+    return calendar;
+  }
+
+  /**
+   * Tells whether the segment taking records is full, in which case it should be sealed before
+   * the next record.
+   * @return true if the next record should go into a new segment.
+   */
+  synchronized boolean full() {
+    return active != null && active.last() >= segmentBytes;
+  }
+
+  /**
+   * Seals the segment taking records, so the next record starts a new one.
+   * @param state the calendar as of the last record of the segment, which must not be changed.
+   * @throws IOException if the segment can't be closed or an earlier compaction failed.
+   */
+  synchronized void seal(Calendar state) throws IOException {
+    checkFailure();
+    if (active == null) {
+      return;
+    }
+    long size = active.last();
+    active.close();
+    active = null;
+    sealed.put(activeSeq, size);
+    sealedBytes += size;
+    activeSeq++;
+    latestSealed = state;
+    compactIfWorthIt();
+  }
+
+  /**
+   * Appends a record to the segment taking records, returning once it is on disk.
+   * @param record the record, as built by record.
+   * @throws IOException if the record can't be written or an earlier compaction failed.
+   */
+  synchronized void append(byte[] record) throws IOException {
+    checkFailure();
+    if (active == null) {
+      active = Journal.create(segmentFile(activeSeq), record);
+      return;
+    }
+    active.sync(active.append(record));
+  }
+
+  /**
+   * Writes the calendar as a new base covering every segment, then deletes them. Runs on the
+   * calling thread, after any compaction running in the background.
+   * @param state the calendar as of the last record appended, which must not be changed.
+   * @throws IOException if the base can't be written.
+   */
+  void compact(Calendar state) throws IOException {
+    synchronized (this) {
+      seal(state);
+      while (compacting) {
+        try {
+          wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException("Interrupted waiting for a compaction", e);
+        }
+      }
+      checkFailure();
+      if (sealed.isEmpty()) {
+        return;
+      }
+      compacting = true;
+    }
+    runCompaction(latestSealedSeq(), state);
+    synchronized (this) {
+      checkFailure();
+    }
+  }
+
+  /**
+   * Returns how many bytes the files of the log take up.
+   * @return the size of the base and every segment.
+   */
+  synchronized long diskBytes() {
+    return baseBytes + sealedBytes + (active == null ? 0 : active.last());
+  }
+
+  /**
+   * Waits for a compaction in progress and closes the segment taking records.
+   * @throws IOException if the segment can't be closed or a compaction failed.
+   */
+  @Override
+  public void close() throws IOException {
+    ExecutorService running;
+    synchronized (this) {
+      running = compactor;
+      compactor = null;
+    }
+    if (running != null) {
+      running.shutdown();
+      try {
+        running.awaitTermination(1, TimeUnit.MINUTES);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    synchronized (this) {
+      if (active != null) {
+        active.close();
+        active = null;
+      }
+      checkFailure();
+    }
+  }
+
+  // hands the latest sealed state to the background thread, once the sealed segments outweigh
+  // the base, so each compaction is paid for by as many bytes of new records.
+  private void compactIfWorthIt() {
+    if (compacting || sealed.isEmpty() || sealedBytes < Math.max(baseBytes, segmentBytes)) {
+      return;
+    }
+    if (compactor == null) {
+      compactor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "calendar-log-compact");
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    compacting = true;
+    long upTo = latestSealedSeq();
+    Calendar state = latestSealed;
+    compactor.execute(() -> runCompaction(upTo, state));
+  }
+
+  private long latestSealedSeq() {
+    return sealed.lastKey();
+  }
+
+  // writes the base outside of the lock, so changes go on while it is written.
+  private void runCompaction(long upTo, Calendar state) {
+    try {
+      long bytes = writeBase(upTo, state);
+      synchronized (this) {
+        Files.deleteIfExists(baseFile(baseSeq));
+        baseSeq = upTo;
+        baseBytes = bytes;
+        Map<Long, Long> covered = sealed.headMap(upTo, true);
+        for (Map.Entry<Long, Long> segment : covered.entrySet()) {
+          Files.deleteIfExists(segmentFile(segment.getKey()));
+          sealedBytes -= segment.getValue();
+        }
+        covered.clear();
+      }
+    } catch (IOException e) {
+      synchronized (this) {
+        failure = e;
+      }
+    } finally {
+      synchronized (this) {
+        compacting = false;
+        notifyAll();
+        if (failure == null && compactor != null) {
+          compactIfWorthIt();
+        }
+      }
+    }
+  }
+
+  // writes the calendar as the base covering segments up to seq, returning its size.
+  private long writeBase(long seq, Calendar state) throws IOException {
+    Path file = baseFile(seq);
+    Path partial = file.resolveSibling(file.getFileName() + ".partial");
+    List<IEvent> events = state.getStandaloneEvents();
+    String zone = state.getTimeZone().getId();
+    try (Journal base = Journal.create(partial,
+            EventCodec.record(BASE, out -> EventCodec.writeString(out, zone)))) {
+      for (int from = 0; from < events.size(); from += BASE_CHUNK) {
+        List<IEvent> chunk = events.subList(from, Math.min(events.size(), from + BASE_CHUNK));
+        // synced chunk by chunk, so the whole base is never held in memory at once.
+        base.sync(base.append(
+                EventCodec.record(BASE_EVENTS, out -> EventCodec.writeEvents(out, chunk))));
+      }
+      for (IEventSeries series : state.getEventSeries()) {
+        base.append(EventCodec.record(BASE_SERIES, out -> EventCodec.writeSeries(out, series)));
+      }
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(partial);
+      throw e;
+    }
+    try {
+      Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+    return Files.size(file);
+  }
+
+  private static Calendar readBase(Path file) throws IOException {
+    ZoneId[] zone = new ZoneId[1];
+    List<IEvent> events = new ArrayList<>();
+    List<IEventSeries> series = new ArrayList<>();
+    read(file, (type, in) -> {
+      switch (type) {
+        case BASE:
+          zone[0] = ZoneId.of(EventCodec.readString(in));
+          break;
+        case BASE_EVENTS:
+          events.addAll(EventCodec.readEvents(in));
+          break;
+        case BASE_SERIES:
+          series.add(EventCodec.readSeries(in));
+          break;
+        default:
+          throw new IOException("Unknown record in calendar log base: " + type);
+      }
+    });
+    if (zone[0] == null) {
+      throw new IOException("Calendar log base has no header: " + file);
+    }
+    return Calendar.restore(zone[0], events, series);
+  }
+
+  // applies the records of the file to the calendar, returning the calendar they lead to, which
+  // is a new one once the time zone changes.
+  private static Calendar replay(Path file, Calendar start) throws IOException {
+    Calendar[] current = {start};
+    read(file, (type, in) -> {
+      Calendar calendar = current[0];
+      switch (type) {
+        case ADD_EVENT:
+          calendar.addEvent(EventCodec.readEvent(in));
+          break;
+        case ADD_EVENTS:
+          calendar.addEvents(EventCodec.readEvents(in));
+          break;
+        case REMOVE_EVENT:
+          calendar.removeEvent(EventCodec.readEvent(in));
+          break;
+        case REPLACE_EVENT:
+          calendar.replaceEvent(EventCodec.readEvent(in), EventCodec.readEvent(in));
+          break;
+        case ADD_SERIES:
+          calendar.addEventSeries(EventCodec.readSeries(in));
+          break;
+        case REMOVE_SERIES:
+          calendar.removeEventSeries(EventCodec.readSeries(in));
+          break;
+        case REPLACE_SERIES:
+          calendar.replaceSeries(EventCodec.readSeries(in), EventCodec.readSeries(in));
+          break;
+        case SET_ZONE:
+          current[0] = calendar.setTimeZone(ZoneId.of(EventCodec.readString(in)));
+          break;
+        default:
+          throw new IOException("Unknown record in calendar log: " + type);
+      }
+    });
+    return current[0];
+  }
+
+  /**
+   * Reads one record of a log file.
+   */
+  private interface RecordReader {
+    void read(int type, DataInputStream in) throws IOException;
+  }
+
+  // reads every intact record of the file, dropping a record cut short at its end.
+  private static void read(Path file, RecordReader reader) throws IOException {
+    Journal journal;
+    try {
+      journal = Journal.recover(file, payload -> {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        try {
+          reader.read(in.readUnsignedByte(), in);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        } catch (IllegalArgumentException e) {
+          throw new UncheckedIOException(
+                  new IOException("Calendar log record can't be replayed", e));
+        }
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    journal.close();
+  }
+
+  private void checkFailure() throws IOException {
+    if (failure != null) {
+      throw new IOException("Calendar log compaction failed", failure);
+    }
+  }
+
+  private Path baseFile(long seq) {
+    return directory.resolve("base-" + seq + ".log");
+  }
+
+  private Path segmentFile(long seq) {
+    return directory.resolve("segment-" + seq + ".log");
+  }
+}
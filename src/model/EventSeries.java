@@ -4,10 +4,16 @@ import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * A class which holds a series of events along with a few unique methods for more querying of
@@ -28,24 +34,28 @@ public class EventSeries implements IEventSeries {
     private final Set<DayOfWeek> weekDays;
     private Event.EventBuilder eventBuilder;
     private final LocalDate initialDate;
+    private boolean lazy;
 
     private EventSeriesBuilder() {
       seriesEndDate = null; // Placeholder
       weekDays = new HashSet<>();
       eventBuilder = Event.getBuilder();
       initialDate = null;
+      lazy = false;
     }
 
     private EventSeriesBuilder(
             Event.EventBuilder eventBuilder,
             Set<DayOfWeek> weekDays,
             LocalDate endDate,
-            LocalDate initialDate
+            LocalDate initialDate,
+            boolean lazy
     ) {
       this.seriesEndDate = endDate;
       this.eventBuilder = eventBuilder;
       this.weekDays = weekDays;
       this.initialDate = initialDate;
+      this.lazy = lazy;
     }
 
     /**
@@ -66,29 +76,12 @@ public class EventSeries implements IEventSeries {
      */
     public EventSeriesBuilder copyEvent(IEvent event) {
       return new EventSeriesBuilder(
-          Event.getBuilder().subject(
-          event.getSubject())
-          .status(event.getStatus())
-          .startTime(
-            facade.hourOf(event.getStartTime()),
-            facade.minuteOf(event.getStartTime())
-          )
-          .startDate(
-            facade.dayOf(event.getStartDate()),
-            facade.monthOf(event.getStartDate()),
-            facade.yearOf(event.getStartDate())
-          )
-          .endTime(
-            facade.hourOf(event.getEndTime()),
-            facade.minuteOf(event.getEndTime())
-          )
-          .endDate(
-            facade.dayOf(event.getEndDate()),
-            facade.monthOf(event.getEndDate()),
-            facade.yearOf(event.getEndDate())
-          )
-          .description(event.getDescription()),
-              weekDays, seriesEndDate, initialDate);
+          Event.editEvent(Event.of(
+              event.getSubject(), null, event.getStatus(),
+              event.getStartDate(), event.getStartTime(),
+              event.getEndDate(), event.getEndTime(),
+              event.getDescription())),
+              weekDays, seriesEndDate, initialDate, lazy);
     }
 
     /**
@@ -123,7 +116,7 @@ public class EventSeries implements IEventSeries {
 
       return new EventSeriesBuilder(
               eventBuilder.startDate(day, month, year), weekDays, seriesEndDate,
-              facade.dateOf(day, month, year)
+              facade.dateOf(day, month, year), lazy
       );
     }
 
@@ -187,7 +180,7 @@ public class EventSeries implements IEventSeries {
           weekDaySet.add(facade.weekDayFrom(weekDay));
         }
       }
-      return new EventSeriesBuilder(eventBuilder, weekDaySet, seriesEndDate, initialDate);
+      return new EventSeriesBuilder(eventBuilder, weekDaySet, seriesEndDate, initialDate, lazy);
     }
 
     /**
@@ -196,7 +189,7 @@ public class EventSeries implements IEventSeries {
      * @return EventSeriesBuilder.
      */
     public EventSeriesBuilder seriesEndDate(LocalDate date) {
-      return new EventSeriesBuilder(eventBuilder, weekDays, date, initialDate);
+      return new EventSeriesBuilder(eventBuilder, weekDays, date, initialDate, lazy);
     }
 
     /**
@@ -206,10 +199,21 @@ public class EventSeries implements IEventSeries {
      */
     public EventSeriesBuilder seriesEndDateFromWeeks(int weeks) {
       return new EventSeriesBuilder(
-              eventBuilder, weekDays, facade.stepDays(initialDate, 7 * weeks), initialDate
+              eventBuilder, weekDays, facade.stepDays(initialDate, 7 * weeks), initialDate, lazy
       );
     }
 
+    /**
+     * Makes the built series compute its occurrences on demand. A lazy series only holds its
+     * base event, week days and end date, along with any occurrences which were edited
+     * individually.
+     * @return EventSeriesBuilder.
+     */
+    public EventSeriesBuilder lazyExpansion() {
+      lazy = true;
+      return this;
+    }
+
     /**
      * Constructs an Event Series.
      * @return EventSeries
@@ -221,6 +225,9 @@ public class EventSeries implements IEventSeries {
                 "Cannot build event series with an event with different start and end dates"
         );
       }
+      if (lazy) {
+        return new EventSeries(event, weekDays, seriesEndDate, new TreeMap<>());
+      }
       return new EventSeries(event, weekDays, seriesEndDate);
     }
   }
@@ -229,7 +236,10 @@ public class EventSeries implements IEventSeries {
   private final Set<DayOfWeek> weekDays;
   private final LocalDate endDate;
 
+  // null for lazy series, which compute their occurrences from the rule above.
   private final List<IEvent> eventSeries;
+  // lazy series only: edited occurrences, keyed by the date the rule placed them on.
+  private final NavigableMap<LocalDate, IEvent> overrides;
 
   /**
    * Gets a builder for an EventSeries.
@@ -249,7 +259,8 @@ public class EventSeries implements IEventSeries {
             Event.editEvent(series.baseEvent),
             series.weekDays,
             series.endDate,
-            series.baseEvent.getStartDate());
+            series.baseEvent.getStartDate(),
+            series.isLazy());
   }
 
   private EventSeries(Event event, Set<DayOfWeek> weekDays, LocalDate endDate) {
@@ -257,6 +268,7 @@ public class EventSeries implements IEventSeries {
     this.weekDays = weekDays;
     this.endDate = endDate;
     this.eventSeries = constructSeries();
+    this.overrides = null;
   }
 
   private EventSeries(Event event, Set<DayOfWeek> weekDays, LocalDate endDate,
@@ -265,6 +277,16 @@ public class EventSeries implements IEventSeries {
     this.weekDays = weekDays;
     this.endDate = endDate;
     this.eventSeries = newList;
+    this.overrides = null;
+  }
+
+  private EventSeries(Event event, Set<DayOfWeek> weekDays, LocalDate endDate,
+                      NavigableMap<LocalDate, IEvent> overrides) {
+    this.baseEvent = event;
+    this.weekDays = weekDays;
+    this.endDate = endDate;
+    this.eventSeries = null;
+    this.overrides = overrides;
   }
 
   // currently ignores adding base event to the list unless it falls on a valid weekday.
@@ -278,30 +300,7 @@ public class EventSeries implements IEventSeries {
 
       if (weekDays.contains(facade.weekDayOf(currentDate))) {
         //eventSeries.add(baseEvent);
-        Event.EventBuilder eventBuilder = Event.getBuilder();
-
-        series.add(
-                eventBuilder.subject(baseEvent.getSubject())
-                        .location(baseEvent.getLocation())
-                        .description(baseEvent.getDescription())
-                        .startTime(
-                                facade.hourOf(baseEvent.getStartTime()),
-                                facade.minuteOf(baseEvent.getStartTime()))
-                        .endTime(
-                                facade.hourOf(baseEvent.getEndTime()),
-                                facade.minuteOf(baseEvent.getEndTime())
-                        )
-                        .startDate(
-                                facade.dayOf(currentDate),
-                                facade.monthOf(currentDate),
-                                facade.yearOf(currentDate)
-                        )
-                        .endDate(
-                                facade.dayOf(currentDate),
-                                facade.monthOf(currentDate),
-                                facade.yearOf(currentDate)
-                        )
-                        .buildEvent());
+        series.add(occurrenceOn(currentDate));
       }
       currentDate = facade.stepDays(currentDate, 1);
 
@@ -309,8 +308,177 @@ public class EventSeries implements IEventSeries {
     return series;
   }
 
+  // the occurrence the rule places on the given date, ignoring any overrides.
+  private IEvent occurrenceOn(LocalDate date) {
+    return Event.of(baseEvent.getSubject(), baseEvent.getLocation(), null,
+            date, baseEvent.getStartTime(),
+            date, baseEvent.getEndTime(),
+            baseEvent.getDescription());
+  }
+
+  // whether the rule places an occurrence on the given date.
+  private boolean ruleMatches(LocalDate date) {
+    return !facade.isBefore(date, baseEvent.getStartDate())
+            && !facade.isAfter(date, endDate)
+            && weekDays.contains(facade.weekDayOf(date));
+  }
+
+  // the occurrence on the given rule date, with overrides applied.
+  private IEvent lazyOccurrenceOn(LocalDate date) {
+    IEvent override = overrides.get(date);
+    return override != null ? override : occurrenceOn(date);
+  }
+
   public EventSeries adopt(List<IEvent> newList) {
-    return new EventSeries(baseEvent, weekDays, endDate, newList);
+    if (!isLazy()) {
+      return new EventSeries(baseEvent, weekDays, endDate, newList);
+    }
+    // line the new list up against the rule and only keep the occurrences that differ.
+    NavigableMap<LocalDate, IEvent> newOverrides = new TreeMap<>();
+    Iterator<IEvent> replacements = newList.iterator();
+    LocalDate currentDate = baseEvent.getStartDate();
+    while (!facade.isAfter(currentDate, endDate)) {
+      if (weekDays.contains(facade.weekDayOf(currentDate))) {
+        if (!replacements.hasNext()) {
+          return new EventSeries(baseEvent, weekDays, endDate, newList);
+        }
+        IEvent replacement = replacements.next();
+        if (!isUnedited(replacement, currentDate)) {
+          newOverrides.put(currentDate, replacement);
+        }
+      }
+      currentDate = facade.stepDays(currentDate, 1);
+    }
+    if (replacements.hasNext()) {
+      // the list no longer follows the rule, so the series has to hold it as is.
+      return new EventSeries(baseEvent, weekDays, endDate, newList);
+    }
+    return new EventSeries(baseEvent, weekDays, endDate, newOverrides);
+  }
+
+  /**
+   * Returns a copy of this series where oldEvent is swapped for newEvent. Lazy series record the
+   * swap as a single override rather than expanding every occurrence.
+   * @param oldEvent the occurrence to be replaced.
+   * @param newEvent the replacement.
+   * @return a new EventSeries.
+   */
+  EventSeries override(IEvent oldEvent, IEvent newEvent) {
+    if (!isLazy()) {
+      List<IEvent> newList = new ArrayList<>(eventSeries);
+      int idx = newList.indexOf(oldEvent);
+      if (idx >= 0) {
+        newList.set(idx, newEvent);
+      }
+      return adopt(newList);
+    }
+    LocalDate key = null;
+    for (Map.Entry<LocalDate, IEvent> entry : overrides.entrySet()) {
+      if (entry.getValue().equals(oldEvent)) {
+        key = entry.getKey();
+        break;
+      }
+    }
+    if (key == null && ruleMatches(oldEvent.getStartDate())
+            && !overrides.containsKey(oldEvent.getStartDate())
+            && isRuleOccurrence(oldEvent, oldEvent.getStartDate())) {
+      key = oldEvent.getStartDate();
+    }
+    if (key == null) {
+      return this;
+    }
+    NavigableMap<LocalDate, IEvent> newOverrides = new TreeMap<>(overrides);
+    newOverrides.put(key, newEvent);
+    return new EventSeries(baseEvent, weekDays, endDate, newOverrides);
+  }
+
+  /**
+   * Rebuilds a lazy series from its rule and the occurrences which were edited individually.
+   * @param baseEvent the event the rule repeats.
+   * @param weekDays the days of the week the rule repeats on.
+   * @param endDate the last date the rule repeats on.
+   * @param overrides the edited occurrences, keyed by the date the rule placed them on.
+   * @return a lazy EventSeries.
+   */
+  static EventSeries restoreLazy(Event baseEvent, Set<DayOfWeek> weekDays, LocalDate endDate,
+                                 NavigableMap<LocalDate, IEvent> overrides) {
+    return new EventSeries(baseEvent, weekDays, endDate, new TreeMap<>(overrides));
+  }
+
+  /**
+   * Rebuilds an eager series from its rule and the list of occurrences it held.
+   * @param baseEvent the event the rule repeats.
+   * @param weekDays the days of the week the rule repeats on.
+   * @param endDate the last date the rule repeats on.
+   * @param events the occurrences, in order.
+   * @return an EventSeries holding exactly the given occurrences.
+   */
+  static EventSeries restoreEager(Event baseEvent, Set<DayOfWeek> weekDays, LocalDate endDate,
+                                  List<IEvent> events) {
+    return new EventSeries(baseEvent, weekDays, endDate, events);
+  }
+
+  /**
+   * Returns this series as a lazy series, which only holds the occurrences differing from its
+   * rule.
+   * @return this series if it is lazy, otherwise a lazy copy, or an eager copy if its occurrences
+   *         no longer follow its rule.
+   */
+  EventSeries asLazy() {
+    if (isLazy()) {
+      return this;
+    }
+    return new EventSeries(baseEvent, weekDays, endDate, new TreeMap<>()).adopt(eventSeries);
+  }
+
+  /**
+   * Returns the days of the week this series repeats on.
+   * @return an unmodifiable set of week days.
+   */
+  Set<DayOfWeek> getWeekDays() {
+    return Collections.unmodifiableSet(weekDays);
+  }
+
+  /**
+   * Returns the occurrences of a lazy series which were edited individually.
+   * @return the edited occurrences keyed by the date the rule placed them on, empty for eager
+   *         series.
+   */
+  NavigableMap<LocalDate, IEvent> getOverrides() {
+    return isLazy() ? Collections.unmodifiableNavigableMap(overrides) : new TreeMap<>();
+  }
+
+  /**
+   * Returns a span of dates holding the start of every occurrence of this series. A lazy series
+   * answers from its rule and its edited occurrences, without expanding.
+   * @return the first and last dates of the span.
+   */
+  LocalDate[] startDateSpan() {
+    LocalDate first = baseEvent.getStartDate();
+    LocalDate last = facade.isAfter(endDate, first) ? endDate : first;
+    for (IEvent e : isLazy() ? overrides.values() : eventSeries) {
+      first = facade.isBefore(e.getStartDate(), first) ? e.getStartDate() : first;
+      last = facade.isAfter(e.getStartDate(), last) ? e.getStartDate() : last;
+    }
+    return new LocalDate[] {first, last};
+  }
+
+  // compares against the rule occurrence for the date without building it.
+  private boolean isRuleOccurrence(IEvent event, LocalDate date) {
+    return event.getSubject().equals(baseEvent.getSubject())
+            && facade.dateEquals(event.getStartDate(), date)
+            && facade.dateEquals(event.getEndDate(), date)
+            && facade.timeEquals(event.getStartTime(), baseEvent.getStartTime())
+            && facade.timeEquals(event.getEndTime(), baseEvent.getEndTime());
+  }
+
+  // whether the event is the rule occurrence for the date down to every field, so a series rebuilt
+  // without it as an override still holds the same event.
+  private boolean isUnedited(IEvent event, LocalDate date) {
+    return isRuleOccurrence(event, date)
+            && Objects.equals(event.getLocation(), baseEvent.getLocation())
+            && event.getStatus() == null
+            && Objects.equals(event.getDescription(), baseEvent.getDescription());
   }
 
   @Override
@@ -328,17 +496,111 @@ public class EventSeries implements IEventSeries {
 
   @Override
   public Iterator<IEvent> iterator() {
-    return eventSeries.iterator();
+    if (!isLazy()) {
+      return eventSeries.iterator();
+    }
+    return new Iterator<>() {
+      private LocalDate next = nextRuleDate(baseEvent.getStartDate());
+
+      @Override
+      public boolean hasNext() {
+        return next != null;
+      }
+
+      @Override
+      public IEvent next() {
+        if (next == null) {
+          throw new NoSuchElementException();
+        }
+        IEvent event = lazyOccurrenceOn(next);
+        next = nextRuleDate(facade.stepDays(next, 1));
+        return event;
+      }
+    };
+  }
+
+  // the first date on or after from which the rule places an occurrence on, or null.
+  private LocalDate nextRuleDate(LocalDate from) {
+    if (weekDays.isEmpty()) {
+      return null;
+    }
+    LocalDate currentDate = from;
+    while (!facade.isAfter(currentDate, endDate)) {
+      if (weekDays.contains(facade.weekDayOf(currentDate))) {
+        return currentDate;
+      }
+      currentDate = facade.stepDays(currentDate, 1);
+    }
+    return null;
   }
 
   @Override
-  public IEvent getBaseEvent() {
+  public Event getBaseEvent() {
     return baseEvent;
   }
 
   @Override
   public List<IEvent> getEvents() {
-    return List.copyOf(eventSeries);
+    if (!isLazy()) {
+      return List.copyOf(eventSeries);
+    }
+    List<IEvent> events = new ArrayList<>();
+    for (IEvent e : this) {
+      events.add(e);
+    }
+    return Collections.unmodifiableList(events);
+  }
+
+  @Override
+  public List<IEvent> getEventsInRange(LocalDate start, LocalDate end) {
+    List<IEvent> results = new ArrayList<>();
+    if (!isLazy()) {
+      for (IEvent e : eventSeries) {
+        if (!facade.isBefore(e.getStartDate(), start) && !facade.isAfter(e.getStartDate(), end)) {
+          results.add(e);
+        }
+      }
+      return results;
+    }
+    // only the dates inside the window are expanded.
+    LocalDate currentDate = facade.isAfter(start, baseEvent.getStartDate())
+            ? start : baseEvent.getStartDate();
+    LocalDate lastDate = facade.isBefore(end, endDate) ? end : endDate;
+    while (!facade.isAfter(currentDate, lastDate)) {
+      if (weekDays.contains(facade.weekDayOf(currentDate)) && !overrides.containsKey(currentDate)) {
+        results.add(occurrenceOn(currentDate));
+      }
+      currentDate = facade.stepDays(currentDate, 1);
+    }
+    // edited occurrences may have moved, so they are checked by their own start dates.
+    boolean merged = false;
+    for (IEvent e : overrides.values()) {
+      if (!facade.isBefore(e.getStartDate(), start) && !facade.isAfter(e.getStartDate(), end)) {
+        results.add(e);
+        merged = true;
+      }
+    }
+    if (merged) {
+      results.sort(new EventComparator());
+    }
+    return results;
+  }
+
+  @Override
+  public boolean containsEvent(IEvent event) {
+    if (!isLazy()) {
+      return eventSeries.contains(event);
+    }
+    LocalDate date = event.getStartDate();
+    if (ruleMatches(date) && !overrides.containsKey(date) && isRuleOccurrence(event, date)) {
+      return true;
+    }
+    return overrides.containsValue(event);
+  }
+
+  @Override
+  public boolean isLazy() {
+    return eventSeries == null;
   }
 
   @Override
@@ -351,22 +613,76 @@ public class EventSeries implements IEventSeries {
     return endDate;
   }
 
+  /**
+   * Tells whether the other series holds the same occurrences, in the same order. Two lazy series
+   * with the same rule and edits are equal without expanding either of them, and series whose
+   * occurrence counts or first occurrences differ are told apart without expanding them, which
+   * leaves expanding for series with different rules which may still agree.
+   * @param o the object to compare with.
+   * @return whether o is a series holding the same occurrences.
+   */
   @Override
   public boolean equals(Object o) {
     if (this == o) {
       return true;
     }
-    if (o instanceof EventSeries) {
-      EventSeries other = (EventSeries) o;
+    if (!(o instanceof EventSeries)) {
+      return false;
+    }
+    EventSeries other = (EventSeries) o;
+    if (!this.isLazy() && !other.isLazy()) {
       return this.eventSeries.equals(other.eventSeries);
     }
-    return false;
+    if (this.isLazy() && other.isLazy()
+            && baseEvent.equals(other.baseEvent)
+            && weekDays.equals(other.weekDays)
+            && endDate.equals(other.endDate)
+            && overrides.equals(other.overrides)) {
+      return true;
+    }
+    if (occurrenceCount() != other.occurrenceCount()
+            || !Objects.equals(firstOccurrence(), other.firstOccurrence())) {
+      return false;
+    }
+    return this.getEvents().equals(other.getEvents());
   }
 
+  /**
+   * Hashes the first occurrence and the number of occurrences, which equal series share and a
+   * lazy series knows from its rule without expanding.
+   * @return the hash code.
+   */
   @Override
   public int hashCode() {
-    return this.eventSeries.hashCode();
+    return 31 * Objects.hashCode(firstOccurrence()) + occurrenceCount();
   }
 
+  // the number of occurrences. edits replace occurrences one for one, so a lazy series counts
+  // the dates of its rule, a week at a time.
+  private int occurrenceCount() {
+    if (!isLazy()) {
+      return eventSeries.size();
+    }
+    LocalDate first = baseEvent.getStartDate();
+    if (facade.isAfter(first, endDate)) {
+      return 0;
+    }
+    long days = facade.daysBetween(first, endDate) + 1;
+    long count = days / 7 * weekDays.size();
+    for (int i = 0; i < days % 7; i++) {
+      if (weekDays.contains(facade.weekDayOf(facade.stepDays(first, i)))) {
+        count++;
+      }
+    }
+    return (int) count;
+  }
 
+  // the first occurrence, or null if there is none.
+  private IEvent firstOccurrence() {
+    if (!isLazy()) {
+      return eventSeries.isEmpty() ? null : eventSeries.get(0);
+    }
+    LocalDate date = nextRuleDate(baseEvent.getStartDate());
+    return date == null ? null : lazyOccurrenceOn(date);
+  }
 }
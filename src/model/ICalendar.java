@@ -1,6 +1,7 @@
 package model;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.time.ZoneId;
 
@@ -31,6 +32,13 @@ public interface ICalendar {
    */
   void addEvent(IEvent event);
 
+  /**
+   * Adds every event in the collection to the calendar. If any of them clashes with an event
+   * already in the calendar, or with another event in the collection, none of them are added.
+   * @param events The IEvents to add.
+   */
+  void addEvents(Collection<IEvent> events);
+
   /**
    * Removes an event from the calendar.
    * @param event The IEvent to be removed.
@@ -105,4 +113,23 @@ public interface ICalendar {
    * @param newSeries The replacement series.
    */
   void replaceSeries(IEventSeries oldSeries, IEventSeries newSeries);
+
+  /**
+   * Returns a copy of this calendar as it is right now, which later changes to either of them
+   * don't reach. Only calendars keeping their events in a Calendar take snapshots.
+   * @return the copy, or null if this calendar takes no snapshots.
+   */
+  default Calendar snapshot() {
+    return null;
+  }
+
+  /**
+   * Puts back the events and series this calendar held when the given snapshot of it was taken,
+   * in the order they were in then.
+   * @param snapshot a copy snapshot() returned.
+   * @throws IllegalArgumentException if this calendar takes no snapshots.
+   */
+  default void revertTo(Calendar snapshot) {
+    throw new IllegalArgumentException("Calendar can't be reverted to a snapshot");
+  }
 }
@@ -37,6 +37,32 @@ public interface IEventSeries extends Iterable<IEvent> {
    */
   List<IEvent> getEvents();
 
+  /**
+   * Gets the events in the series which start between start and end (both inclusive), ordered
+   * by start date. Lazy series only compute the occurrences inside of this window.
+   *
+   * @param start The first date of the window.
+   * @param end The last date of the window.
+   * @return List of IEvents
+   */
+  List<IEvent> getEventsInRange(LocalDate start, LocalDate end);
+
+  /**
+   * Returns whether the given event is one of the events in this series.
+   *
+   * @param event the event to look for.
+   * @return true if the series holds an event equal to the given one.
+   */
+  boolean containsEvent(IEvent event);
+
+  /**
+   * Returns whether this series computes its occurrences on demand from its recurrence rule,
+   * rather than holding every occurrence.
+   *
+   * @return true if the series is lazy.
+   */
+  boolean isLazy();
+
   /**
    * Returns a copy of this series with the given list.
    *
@@ -0,0 +1,855 @@
+package model;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Imports the events of an iCalendar (RFC 5545) file into a calendar. The file is read one line
+ * at a time and every VEVENT is handed to the calendar as soon as it ends, with standalone events
+ * added in batches, so memory use depends on the batch size rather than on the size of the file.
+ *
+ * <p>Times are moved into the time zone of the calendar. A weekly or daily rule repeating every
+ * week or day is imported as a lazy EventSeries. Other daily, weekly, monthly and yearly rules are
+ * expanded into standalone events, and rules which repeat forever are expanded for
+ * {@value #OPEN_RULE_YEARS} years. Rules using any other part only import their first
+ * occurrence. An edited occurrence (a VEVENT with a RECURRENCE-ID) replaces the occurrence
+ * imported for its rule, if the rule is among the last {@value #MAX_MASTERS} rules read, and is
+ * imported as an event of its own otherwise.
+ */
+public final class IcsImporter {
+  static final int DEFAULT_BATCH_SIZE = 1000;
+  static final int OPEN_RULE_YEARS = 2;
+  static final int MAX_MASTERS = 10_000;
+  private static final String DAY_LETTERS = "MTWRFSU";
+  private final ICalendar target;
+  private final ZoneId zone;
+  private final int batchSize;
+  private final List<IEvent> batch;
+  // the first occurrence of the recurring events seen last, by UID, for edited occurrences. edits
+  // follow their rule closely in practice, so only the last MAX_MASTERS rules are remembered.
+  private final Map<String, IEvent> masters;
+  private int events;
+  private int series;
+  private int skipped;
+
+  /**
+   * Creates an importer adding events to the given calendar.
+   * @param target the calendar to import into.
+   */
+  public IcsImporter(ICalendar target) {
+    this(target, DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * Creates an importer adding standalone events to the given calendar in batches of the given
+   * size.
+   * @param target the calendar to import into.
+   * @param batchSize how many events to hand to the calendar at once.
+   * @throws IllegalArgumentException if the batch size isn't positive.
+   */
+  public IcsImporter(ICalendar target, int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+    }
+    this.target = target;
+    this.zone = target.getTimeZone();
+    this.batchSize = batchSize;
+    this.batch = new ArrayList<>();
+    this.masters = new LinkedHashMap<>();
+  }
+
+  /**
+   * Imports every event of the given file, read as UTF-8.
+   * @param file the iCalendar file.
+   * @return what was imported.
+   * @throws IOException if the file can't be read.
+   */
+  public Result importFrom(Path file) throws IOException {
+    try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      return importFrom(in);
+    }
+  }
+
+  /**
+   * Imports every event read from the given reader. Events which clash with ones already in the
+   * calendar, or which can't be represented, are skipped.
+   * @param in the iCalendar text.
+   * @return what was imported by this call.
+   * @throws IOException if reading fails.
+   */
+  public Result importFrom(Reader in) throws IOException {
+    events = 0;
+    series = 0;
+    skipped = 0;
+    Lines lines = new Lines(in instanceof BufferedReader
+            ? (BufferedReader) in : new BufferedReader(in, 1 << 16));
+    VEvent current = null;
+    // nesting of components inside the current VEVENT, such as VALARM, which are ignored.
+    int nested = 0;
+    String line;
+    while ((line = lines.next()) != null) {
+      Property p = Property.parse(line);
+      if (p == null) {
+        continue;
+      }
+      if (p.name.equals("BEGIN")) {
+        if (current != null) {
+          nested++;
+        } else if (p.value.equalsIgnoreCase("VEVENT")) {
+          current = new VEvent();
+        }
+      } else if (p.name.equals("END")) {
+        if (nested > 0) {
+          nested--;
+        } else if (current != null && p.value.equalsIgnoreCase("VEVENT")) {
+          add(current);
+          current = null;
+        }
+      } else if (current != null && nested == 0) {
+        current.set(p);
+      }
+    }
+    flush();
+    return new Result(events, series, skipped);
+  }
+
+  /**
+   * The number of events, series and skipped entries of one import.
+   */
+  public static final class Result {
+    private final int events;
+    private final int series;
+    private final int skipped;
+
+    private Result(int events, int series, int skipped) {
+      this.events = events;
+      this.series = series;
+      this.skipped = skipped;
+    }
+
+    /**
+     * Returns how many standalone events were added, including expanded occurrences.
+     * @return the number of events.
+     */
+    public int getEvents() {
+      return events;
+    }
+
+    /**
+     * Returns how many event series were added.
+     * @return the number of series.
+     */
+    public int getSeries() {
+      return series;
+    }
+
+    /**
+     * Returns how many events, rules or edited occurrences could not be imported in full.
+     * @return the number of skipped entries.
+     */
+    public int getSkipped() {
+      return skipped;
+    }
+  }
+
+  // ---------------------------------------------------------------------------------------------
+  // turning one VEVENT into calendar changes.
+
+  private void add(VEvent v) {
+    if (v.start == null || (v.cancelled && v.recurrenceId == null)) {
+      skipped++;
+      return;
+    }
+    Event first;
+    try {
+      first = v.firstOccurrence(zone);
+    } catch (IllegalArgumentException | DateTimeException e) {
+      skipped++;
+      return;
+    }
+    if (v.recurrenceId != null) {
+      replaceOccurrence(v, first);
+    } else if (v.rule == null) {
+      queue(first);
+    } else {
+      addRecurring(v, first);
+    }
+  }
+
+  private void addRecurring(VEvent v, Event first) {
+    Rule rule = Rule.parse(v.rule);
+    if (rule == null) {
+      queue(first);
+      skipped++;
+      return;
+    }
+    if (v.uid != null) {
+      remember(v.uid, first);
+    }
+    if (rule.isWeekly() && v.exdates.isEmpty() && first.getStartDate().equals(first.getEndDate())
+            && addAsSeries(rule, first)) {
+      return;
+    }
+    expand(v, rule, first);
+  }
+
+  // keeps the first occurrence of a rule for its edits, forgetting the rule seen longest ago.
+  private void remember(String uid, IEvent first) {
+    masters.remove(uid);
+    masters.put(uid, first);
+    if (masters.size() > MAX_MASTERS) {
+      Iterator<String> oldest = masters.keySet().iterator();
+      oldest.next();
+      oldest.remove();
+    }
+  }
+
+  // imports a rule as an EventSeries, returning false if the calendar refused it.
+  private boolean addAsSeries(Rule rule, Event first) {
+    Set<DayOfWeek> days = rule.days(first.getStartDate());
+    LocalDate end = rule.lastDate(first, days, zone);
+    StringBuilder letters = new StringBuilder();
+    for (DayOfWeek day : days) {
+      letters.append(DAY_LETTERS.charAt(day.ordinal()));
+    }
+    LocalDate start = first.getStartDate();
+    EventSeries built = EventSeries.getBuilder()
+            .subject(first.getSubject())
+            .location(first.getLocation())
+            .status(first.getStatus())
+            .description(first.getDescription())
+            .eventStartDate(start.getDayOfMonth(), start.getMonthValue(), start.getYear())
+            .eventEndDate(start.getDayOfMonth(), start.getMonthValue(), start.getYear())
+            .eventStartTime(first.getStartTime().getHour(), first.getStartTime().getMinute())
+            .eventEndTime(first.getEndTime().getHour(), first.getEndTime().getMinute())
+            .weekDays(letters.toString())
+            .seriesEndDate(end)
+            .lazyExpansion()
+            .buildSeries();
+    if (!built.iterator().hasNext()) {
+      queue(first);
+      return true;
+    }
+    // the series goes in after the events before it, keeping the order of the file.
+    flush();
+    try {
+      target.addEventSeries(built);
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+    series++;
+    if (!days.contains(start.getDayOfWeek())) {
+      // the first occurrence always counts, even off the rule's days.
+      queue(first);
+    }
+    return true;
+  }
+
+  private void expand(VEvent v, Rule rule, Event first) {
+    Set<LocalDateTime> excluded = new HashSet<>();
+    Set<LocalDate> excludedDays = new HashSet<>();
+    for (Stamp s : v.exdates) {
+      LocalDateTime at = s.in(zone);
+      if (s.dateOnly) {
+        excludedDays.add(at.toLocalDate());
+      } else {
+        excluded.add(at);
+      }
+    }
+    LocalDateTime start = LocalDateTime.of(first.getStartDate(), first.getStartTime());
+    Duration length = Duration.between(start,
+            LocalDateTime.of(first.getEndDate(), first.getEndTime()));
+    LocalDateTime until = rule.until == null
+            ? start.plusYears(OPEN_RULE_YEARS) : rule.until.in(zone);
+    if (rule.until != null && rule.until.dateOnly) {
+      until = until.toLocalDate().atTime(LocalTime.MAX);
+    }
+    LocalDateTime last = until;
+    int[] count = {0};
+    rule.forEachDate(first.getStartDate(), last.toLocalDate(), date -> {
+      LocalDateTime at = date.atTime(first.getStartTime());
+      if (at.isAfter(last) || (rule.count > 0 && count[0] >= rule.count)) {
+        return false;
+      }
+      count[0]++;
+      if (!excluded.contains(at) && !excludedDays.contains(date)) {
+        LocalDateTime end = at.plus(length);
+        queue(Event.of(first.getSubject(), first.getLocation(), first.getStatus(),
+                date, first.getStartTime(), end.toLocalDate(), end.toLocalTime(),
+                first.getDescription()));
+      }
+      return true;
+    });
+  }
+
+  private void replaceOccurrence(VEvent v, Event replacement) {
+    IEvent master = v.uid == null ? null : masters.get(v.uid);
+    if (master == null) {
+      if (v.cancelled) {
+        skipped++;
+      } else {
+        queue(replacement);
+      }
+      return;
+    }
+    LocalDateTime at = v.recurrenceId.in(zone);
+    if (v.recurrenceId.dateOnly) {
+      at = at.toLocalDate().atTime(master.getStartTime());
+    }
+    LocalDateTime end = at.plus(Duration.between(
+            LocalDateTime.of(master.getStartDate(), master.getStartTime()),
+            LocalDateTime.of(master.getEndDate(), master.getEndTime())));
+    IEvent original = Event.of(master.getSubject(), master.getLocation(), null,
+            at.toLocalDate(), at.toLocalTime(), end.toLocalDate(), end.toLocalTime(),
+            master.getDescription());
+    // the occurrence has to be in the calendar before it can be replaced.
+    flush();
+    try {
+      IEventSeries owner = target.getSeriesFor(original);
+      if (owner instanceof EventSeries && !v.cancelled) {
+        target.replaceSeries(owner,
+                new SeriesEditor((EventSeries) owner).replace(original, replacement).getSeries());
+      } else if (owner == null && v.cancelled) {
+        target.removeEvent(original);
+      } else if (owner == null) {
+        target.replaceEvent(original, replacement);
+      } else {
+        // a series can't drop a single occurrence.
+        skipped++;
+      }
+    } catch (IllegalArgumentException e) {
+      skipped++;
+    }
+  }
+
+  private void queue(IEvent event) {
+    batch.add(event);
+    if (batch.size() >= batchSize) {
+      flush();
+    }
+  }
+
+  // hands the batch to the calendar, falling back to one at a time if any of it clashes.
+  private void flush() {
+    if (batch.isEmpty()) {
+      return;
+    }
+    try {
+      target.addEvents(batch);
+      events += batch.size();
+    } catch (IllegalArgumentException e) {
+      for (IEvent event : batch) {
+        try {
+          target.addEvent(event);
+          events++;
+        } catch (IllegalArgumentException clash) {
+          skipped++;
+        }
+      }
+    }
+    batch.clear();
+  }
+
+  // ---------------------------------------------------------------------------------------------
+  // reading the file.
+
+  /**
+   * Reads content lines, joining folded lines back together.
+   */
+  private static final class Lines {
+    private final BufferedReader in;
+    private String lookahead;
+
+    private Lines(BufferedReader in) {
+      this.in = in;
+    }
+
+    private String next() throws IOException {
+      String line = lookahead != null ? lookahead : in.readLine();
+      lookahead = null;
+      if (line == null) {
+        return null;
+      }
+      StringBuilder folded = null;
+      String following;
+      while ((following = in.readLine()) != null
+              && !following.isEmpty()
+              && (following.charAt(0) == ' ' || following.charAt(0) == '\t')) {
+        if (folded == null) {
+          folded = new StringBuilder(line);
+        }
+        folded.append(following, 1, following.length());
+      }
+      lookahead = following;
+      return folded == null ? line : folded.toString();
+    }
+  }
+
+  /**
+   * One content line: a name, its parameters and its value.
+   */
+  private static final class Property {
+    private final String name;
+    private final String value;
+    private final String tzid;
+    private final boolean dateValue;
+
+    private Property(String name, String value, String tzid, boolean dateValue) {
+      this.name = name;
+      this.value = value;
+      this.tzid = tzid;
+      this.dateValue = dateValue;
+    }
+
+    // returns null for lines without a value.
+    private static Property parse(String line) {
+      int colon = -1;
+      boolean quoted = false;
+      for (int i = 0; i < line.length() && colon < 0; i++) {
+        char c = line.charAt(i);
+        if (c == '"') {
+          quoted = !quoted;
+        } else if (c == ':' && !quoted) {
+          colon = i;
+        }
+      }
+      if (colon < 0) {
+        return null;
+      }
+      String[] head = line.substring(0, colon).split(";");
+      String tzid = null;
+      boolean dateValue = false;
+      for (int i = 1; i < head.length; i++) {
+        int eq = head[i].indexOf('=');
+        if (eq < 0) {
+          continue;
+        }
+        String key = head[i].substring(0, eq).trim().toUpperCase();
+        String val = unquote(head[i].substring(eq + 1).trim());
+        if (key.equals("TZID")) {
+          tzid = val;
+        } else if (key.equals("VALUE")) {
+          dateValue = val.equalsIgnoreCase("DATE");
+        }
+      }
+      return new Property(head[0].trim().toUpperCase(), line.substring(colon + 1),
+              tzid, dateValue);
+    }
+
+    private static String unquote(String s) {
+      return s.length() >= 2 && s.startsWith("\"") && s.endsWith("\"")
+              ? s.substring(1, s.length() - 1) : s;
+    }
+  }
+
+  /**
+   * A DATE or DATE-TIME value, with the zone it was given in.
+   */
+  private static final class Stamp {
+    private final LocalDateTime local;
+    // null for floating times, which are read in the calendar's zone.
+    private final ZoneId zone;
+    private final boolean dateOnly;
+
+    private Stamp(LocalDateTime local, ZoneId zone, boolean dateOnly) {
+      this.local = local;
+      this.zone = zone;
+      this.dateOnly = dateOnly;
+    }
+
+    private static Stamp parse(String value, String tzid, boolean dateValue) {
+      String v = value.trim();
+      int comma = v.indexOf(',');
+      if (comma >= 0) {
+        v = v.substring(0, comma);
+      }
+      LocalDate date = LocalDate.of(number(v, 0, 4), number(v, 4, 6), number(v, 6, 8));
+      if (dateValue || v.length() == 8) {
+        return new Stamp(date.atStartOfDay(), null, true);
+      }
+      if (v.length() < 15 || v.charAt(8) != 'T') {
+        throw new IllegalArgumentException("Invalid date-time: " + value);
+      }
+      LocalDateTime local = date.atTime(number(v, 9, 11), number(v, 11, 13));
+      ZoneId zone = null;
+      if (v.endsWith("Z")) {
+        zone = ZoneOffset.UTC;
+      } else if (tzid != null) {
+        try {
+          zone = ZoneId.of(tzid);
+        } catch (DateTimeException e) {
+          // a zone name Java doesn't know, such as a Windows one. read it as floating time.
+        }
+      }
+      return new Stamp(local, zone, false);
+    }
+
+    private LocalDateTime in(ZoneId target) {
+      if (zone == null || dateOnly) {
+        return local;
+      }
+      return local.atZone(zone).withZoneSameInstant(target).toLocalDateTime();
+    }
+
+    private static int number(String s, int from, int to) {
+      if (s.length() < to) {
+        throw new IllegalArgumentException("Invalid date-time: " + s);
+      }
+      int n = 0;
+      for (int i = from; i < to; i++) {
+        char c = s.charAt(i);
+        if (c < '0' || c > '9') {
+          throw new IllegalArgumentException("Invalid date-time: " + s);
+        }
+        n = n * 10 + (c - '0');
+      }
+      return n;
+    }
+  }
+
+  /**
+   * The properties of one VEVENT which the calendar can hold.
+   */
+  private static final class VEvent {
+    private String uid;
+    private String summary;
+    private String description;
+    private String location;
+    private String classification;
+    private boolean cancelled;
+    private Stamp start;
+    private Stamp end;
+    private Duration duration;
+    private String rule;
+    private Stamp recurrenceId;
+    private final List<Stamp> exdates = new ArrayList<>();
+
+    private void set(Property p) {
+      try {
+        switch (p.name) {
+          case "UID":
+            uid = p.value;
+            break;
+          case "SUMMARY":
+            summary = unescape(p.value);
+            break;
+          case "DESCRIPTION":
+            description = unescape(p.value);
+            break;
+          case "LOCATION":
+            location = unescape(p.value);
+            break;
+          case "CLASS":
+            classification = p.value.trim().toUpperCase();
+            break;
+          case "STATUS":
+            cancelled = p.value.trim().equalsIgnoreCase("CANCELLED");
+            break;
+          case "DTSTART":
+            start = Stamp.parse(p.value, p.tzid, p.dateValue);
+            break;
+          case "DTEND":
+            end = Stamp.parse(p.value, p.tzid, p.dateValue);
+            break;
+          case "DURATION":
+            duration = parseDuration(p.value.trim());
+            break;
+          case "RRULE":
+            rule = p.value.trim();
+            break;
+          case "RECURRENCE-ID":
+            recurrenceId = Stamp.parse(p.value, p.tzid, p.dateValue);
+            break;
+          case "EXDATE":
+            for (String value : p.value.split(",")) {
+              exdates.add(Stamp.parse(value, p.tzid, p.dateValue));
+            }
+            break;
+          default:
+            break;
+        }
+      } catch (IllegalArgumentException | DateTimeException e) {
+        // a value we can't read is left unset, the event is skipped if it needs it.
+      }
+    }
+
+    // the event as it first occurs, in the given zone.
+    private Event firstOccurrence(ZoneId zone) {
+      String subject = summary == null || summary.isEmpty() ? "Untitled" : summary;
+      EventStatus status = classification == null ? null
+              : classification.equals("PUBLIC") ? EventStatus.PUBLIC : EventStatus.PRIVATE;
+      LocalDateTime from = start.in(zone);
+      if (start.dateOnly) {
+        // all day events keep the calendar's usual all day hours.
+        LocalDate last = from.toLocalDate();
+        if (end != null && end.dateOnly && end.local.toLocalDate().isAfter(last.plusDays(1))) {
+          last = end.local.toLocalDate().minusDays(1);
+        } else if (end == null && duration != null && duration.toDays() > 1) {
+          last = last.plusDays(duration.toDays() - 1);
+        }
+        return Event.of(subject, locationOf(location), status,
+                from.toLocalDate(), LocalTime.of(8, 0), last, LocalTime.of(17, 0), description);
+      }
+      LocalDateTime to;
+      if (end != null) {
+        to = end.in(zone);
+      } else if (duration != null) {
+        to = from.plus(duration);
+      } else {
+        to = from;
+      }
+      return Event.of(subject, locationOf(location), status,
+              from.toLocalDate(), from.toLocalTime(), to.toLocalDate(), to.toLocalTime(),
+              description);
+    }
+
+    private static EventLocation locationOf(String location) {
+      if (location == null || location.isBlank()) {
+        return null;
+      }
+      String l = location.trim().toLowerCase();
+      return l.contains("://") || l.equals("online") ? EventLocation.ONLINE
+              : EventLocation.PHYSICAL;
+    }
+
+    private static Duration parseDuration(String value) {
+      if (value.startsWith("-")) {
+        throw new IllegalArgumentException("Negative duration: " + value);
+      }
+      String v = value.startsWith("+") ? value.substring(1) : value;
+      if (v.endsWith("W")) {
+        return Duration.ofDays(7L * Long.parseLong(v.substring(1, v.length() - 1)));
+      }
+      return Duration.parse(v);
+    }
+
+    private static String unescape(String text) {
+      if (text.indexOf('\\') < 0) {
+        return text;
+      }
+      StringBuilder sb = new StringBuilder(text.length());
+      for (int i = 0; i < text.length(); i++) {
+        char c = text.charAt(i);
+        if (c == '\\' && i + 1 < text.length()) {
+          char next = text.charAt(++i);
+          sb.append(next == 'n' || next == 'N' ? '\n' : next);
+        } else {
+          sb.append(c);
+        }
+      }
+      return sb.toString();
+    }
+  }
+
+  /**
+   * The parts of an RRULE this importer understands.
+   */
+  private static final class Rule {
+    private final ChronoUnit frequency;
+    private final int interval;
+    private final int count;
+    private final Stamp until;
+    private final Set<DayOfWeek> byDay;
+
+    private Rule(ChronoUnit frequency, int interval, int count, Stamp until,
+                 Set<DayOfWeek> byDay) {
+      this.frequency = frequency;
+      this.interval = interval;
+      this.count = count;
+      this.until = until;
+      this.byDay = byDay;
+    }
+
+    // returns null for rules using parts other than these.
+    private static Rule parse(String rule) {
+      ChronoUnit frequency = null;
+      int interval = 1;
+      int count = 0;
+      Stamp until = null;
+      Set<DayOfWeek> byDay = null;
+      try {
+        for (String part : rule.split(";")) {
+          int eq = part.indexOf('=');
+          if (eq < 0) {
+            return null;
+          }
+          String key = part.substring(0, eq).trim().toUpperCase();
+          String value = part.substring(eq + 1).trim().toUpperCase();
+          switch (key) {
+            case "FREQ":
+              frequency = frequencyOf(value);
+              break;
+            case "INTERVAL":
+              interval = Integer.parseInt(value);
+              break;
+            case "COUNT":
+              count = Integer.parseInt(value);
+              break;
+            case "UNTIL":
+              until = Stamp.parse(value, null, false);
+              break;
+            case "BYDAY":
+              byDay = daysOf(value);
+              break;
+            case "WKST":
+              break;
+            default:
+              return null;
+          }
+        }
+      } catch (IllegalArgumentException | DateTimeException e) {
+        return null;
+      }
+      if (frequency == null || interval < 1 || count < 0
+              || (byDay != null && frequency != ChronoUnit.WEEKS)) {
+        return null;
+      }
+      return new Rule(frequency, interval, count, until, byDay);
+    }
+
+    private static ChronoUnit frequencyOf(String value) {
+      switch (value) {
+        case "DAILY":
+          return ChronoUnit.DAYS;
+        case "WEEKLY":
+          return ChronoUnit.WEEKS;
+        case "MONTHLY":
+          return ChronoUnit.MONTHS;
+        case "YEARLY":
+          return ChronoUnit.YEARS;
+        default:
+          throw new IllegalArgumentException("Unsupported frequency: " + value);
+      }
+    }
+
+    // plain day codes only, a rule such as the second Monday of the month isn't understood.
+    private static Set<DayOfWeek> daysOf(String value) {
+      Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+      for (String code : value.split(",")) {
+        switch (code.trim()) {
+          case "MO":
+            days.add(DayOfWeek.MONDAY);
+            break;
+          case "TU":
+            days.add(DayOfWeek.TUESDAY);
+            break;
+          case "WE":
+            days.add(DayOfWeek.WEDNESDAY);
+            break;
+          case "TH":
+            days.add(DayOfWeek.THURSDAY);
+            break;
+          case "FR":
+            days.add(DayOfWeek.FRIDAY);
+            break;
+          case "SA":
+            days.add(DayOfWeek.SATURDAY);
+            break;
+          case "SU":
+            days.add(DayOfWeek.SUNDAY);
+            break;
+          default:
+            throw new IllegalArgumentException("Unsupported day: " + code);
+        }
+      }
+      return days;
+    }
+
+    // whether this rule is exactly what an EventSeries repeats.
+    private boolean isWeekly() {
+      return interval == 1 && (frequency == ChronoUnit.WEEKS || frequency == ChronoUnit.DAYS);
+    }
+
+    private Set<DayOfWeek> days(LocalDate start) {
+      if (frequency == ChronoUnit.DAYS) {
+        return EnumSet.allOf(DayOfWeek.class);
+      }
+      return byDay != null ? byDay : EnumSet.of(start.getDayOfWeek());
+    }
+
+    // the last date an EventSeries following this rule repeats on.
+    private LocalDate lastDate(Event first, Set<DayOfWeek> days, ZoneId zone) {
+      LocalDate start = first.getStartDate();
+      if (count > 0) {
+        // the first occurrence counts even when it's off the rule's days.
+        int seen = 1;
+        LocalDate date = start;
+        while (seen < count) {
+          date = date.plusDays(1);
+          if (days.contains(date.getDayOfWeek())) {
+            seen++;
+          }
+        }
+        return date;
+      }
+      if (until == null) {
+        return start.plusYears(OPEN_RULE_YEARS);
+      }
+      LocalDateTime last = until.in(zone);
+      if (!until.dateOnly && last.toLocalTime().isBefore(first.getStartTime())) {
+        return last.toLocalDate().minusDays(1);
+      }
+      return last.toLocalDate();
+    }
+
+    // hands every date the rule repeats on from start to the action, in order, up to and
+    // including the given date, until the action returns false.
+    private void forEachDate(LocalDate start, LocalDate last, Predicate<LocalDate> action) {
+      if (frequency == ChronoUnit.WEEKS && byDay != null) {
+        if (!action.test(start)) {
+          return;
+        }
+        LocalDate week = start.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        for (; !week.isAfter(last); week = week.plusWeeks(interval)) {
+          for (DayOfWeek day : byDay) {
+            LocalDate date = week.plusDays(day.ordinal());
+            if (date.isAfter(last)) {
+              return;
+            }
+            if (date.isAfter(start) && !action.test(date)) {
+              return;
+            }
+          }
+        }
+        return;
+      }
+      boolean monthly = frequency == ChronoUnit.MONTHS || frequency == ChronoUnit.YEARS;
+      for (long step = 0; ; step += interval) {
+        LocalDate date = start.plus(step, frequency);
+        if (date.isAfter(last)) {
+          return;
+        }
+        // a monthly rule on the 31st skips shorter months rather than moving the date.
+        if (monthly && date.getDayOfMonth() != start.getDayOfMonth()) {
+          continue;
+        }
+        if (!action.test(date)) {
+          return;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,189 @@
+package model;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only file of records, each framed as its length (int), the CRC32 of its payload (int)
+ * and the payload. Appending only buffers a record in memory and hands back a ticket, syncing on
+ * that ticket blocks until the record is on disk. Syncs are batched: the first thread to sync
+ * writes out everything buffered so far and forces it to disk once, while threads syncing in the
+ * meantime wait for it and usually find their records were written along with it.
+ */
+final class Journal implements Closeable {
+  private static final int FRAME_BYTES = 8;
+  private final FileChannel channel;
+  // records appended but not yet handed to the channel.
+  private final ByteArrayOutputStream pending;
+  // bytes appended so far, and bytes known to be on disk. tickets are positions in the file.
+  private long appended;
+  private long durable;
+  private boolean flushing;
+  private IOException failure;
+
+  private Journal(FileChannel channel) throws IOException {
+    this.channel = channel;
+    this.pending = new ByteArrayOutputStream();
+    this.appended = channel.size();
+    this.durable = appended;
+  }
+
+  /**
+   * Creates a new journal holding just the given record, which is on disk once this returns.
+   * Any file already at the path is replaced.
+   * @param file where to create the journal.
+   * @param first the first record.
+   * @return the journal, open for appending.
+   * @throws IOException if the file can't be written.
+   */
+  static Journal create(Path file, byte[] first) throws IOException {
+    Journal journal = new Journal(FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+    journal.sync(journal.append(first));
+    return journal;
+  }
+
+  /**
+   * Reads every intact record of an existing journal, in order, and opens it for appending.
+   * Reading stops at the first record which is cut short or fails its checksum, such as one
+   * which was being written when the process died, and the file is truncated there.
+   * @param file the journal.
+   * @param replay called with the payload of each intact record.
+   * @return the journal, open for appending after its last intact record.
+   * @throws IOException if the file can't be read.
+   */
+  static Journal recover(Path file, Consumer<byte[]> replay) throws IOException {
+    long valid = 0;
+    long size = Files.size(file);
+    try (DataInputStream in = new DataInputStream(
+            new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+      CRC32 crc = new CRC32();
+      while (true) {
+        int length;
+        int checksum;
+        byte[] payload;
+        try {
+          length = in.readInt();
+          checksum = in.readInt();
+          if (length < 0 || length > size - valid - FRAME_BYTES) {
+            break;
+          }
+          payload = new byte[length];
+          in.readFully(payload);
+        } catch (EOFException e) {
+          break;
+        }
+        crc.reset();
+        crc.update(payload);
+        if ((int) crc.getValue() != checksum) {
+          break;
+        }
+        replay.accept(payload);
+        valid += FRAME_BYTES + length;
+      }
+    }
+    FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+    if (valid < size) {
+      channel.truncate(valid);
+      channel.force(false);
+    }
+    channel.position(valid);
+    return new Journal(channel);
+  }
+
+  /**
+   * Buffers a record to be written with the next sync.
+   * @param payload the record.
+   * @return the ticket to sync on to wait for this record to reach the disk.
+   */
+  synchronized long append(byte[] payload) {
+    CRC32 crc = new CRC32();
+    crc.update(payload);
+    ByteBuffer frame = ByteBuffer.allocate(FRAME_BYTES)
+            .putInt(payload.length)
+            .putInt((int) crc.getValue());
+    pending.write(frame.array(), 0, FRAME_BYTES);
+    pending.write(payload, 0, payload.length);
+    appended += FRAME_BYTES + payload.length;
+    return appended;
+  }
+
+  /**
+   * Returns the ticket of the last record appended.
+   * @return a ticket covering every record appended so far.
+   */
+  synchronized long last() {
+    return appended;
+  }
+
+  /**
+   * Blocks until every record up to the given ticket is on disk.
+   * @param ticket a ticket returned by append.
+   * @throws IOException if the records can't be written, now or by an earlier sync.
+   */
+  void sync(long ticket) throws IOException {
+    byte[] batch;
+    long end;
+    synchronized (this) {
+      while (durable < ticket && flushing && failure == null) {
+        try {
+          wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException("Interrupted waiting for the journal");
+        }
+      }
+      if (failure != null) {
+        throw new IOException("Journal is no longer writable", failure);
+      }
+      if (durable >= ticket) {
+        return;
+      }
+      // nobody is writing, so this thread writes everything buffered so far.
+      flushing = true;
+      batch = pending.toByteArray();
+      pending.reset();
+      end = appended;
+    }
+    try {
+      ByteBuffer buffer = ByteBuffer.wrap(batch);
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+      channel.force(false);
+    } catch (IOException e) {
+      synchronized (this) {
+        failure = e;
+        flushing = false;
+        notifyAll();
+      }
+      throw e;
+    }
+    synchronized (this) {
+      durable = end;
+      flushing = false;
+      notifyAll();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      sync(last());
+    } finally {
+      channel.close();
+    }
+  }
+}
@@ -0,0 +1,154 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A calendar handed out by a JournaledCalendarManager. Every change is applied to the calendar
+ * it wraps and recorded in the manager's journal, and only returns once the record is on disk.
+ * Calls are serialized through the manager, so these calendars can be shared between threads.
+ */
+class JournaledCalendar implements ICalendar {
+  private final JournaledCalendarManager manager;
+  private final long id;
+  private final ICalendar inner;
+  // the journal generation this calendar was last written to in full, see the manager.
+  private long generation;
+
+  /**
+   * Wraps a calendar under the given id.
+   * @param manager the manager journaling the calendar.
+   * @param id the id of the calendar in the journal.
+   * @param inner the calendar holding the events.
+   * @param generation the generation the calendar is known to.
+   */
+  JournaledCalendar(JournaledCalendarManager manager, long id, ICalendar inner, long generation) {
+    this.manager = manager;
+    this.id = id;
+    this.inner = inner;
+    this.generation = generation;
+  }
+
+  long id() {
+    return id;
+  }
+
+  ICalendar inner() {
+    return inner;
+  }
+
+  long generation() {
+    return generation;
+  }
+
+  void setGeneration(long generation) {
+    this.generation = generation;
+  }
+
+  boolean belongsTo(JournaledCalendarManager manager) {
+    return this.manager == manager;
+  }
+
+  @Override
+  public ZoneId getTimeZone() {
+    return inner.getTimeZone();
+  }
+
+  @Override
+  public Calendar snapshot() {
+    return manager.read(inner::snapshot);
+  }
+
+  @Override
+  public void revertTo(Calendar snapshot) {
+    manager.revert(this, snapshot);
+  }
+
+  @Override
+  public ICalendar setTimeZone(ZoneId timeZone) {
+    return manager.deriveZone(this, timeZone);
+  }
+
+  @Override
+  public void addEvent(IEvent event) {
+    manager.apply(this, JournaledCalendarManager.ADD_EVENT,
+            out -> EventCodec.writeEvent(out, event), () -> inner.addEvent(event));
+  }
+
+  @Override
+  public void addEvents(Collection<IEvent> events) {
+    List<IEvent> batch = new ArrayList<>(events);
+    manager.apply(this, JournaledCalendarManager.ADD_EVENTS,
+            out -> EventCodec.writeEvents(out, batch), () -> inner.addEvents(batch));
+  }
+
+  @Override
+  public void removeEvent(IEvent event) {
+    manager.apply(this, JournaledCalendarManager.REMOVE_EVENT,
+            out -> EventCodec.writeEvent(out, event), () -> inner.removeEvent(event));
+  }
+
+  @Override
+  public void addEventSeries(IEventSeries series) {
+    manager.apply(this, JournaledCalendarManager.ADD_SERIES,
+            out -> EventCodec.writeSeries(out, series), () -> inner.addEventSeries(series));
+  }
+
+  @Override
+  public void removeEventSeries(IEventSeries series) {
+    manager.apply(this, JournaledCalendarManager.REMOVE_SERIES,
+            out -> EventCodec.writeSeries(out, series), () -> inner.removeEventSeries(series));
+  }
+
+  @Override
+  public void replaceEvent(IEvent oldEvent, IEvent newEvent) {
+    manager.apply(this, JournaledCalendarManager.REPLACE_EVENT,
+            out -> {
+              EventCodec.writeEvent(out, oldEvent);
+              EventCodec.writeEvent(out, newEvent);
+            },
+            () -> inner.replaceEvent(oldEvent, newEvent));
+  }
+
+  @Override
+  public void copyEventsAndShift(
+          LocalDate rangeStart, LocalDate rangeEnd, ICalendar from, LocalDate atStartDate) {
+    List<IEvent> shifted = Calendar.shiftedCopies(rangeStart, rangeEnd, from, atStartDate);
+    if (!shifted.isEmpty()) {
+      addEvents(shifted);
+    }
+  }
+
+  @Override
+  public void copyEvents(LocalDate rangeStart, LocalDate rangeEnd, ICalendar from) {
+    copyEventsAndShift(rangeStart, rangeEnd, from, rangeStart);
+  }
+
+  @Override
+  public List<IEvent> getEvents() {
+    return manager.read(inner::getEvents);
+  }
+
+  @Override
+  public List<IEvent> getScheduleInRange(LocalDate start, LocalDate end) {
+    return manager.read(() -> inner.getScheduleInRange(start, end));
+  }
+
+  @Override
+  public IEventSeries getSeriesFor(IEvent event) {
+    return manager.read(() -> inner.getSeriesFor(event));
+  }
+
+  @Override
+  public void replaceSeries(IEventSeries oldSeries, IEventSeries newSeries) {
+    manager.apply(this, JournaledCalendarManager.REPLACE_SERIES,
+            out -> {
+              EventCodec.writeSeries(out, oldSeries);
+              EventCodec.writeSeries(out, newSeries);
+            },
+            () -> inner.replaceSeries(oldSeries, newSeries));
+  }
+}
@@ -0,0 +1,564 @@
+package model;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A calendar manager which keeps its calendars in a directory, so they survive a restart. The
+ * directory holds a snapshot of every calendar, see CalendarSnapshot, and a journal of every
+ * change made since that snapshot was taken. A change is recorded as a compact binary record
+ * holding just the events it touched, so recovering loads the snapshot and replays the journal
+ * directly against the calendars, without going back through the text commands.
+ *
+ * <p>Every change returns only once its record is on disk, but changes made from several threads
+ * at once share a single disk sync. A checkpoint writes a new snapshot and starts an empty
+ * journal, keeping recovery short. Calendars are identified in the journal by an id rather than
+ * by their name, so calendars which are not under any name yet, such as one created by changing
+ * the time zone of another, can be journaled as well.
+ */
+public class JournaledCalendarManager implements ICalendarManager, Closeable {
+  static final int CHECKPOINT = 0;
+  static final int NEW_CALENDAR = 1;
+  static final int BIND = 2;
+  static final int UNBIND = 3;
+  static final int RENAME = 4;
+  static final int DERIVE_ZONE = 5;
+  static final int ADD_EVENT = 10;
+  static final int ADD_EVENTS = 11;
+  static final int REMOVE_EVENT = 12;
+  static final int REPLACE_EVENT = 13;
+  static final int ADD_SERIES = 14;
+  static final int REMOVE_SERIES = 15;
+  static final int REPLACE_SERIES = 16;
+  private static final Pattern GENERATION = Pattern.compile("(journal|snapshot)-(\\d+)\\.bin");
+  private final Path directory;
+  private final Map<String, JournaledCalendar> calendars;
+  private Journal journal;
+  // bumped by every checkpoint. calendars from an older generation are not in the snapshot.
+  private long generation;
+  private long nextId;
+
+  private JournaledCalendarManager(Path directory) {
+    this.directory = directory;
+    this.calendars = new HashMap<>();
+  }
+
+  /**
+   * Opens the calendars kept in the given directory, creating it if needed. Anything a previous
+   * process was writing when it stopped is recovered up to its last complete change.
+   * @param directory the directory holding the calendars.
+   * @return a manager holding the recovered calendars.
+   * @throws IOException if the directory can't be read or its files are not calendar files.
+   */
+  public static JournaledCalendarManager open(Path directory) throws IOException {
+    Files.createDirectories(directory);
+    JournaledCalendarManager manager = new JournaledCalendarManager(directory);
+    long latest = -1;
+    for (long generation : generations(directory, "journal")) {
+      latest = Math.max(latest, generation);
+    }
+    if (latest < 0) {
+      manager.journal = Journal.create(manager.journalFile(0), manager.checkpointRecord(0));
+    } else {
+      manager.recover(latest);
+    }
+    manager.deleteOtherGenerations();
+    return manager;
+  }
+
+  /**
+   * Writes every calendar to a new snapshot and starts a new, empty journal. Changes made after
+   * this are replayed on top of the new snapshot.
+   * @throws IOException if the snapshot or the journal can't be written.
+   */
+  public synchronized void checkpoint() throws IOException {
+    ensureOpen();
+    // everything before this point is in the new snapshot, but the old files stay valid until the
+    // new journal exists.
+    journal.sync(journal.last());
+    long next = generation + 1;
+    CalendarSnapshot.save(this, snapshotFile(next));
+    Path file = journalFile(next);
+    Path partial = file.resolveSibling(file.getFileName() + ".partial");
+    Journal.create(partial, checkpointRecord(next)).close();
+    try {
+      Files.move(partial, file, StandardCopyOption.ATOMIC_MOVE);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(partial, file);
+    }
+    generation = next;
+    for (JournaledCalendar calendar : calendars.values()) {
+      calendar.setGeneration(next);
+    }
+    journal.close();
+    journal = Journal.recover(file, record -> { });
+    deleteOtherGenerations();
+  }
+
+  /**
+   * Waits for every change to reach the disk and closes the journal. The manager can't be changed
+   * afterwards.
+   * @throws IOException if the journal can't be written.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    if (journal != null) {
+      journal.close();
+      journal = null;
+    }
+  }
+
+  @Override
+  public synchronized List<String> getCalendars() {
+    return new ArrayList<>(calendars.keySet());
+  }
+
+  @Override
+  public synchronized ICalendar getCalendar(String name) {
+    assertContainsCalendar(name, "Calendar '" + name + "' not found");
+    return calendars.get(name);
+  }
+
+  @Override
+  public void changeName(String oldName, String newName) {
+    Journal target;
+    long ticket;
+    synchronized (this) {
+      assertContainsCalendar(oldName, "Cannot change name. " + oldName + " not in calendar.");
+      assertNameNotTaken(newName);
+      ensureOpen();
+      calendars.put(newName, calendars.remove(oldName));
+      target = journal;
+      ticket = journal.append(EventCodec.record(RENAME, out -> {
+        EventCodec.writeString(out, oldName);
+        EventCodec.writeString(out, newName);
+      }));
+    }
+    sync(target, ticket);
+  }
+
+  @Override
+  public void addCalendar(String name, ICalendar calendar) {
+    Journal target;
+    long ticket;
+    synchronized (this) {
+      assertNameNotTaken(name);
+      ensureOpen();
+      JournaledCalendar journaled;
+      if (calendar instanceof JournaledCalendar
+              && ((JournaledCalendar) calendar).belongsTo(this)) {
+        journaled = (JournaledCalendar) calendar;
+        register(journaled);
+      } else {
+        // copied, so later changes made through the original can't bypass the journal.
+        List<IEvent> events = new ArrayList<>();
+        List<IEventSeries> series = new ArrayList<>();
+        CalendarSnapshot.contentsOf(calendar, events, series);
+        journaled = new JournaledCalendar(this, nextId++,
+                Calendar.restore(calendar.getTimeZone(), events, series), -1);
+        register(journaled);
+      }
+      calendars.put(name, journaled);
+      target = journal;
+      ticket = journal.append(bindRecord(name, journaled.id()));
+    }
+    sync(target, ticket);
+  }
+
+  @Override
+  public void removeCalendar(String name) {
+    Journal target;
+    long ticket;
+    synchronized (this) {
+      assertContainsCalendar(name, "Cannot remove calendar that doesn't exist: " + name);
+      ensureOpen();
+      calendars.remove(name);
+      target = journal;
+      ticket = journal.append(EventCodec.record(UNBIND, out -> EventCodec.writeString(out, name)));
+    }
+    sync(target, ticket);
+  }
+
+  @Override
+  public ICalendar getOrCreateDefault() {
+    final String defaultName = "default";
+    synchronized (this) {
+      if (calendars.containsKey(defaultName)) {
+        return calendars.get(defaultName);
+      }
+    }
+    // another thread may get here first, in which case its default calendar is kept.
+    try {
+      addCalendar(defaultName, new Calendar());
+    } catch (IllegalArgumentException e) {
+      // fall through to the calendar the other thread added.
+    }
+    return getCalendar(defaultName);
+  }
+
+  /**
+   * Applies a change to a calendar and journals it, returning once the record is on disk. The
+   * record is encoded before the change is made, and nothing is journaled if the change fails.
+   *
+   * <p>The change is made, and can be read by other threads, before its record is synced, so
+   * syncs can be shared. If the sync then fails the change is not taken back: it stays in memory
+   * but not on disk, and the journal refuses every later change, so the manager has to be
+   * reopened, recovering the calendars as they were at the last successful sync.
+   * @param calendar the calendar being changed.
+   * @param type the kind of record.
+   * @param body writes the record after the calendar id.
+   * @param change makes the change.
+   * @throws UncheckedIOException if the record can't be synced, after the change was made in
+   *         memory.
+   */
+  void apply(JournaledCalendar calendar, int type, Body body, Runnable change) {
+    Journal target;
+    long ticket;
+    synchronized (this) {
+      ensureOpen();
+      byte[] record = EventCodec.record(type, out -> {
+        out.writeLong(calendar.id());
+        body.write(out);
+      });
+      register(calendar);
+      change.run();
+      target = journal;
+      ticket = journal.append(record);
+    }
+    sync(target, ticket);
+  }
+
+  /**
+   * Puts a calendar back to a snapshot of it, and journals the calendar anew in full, so a replay
+   * ends with it as it is in the snapshot whatever was journaled for it since.
+   * @param calendar the calendar being reverted.
+   * @param snapshot a snapshot taken of the calendar.
+   * @throws UncheckedIOException if the records can't be synced, after the calendar was reverted
+   *         in memory.
+   */
+  void revert(JournaledCalendar calendar, Calendar snapshot) {
+    Journal target;
+    long ticket;
+    synchronized (this) {
+      ensureOpen();
+      calendar.inner().revertTo(snapshot);
+      // an outdated generation makes register write the whole calendar again.
+      calendar.setGeneration(-1);
+      register(calendar);
+      target = journal;
+      ticket = journal.last();
+    }
+    sync(target, ticket);
+  }
+
+  /**
+   * Shifts a calendar into another time zone, journaling the new calendar under a new id.
+   * @param source the calendar to shift.
+   * @param zone the new time zone.
+   * @return the shifted calendar, not yet under any name.
+   */
+  ICalendar deriveZone(JournaledCalendar source, ZoneId zone) {
+    Journal target;
+    long ticket;
+    JournaledCalendar derived;
+    synchronized (this) {
+      ensureOpen();
+      register(source);
+      derived = new JournaledCalendar(this, nextId++,
+              source.inner().setTimeZone(zone), generation);
+      target = journal;
+      ticket = journal.append(EventCodec.record(DERIVE_ZONE, out -> {
+        out.writeLong(derived.id());
+        out.writeLong(source.id());
+        EventCodec.writeString(out, zone.getId());
+      }));
+    }
+    sync(target, ticket);
+    return derived;
+  }
+
+  /**
+   * Reads from a calendar of this manager while no change is being made.
+   * @param read the read.
+   * @param <T> the type read.
+   * @return what was read.
+   */
+  synchronized <T> T read(Supplier<T> read) {
+    return read.get();
+  }
+
+  /**
+   * Writes the body of a journal record.
+   */
+  interface Body {
+    void write(DataOutputStream out) throws IOException;
+  }
+
+  // writes a calendar to the journal in full if the current snapshot doesn't hold it.
+  private void register(JournaledCalendar calendar) {
+    if (calendar.generation() == generation) {
+      return;
+    }
+    List<IEvent> events = new ArrayList<>();
+    List<IEventSeries> series = new ArrayList<>();
+    CalendarSnapshot.contentsOf(calendar.inner(), events, series);
+    long id = calendar.id();
+    journal.append(EventCodec.record(NEW_CALENDAR, out -> {
+      out.writeLong(id);
+      EventCodec.writeString(out, calendar.getTimeZone().getId());
+    }));
+    if (!events.isEmpty()) {
+      journal.append(EventCodec.record(ADD_EVENTS, out -> {
+        out.writeLong(id);
+        EventCodec.writeEvents(out, events);
+      }));
+    }
+    for (IEventSeries s : series) {
+      journal.append(EventCodec.record(ADD_SERIES, out -> {
+        out.writeLong(id);
+        EventCodec.writeSeries(out, s);
+      }));
+    }
+    calendar.setGeneration(generation);
+  }
+
+  private void recover(long latest) throws IOException {
+    generation = latest;
+    Path snapshot = snapshotFile(latest);
+    CalendarManager saved = Files.exists(snapshot)
+            ? CalendarSnapshot.load(snapshot) : new CalendarManager();
+    Replay replay = new Replay(saved);
+    try {
+      journal = Journal.recover(journalFile(latest), replay::apply);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    if (!replay.started) {
+      throw new IOException("Journal has no checkpoint: " + journalFile(latest));
+    }
+    nextId = replay.nextId;
+    Map<Long, JournaledCalendar> wrapped = new HashMap<>();
+    for (Map.Entry<String, Long> entry : replay.names.entrySet()) {
+      long id = entry.getValue();
+      JournaledCalendar calendar = wrapped.computeIfAbsent(id,
+              key -> new JournaledCalendar(this, key, replay.calendars.get(key), generation));
+      calendars.put(entry.getKey(), calendar);
+    }
+  }
+
+  /**
+   * Rebuilds the calendars from a snapshot and the journal written on top of it.
+   */
+  private final class Replay {
+    private final CalendarManager saved;
+    private final Map<Long, ICalendar> calendars;
+    private final Map<String, Long> names;
+    private long nextId;
+    private boolean started;
+
+    private Replay(CalendarManager saved) {
+      this.saved = saved;
+      this.calendars = new HashMap<>();
+      this.names = new LinkedHashMap<>();
+    }
+
+    private void apply(byte[] payload) {
+      try {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        int type = in.readUnsignedByte();
+        if (!started && type != CHECKPOINT) {
+          throw new IOException("Journal does not start with a checkpoint");
+        }
+        switch (type) {
+          case CHECKPOINT:
+            checkpoint(in);
+            break;
+          case NEW_CALENDAR:
+            calendars.put(in.readLong(), new Calendar(ZoneId.of(EventCodec.readString(in))));
+            break;
+          case BIND:
+            names.put(EventCodec.readString(in), in.readLong());
+            break;
+          case UNBIND:
+            names.remove(EventCodec.readString(in));
+            break;
+          case RENAME:
+            rename(EventCodec.readString(in), EventCodec.readString(in));
+            break;
+          case DERIVE_ZONE:
+            derive(in.readLong(), calendar(in.readLong()), ZoneId.of(EventCodec.readString(in)));
+            break;
+          default:
+            change(type, calendar(in.readLong()), in);
+            break;
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      } catch (IllegalArgumentException e) {
+        throw new UncheckedIOException(new IOException("Journal record can't be replayed", e));
+      }
+    }
+
+    private void checkpoint(DataInputStream in) throws IOException {
+      if (started || in.readLong() != generation) {
+        throw new IOException("Journal checkpoint doesn't match its snapshot");
+      }
+      started = true;
+      nextId = in.readLong();
+      int count = in.readInt();
+      for (int i = 0; i < count; i++) {
+        String name = EventCodec.readString(in);
+        long id = in.readLong();
+        names.put(name, id);
+        calendars.put(id, saved.getCalendar(name));
+      }
+    }
+
+    private void rename(String oldName, String newName) {
+      names.put(newName, names.remove(oldName));
+    }
+
+    private void derive(long id, ICalendar source, ZoneId zone) {
+      calendars.put(id, source.setTimeZone(zone));
+    }
+
+    private void change(int type, ICalendar calendar, DataInputStream in) throws IOException {
+      switch (type) {
+        case ADD_EVENT:
+          calendar.addEvent(EventCodec.readEvent(in));
+          break;
+        case ADD_EVENTS:
+          calendar.addEvents(EventCodec.readEvents(in));
+          break;
+        case REMOVE_EVENT:
+          calendar.removeEvent(EventCodec.readEvent(in));
+          break;
+        case REPLACE_EVENT:
+          calendar.replaceEvent(EventCodec.readEvent(in), EventCodec.readEvent(in));
+          break;
+        case ADD_SERIES:
+          calendar.addEventSeries(EventCodec.readSeries(in));
+          break;
+        case REMOVE_SERIES:
+          calendar.removeEventSeries(EventCodec.readSeries(in));
+          break;
+        case REPLACE_SERIES:
+          calendar.replaceSeries(EventCodec.readSeries(in), EventCodec.readSeries(in));
+          break;
+        default:
+          throw new IOException("Unknown journal record type: " + type);
+      }
+    }
+
+    private ICalendar calendar(long id) throws IOException {
+      ICalendar calendar = calendars.get(id);
+      if (calendar == null) {
+        throw new IOException("Journal refers to unknown calendar " + id);
+      }
+      return calendar;
+    }
+  }
+
+  private byte[] checkpointRecord(long generation) {
+    return EventCodec.record(CHECKPOINT, out -> {
+      out.writeLong(generation);
+      out.writeLong(nextId);
+      out.writeInt(calendars.size());
+      for (Map.Entry<String, JournaledCalendar> entry : calendars.entrySet()) {
+        EventCodec.writeString(out, entry.getKey());
+        out.writeLong(entry.getValue().id());
+      }
+    });
+  }
+
+  private static byte[] bindRecord(String name, long id) {
+    return EventCodec.record(BIND, out -> {
+      EventCodec.writeString(out, name);
+      out.writeLong(id);
+    });
+  }
+
+  private static void sync(Journal journal, long ticket) {
+    try {
+      journal.sync(ticket);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void ensureOpen() {
+    if (journal == null) {
+      throw new IllegalStateException("Calendar manager is closed");
+    }
+  }
+
+  private void assertContainsCalendar(String name, String message) {
+    if (calendars.get(name) == null) {
+      throw new IllegalArgumentException(message);
+    }
+  }
+
+  private void assertNameNotTaken(String name) {
+    if (calendars.containsKey(name)) {
+      throw new IllegalArgumentException("Calendar name already taken: " + name);
+    }
+  }
+
+  private Path journalFile(long generation) {
+    return directory.resolve("journal-" + generation + ".bin");
+  }
+
+  private Path snapshotFile(long generation) {
+    return directory.resolve("snapshot-" + generation + ".bin");
+  }
+
+  // removes files left behind by earlier checkpoints, or by a checkpoint which didn't finish.
+  private void deleteOtherGenerations() throws IOException {
+    for (long old : generations(directory, "journal")) {
+      if (old != generation) {
+        Files.deleteIfExists(journalFile(old));
+      }
+    }
+    for (long old : generations(directory, "snapshot")) {
+      if (old != generation) {
+        Files.deleteIfExists(snapshotFile(old));
+      }
+    }
+    try (DirectoryStream<Path> partials = Files.newDirectoryStream(directory, "*.partial")) {
+      for (Path partial : partials) {
+        Files.deleteIfExists(partial);
+      }
+    }
+  }
+
+  private static List<Long> generations(Path directory, String kind) throws IOException {
+    List<Long> found = new ArrayList<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+      for (Path file : files) {
+        Matcher m = GENERATION.matcher(file.getFileName().toString());
+        if (m.matches() && m.group(1).equals(kind)) {
+          found.add(Long.parseLong(m.group(2)));
+        }
+      }
+    }
+    return found;
+  }
+}
@@ -0,0 +1,410 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A calendar manager over a CalendarStore directory which only keeps the calendars in use in
+ * memory. Listing the calendars reads nothing but the index, and a calendar is loaded the first
+ * time it is asked for. Once the loaded calendars are estimated to take more memory than the
+ * budget, the least recently used ones are saved and dropped, to be loaded again when next used.
+ * Opening the manager and the memory it holds don't depend on the number of calendars.
+ *
+ * <p>getCalendar hands out a view of the calendar rather than the calendar itself. A view kept
+ * across an eviction loads its calendar again when it is next used, so no change is ever made
+ * to a dropped copy. Every call holds the manager's lock. Changes reach the disk when their
+ * calendar is evicted, on save and on close.
+ *
+ * <p>An archive horizon can be given when opening the manager. Every calendar then moves its
+ * standalone events starting before the horizon into its archive as it is loaded, see
+ * Calendar.archiveBefore, so past events take little memory and don't count against the budget.
+ */
+public class LazyCalendarManager implements ICalendarManager, Closeable {
+  static final long ESTIMATED_EVENT_BYTES = 350;
+
+  private final CalendarStore store;
+  private final long budget;
+  // events starting before this are archived as their calendar is loaded, none if null.
+  private final LocalDate archiveHorizon;
+  // every calendar by name, in the order they were listed or added.
+  private final Map<String, Slot> slots;
+  // the loaded calendars, least recently used first.
+  private final Set<Slot> loaded;
+  // folders of removed calendars, deleted once the index no longer lists them.
+  private final List<CalendarStore.Saved> removed;
+  private boolean indexStale;
+  // how many view calls are running, nothing is evicted until the outermost one is done.
+  private int busy;
+
+  private LazyCalendarManager(CalendarStore store, long budget, LocalDate archiveHorizon) {
+    this.store = store;
+    this.budget = budget;
+    this.archiveHorizon = archiveHorizon;
+    this.slots = new LinkedHashMap<>();
+    this.loaded = new LinkedHashSet<>();
+    this.removed = new ArrayList<>();
+  }
+
+  /**
+   * One calendar of the manager, loaded or not.
+   */
+  private final class Slot {
+    private final CalendarStore.Saved saved;
+    private final ZoneId zone;
+    private final View view;
+    // null once the calendar is removed from the manager.
+    private String name;
+    // null while the calendar isn't loaded.
+    private Calendar calendar;
+
+    private Slot(String name, CalendarStore.Saved saved, ZoneId zone, Calendar calendar) {
+      this.name = name;
+      this.saved = saved;
+      this.zone = zone;
+      this.calendar = calendar;
+      this.view = new View(this);
+    }
+  }
+
+  /**
+   * Opens the calendars kept in the given directory, reading only their names.
+   * @param directory the directory holding the calendars, created if needed.
+   * @param budget roughly how many bytes the loaded calendars may take up. The most recently
+   *               used calendar stays loaded even if it is larger on its own.
+   * @return the manager.
+   * @throws IOException if the index can't be read.
+   * @throws IllegalArgumentException if the budget is negative.
+   */
+  public static LazyCalendarManager open(Path directory, long budget) throws IOException {
+    return open(directory, budget, null);
+  }
+
+  /**
+   * Opens the calendars kept in the given directory, reading only their names, and archives the
+   * events of each calendar starting before the horizon as it is loaded.
+   * @param directory the directory holding the calendars, created if needed.
+   * @param budget roughly how many bytes the loaded calendars may take up. The most recently
+   *               used calendar stays loaded even if it is larger on its own.
+   * @param archiveHorizon the first date whose events stay in memory, or null to archive none.
+   * @return the manager.
+   * @throws IOException if the index can't be read.
+   * @throws IllegalArgumentException if the budget is negative.
+   */
+  public static LazyCalendarManager open(Path directory, long budget, LocalDate archiveHorizon)
+          throws IOException {
+    if (budget < 0) {
+      throw new IllegalArgumentException("Memory budget cannot be negative: " + budget);
+    }
+    LazyCalendarManager manager =
+            new LazyCalendarManager(CalendarStore.open(directory), budget, archiveHorizon);
+    for (CalendarStore.IndexEntry entry : manager.store.readIndex()) {
+      manager.slots.put(entry.name, manager.new Slot(entry.name, entry.saved, entry.zone, null));
+    }
+    return manager;
+  }
+
+  @Override
+  public synchronized List<String> getCalendars() {
+    return new ArrayList<>(slots.keySet());
+  }
+
+  @Override
+  public synchronized ICalendar getCalendar(String name) {
+    Slot slot = slot(name, "Calendar '" + name + "' not found");
+    use(slot, calendar -> calendar);
+    return slot.view;
+  }
+
+  @Override
+  public synchronized void changeName(String oldName, String newName) {
+    Slot slot = slot(oldName, "Cannot change name. " + oldName + " not in calendar.");
+    assertNameNotTaken(newName);
+    slots.remove(oldName);
+    slots.put(newName, slot);
+    slot.name = newName;
+    indexStale = true;
+  }
+
+  @Override
+  public synchronized void addCalendar(String name, ICalendar calendar) {
+    assertNameNotTaken(name);
+    Calendar owned = own(calendar);
+    Slot slot = new Slot(name, store.allocate(), owned.getTimeZone(), owned);
+    slots.put(name, slot);
+    indexStale = true;
+    use(slot, c -> c);
+  }
+
+  @Override
+  public synchronized void removeCalendar(String name) {
+    Slot slot = slot(name, "Cannot remove calendar that doesn't exist: " + name);
+    slots.remove(name);
+    loaded.remove(slot);
+    slot.name = null;
+    slot.calendar = null;
+    removed.add(slot.saved);
+    indexStale = true;
+  }
+
+  @Override
+  public synchronized ICalendar getOrCreateDefault() {
+    final String defaultName = "default";
+    if (!slots.containsKey(defaultName)) {
+      addCalendar(defaultName, new Calendar());
+    }
+    return getCalendar(defaultName);
+  }
+
+  /**
+   * Returns the names of the calendars which are loaded right now, least recently used first.
+   * @return a new list of the names.
+   */
+  public synchronized List<String> getLoadedCalendars() {
+    List<String> names = new ArrayList<>();
+    for (Slot slot : loaded) {
+      names.add(slot.name);
+    }
+    return names;
+  }
+
+  /**
+   * Writes the changes made to the loaded calendars, and the index if calendars were added,
+   * removed or renamed.
+   * @throws IOException if a file can't be written.
+   */
+  public synchronized void save() throws IOException {
+    for (Slot slot : loaded) {
+      store.write(slot.calendar, slot.saved);
+    }
+    if (indexStale) {
+      List<CalendarStore.IndexEntry> entries = new ArrayList<>();
+      for (Slot slot : slots.values()) {
+        entries.add(new CalendarStore.IndexEntry(slot.name, slot.saved, slot.zone));
+      }
+      store.writeIndex(entries);
+      indexStale = false;
+      for (Iterator<CalendarStore.Saved> it = removed.iterator(); it.hasNext(); ) {
+        store.deleteFolder(it.next());
+        it.remove();
+      }
+    }
+  }
+
+  /**
+   * Saves every change, see save.
+   * @throws IOException if a file can't be written.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    save();
+  }
+
+  // runs the operation on the slot's calendar, loading it first if needed.
+  private synchronized <T> T use(Slot slot, Function<Calendar, T> operation) {
+    if (slot.name == null) {
+      throw new IllegalArgumentException("Calendar was removed from its manager");
+    }
+    busy++;
+    try {
+      if (slot.calendar == null) {
+        try {
+          slot.calendar = store.read(slot.saved, slot.zone);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        if (archiveHorizon != null) {
+          slot.calendar.archiveBefore(archiveHorizon);
+        }
+      }
+      loaded.remove(slot);
+      loaded.add(slot);
+      return operation.apply(slot.calendar);
+    } finally {
+      busy--;
+      if (busy == 0) {
+        evictOverBudget();
+      }
+    }
+  }
+
+  // saves and drops the least recently used calendars until the rest fit the budget.
+  private void evictOverBudget() {
+    long used = 0;
+    for (Slot slot : loaded) {
+      used += slot.calendar.storedEvents() * ESTIMATED_EVENT_BYTES;
+    }
+    Iterator<Slot> it = loaded.iterator();
+    while (used > budget && loaded.size() > 1) {
+      Slot coldest = it.next();
+      try {
+        store.write(coldest.calendar, coldest.saved);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      used -= coldest.calendar.storedEvents() * ESTIMATED_EVENT_BYTES;
+      coldest.calendar = null;
+      it.remove();
+    }
+  }
+
+  // the calendar to keep for the given one, a snapshot of it or a copy of what it holds.
+  private Calendar own(ICalendar calendar) {
+    Calendar snapshot = calendar.snapshot();
+    if (snapshot != null) {
+      return snapshot;
+    }
+    List<IEvent> events = new ArrayList<>();
+    List<IEventSeries> series = new ArrayList<>();
+    CalendarSnapshot.contentsOf(calendar, events, series);
+    return Calendar.restore(calendar.getTimeZone(), events, series);
+  }
+
+  private Slot slot(String name, String message) {
+    Slot slot = slots.get(name);
+    if (slot == null) {
+      throw new IllegalArgumentException(message);
+    }
+    return slot;
+  }
+
+  private void assertNameNotTaken(String name) {
+    if (slots.containsKey(name)) {
+      throw new IllegalArgumentException("Calendar name already taken: " + name);
+    }
+  }
+
+  /**
+   * The calendar handed out for a slot, which loads it again whenever it was evicted.
+   */
+  private final class View implements ICalendar {
+    private final Slot slot;
+
+    private View(Slot slot) {
+      this.slot = slot;
+    }
+
+    @Override
+    public ZoneId getTimeZone() {
+      return slot.zone;
+    }
+
+    @Override
+    public Calendar snapshot() {
+      return use(slot, Calendar::snapshot);
+    }
+
+    @Override
+    public void revertTo(Calendar snapshot) {
+      use(slot, c -> {
+        c.revertTo(snapshot);
+        return null;
+      });
+    }
+
+    @Override
+    public ICalendar setTimeZone(ZoneId timeZone) {
+      return use(slot, c -> c.setTimeZone(timeZone));
+    }
+
+    @Override
+    public void addEvent(IEvent event) {
+      use(slot, c -> {
+        c.addEvent(event);
+        return null;
+      });
+    }
+
+    @Override
+    public void addEvents(Collection<IEvent> events) {
+      use(slot, c -> {
+        c.addEvents(events);
+        return null;
+      });
+    }
+
+    @Override
+    public void removeEvent(IEvent event) {
+      use(slot, c -> {
+        c.removeEvent(event);
+        return null;
+      });
+    }
+
+    @Override
+    public void addEventSeries(IEventSeries series) {
+      use(slot, c -> {
+        c.addEventSeries(series);
+        return null;
+      });
+    }
+
+    @Override
+    public void removeEventSeries(IEventSeries series) {
+      use(slot, c -> {
+        c.removeEventSeries(series);
+        return null;
+      });
+    }
+
+    @Override
+    public void replaceEvent(IEvent oldEvent, IEvent newEvent) {
+      use(slot, c -> {
+        c.replaceEvent(oldEvent, newEvent);
+        return null;
+      });
+    }
+
+    @Override
+    public void copyEventsAndShift(
+            LocalDate rangeStart, LocalDate rangeEnd, ICalendar from, LocalDate atStartDate) {
+      use(slot, c -> {
+        c.copyEventsAndShift(rangeStart, rangeEnd, from, atStartDate);
+        return null;
+      });
+    }
+
+    @Override
+    public void copyEvents(LocalDate rangeStart, LocalDate rangeEnd, ICalendar from) {
+      use(slot, c -> {
+        c.copyEvents(rangeStart, rangeEnd, from);
+        return null;
+      });
+    }
+
+    @Override
+    public List<IEvent> getEvents() {
+      return use(slot, Calendar::getEvents);
+    }
+
+    @Override
+    public List<IEvent> getScheduleInRange(LocalDate start, LocalDate end) {
+      return use(slot, c -> c.getScheduleInRange(start, end));
+    }
+
+    @Override
+    public IEventSeries getSeriesFor(IEvent event) {
+      return use(slot, c -> c.getSeriesFor(event));
+    }
+
+    @Override
+    public void replaceSeries(IEventSeries oldSeries, IEventSeries newSeries) {
+      use(slot, c -> {
+        c.replaceSeries(oldSeries, newSeries);
+        return null;
+      });
+    }
+  }
+}
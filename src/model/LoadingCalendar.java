@@ -0,0 +1,119 @@
+package model;
+
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * A calendar which is still being read in the background. It stands in for the calendar in its
+ * manager from the start, and every call but getTimeZone waits for the read to finish before
+ * handing the call on to the calendar read. A read which failed fails every call with the
+ * UncheckedIOException it ended with.
+ */
+final class LoadingCalendar implements ICalendar {
+  private final ZoneId zone;
+  private final ForkJoinTask<ICalendar> task;
+
+  /**
+   * Creates a calendar standing in for the one the task reads.
+   * @param zone the time zone of the calendar read.
+   * @param task the task reading the calendar, already started.
+   */
+  LoadingCalendar(ZoneId zone, ForkJoinTask<ICalendar> task) {
+    this.zone = zone;
+    this.task = task;
+  }
+
+  /**
+   * Waits for the calendar to be read.
+   * @return the calendar read.
+   * @throws UncheckedIOException if it couldn't be read.
+   */
+  ICalendar loaded() {
+    return task.join();
+  }
+
+  @Override
+  public ZoneId getTimeZone() {
+    return zone;
+  }
+
+  @Override
+  public Calendar snapshot() {
+    return loaded().snapshot();
+  }
+
+  @Override
+  public void revertTo(Calendar snapshot) {
+    loaded().revertTo(snapshot);
+  }
+
+  @Override
+  public ICalendar setTimeZone(ZoneId timeZone) {
+    return loaded().setTimeZone(timeZone);
+  }
+
+  @Override
+  public void addEvent(IEvent event) {
+    loaded().addEvent(event);
+  }
+
+  @Override
+  public void addEvents(Collection<IEvent> events) {
+    loaded().addEvents(events);
+  }
+
+  @Override
+  public void removeEvent(IEvent event) {
+    loaded().removeEvent(event);
+  }
+
+  @Override
+  public void addEventSeries(IEventSeries series) {
+    loaded().addEventSeries(series);
+  }
+
+  @Override
+  public void removeEventSeries(IEventSeries series) {
+    loaded().removeEventSeries(series);
+  }
+
+  @Override
+  public void replaceEvent(IEvent oldEvent, IEvent newEvent) {
+    loaded().replaceEvent(oldEvent, newEvent);
+  }
+
+  @Override
+  public void copyEventsAndShift(
+          LocalDate rangeStart, LocalDate rangeEnd, ICalendar from, LocalDate atStartDate) {
+    loaded().copyEventsAndShift(rangeStart, rangeEnd, from, atStartDate);
+  }
+
+  @Override
+  public void copyEvents(LocalDate rangeStart, LocalDate rangeEnd, ICalendar from) {
+    loaded().copyEvents(rangeStart, rangeEnd, from);
+  }
+
+  @Override
+  public List<IEvent> getEvents() {
+    return loaded().getEvents();
+  }
+
+  @Override
+  public List<IEvent> getScheduleInRange(LocalDate start, LocalDate end) {
+    return loaded().getScheduleInRange(start, end);
+  }
+
+  @Override
+  public IEventSeries getSeriesFor(IEvent event) {
+    return loaded().getSeriesFor(event);
+  }
+
+  @Override
+  public void replaceSeries(IEventSeries oldSeries, IEventSeries newSeries) {
+    loaded().replaceSeries(oldSeries, newSeries);
+  }
+}
@@ -0,0 +1,238 @@
+package model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A calendar kept in a directory of its own as an append-only log, see EventLog. Every change is
+ * made to a copy of the calendar in memory and appended to the log as one record, and the copy
+ * only replaces the calendar once the record is on disk, so a change which can't be logged is
+ * dropped, and a change costs the same single write however large the calendar is. The log is
+ * compacted in the background as it grows. Calls are serialized, so these calendars can be shared
+ * between threads.
+ */
+public class LoggedCalendar implements ICalendar, Closeable {
+  /**
+   * How large a segment of the log grows before the next one is started, unless told otherwise.
+   */
+  public static final long SEGMENT_BYTES = 1 << 20;
+
+  private final EventLog log;
+  // swapped for a changed copy once the change is on disk.
+  private Calendar calendar;
+
+  private LoggedCalendar(EventLog log) {
+    this.log = log;
+    this.calendar = log.recovered();
+  }
+
+  /**
+   * Opens the calendar kept in the given directory, creating an empty one in the default time
+   * zone of EST if there is none.
+   * @param directory the directory of the calendar.
+   * @return the calendar.
+   * @throws IOException if the directory can't be read or its files are not calendar log files.
+   */
+  public static LoggedCalendar open(Path directory) throws IOException {
+    return open(directory, ZoneId.of("America/New_York"), SEGMENT_BYTES);
+  }
+
+  /**
+   * Opens the calendar kept in the given directory, creating an empty one if there is none.
+   * @param directory the directory of the calendar.
+   * @param zone the time zone of a new calendar, ignored if the directory holds one.
+   * @param segmentBytes roughly how large a segment of the log grows.
+   * @return the calendar.
+   * @throws IOException if the directory can't be read or its files are not calendar log files.
+   * @throws IllegalArgumentException if the segment size is not positive.
+   */
+  public static LoggedCalendar open(Path directory, ZoneId zone, long segmentBytes)
+          throws IOException {
+    if (segmentBytes <= 0) {
+      throw new IllegalArgumentException("Segment size must be positive: " + segmentBytes);
+    }
+    return new LoggedCalendar(EventLog.open(directory, zone, segmentBytes));
+  }
+
+  /**
+   * Rewrites the log as a single base holding the calendar as it is now, waiting for it.
+   * @throws IOException if the base can't be written.
+   */
+  public synchronized void compact() throws IOException {
+    log.compact(calendar.snapshot());
+  }
+
+  /**
+   * Returns how much disk space the log takes up.
+   * @return the size of every file of the log, in bytes.
+   */
+  public long diskBytes() {
+    return log.diskBytes();
+  }
+
+  /**
+   * Waits for a compaction in progress and closes the log. The calendar can't be changed
+   * afterwards.
+   * @throws IOException if the log can't be closed or a compaction failed.
+   */
+  @Override
+  public synchronized void close() throws IOException {
+    log.close();
+  }
+
+  @Override
+  public ZoneId getTimeZone() {
+    return calendar.getTimeZone();
+  }
+
+  /**
+   * Shifts this calendar into another time zone, logging the change like any other.
+   * @param timeZone the new time zone.
+   * @return this calendar, now in the new time zone.
+   */
+  @Override
+  public synchronized ICalendar setTimeZone(ZoneId timeZone) {
+    commit(EventLog.SET_ZONE, out -> EventCodec.writeString(out, timeZone.getId()),
+            calendar.setTimeZone(timeZone));
+    return this;
+  }
+
+  @Override
+  public void addEvent(IEvent event) {
+    apply(EventLog.ADD_EVENT, out -> EventCodec.writeEvent(out, event),
+            c -> c.addEvent(event));
+  }
+
+  @Override
+  public void addEvents(Collection<IEvent> events) {
+    List<IEvent> batch = new ArrayList<>(events);
+    apply(EventLog.ADD_EVENTS, out -> EventCodec.writeEvents(out, batch),
+            c -> c.addEvents(batch));
+  }
+
+  @Override
+  public void removeEvent(IEvent event) {
+    apply(EventLog.REMOVE_EVENT, out -> EventCodec.writeEvent(out, event),
+            c -> c.removeEvent(event));
+  }
+
+  @Override
+  public void addEventSeries(IEventSeries series) {
+    apply(EventLog.ADD_SERIES, out -> EventCodec.writeSeries(out, series),
+            c -> c.addEventSeries(series));
+  }
+
+  @Override
+  public void removeEventSeries(IEventSeries series) {
+    apply(EventLog.REMOVE_SERIES, out -> EventCodec.writeSeries(out, series),
+            c -> c.removeEventSeries(series));
+  }
+
+  @Override
+  public void replaceEvent(IEvent oldEvent, IEvent newEvent) {
+    apply(EventLog.REPLACE_EVENT,
+            out -> {
+              EventCodec.writeEvent(out, oldEvent);
+              EventCodec.writeEvent(out, newEvent);
+            },
+            c -> c.replaceEvent(oldEvent, newEvent));
+  }
+
+  @Override
+  public void copyEventsAndShift(
+          LocalDate rangeStart, LocalDate rangeEnd, ICalendar from, LocalDate atStartDate) {
+    List<IEvent> shifted = Calendar.shiftedCopies(rangeStart, rangeEnd, from, atStartDate);
+    if (!shifted.isEmpty()) {
+      addEvents(shifted);
+    }
+  }
+
+  @Override
+  public void copyEvents(LocalDate rangeStart, LocalDate rangeEnd, ICalendar from) {
+    copyEventsAndShift(rangeStart, rangeEnd, from, rangeStart);
+  }
+
+  @Override
+  public synchronized List<IEvent> getEvents() {
+    return calendar.getEvents();
+  }
+
+  @Override
+  public synchronized List<IEvent> getScheduleInRange(LocalDate start, LocalDate end) {
+    return calendar.getScheduleInRange(start, end);
+  }
+
+  @Override
+  public synchronized IEventSeries getSeriesFor(IEvent event) {
+    return calendar.getSeriesFor(event);
+  }
+
+  @Override
+  public void replaceSeries(IEventSeries oldSeries, IEventSeries newSeries) {
+    apply(EventLog.REPLACE_SERIES,
+            out -> {
+              EventCodec.writeSeries(out, oldSeries);
+              EventCodec.writeSeries(out, newSeries);
+            },
+            c -> c.replaceSeries(oldSeries, newSeries));
+  }
+
+  /**
+   * Returns the calendar as it is right now, which later changes don't touch.
+   * @return a snapshot of the calendar.
+   */
+  @Override
+  public synchronized Calendar snapshot() {
+    return calendar.snapshot();
+  }
+
+  /**
+   * Puts back what this calendar held when the given snapshot of it was taken, and rewrites the
+   * log as a single base holding that, waiting for it, so the changes made since don't come back
+   * when the log is replayed. If the base can't be written the calendar is left as it was.
+   * @param snapshot a snapshot taken of this calendar.
+   * @throws UncheckedIOException if the base can't be written.
+   */
+  @Override
+  public synchronized void revertTo(Calendar snapshot) {
+    Calendar reverted = calendar.snapshot();
+    reverted.revertTo(snapshot);
+    try {
+      log.compact(reverted.snapshot());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    calendar = reverted;
+  }
+
+  // makes the change to a copy of the calendar and commits the copy.
+  private synchronized void apply(int type, JournaledCalendarManager.Body body,
+          Consumer<Calendar> change) {
+    Calendar changed = calendar.snapshot();
+    change.accept(changed);
+    commit(type, body, changed);
+  }
+
+  // logs a change and swaps in the calendar it led to. a full segment is sealed before the
+  // record, so its snapshot holds exactly the records of the segments sealed so far.
+  private void commit(int type, JournaledCalendarManager.Body body, Calendar changed) {
+    byte[] record = EventCodec.record(type, body);
+    try {
+      if (log.full()) {
+        log.seal(calendar.snapshot());
+      }
+      log.append(record);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    calendar = changed;
+  }
+}
@@ -0,0 +1,251 @@
+package model;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * A calendar loaded from a snapshot file, which decodes its events from the mapped file on
+ * demand. Range queries read straight from the mapping, only decoding the events inside the
+ * range. Anything else, including the first change, decodes the whole calendar into a regular
+ * Calendar which then answers every call.
+ */
+class MappedCalendar implements ICalendar {
+  private final SnapshotFile file;
+  private final ZoneId zone;
+  private final int records;
+  private final int order;
+  private final int seriesStart;
+  private final int eventCount;
+  private final int seriesCount;
+  // decoded on first use.
+  private List<IEventSeries> series;
+  // set once the whole calendar has been decoded, after which it answers everything.
+  private Calendar calendar;
+
+  /**
+   * Creates a calendar reading the section at the given position of the file.
+   * @param file the mapped snapshot.
+   * @param zone the time zone of the calendar.
+   * @param section the position of the calendar's section.
+   * @param eventCount the number of standalone events in the section.
+   * @param seriesCount the number of series in the section.
+   */
+  MappedCalendar(SnapshotFile file, ZoneId zone, int section, int eventCount, int seriesCount) {
+    this.file = file;
+    this.zone = zone;
+    this.records = section;
+    this.order = section + eventCount * CalendarSnapshot.RECORD_BYTES;
+    this.seriesStart = order + eventCount * 4;
+    this.eventCount = eventCount;
+    this.seriesCount = seriesCount;
+  }
+
+  /**
+   * Decodes the whole calendar, if that hasn't happened yet.
+   * @return the decoded calendar.
+   */
+  Calendar materialize() {
+    if (calendar == null) {
+      List<IEvent> events = new ArrayList<>(eventCount);
+      for (int i = 0; i < eventCount; i++) {
+        events.add(file.event(records + i * CalendarSnapshot.RECORD_BYTES));
+      }
+      calendar = Calendar.restore(zone, events, series());
+      series = null;
+    }
+    return calendar;
+  }
+
+  @Override
+  public ZoneId getTimeZone() {
+    return zone;
+  }
+
+  @Override
+  public Calendar snapshot() {
+    return materialize().snapshot();
+  }
+
+  @Override
+  public void revertTo(Calendar snapshot) {
+    materialize().revertTo(snapshot);
+  }
+
+  @Override
+  public ICalendar setTimeZone(ZoneId timeZone) {
+    return materialize().setTimeZone(timeZone);
+  }
+
+  @Override
+  public void addEvent(IEvent event) {
+    materialize().addEvent(event);
+  }
+
+  @Override
+  public void addEvents(Collection<IEvent> events) {
+    materialize().addEvents(events);
+  }
+
+  @Override
+  public void removeEvent(IEvent event) {
+    materialize().removeEvent(event);
+  }
+
+  @Override
+  public void addEventSeries(IEventSeries series) {
+    materialize().addEventSeries(series);
+  }
+
+  @Override
+  public void removeEventSeries(IEventSeries series) {
+    materialize().removeEventSeries(series);
+  }
+
+  @Override
+  public void replaceEvent(IEvent oldEvent, IEvent newEvent) {
+    materialize().replaceEvent(oldEvent, newEvent);
+  }
+
+  @Override
+  public void copyEventsAndShift(
+          LocalDate rangeStart, LocalDate rangeEnd, ICalendar from, LocalDate atStartDate) {
+    materialize().copyEventsAndShift(rangeStart, rangeEnd, from, atStartDate);
+  }
+
+  @Override
+  public void copyEvents(LocalDate rangeStart, LocalDate rangeEnd, ICalendar from) {
+    materialize().copyEvents(rangeStart, rangeEnd, from);
+  }
+
+  @Override
+  public List<IEvent> getEvents() {
+    return materialize().getEvents();
+  }
+
+  @Override
+  public List<IEvent> getScheduleInRange(LocalDate start, LocalDate end) {
+    if (calendar != null) {
+      return calendar.getScheduleInRange(start, end);
+    }
+    List<IEvent> results = new ArrayList<>();
+    if (start.isAfter(end)) {
+      return results;
+    }
+    long to = (end.toEpochDay() + 1) * CalendarSnapshot.MINUTES_PER_DAY;
+    int first = firstStartingAtOrAfter(start.toEpochDay() * CalendarSnapshot.MINUTES_PER_DAY);
+    int last = first;
+    while (last < eventCount && file.startMinutes(recordAt(last)) < to) {
+      last++;
+    }
+    // the start order sorts a day's events by minute, but Calendar returns them in the order they
+    // were added, which is the order of their records.
+    int[] found = new int[last - first];
+    for (int i = first; i < last; i++) {
+      found[i - first] = file.getInt(order + 4 * i);
+    }
+    for (int from = 0, until; from < found.length; from = until) {
+      long day = dayOf(found[from]);
+      until = from + 1;
+      while (until < found.length && dayOf(found[until]) == day) {
+        until++;
+      }
+      Arrays.sort(found, from, until);
+    }
+    for (int index : found) {
+      results.add(file.event(records + index * CalendarSnapshot.RECORD_BYTES));
+    }
+    // like Calendar, the occurrences of eager series come before those of lazy ones.
+    boolean merged = false;
+    for (boolean lazy : new boolean[] {false, true}) {
+      for (IEventSeries s : series()) {
+        if (s.isLazy() == lazy) {
+          List<IEvent> window = s.getEventsInRange(start, end);
+          merged |= !window.isEmpty();
+          results.addAll(window);
+        }
+      }
+    }
+    if (merged) {
+      // a stable sort, so events starting on the same day keep the order built above.
+      results.sort(Comparator.comparing(IEvent::getStartDate));
+    }
+    return results;
+  }
+
+  @Override
+  public IEventSeries getSeriesFor(IEvent event) {
+    return materialize().getSeriesFor(event);
+  }
+
+  @Override
+  public void replaceSeries(IEventSeries oldSeries, IEventSeries newSeries) {
+    materialize().replaceSeries(oldSeries, newSeries);
+  }
+
+  // the position of the i-th record in start order.
+  private int recordAt(int i) {
+    return records + file.getInt(order + 4 * i) * CalendarSnapshot.RECORD_BYTES;
+  }
+
+  // the epoch day the event of the index-th record starts on.
+  private long dayOf(int index) {
+    return Math.floorDiv(file.startMinutes(records + index * CalendarSnapshot.RECORD_BYTES),
+            CalendarSnapshot.MINUTES_PER_DAY);
+  }
+
+  // binary search over the start order for the first event starting at or after the minute.
+  private int firstStartingAtOrAfter(long minute) {
+    int low = 0;
+    int high = eventCount;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (file.startMinutes(recordAt(mid)) < minute) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private List<IEventSeries> series() {
+    if (series == null) {
+      series = new ArrayList<>(seriesCount);
+      int position = seriesStart;
+      for (int i = 0; i < seriesCount; i++) {
+        Event base = file.event(position);
+        position += CalendarSnapshot.RECORD_BYTES;
+        byte mask = file.get(position);
+        LocalDate endDate = LocalDate.ofEpochDay(file.getLong(position + 1));
+        boolean lazy = file.get(position + 9) != 0;
+        int count = file.getInt(position + 10);
+        position += 14;
+        if (lazy) {
+          NavigableMap<LocalDate, IEvent> overrides = new TreeMap<>();
+          for (int j = 0; j < count; j++) {
+            overrides.put(LocalDate.ofEpochDay(file.getLong(position)), file.event(position + 8));
+            position += 8 + CalendarSnapshot.RECORD_BYTES;
+          }
+          series.add(EventSeries.restoreLazy(
+                  base, SnapshotFile.weekDaysOf(mask), endDate, overrides));
+        } else {
+          List<IEvent> occurrences = new ArrayList<>(count);
+          for (int j = 0; j < count; j++) {
+            occurrences.add(file.event(position));
+            position += CalendarSnapshot.RECORD_BYTES;
+          }
+          series.add(EventSeries.restoreEager(
+                  base, SnapshotFile.weekDaysOf(mask), endDate, occurrences));
+        }
+      }
+    }
+    return series;
+  }
+}
@@ -0,0 +1,280 @@
+package model;
+
+/**
+ * An immutable hash map backed by a hash array mapped trie. Each level of the trie consumes five
+ * bits of a key's hash and only stores the slots in use, so an update copies at most seven small
+ * nodes and returns a new map which shares everything else with the old one.
+ * Keys hash and compare with hashCode() and equals(), and may not be null.
+ * @param <K> the key type.
+ * @param <V> the value type.
+ */
+final class PersistentHashMap<K, V> {
+  private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(null, 0);
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+  private final Node root;
+  private final int size;
+
+  private PersistentHashMap(Node root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  /**
+   * Returns the empty map.
+   * @param <K> the key type.
+   * @param <V> the value type.
+   * @return a map holding no entries.
+   */
+  @SuppressWarnings("unchecked")
+  static <K, V> PersistentHashMap<K, V> empty() {
+    return (PersistentHashMap<K, V>) EMPTY;
+  }
+
+  /**
+   * Returns the number of entries in this map.
+   * @return the size of the map.
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * Returns the value stored under the given key.
+   * @param key the key to look up.
+   * @return the value, or null if the key is not in the map.
+   */
+  @SuppressWarnings("unchecked")
+  V get(K key) {
+    return root == null ? null : (V) root.find(0, hash(key), key);
+  }
+
+  /**
+   * Returns whether the map holds the given key.
+   * @param key the key to look for.
+   * @return true if the key is present.
+   */
+  boolean containsKey(K key) {
+    return get(key) != null;
+  }
+
+  /**
+   * Returns a map which also maps key to value, replacing any value stored under key.
+   * @param key the key to store.
+   * @param value the value to store, which may not be null.
+   * @return the updated map.
+   */
+  PersistentHashMap<K, V> put(K key, V value) {
+    boolean[] added = new boolean[1];
+    Node start = root == null ? BitmapNode.EMPTY : root;
+    Node updated = start.put(0, hash(key), key, value, added);
+    if (updated == root) {
+      return this;
+    }
+    return new PersistentHashMap<>(updated, added[0] ? size + 1 : size);
+  }
+
+  /**
+   * Returns a map without the given key.
+   * @param key the key to remove.
+   * @return the updated map, or this map if the key was not present.
+   */
+  PersistentHashMap<K, V> remove(K key) {
+    if (root == null) {
+      return this;
+    }
+    Node updated = root.remove(0, hash(key), key);
+    return updated == root ? this : new PersistentHashMap<>(updated, size - 1);
+  }
+
+  // spreads the high bits down, since the trie reads the hash from the bottom up.
+  private static int hash(Object key) {
+    int h = key.hashCode();
+    return h ^ (h >>> 16);
+  }
+
+  private abstract static class Node {
+    abstract Object find(int shift, int hash, Object key);
+
+    abstract Node put(int shift, int hash, Object key, Object value, boolean[] added);
+
+    // returns null once the node holds nothing.
+    abstract Node remove(int shift, int hash, Object key);
+  }
+
+  /*
+   * A trie level. Slots are packed into array as key, value pairs. A slot holding a subtree has a
+   * null key and the child node as its value.
+   */
+  private static final class BitmapNode extends Node {
+    private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+    private final int bitmap;
+    private final Object[] array;
+
+    private BitmapNode(int bitmap, Object[] array) {
+      this.bitmap = bitmap;
+      this.array = array;
+    }
+
+    @Override
+    Object find(int shift, int hash, Object key) {
+      int bit = bit(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return null;
+      }
+      int i = 2 * index(bit);
+      Object k = array[i];
+      if (k == null) {
+        return ((Node) array[i + 1]).find(shift + BITS, hash, key);
+      }
+      return key.equals(k) ? array[i + 1] : null;
+    }
+
+    @Override
+    Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+      int bit = bit(hash, shift);
+      int i = 2 * index(bit);
+      if ((bitmap & bit) == 0) {
+        Object[] grown = new Object[array.length + 2];
+        System.arraycopy(array, 0, grown, 0, i);
+        grown[i] = key;
+        grown[i + 1] = value;
+        System.arraycopy(array, i, grown, i + 2, array.length - i);
+        added[0] = true;
+        return new BitmapNode(bitmap | bit, grown);
+      }
+      Object k = array[i];
+      Object v = array[i + 1];
+      if (k == null) {
+        Node child = ((Node) v).put(shift + BITS, hash, key, value, added);
+        return child == v ? this : with(i, null, child);
+      }
+      if (key.equals(k)) {
+        return v == value ? this : with(i, k, value);
+      }
+      added[0] = true;
+      return with(i, null, pair(shift + BITS, k, v, hash, key, value));
+    }
+
+    @Override
+    Node remove(int shift, int hash, Object key) {
+      int bit = bit(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return this;
+      }
+      int i = 2 * index(bit);
+      Object k = array[i];
+      if (k == null) {
+        Node child = (Node) array[i + 1];
+        Node updated = child.remove(shift + BITS, hash, key);
+        if (updated == child) {
+          return this;
+        }
+        return updated != null ? with(i, null, updated) : without(bit, i);
+      }
+      return key.equals(k) ? without(bit, i) : this;
+    }
+
+    private BitmapNode with(int i, Object key, Object value) {
+      Object[] copy = array.clone();
+      copy[i] = key;
+      copy[i + 1] = value;
+      return new BitmapNode(bitmap, copy);
+    }
+
+    private BitmapNode without(int bit, int i) {
+      if (bitmap == bit) {
+        return null;
+      }
+      Object[] shrunk = new Object[array.length - 2];
+      System.arraycopy(array, 0, shrunk, 0, i);
+      System.arraycopy(array, i + 2, shrunk, i, array.length - i - 2);
+      return new BitmapNode(bitmap & ~bit, shrunk);
+    }
+
+    private int index(int bit) {
+      return Integer.bitCount(bitmap & (bit - 1));
+    }
+  }
+
+  /*
+   * Holds every key sharing one full hash, packed as key, value pairs.
+   */
+  private static final class CollisionNode extends Node {
+    private final int hash;
+    private final Object[] array;
+
+    private CollisionNode(int hash, Object[] array) {
+      this.hash = hash;
+      this.array = array;
+    }
+
+    @Override
+    Object find(int shift, int hash, Object key) {
+      int i = indexOf(key);
+      return i < 0 ? null : array[i + 1];
+    }
+
+    @Override
+    Node put(int shift, int hash, Object key, Object value, boolean[] added) {
+      if (hash != this.hash) {
+        // a different hash ends up here, push this node one level down beside it.
+        return new BitmapNode(bit(this.hash, shift), new Object[] {null, this})
+                .put(shift, hash, key, value, added);
+      }
+      int i = indexOf(key);
+      if (i >= 0) {
+        if (array[i + 1] == value) {
+          return this;
+        }
+        Object[] copy = array.clone();
+        copy[i + 1] = value;
+        return new CollisionNode(hash, copy);
+      }
+      Object[] grown = new Object[array.length + 2];
+      System.arraycopy(array, 0, grown, 0, array.length);
+      grown[array.length] = key;
+      grown[array.length + 1] = value;
+      added[0] = true;
+      return new CollisionNode(hash, grown);
+    }
+
+    @Override
+    Node remove(int shift, int hash, Object key) {
+      int i = indexOf(key);
+      if (i < 0) {
+        return this;
+      }
+      if (array.length == 2) {
+        return null;
+      }
+      Object[] shrunk = new Object[array.length - 2];
+      System.arraycopy(array, 0, shrunk, 0, i);
+      System.arraycopy(array, i + 2, shrunk, i, array.length - i - 2);
+      return new CollisionNode(hash, shrunk);
+    }
+
+    private int indexOf(Object key) {
+      for (int i = 0; i < array.length; i += 2) {
+        if (key.equals(array[i])) {
+          return i;
+        }
+      }
+      return -1;
+    }
+  }
+
+  // builds the smallest subtree holding two entries whose keys differ.
+  private static Node pair(int shift, Object k1, Object v1, int h2, Object k2, Object v2) {
+    int h1 = hash(k1);
+    if (h1 == h2) {
+      return new CollisionNode(h1, new Object[] {k1, v1, k2, v2});
+    }
+    boolean[] ignored = new boolean[1];
+    return BitmapNode.EMPTY.put(shift, h1, k1, v1, ignored).put(shift, h2, k2, v2, ignored);
+  }
+
+  private static int bit(int hash, int shift) {
+    return 1 << ((hash >>> shift) & MASK);
+  }
+}
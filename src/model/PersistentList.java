@@ -0,0 +1,151 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * An immutable list which keeps its elements in insertion order and may hold equal elements
+ * more than once. Elements are stored in a persistent tree under increasing sequence numbers,
+ * and a persistent hash map finds the positions of an element, so appending, removing and
+ * replacing are all O(log n) and return a new list which shares structure with this one.
+ * @param <T> the element type.
+ */
+final class PersistentList<T> implements Iterable<T> {
+  private static final PersistentList<?> EMPTY =
+          new PersistentList<>(PersistentTreeMap.empty(), PersistentHashMap.empty(), 0);
+  private final PersistentTreeMap<Long, T> items;
+  // the sequence numbers holding each element, in ascending order.
+  private final PersistentHashMap<T, long[]> positions;
+  private final long next;
+
+  private PersistentList(
+          PersistentTreeMap<Long, T> items, PersistentHashMap<T, long[]> positions, long next) {
+    this.items = items;
+    this.positions = positions;
+    this.next = next;
+  }
+
+  /**
+   * Returns the empty list.
+   * @param <T> the element type.
+   * @return a list holding no elements.
+   */
+  @SuppressWarnings("unchecked")
+  static <T> PersistentList<T> empty() {
+    return (PersistentList<T>) EMPTY;
+  }
+
+  /**
+   * Returns the number of elements in this list.
+   * @return the size of the list.
+   */
+  int size() {
+    return items.size();
+  }
+
+  /**
+   * Returns the first stored element equal to the given one.
+   * @param element the element to look for.
+   * @return the stored element, or null if there is none.
+   */
+  T firstEqual(T element) {
+    long[] seqs = positions.get(element);
+    return seqs == null ? null : items.get(seqs[0]);
+  }
+
+  /**
+   * Returns the position of the first stored element equal to the given one. Positions only
+   * grow along the list, and an element keeps its position when it is replaced.
+   * @param element the element to look for.
+   * @return the position, or -1 if no element is equal.
+   */
+  long positionOf(T element) {
+    long[] seqs = positions.get(element);
+    return seqs == null ? -1 : seqs[0];
+  }
+
+  /**
+   * Returns a list with the element added at the end.
+   * @param element the element to add.
+   * @return the updated list.
+   */
+  PersistentList<T> append(T element) {
+    long[] seqs = positions.get(element);
+    long[] updated = seqs == null ? new long[] {next} : insert(seqs, next);
+    return new PersistentList<>(items.put(next, element), positions.put(element, updated),
+            next + 1);
+  }
+
+  /**
+   * Returns a list without the first element equal to the given one.
+   * @param element the element to remove.
+   * @return the updated list, or this list if no element was equal.
+   */
+  PersistentList<T> removeFirst(T element) {
+    long[] seqs = positions.get(element);
+    if (seqs == null) {
+      return this;
+    }
+    return new PersistentList<>(items.remove(seqs[0]), drop(positions, element, seqs), next);
+  }
+
+  /**
+   * Returns a list where the first element equal to oldElement is replaced by newElement, which
+   * takes over its position.
+   * @param oldElement the element to replace.
+   * @param newElement the element to put in its place.
+   * @return the updated list, or this list if no element was equal to oldElement.
+   */
+  PersistentList<T> replaceFirst(T oldElement, T newElement) {
+    long[] seqs = positions.get(oldElement);
+    if (seqs == null) {
+      return this;
+    }
+    long seq = seqs[0];
+    PersistentHashMap<T, long[]> updated = drop(positions, oldElement, seqs);
+    long[] existing = updated.get(newElement);
+    updated = updated.put(newElement, existing == null ? new long[] {seq} : insert(existing, seq));
+    return new PersistentList<>(items.put(seq, newElement), updated, next);
+  }
+
+  /**
+   * Copies the elements into a new mutable list, in order.
+   * @return a list holding every element.
+   */
+  List<T> toList() {
+    List<T> list = new ArrayList<>(size());
+    items.forEach((seq, element) -> list.add(element));
+    return list;
+  }
+
+  /**
+   * Returns an iterator over the elements in order, which walks the underlying tree as it goes
+   * rather than copying it.
+   * @return an iterator over every element.
+   */
+  @Override
+  public Iterator<T> iterator() {
+    return items.values();
+  }
+
+  // returns a copy of the sorted array with seq added in place.
+  private static long[] insert(long[] seqs, long seq) {
+    int at = -Arrays.binarySearch(seqs, seq) - 1;
+    long[] grown = new long[seqs.length + 1];
+    System.arraycopy(seqs, 0, grown, 0, at);
+    grown[at] = seq;
+    System.arraycopy(seqs, at, grown, at + 1, seqs.length - at);
+    return grown;
+  }
+
+  // forgets the first position of the element.
+  private static <T> PersistentHashMap<T, long[]> drop(
+          PersistentHashMap<T, long[]> positions, T element, long[] seqs) {
+    if (seqs.length == 1) {
+      return positions.remove(element);
+    }
+    return positions.put(element, Arrays.copyOfRange(seqs, 1, seqs.length));
+  }
+}
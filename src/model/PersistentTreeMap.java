@@ -0,0 +1,267 @@
+package model;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable sorted map backed by an AVL tree. Every update copies only the path from the root
+ * to the changed node and returns a new map, so older versions stay valid and share every
+ * untouched subtree with the newer ones. Lookups and updates are O(log n).
+ * @param <K> the key type, ordered by its natural ordering.
+ * @param <V> the value type.
+ */
+final class PersistentTreeMap<K extends Comparable<? super K>, V> {
+  private static final PersistentTreeMap<?, ?> EMPTY = new PersistentTreeMap<>(null);
+  private final Node<K, V> root;
+
+  private PersistentTreeMap(Node<K, V> root) {
+    this.root = root;
+  }
+
+  /**
+   * Returns the empty map.
+   * @param <K> the key type.
+   * @param <V> the value type.
+   * @return a map holding no entries.
+   */
+  @SuppressWarnings("unchecked")
+  static <K extends Comparable<? super K>, V> PersistentTreeMap<K, V> empty() {
+    return (PersistentTreeMap<K, V>) EMPTY;
+  }
+
+  /**
+   * Returns the number of entries in this map.
+   * @return the size of the map.
+   */
+  int size() {
+    return size(root);
+  }
+
+  /**
+   * Returns whether this map holds no entries.
+   * @return true if the map is empty.
+   */
+  boolean isEmpty() {
+    return root == null;
+  }
+
+  /**
+   * Returns the value stored under the given key.
+   * @param key the key to look up.
+   * @return the value, or null if the key is not in the map.
+   */
+  V get(K key) {
+    Node<K, V> n = root;
+    while (n != null) {
+      int c = key.compareTo(n.key);
+      if (c == 0) {
+        return n.value;
+      }
+      n = c < 0 ? n.left : n.right;
+    }
+    return null;
+  }
+
+  /**
+   * Returns a map which also maps key to value, replacing any value stored under key.
+   * @param key the key to store.
+   * @param value the value to store.
+   * @return the updated map.
+   */
+  PersistentTreeMap<K, V> put(K key, V value) {
+    Node<K, V> updated = put(root, key, value);
+    return updated == root ? this : new PersistentTreeMap<>(updated);
+  }
+
+  /**
+   * Returns a map without the given key.
+   * @param key the key to remove.
+   * @return the updated map, or this map if the key was not present.
+   */
+  PersistentTreeMap<K, V> remove(K key) {
+    Node<K, V> updated = remove(root, key);
+    return updated == root ? this : new PersistentTreeMap<>(updated);
+  }
+
+  /**
+   * Hands every entry to the action in key order.
+   * @param action the action to run for each entry.
+   */
+  void forEach(BiConsumer<? super K, ? super V> action) {
+    forEach(root, action);
+  }
+
+  /**
+   * Returns an iterator over the values in key order. It walks the tree as it goes, holding only
+   * the path to the next node, and goes on seeing this version of the map whatever is put later.
+   * @return an iterator over every value.
+   */
+  Iterator<V> values() {
+    Deque<Node<K, V>> path = new ArrayDeque<>();
+    descend(root, path);
+    return new Iterator<V>() {
+      @Override
+      public boolean hasNext() {
+        return !path.isEmpty();
+      }
+
+      @Override
+      public V next() {
+        if (path.isEmpty()) {
+          throw new NoSuchElementException();
+        }
+        Node<K, V> n = path.pop();
+        descend(n.right, path);
+        return n.value;
+      }
+    };
+  }
+
+  /**
+   * Hands every entry with a key between from and to (both inclusive) to the action, in key order.
+   * @param from the lowest key to visit.
+   * @param to the highest key to visit.
+   * @param action the action to run for each entry.
+   */
+  void forEachInRange(K from, K to, BiConsumer<? super K, ? super V> action) {
+    forEachInRange(root, from, to, action);
+  }
+
+  private static <K extends Comparable<? super K>, V> Node<K, V> put(
+          Node<K, V> n, K key, V value) {
+    if (n == null) {
+      return new Node<>(key, value, null, null);
+    }
+    int c = key.compareTo(n.key);
+    if (c == 0) {
+      return n.value == value ? n : new Node<>(key, value, n.left, n.right);
+    }
+    if (c < 0) {
+      Node<K, V> left = put(n.left, key, value);
+      return left == n.left ? n : balance(n.key, n.value, left, n.right);
+    }
+    Node<K, V> right = put(n.right, key, value);
+    return right == n.right ? n : balance(n.key, n.value, n.left, right);
+  }
+
+  private static <K extends Comparable<? super K>, V> Node<K, V> remove(Node<K, V> n, K key) {
+    if (n == null) {
+      return null;
+    }
+    int c = key.compareTo(n.key);
+    if (c < 0) {
+      Node<K, V> left = remove(n.left, key);
+      return left == n.left ? n : balance(n.key, n.value, left, n.right);
+    }
+    if (c > 0) {
+      Node<K, V> right = remove(n.right, key);
+      return right == n.right ? n : balance(n.key, n.value, n.left, right);
+    }
+    if (n.left == null) {
+      return n.right;
+    }
+    if (n.right == null) {
+      return n.left;
+    }
+    // pull the successor up into the removed node's place.
+    Node<K, V> successor = n.right;
+    while (successor.left != null) {
+      successor = successor.left;
+    }
+    return balance(successor.key, successor.value, n.left, removeFirst(n.right));
+  }
+
+  private static <K extends Comparable<? super K>, V> Node<K, V> removeFirst(Node<K, V> n) {
+    if (n.left == null) {
+      return n.right;
+    }
+    return balance(n.key, n.value, removeFirst(n.left), n.right);
+  }
+
+  // rebuilds a node whose subtrees may differ in height by two, rotating it back into balance.
+  private static <K extends Comparable<? super K>, V> Node<K, V> balance(
+          K key, V value, Node<K, V> left, Node<K, V> right) {
+    int lh = height(left);
+    int rh = height(right);
+    if (lh > rh + 1) {
+      if (height(left.left) >= height(left.right)) {
+        return new Node<>(left.key, left.value, left.left,
+                new Node<>(key, value, left.right, right));
+      }
+      Node<K, V> pivot = left.right;
+      return new Node<>(pivot.key, pivot.value,
+              new Node<>(left.key, left.value, left.left, pivot.left),
+              new Node<>(key, value, pivot.right, right));
+    }
+    if (rh > lh + 1) {
+      if (height(right.right) >= height(right.left)) {
+        return new Node<>(right.key, right.value,
+                new Node<>(key, value, left, right.left), right.right);
+      }
+      Node<K, V> pivot = right.left;
+      return new Node<>(pivot.key, pivot.value,
+              new Node<>(key, value, left, pivot.left),
+              new Node<>(right.key, right.value, pivot.right, right.right));
+    }
+    return new Node<>(key, value, left, right);
+  }
+
+  private static <K, V> void forEach(Node<K, V> n, BiConsumer<? super K, ? super V> action) {
+    while (n != null) {
+      forEach(n.left, action);
+      action.accept(n.key, n.value);
+      n = n.right;
+    }
+  }
+
+  private static <K extends Comparable<? super K>, V> void forEachInRange(
+          Node<K, V> n, K from, K to, BiConsumer<? super K, ? super V> action) {
+    while (n != null) {
+      if (n.key.compareTo(from) < 0) {
+        n = n.right;
+      } else if (n.key.compareTo(to) > 0) {
+        n = n.left;
+      } else {
+        forEachInRange(n.left, from, to, action);
+        action.accept(n.key, n.value);
+        n = n.right;
+      }
+    }
+  }
+
+  // pushes the node and its left spine, so the smallest key ends up on top.
+  private static <K, V> void descend(Node<K, V> n, Deque<Node<K, V>> path) {
+    for (; n != null; n = n.left) {
+      path.push(n);
+    }
+  }
+
+  private static int height(Node<?, ?> n) {
+    return n == null ? 0 : n.height;
+  }
+
+  private static int size(Node<?, ?> n) {
+    return n == null ? 0 : n.size;
+  }
+
+  private static final class Node<K, V> {
+    private final K key;
+    private final V value;
+    private final Node<K, V> left;
+    private final Node<K, V> right;
+    private final int height;
+    private final int size;
+
+    private Node(K key, V value, Node<K, V> left, Node<K, V> right) {
+      this.key = key;
+      this.value = value;
+      this.left = left;
+      this.right = right;
+      this.height = Math.max(height(left), height(right)) + 1;
+      this.size = size(left) + size(right) + 1;
+    }
+  }
+}
@@ -27,14 +27,7 @@ public class SeriesEditor {
    * @return SeriesEditor
    */
   public SeriesEditor replace(IEvent oldEvent, IEvent newEvent) {
-    List<IEvent> newlist = new ArrayList<>(series.getEvents());
-    for (int i = 0; i < newlist.size(); i++) {
-      if (newlist.get(i).equals(oldEvent)) {
-        newlist.set(i, newEvent);
-        break;
-      }
-    }
-    series = series.adopt(newlist);
+    series = series.override(oldEvent, newEvent);
     return this;
   }
 
@@ -57,12 +50,12 @@ public class SeriesEditor {
     boolean activated = false;
 
     // we need to add original events until we hit the place of oldEvent.
-    for (int i = 0; i < series.getEvents().size(); i++) {
-      if (series.getEvents().get(i).equals(oldEvent)) {
+    for (IEvent e : series) {
+      if (e.equals(oldEvent)) {
         activated = true;
         break;
       }
-      beforeActivation.add(series.getEvents().get(i));
+      beforeActivation.add(e);
     }
 
     if (!activated) {
@@ -119,8 +112,7 @@ public class SeriesEditor {
    * @return The IEvent found, or null if none.
    */
   public IEvent find(LocalDate date) {
-    List<IEvent> list = series.getEvents();
-    for (IEvent iEvent : list) {
+    for (IEvent iEvent : series) {
       if (facade.dateEquals(iEvent.getStartDate(), date)) {
         return iEvent;
       }
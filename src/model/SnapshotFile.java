@@ -0,0 +1,171 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * A calendar snapshot file mapped into memory. Only the trailer and the string index are read up
+ * front, strings and events are decoded from the mapping when they are asked for. Every read
+ * uses absolute positions, so one file can be read from several calendars at once.
+ * See CalendarSnapshot for the layout.
+ */
+final class SnapshotFile {
+  private static final EventLocation[] LOCATIONS = EventLocation.values();
+  private static final EventStatus[] STATUSES = EventStatus.values();
+  private final ByteBuffer buffer;
+  private final int stringCount;
+  private final int stringIndex;
+  private final int stringData;
+  private final int directory;
+  // strings are decoded once, on first use.
+  private final String[] strings;
+
+  private SnapshotFile(ByteBuffer buffer) throws IOException {
+    this.buffer = buffer;
+    int size = buffer.capacity();
+    if (size < CalendarSnapshot.HEADER_BYTES + CalendarSnapshot.TRAILER_BYTES
+            || buffer.getInt(0) != CalendarSnapshot.MAGIC
+            || buffer.getInt(size - 4) != CalendarSnapshot.MAGIC) {
+      throw new IOException("Not a calendar snapshot");
+    }
+    if (buffer.getShort(4) != CalendarSnapshot.VERSION) {
+      throw new IOException("Unsupported calendar snapshot version: " + buffer.getShort(4));
+    }
+    int trailer = size - CalendarSnapshot.TRAILER_BYTES;
+    int strings = checkedOffset(buffer.getLong(trailer), size);
+    this.directory = checkedOffset(buffer.getLong(trailer + 8), size);
+    this.stringCount = buffer.getInt(strings);
+    this.stringIndex = strings + 4;
+    this.stringData = stringIndex + 8 * stringCount;
+    if (stringCount < 0 || stringData > size) {
+      throw new IOException("Corrupt calendar snapshot string table");
+    }
+    this.strings = new String[stringCount];
+  }
+
+  /**
+   * Maps the given file into memory.
+   * @param file the snapshot file.
+   * @return the mapped snapshot.
+   * @throws IOException if the file can't be read or isn't a calendar snapshot.
+   */
+  static SnapshotFile map(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("Calendar snapshot is too large to map: " + file);
+      }
+      MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return new SnapshotFile(mapped);
+    }
+  }
+
+  /**
+   * Returns the position of the calendar directory.
+   * @return the offset of the directory in the file.
+   */
+  int directory() {
+    return directory;
+  }
+
+  // raw reads at absolute positions, for the directory and the series sections.
+  int getInt(int position) {
+    return buffer.getInt(position);
+  }
+
+  long getLong(int position) {
+    return buffer.getLong(position);
+  }
+
+  byte get(int position) {
+    return buffer.get(position);
+  }
+
+  /**
+   * Returns the string stored under the given id.
+   * @param id the id of the string, or -1.
+   * @return the string, or null for -1.
+   */
+  String string(int id) {
+    if (id < 0) {
+      return null;
+    }
+    String s = strings[id];
+    if (s == null) {
+      int entry = stringIndex + 8 * id;
+      byte[] bytes = new byte[buffer.getInt(entry + 4)];
+      ByteBuffer view = buffer.duplicate();
+      view.position(stringData + buffer.getInt(entry));
+      view.get(bytes);
+      s = new String(bytes, StandardCharsets.UTF_8);
+      strings[id] = s;
+    }
+    return s;
+  }
+
+  /**
+   * Returns the start of the event record at the given position, in minutes since the epoch.
+   * @param position the position of the record.
+   * @return the start of the event.
+   */
+  long startMinutes(int position) {
+    return buffer.getLong(position);
+  }
+
+  /**
+   * Decodes the event record at the given position.
+   * @param position the position of the record.
+   * @return the decoded event.
+   */
+  Event event(int position) {
+    long start = buffer.getLong(position);
+    long end = buffer.getLong(position + 8);
+    byte location = buffer.get(position + 24);
+    byte status = buffer.get(position + 25);
+    return Event.of(string(buffer.getInt(position + 16)),
+            location < 0 ? null : LOCATIONS[location],
+            status < 0 ? null : STATUSES[status],
+            dateOf(start), timeOf(start), dateOf(end), timeOf(end),
+            string(buffer.getInt(position + 20)));
+  }
+
+  /**
+   * Decodes a week day mask written by CalendarSnapshot.
+   * @param mask one bit per day, Monday first.
+   * @return the set of days.
+   */
+  static Set<DayOfWeek> weekDaysOf(byte mask) {
+    Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+    for (DayOfWeek day : DayOfWeek.values()) {
+      if ((mask & (1 << day.ordinal())) != 0) {
+        days.add(day);
+      }
+    }
+    return days;
+  }
+
+  static LocalDate dateOf(long minutes) {
+    return LocalDate.ofEpochDay(Math.floorDiv(minutes, CalendarSnapshot.MINUTES_PER_DAY));
+  }
+
+  static LocalTime timeOf(long minutes) {
+    return LocalTime.ofSecondOfDay(
+            Math.floorMod(minutes, CalendarSnapshot.MINUTES_PER_DAY) * 60L);
+  }
+
+  private static int checkedOffset(long offset, int size) throws IOException {
+    if (offset < CalendarSnapshot.HEADER_BYTES || offset > size - CalendarSnapshot.TRAILER_BYTES) {
+      throw new IOException("Corrupt calendar snapshot trailer");
+    }
+    return (int) offset;
+  }
+}
@@ -0,0 +1,125 @@
+package view;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An ITextView which formats the messages it displays straight into one reusable buffer, and
+ * writes that buffer out in large chunks instead of a line at a time. Nothing reaches the output
+ * until a chunk fills up or the view is flushed, so whoever creates it has to flush it once done.
+ * Without keeping the messages, getTextInBuffer reads them back from the buffer, which only
+ * holds those not yet displayed.
+ */
+public class StreamingTextView implements ITextView, Flushable {
+  /** How many characters are collected before they are written, unless told otherwise. */
+  public static final int DEFAULT_CHUNK = 1 << 16;
+
+  private final Appendable out;
+  private final int chunk;
+  private final StringBuilder text;
+  private final List<String> captured;
+  // where the messages taken since the last display start.
+  private int displayed;
+
+  /**
+   * Creates a view writing to the output in chunks of DEFAULT_CHUNK characters, which reads the
+   * messages for getTextInBuffer back from its buffer.
+   *
+   * @param out The output where messages will be printed.
+   */
+  public StreamingTextView(Appendable out) {
+    this(out, DEFAULT_CHUNK, false);
+  }
+
+  /**
+   * Creates a view writing to the output in chunks of the given size.
+   *
+   * @param out The output where messages will be printed.
+   * @param chunk how many characters to collect before writing them.
+   * @param capture whether to keep the messages for getTextInBuffer.
+   * @throws IllegalArgumentException if the chunk size isn't positive.
+   */
+  public StreamingTextView(Appendable out, int chunk, boolean capture) {
+    if (chunk <= 0) {
+      throw new IllegalArgumentException("Chunk size must be positive: " + chunk);
+    }
+    this.out = out;
+    this.chunk = chunk;
+    this.text = new StringBuilder(Math.min(chunk, DEFAULT_CHUNK) + 256);
+    this.captured = capture ? new ArrayList<>() : null;
+  }
+
+  @Override
+  public void takeMessage(String message) {
+    text.append(message).append('\n');
+    if (captured != null) {
+      captured.add(message);
+    }
+  }
+
+  @Override
+  public void clearTextBuffer() {
+    text.setLength(displayed);
+    if (captured != null) {
+      captured.clear();
+    }
+  }
+
+  /**
+   * Displays the messages taken since the buffer was last cleared or displayed. They are written
+   * once a chunk fills up, or on the next flush.
+   */
+  @Override
+  public void displayTextInBuffer() throws IOException {
+    displayed = text.length();
+    if (displayed >= chunk) {
+      writeDisplayed();
+    }
+  }
+
+  /**
+   * Returns the messages stored since the buffer was last cleared. A view which doesn't keep its
+   * messages only has those taken since they were last displayed, and returns a message holding
+   * line breaks as one message per line.
+   *
+   * @return List of all stored messages.
+   */
+  @Override
+  public List<String> getTextInBuffer() {
+    if (captured != null) {
+      return List.copyOf(captured);
+    }
+    List<String> messages = new ArrayList<>();
+    int start = displayed;
+    for (int i = displayed; i < text.length(); i++) {
+      if (text.charAt(i) == '\n') {
+        messages.add(text.substring(start, i));
+        start = i + 1;
+      }
+    }
+    return messages;
+  }
+
+  /**
+   * Writes everything displayed so far, then flushes the output if it can be flushed.
+   */
+  @Override
+  public void flush() throws IOException {
+    writeDisplayed();
+    if (out instanceof Flushable) {
+      ((Flushable) out).flush();
+    }
+  }
+
+  // writes the displayed part of the buffer in one go, keeping the messages not yet displayed.
+  private void writeDisplayed() throws IOException {
+    if (displayed == 0) {
+      return;
+    }
+    out.append(text, 0, displayed);
+    text.delete(0, displayed);
+    displayed = 0;
+  }
+}
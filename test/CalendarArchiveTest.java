@@ -0,0 +1,118 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import model.Calendar;
+import model.Event;
+import model.EventSeries;
+import model.IEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Class containing tests for moving old events of a calendar into its archive.
+ */
+public class CalendarArchiveTest {
+  private static final LocalDate FIRST = LocalDate.of(2023, 1, 1);
+  private static final LocalDate HORIZON = LocalDate.of(2025, 1, 1);
+
+  private Calendar calendar;
+  private Calendar reference;
+
+  @Before
+  public void setup() {
+    calendar = new Calendar();
+    // three years of events, two per day, and a weekly series over all of them.
+    for (LocalDate day = FIRST; day.isBefore(HORIZON.plusYears(1)); day = day.plusDays(1)) {
+      calendar.addEvent(event("Morning " + day, day, 9));
+      calendar.addEvent(event("Evening " + day, day, 18));
+    }
+    calendar.addEventSeries(EventSeries.getBuilder()
+            .subject("Weekly")
+            .eventStartDate(2, 1, 2023)
+            .eventEndDate(2, 1, 2023)
+            .eventStartTime(12, 0)
+            .eventEndTime(13, 0)
+            .weekDays("M")
+            .seriesEndDate(LocalDate.of(2025, 12, 29))
+            .buildSeries());
+    reference = calendar.snapshot();
+  }
+
+  private static IEvent event(String subject, LocalDate day, int hour) {
+    return Event.of(subject, null, null, day, LocalTime.of(hour, 0), day,
+            LocalTime.of(hour, 30), null);
+  }
+
+  @Test
+  public void archivingKeepsEveryQueryAnswer() {
+    int days = (int) (HORIZON.toEpochDay() - FIRST.toEpochDay());
+    // a few events first, one at a time, then the rest, partly into the same month.
+    assertEquals(2 * 14, calendar.archiveBefore(FIRST.plusDays(14)));
+    assertEquals(2 * (days - 14), calendar.archiveBefore(HORIZON));
+    assertEquals(0, calendar.archiveBefore(HORIZON));
+
+    LocalDate[][] ranges = {
+        {FIRST, LocalDate.of(2025, 12, 31)},
+        {LocalDate.of(2024, 2, 28), LocalDate.of(2024, 3, 2)},
+        {LocalDate.of(2024, 12, 30), LocalDate.of(2025, 1, 2)},
+        {LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 30)},
+    };
+    for (LocalDate[] range : ranges) {
+      assertEquals(reference.getScheduleInRange(range[0], range[1]),
+              calendar.getScheduleInRange(range[0], range[1]));
+    }
+    assertEquals(new HashSet<>(reference.getEvents()), new HashSet<>(calendar.getEvents()));
+    assertEquals(reference.getEvents().size(), calendar.getEvents().size());
+  }
+
+  @Test
+  public void archivedEventsAreStillDistinct() {
+    calendar.archiveBefore(HORIZON);
+    LocalDate old = LocalDate.of(2023, 7, 4);
+    assertThrows(IllegalArgumentException.class,
+        () -> calendar.addEvent(event("Morning " + old, old, 9)));
+    assertThrows(IllegalArgumentException.class, () -> calendar.addEvents(
+            List.of(event("New", old, 7), event("Evening " + old, old, 18))));
+    assertEquals(reference.getScheduleInRange(old, old), calendar.getScheduleInRange(old, old));
+
+    // events added after archiving go into memory, next to the archived ones.
+    calendar.addEvent(event("New", old, 7));
+    List<IEvent> day = calendar.getScheduleInRange(old, old);
+    assertEquals(reference.getScheduleInRange(old, old).size() + 1, day.size());
+    assertTrue(day.contains(event("New", old, 7)));
+  }
+
+  @Test
+  public void archivedEventsCanBeRemovedAndReplaced() {
+    calendar.archiveBefore(HORIZON);
+    LocalDate old = LocalDate.of(2024, 4, 10);
+    calendar.removeEvent(event("Morning " + old, old, 9));
+    calendar.replaceEvent(event("Evening " + old, old, 18), event("Late", old, 21));
+    assertThrows(IllegalArgumentException.class,
+        () -> calendar.replaceEvent(event("Morning " + old, old, 9), event("X", old, 1)));
+
+    List<IEvent> expected = new ArrayList<>();
+    expected.add(event("Late", old, 21));
+    assertEquals(expected, calendar.getScheduleInRange(old, old));
+    // the rest of the month is untouched.
+    LocalDate next = old.plusDays(1);
+    assertEquals(reference.getScheduleInRange(next, next), calendar.getScheduleInRange(next, next));
+  }
+
+  @Test
+  public void timeZoneShiftsBringArchivedEventsBack() {
+    calendar.archiveBefore(HORIZON);
+    Calendar shifted = calendar.setTimeZone(ZoneId.of("Europe/London"));
+    Calendar expected = reference.setTimeZone(ZoneId.of("Europe/London"));
+    assertEquals(new HashSet<>(expected.getEvents()), new HashSet<>(shifted.getEvents()));
+  }
+}
@@ -0,0 +1,193 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import model.Calendar;
+import model.CalendarExporter;
+import model.Event;
+import model.EventLocation;
+import model.EventSeries;
+import model.EventStatus;
+import model.ICalendar;
+import model.IEvent;
+import model.IcsImporter;
+import model.SeriesEditor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Class containing tests for exporting calendars to iCalendar and CSV files.
+ */
+public class CalendarExporterTest {
+  private static final LocalDate FROM = LocalDate.of(2025, 6, 1);
+  private static final LocalDate TO = LocalDate.of(2025, 6, 30);
+
+  private ICalendar calendar;
+  private EventSeries standup;
+
+  @Before
+  public void setup() {
+    calendar = new Calendar(ZoneId.of("Europe/Paris"));
+    calendar.addEvent(Event.of("Review, Q2", EventLocation.PHYSICAL, EventStatus.PRIVATE,
+            LocalDate.of(2025, 6, 3), LocalTime.of(14, 0),
+            LocalDate.of(2025, 6, 3), LocalTime.of(15, 30), "numbers \"and\" plans"));
+    calendar.addEvent(Event.of("Offsite", null, null, LocalDate.of(2025, 6, 20),
+            LocalTime.of(8, 0), null, null, null));
+    calendar.addEvent(Event.of("Later", null, null, LocalDate.of(2025, 8, 1),
+            LocalTime.of(9, 0), LocalDate.of(2025, 8, 1), LocalTime.of(10, 0), null));
+
+    standup = EventSeries.getBuilder()
+            .subject("Standup")
+            .eventStartDate(2, 6, 2025)
+            .eventEndDate(2, 6, 2025)
+            .eventStartTime(9, 0)
+            .eventEndTime(9, 15)
+            .weekDays("MWF")
+            .seriesEndDate(LocalDate.of(2025, 6, 27))
+            .buildSeries();
+    IEvent second = standup.getEvents().get(1);
+    standup = new SeriesEditor(standup).replace(second, Event.of("Standup", null, null,
+            second.getStartDate(), LocalTime.of(10, 0), second.getEndDate(),
+            LocalTime.of(10, 15), null)).getSeries();
+    calendar.addEventSeries(standup);
+  }
+
+  private String export(CalendarExporter.Format format) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    CalendarExporter.export(calendar, format, FROM, TO, Channels.newChannel(bytes));
+    return bytes.toString(StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void icsWritesEachSeriesOnceAsARule() throws IOException {
+    String ics = export(CalendarExporter.Format.ICS);
+    assertTrue(ics.startsWith("BEGIN:VCALENDAR\r\n"));
+    assertTrue(ics.endsWith("END:VCALENDAR\r\n"));
+    assertEquals(1, count(ics, "RRULE:"));
+    assertTrue(ics.contains("RRULE:FREQ=WEEKLY;BYDAY=MO,WE,FR;UNTIL=20250627T215959Z\r\n"));
+    assertTrue(ics.contains("RECURRENCE-ID;TZID=Europe/Paris:20250604T090000\r\n"));
+    assertTrue(ics.contains("SUMMARY:Review\\, Q2\r\n"));
+    // the event after the range is left out.
+    assertEquals(4, count(ics, "BEGIN:VEVENT"));
+  }
+
+  @Test
+  public void icsImportsBackIntoAnEqualCalendar() throws IOException {
+    ICalendar copy = new Calendar(ZoneId.of("Europe/Paris"));
+    IcsImporter.Result result = new IcsImporter(copy)
+            .importFrom(new StringReader(export(CalendarExporter.Format.ICS)));
+    assertEquals(1, result.getSeries());
+    assertEquals(0, result.getSkipped());
+    assertEquals(new HashSet<>(calendar.getScheduleInRange(FROM, TO)),
+            new HashSet<>(copy.getScheduleInRange(FROM, TO)));
+    assertNotNull(copy.getSeriesFor(standup.getEvents().get(1)));
+    IEvent review = copy.getScheduleInRange(LocalDate.of(2025, 6, 3), LocalDate.of(2025, 6, 3))
+            .stream().filter(e -> e.getSubject().startsWith("Review")).findFirst().orElseThrow();
+    assertEquals("numbers \"and\" plans", review.getDescription());
+    assertEquals(EventStatus.PRIVATE, review.getStatus());
+    assertEquals(EventLocation.PHYSICAL, review.getLocation());
+  }
+
+  @Test
+  public void icsFoldsLongLines() throws IOException {
+    calendar.addEvent(Event.of("x".repeat(40) + "é".repeat(40), null, null,
+            LocalDate.of(2025, 6, 10), LocalTime.of(9, 0),
+            LocalDate.of(2025, 6, 10), LocalTime.of(9, 30), null));
+    String ics = export(CalendarExporter.Format.ICS);
+    for (String line : ics.split("\r\n")) {
+      assertTrue(line, line.getBytes(StandardCharsets.UTF_8).length <= 75);
+    }
+    ICalendar copy = new Calendar(ZoneId.of("Europe/Paris"));
+    new IcsImporter(copy).importFrom(new StringReader(ics));
+    assertEquals(1, copy.getScheduleInRange(LocalDate.of(2025, 6, 10),
+            LocalDate.of(2025, 6, 10)).stream()
+            .filter(e -> e.getSubject().equals("x".repeat(40) + "é".repeat(40))).count());
+  }
+
+  @Test
+  public void icsWritesOnlyThePartOfASeriesWithinTheRange() throws IOException {
+    // the third standup, on the 6th, is moved out of the range, the tenth into it on the 10th.
+    IEvent third = standup.getEvents().get(2);
+    IEvent tenth = standup.getEvents().get(9);
+    EventSeries edited = new SeriesEditor(standup)
+            .replace(third, third.shiftDays(-5))
+            .replace(tenth, tenth.shiftDays(-13))
+            .getSeries();
+    calendar.replaceSeries(standup, edited);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    CalendarExporter.export(calendar, CalendarExporter.Format.ICS, LocalDate.of(2025, 6, 4),
+            LocalDate.of(2025, 6, 11), Channels.newChannel(bytes));
+    String ics = bytes.toString(StandardCharsets.UTF_8);
+
+    assertTrue(ics.contains("DTSTART;TZID=Europe/Paris:20250604T090000\r\n"));
+    assertTrue(ics.contains("RRULE:FREQ=WEEKLY;BYDAY=MO,WE,FR;UNTIL=20250611T215959Z\r\n"));
+    assertTrue(ics.contains("EXDATE;TZID=Europe/Paris:20250606T090000\r\n"));
+    assertTrue(ics.contains("RECURRENCE-ID;TZID=Europe/Paris:20250604T090000\r\n"));
+    assertEquals(1, count(ics, "RECURRENCE-ID"));
+    // the rule, the edited standup on the 4th and the one moved in on the 10th.
+    assertEquals(3, count(ics, "BEGIN:VEVENT"));
+
+    ICalendar copy = new Calendar(ZoneId.of("Europe/Paris"));
+    new IcsImporter(copy).importFrom(new StringReader(ics));
+    assertEquals(new HashSet<>(calendar.getScheduleInRange(LocalDate.of(2025, 6, 4),
+                    LocalDate.of(2025, 6, 11))),
+            new HashSet<>(copy.getScheduleInRange(FROM, TO)));
+  }
+
+  @Test
+  public void icsUidsDifferBetweenExports() throws IOException {
+    List<String> first = uids(export(CalendarExporter.Format.ICS));
+    List<String> second = uids(export(CalendarExporter.Format.ICS));
+    // the edited standup shares the UID of its rule.
+    assertEquals(3, new HashSet<>(first).size());
+    assertTrue(Collections.disjoint(first, second));
+  }
+
+  @Test
+  public void csvWritesEveryOccurrence() throws IOException {
+    List<String> rows = Arrays.asList(export(CalendarExporter.Format.CSV).split("\r\n"));
+    assertEquals("Subject,Start Date,Start Time,End Date,End Time,All Day Event,Description,"
+            + "Location,Private", rows.get(0));
+    // twelve standups, the review and the offsite.
+    assertEquals(1 + 12 + 2, rows.size());
+    assertTrue(rows.contains("\"Review, Q2\",06/03/2025,02:00 PM,06/03/2025,03:30 PM,False,"
+            + "\"numbers \"\"and\"\" plans\",Physical,True"));
+    assertTrue(rows.contains("Offsite,06/20/2025,,06/20/2025,,True,,,False"));
+    assertTrue(rows.contains("Standup,06/04/2025,10:00 AM,06/04/2025,10:15 AM,False,,,False"));
+  }
+
+  @Test
+  public void exportRejectsABackwardsRange() {
+    assertThrows(IllegalArgumentException.class, () -> CalendarExporter.export(calendar,
+            CalendarExporter.Format.CSV, TO, FROM, Channels.newChannel(System.out)));
+  }
+
+  private static List<String> uids(String ics) {
+    return Arrays.stream(ics.split("\r\n")).filter(line -> line.startsWith("UID:"))
+            .collect(Collectors.toList());
+  }
+
+  private static int count(String text, String part) {
+    int n = 0;
+    for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + 1)) {
+      n++;
+    }
+    return n;
+  }
+}
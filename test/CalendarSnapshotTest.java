@@ -0,0 +1,177 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+import model.Calendar;
+import model.CalendarManager;
+import model.CalendarSnapshot;
+import model.ColumnarCalendar;
+import model.Event;
+import model.EventLocation;
+import model.EventSeries;
+import model.EventStatus;
+import model.ICalendar;
+import model.ICalendarManager;
+import model.IEvent;
+import model.SeriesEditor;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+
+/**
+ * Class containing tests for saving and loading calendar snapshots.
+ */
+public class CalendarSnapshotTest {
+  private static final LocalDate FROM = LocalDate.of(2025, 1, 1);
+  private static final LocalDate TO = LocalDate.of(2026, 12, 31);
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private ICalendarManager manager;
+  private Calendar work;
+  private IEvent review;
+
+  @Before
+  public void setup() {
+    manager = new CalendarManager();
+    work = new Calendar(ZoneId.of("Europe/Paris"));
+
+    review = Event.getBuilder()
+            .subject("Review")
+            .startDate(3, 6, 2025)
+            .startTime(14, 0)
+            .endDate(3, 6, 2025)
+            .endTime(15, 30)
+            .location(EventLocation.PHYSICAL)
+            .status(EventStatus.PRIVATE)
+            .description("quarterly numbers")
+            .buildEvent();
+    work.addEvent(review);
+    work.addEvent(review.shiftDays(-2));
+
+    EventSeries standup = EventSeries.getBuilder()
+            .subject("Standup")
+            .eventStartDate(2, 6, 2025)
+            .eventEndDate(2, 6, 2025)
+            .eventStartTime(9, 0)
+            .eventEndTime(9, 15)
+            .weekDays("MTWRF")
+            .seriesEndDate(LocalDate.of(2025, 6, 30))
+            .buildSeries();
+    IEvent fourth = standup.getEvents().get(3);
+    IEvent moved = Event.of("Standup", null, null, fourth.getStartDate(),
+            fourth.getStartTime().plusHours(1), fourth.getEndDate(),
+            fourth.getEndTime().plusHours(1), null);
+    work.addEventSeries(new SeriesEditor(standup).replaceRange(fourth, moved).getSeries());
+
+    EventSeries gym = EventSeries.getBuilder()
+            .subject("Gym")
+            .eventStartDate(1, 6, 2025)
+            .eventEndDate(1, 6, 2025)
+            .eventStartTime(18, 0)
+            .eventEndTime(19, 0)
+            .weekDays("U")
+            .seriesEndDate(LocalDate.of(2026, 6, 1))
+            .lazyExpansion()
+            .buildSeries();
+    IEvent secondGym = gym.getEvents().get(1);
+    work.addEventSeries(new SeriesEditor(gym)
+            .replace(secondGym, secondGym.shiftDays(1)).getSeries());
+
+    manager.addCalendar("work", work);
+    manager.getOrCreateDefault().addEvent(review.shiftDays(30));
+  }
+
+  private ICalendarManager roundTrip() throws IOException {
+    Path file = folder.getRoot().toPath().resolve("calendars.bin");
+    CalendarSnapshot.save(manager, file);
+    return CalendarSnapshot.load(file);
+  }
+
+  @Test
+  public void loadRestoresCalendarsAndZones() throws IOException {
+    ICalendarManager loaded = roundTrip();
+    assertEquals(new HashSet<>(manager.getCalendars()), new HashSet<>(loaded.getCalendars()));
+    assertEquals(ZoneId.of("Europe/Paris"), loaded.getCalendar("work").getTimeZone());
+    assertEquals(manager.getCalendar("default").getEvents(),
+            loaded.getCalendar("default").getEvents());
+  }
+
+  @Test
+  public void rangeQueriesMatchBeforeAnythingIsDecoded() throws IOException {
+    ICalendar loaded = roundTrip().getCalendar("work");
+    assertEquals(new HashSet<>(work.getScheduleInRange(FROM, TO)),
+            new HashSet<>(loaded.getScheduleInRange(FROM, TO)));
+    assertEquals(work.getScheduleInRange(FROM, TO).size(),
+            loaded.getScheduleInRange(FROM, TO).size());
+    assertEquals(work.getScheduleInRange(LocalDate.of(2025, 6, 3), LocalDate.of(2025, 6, 3)),
+            loaded.getScheduleInRange(LocalDate.of(2025, 6, 3), LocalDate.of(2025, 6, 3)));
+  }
+
+  @Test
+  public void rangeQueriesKeepTheOrderOfEventsStartingTheSameDay() throws IOException {
+    // added latest first, on a day the standup series also has an occurrence.
+    work.addEvent(Event.of("Late", null, null, LocalDate.of(2025, 6, 4), LocalTime.of(16, 0),
+            LocalDate.of(2025, 6, 4), LocalTime.of(17, 0), null));
+    work.addEvent(Event.of("Early", null, null, LocalDate.of(2025, 6, 4), LocalTime.of(7, 0),
+            LocalDate.of(2025, 6, 4), LocalTime.of(8, 0), null));
+    ICalendar loaded = roundTrip().getCalendar("work");
+
+    assertEquals(work.getScheduleInRange(FROM, TO), loaded.getScheduleInRange(FROM, TO));
+    loaded.getEvents();
+    assertEquals(work.getScheduleInRange(FROM, TO), loaded.getScheduleInRange(FROM, TO));
+  }
+
+  @Test
+  public void loadKeepsEveryEventField() throws IOException {
+    ICalendar loaded = roundTrip().getCalendar("work");
+    IEvent restored = loaded.getScheduleInRange(
+            review.getStartDate(), review.getStartDate()).stream()
+            .filter(review::equals).findFirst().orElseThrow();
+    assertEquals(EventLocation.PHYSICAL, restored.getLocation());
+    assertEquals(EventStatus.PRIVATE, restored.getStatus());
+    assertEquals("quarterly numbers", restored.getDescription());
+  }
+
+  @Test
+  public void loadedSeriesCanStillBeEdited() throws IOException {
+    ICalendar loaded = roundTrip().getCalendar("work");
+    assertEquals(work.getEvents(), loaded.getEvents());
+
+    IEvent gym = loaded.getScheduleInRange(LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 1))
+            .stream().filter(e -> e.getSubject().equals("Gym")).findFirst().orElseThrow();
+    assertNotNull(loaded.getSeriesFor(gym));
+    assertNull(loaded.getSeriesFor(review));
+
+    loaded.removeEventSeries(loaded.getSeriesFor(gym));
+    assertEquals(1, loaded.getScheduleInRange(
+            LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 1)).size());
+  }
+
+  @Test
+  public void otherCalendarImplementationsCanBeSaved() throws IOException {
+    ICalendar columnar = new ColumnarCalendar();
+    columnar.addEvent(review);
+    manager.addCalendar("columnar", columnar);
+    assertEquals(columnar.getEvents(), roundTrip().getCalendar("columnar").getEvents());
+  }
+
+  @Test
+  public void loadRejectsFilesWhichAreNotSnapshots() throws IOException {
+    Path file = folder.newFile("notes.txt").toPath();
+    Files.writeString(file, "create calendar --name work --timezone Europe/Paris");
+    assertThrows(IOException.class, () -> CalendarSnapshot.load(file));
+  }
+}
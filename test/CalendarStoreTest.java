@@ -0,0 +1,234 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import model.Calendar;
+import model.CalendarManager;
+import model.CalendarStore;
+import model.ConcurrentCalendarManager;
+import model.Event;
+import model.EventSeries;
+import model.ICalendar;
+import model.ICalendarManager;
+import model.IEvent;
+import model.SeriesEditor;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Class containing tests for saving calendars incrementally into a directory.
+ */
+public class CalendarStoreTest {
+  private static final LocalDate FROM = LocalDate.of(2025, 1, 1);
+  private static final LocalDate TO = LocalDate.of(2025, 12, 31);
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path dir;
+  private CalendarManager manager;
+  private CalendarStore store;
+
+  @Before
+  public void setup() throws IOException {
+    dir = folder.getRoot().toPath();
+    manager = new CalendarManager();
+    ICalendar work = new Calendar(ZoneId.of("Europe/Paris"));
+    // a year of events, one per day.
+    for (LocalDate day = FROM; !day.isAfter(TO); day = day.plusDays(1)) {
+      work.addEvent(event("Work " + day, day));
+    }
+    EventSeries standup = EventSeries.getBuilder()
+            .subject("Standup")
+            .eventStartDate(2, 6, 2025)
+            .eventEndDate(2, 6, 2025)
+            .eventStartTime(9, 0)
+            .eventEndTime(9, 15)
+            .weekDays("MWF")
+            .seriesEndDate(LocalDate.of(2025, 6, 27))
+            .lazyExpansion()
+            .buildSeries();
+    IEvent second = standup.getEvents().get(1);
+    work.addEventSeries(new SeriesEditor(standup).replace(second, Event.of("Standup", null, null,
+            second.getStartDate(), LocalTime.of(10, 0), second.getEndDate(),
+            LocalTime.of(10, 15), null)).getSeries());
+    manager.addCalendar("Work", work);
+    manager.addCalendar("Home", new Calendar());
+    manager.getCalendar("Home").addEvent(event("Dentist", LocalDate.of(2025, 3, 4)));
+    store = CalendarStore.open(dir);
+  }
+
+  private static IEvent event(String subject, LocalDate day) {
+    return Event.of(subject, null, null, day, LocalTime.of(14, 0), day, LocalTime.of(15, 0),
+            null);
+  }
+
+  private static ICalendarManager reload(Path dir) throws IOException {
+    return CalendarStore.open(dir).load(new CalendarManager());
+  }
+
+  private static void assertSameCalendars(ICalendarManager expected, ICalendarManager actual) {
+    assertEquals(new HashSet<>(expected.getCalendars()), new HashSet<>(actual.getCalendars()));
+    for (String name : expected.getCalendars()) {
+      ICalendar e = expected.getCalendar(name);
+      ICalendar a = actual.getCalendar(name);
+      assertEquals(e.getTimeZone(), a.getTimeZone());
+      assertEquals(new HashSet<>(e.getScheduleInRange(FROM, TO)),
+              new HashSet<>(a.getScheduleInRange(FROM, TO)));
+    }
+  }
+
+  @Test
+  public void saveAndLoadRoundTrip() throws IOException {
+    // twelve months and the series of Work, one month and the series of Home, and the index.
+    assertEquals(12 + 1 + 1 + 1 + 1, store.save(manager));
+    ICalendarManager loaded = reload(dir);
+    assertSameCalendars(manager, loaded);
+    IEvent standup = loaded.getCalendar("Work").getScheduleInRange(
+            LocalDate.of(2025, 6, 4), LocalDate.of(2025, 6, 4)).stream()
+            .filter(e -> e.getSubject().equals("Standup")).findFirst().orElseThrow();
+    assertEquals(LocalTime.of(10, 0), standup.getStartTime());
+    assertNotNull(loaded.getCalendar("Work").getSeriesFor(standup));
+  }
+
+  @Test
+  public void saveWritesOnlyWhatChanged() throws IOException {
+    store.save(manager);
+    assertEquals(0, store.save(manager));
+
+    ICalendar work = manager.getCalendar("Work");
+    LocalDate day = LocalDate.of(2025, 5, 20);
+    work.replaceEvent(event("Work " + day, day), event("Moved", day.plusDays(1)));
+    work.addEvent(event("Extra", day));
+    // both changes fall in May.
+    assertEquals(1, store.save(manager));
+    assertEquals(0, store.save(manager));
+
+    work.removeEventSeries(work.getSeriesFor(work.getScheduleInRange(
+            LocalDate.of(2025, 6, 2), LocalDate.of(2025, 6, 2)).stream()
+            .filter(e -> e.getSubject().equals("Standup")).findFirst().orElseThrow()));
+    assertEquals(1, store.save(manager));
+    assertSameCalendars(manager, reload(dir));
+  }
+
+  @Test
+  public void emptiedMonthsAndRemovedCalendarsAreDeleted() throws IOException {
+    store.save(manager);
+    Path homeFolder;
+    try (Stream<Path> folders = Files.list(dir)) {
+      homeFolder = folders.filter(Files::isDirectory)
+              .filter(f -> Files.exists(f.resolve("2025-03.bin")))
+              .filter(f -> !Files.exists(f.resolve("2025-01.bin"))).findFirst().orElseThrow();
+    }
+    manager.getCalendar("Home").removeEvent(event("Dentist", LocalDate.of(2025, 3, 4)));
+    assertEquals(1, store.save(manager));
+    assertFalse(Files.exists(homeFolder.resolve("2025-03.bin")));
+
+    manager.removeCalendar("Home");
+    assertEquals(1, store.save(manager));
+    assertFalse(Files.exists(homeFolder));
+    assertSameCalendars(manager, reload(dir));
+  }
+
+  @Test
+  public void renamesRewriteOnlyTheIndex() throws IOException {
+    store.save(manager);
+    manager.changeName("Home", "Personal");
+    assertEquals(1, store.save(manager));
+
+    // a new time zone replaces the calendar, so it is written again in full.
+    ICalendar shifted = manager.getCalendar("Personal").setTimeZone(ZoneId.of("Asia/Tokyo"));
+    manager.removeCalendar("Personal");
+    manager.addCalendar("Personal", shifted);
+    assertEquals(1 + 1 + 1, store.save(manager));
+    assertSameCalendars(manager, reload(dir));
+  }
+
+  @Test
+  public void loadedCalendarsStartOutSaved() throws IOException {
+    store.save(manager);
+    CalendarStore reopened = CalendarStore.open(dir);
+    ICalendarManager loaded = reopened.load(new CalendarManager());
+    assertEquals(0, reopened.save(loaded));
+    loaded.getCalendar("Home").addEvent(event("Checkup", LocalDate.of(2025, 9, 1)));
+    loaded.addCalendar("Gym", new Calendar());
+    // September of Home, the series and the empty month set of Gym, and the index.
+    assertEquals(1 + 1 + 1, reopened.save(loaded));
+    assertSameCalendars(loaded, reload(dir));
+  }
+
+  @Test
+  public void loadsInParallel() throws IOException {
+    manager.getOrCreateDefault().addEvent(event("Standup", LocalDate.of(2025, 2, 3)));
+    store.save(manager);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      CalendarStore reopened = CalendarStore.open(dir);
+      ICalendarManager loaded = reopened.loadInParallel(new CalendarManager(), pool);
+      assertSameCalendars(manager, loaded);
+      assertEquals(0, reopened.save(loaded));
+      loaded.getCalendar("Work").addEvent(event("Late", LocalDate.of(2025, 8, 8)));
+      assertEquals(1, reopened.save(loaded));
+
+      ICalendarManager shared = CalendarStore.open(dir)
+              .loadInParallel(new ConcurrentCalendarManager(), pool);
+      assertSameCalendars(loaded, shared);
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  public void parallelLoadReportsUnreadableCalendars() throws IOException {
+    store.save(manager);
+    try (Stream<Path> folders = Files.list(dir)) {
+      Path home = folders.filter(f -> Files.exists(f.resolve("2025-03.bin")))
+              .filter(f -> !Files.exists(f.resolve("2025-01.bin"))).findFirst().orElseThrow();
+      Files.write(home.resolve("2025-03.bin"), new byte[] {0, 0, 0, 9});
+    }
+    ICalendarManager loaded = CalendarStore.open(dir)
+            .loadInParallel(new CalendarManager(), ForkJoinPool.commonPool());
+    assertEquals(ZoneId.of("America/New_York"), loaded.getCalendar("Home").getTimeZone());
+    assertThrows(UncheckedIOException.class, () -> loaded.getCalendar("Home").getEvents());
+    assertEquals(manager.getCalendar("Work").getEvents().size(),
+            loaded.getCalendar("Work").getEvents().size());
+  }
+
+  @Test
+  public void flushesInTheBackground() throws IOException, InterruptedException {
+    ConcurrentCalendarManager shared = store.load(new ConcurrentCalendarManager());
+    shared.addCalendar("Work", new Calendar());
+    store.flushEvery(shared, 10, TimeUnit.MILLISECONDS);
+    shared.getCalendar("Work").addEvent(event("Flushed", LocalDate.of(2025, 7, 1)));
+
+    List<String> names = List.of();
+    for (int i = 0; i < 200 && names.isEmpty(); i++) {
+      Thread.sleep(10);
+      if (Files.exists(dir.resolve("index.bin"))) {
+        ICalendarManager loaded = reload(dir);
+        names = loaded.getCalendar("Work").getScheduleInRange(FROM, TO).isEmpty()
+                ? List.of() : loaded.getCalendars();
+      }
+    }
+    store.close();
+    assertTrue(names.contains("Work"));
+  }
+}
@@ -1,6 +1,8 @@
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import model.Calendar;
@@ -9,11 +11,13 @@ import model.EventSeries;
 import model.ICalendar;
 import model.IEvent;
 import model.IEventSeries;
+import model.SeriesEditor;
 
 import org.junit.Before;
 import org.junit.Test;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.time.ZoneId;
 import java.util.List;
 
@@ -106,6 +110,69 @@ public class CalendarTest {
     assertEquals(ZoneId.of("UTC"), shifted.getTimeZone());
   }
 
+  @Test
+  public void setTimeZoneOnlyHoldsShiftedEvents() {
+    calendar.addEvent(testEvent);
+    ICalendar shifted = calendar.setTimeZone(ZoneId.of("UTC"));
+    assertEquals(List.of(testEvent.shiftTimeZone(calendar.getTimeZone(), ZoneId.of("UTC"))),
+            shifted.getEvents());
+    assertEquals(List.of(testEvent), calendar.getEvents());
+  }
+
+  @Test
+  public void snapshotIsUnaffectedByLaterChanges() {
+    Calendar source = new Calendar();
+    source.addEvent(testEvent);
+    Calendar snapshot = source.snapshot();
+
+    source.replaceEvent(testEvent, shiftedEvent);
+    snapshot.addEvent(shiftedEvent.shiftDays(1));
+
+    assertEquals(List.of(shiftedEvent), source.getEvents());
+    assertEquals(List.of(testEvent, shiftedEvent.shiftDays(1)), snapshot.getEvents());
+    assertTrue(snapshot.getScheduleInRange(
+            LocalDate.of(2025, 6, 4), LocalDate.of(2025, 6, 4)).isEmpty());
+  }
+
+  @Test
+  public void addEventsAddsEveryEvent() {
+    calendar.addEvents(List.of(testEvent, shiftedEvent));
+    assertEquals(List.of(testEvent, shiftedEvent), calendar.getEvents());
+  }
+
+  @Test
+  public void addEventsAddsNothingWhenOneClashes() {
+    calendar.addEvent(shiftedEvent);
+    try {
+      calendar.addEvents(List.of(testEvent, shiftedEvent));
+    } catch (IllegalArgumentException expected) {
+      assertEquals(List.of(shiftedEvent), calendar.getEvents());
+      return;
+    }
+    throw new AssertionError("expected the clashing batch to be rejected");
+  }
+
+  @Test
+  public void addEventsKeepsTheOrderOfEventsStartingTheSameDay() {
+    IEvent later = Event.of("Later", null, null, LocalDate.of(2025, 6, 1),
+            LocalTime.of(11, 0), LocalDate.of(2025, 6, 1),
+            LocalTime.of(12, 0), null);
+    IEvent latest = Event.of("Latest", null, null, LocalDate.of(2025, 6, 1),
+            LocalTime.of(13, 0), LocalDate.of(2025, 6, 1),
+            LocalTime.of(14, 0), null);
+    calendar.addEvent(testEvent);
+    calendar.addEvents(List.of(shiftedEvent, later, latest));
+    assertEquals(List.of(testEvent, later, latest), calendar.getScheduleInRange(
+            LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 1)));
+    assertEquals(List.of(testEvent, later, latest, shiftedEvent), calendar.getScheduleInRange(
+            LocalDate.of(2025, 5, 1), LocalDate.of(2025, 7, 1)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void addEventsRejectsDuplicatesWithinTheBatch() {
+    calendar.addEvents(List.of(testEvent, shiftedEvent, testEvent));
+  }
+
   @Test
   public void addEventSeriesEventsToCalendarWorks() {
     IEventSeries series = EventSeries.getBuilder()
@@ -204,5 +271,244 @@ public class CalendarTest {
     assertTrue(result.contains(event1));
     assertTrue(result.contains(event2));
   }
-}
 
+  @Test
+  public void getScheduleInRangeIsOrderedByStartDate() {
+    IEventSeries series = EventSeries.getBuilder()
+            .subject("Series Test")
+            .eventStartDate(2, 6, 2025)
+            .eventEndDate(2, 6, 2025)
+            .eventStartTime(10, 0)
+            .eventEndTime(11, 0)
+            .weekDays("MW")
+            .seriesEndDate(LocalDate.of(2025, 6, 11))
+            .buildSeries();
+
+    calendar.addEvent(shiftedEvent);
+    calendar.addEventSeries(series);
+    calendar.addEvent(testEvent);
+
+    List<IEvent> result = calendar.getScheduleInRange(
+            LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 30));
+
+    assertEquals(6, result.size());
+    for (int i = 1; i < result.size(); i++) {
+      assertFalse(result.get(i).getStartDate().isBefore(result.get(i - 1).getStartDate()));
+    }
+    assertEquals(testEvent, result.get(0));
+    assertEquals(shiftedEvent, result.get(2));
+  }
+
+  @Test
+  public void sameDayEventsComeStandaloneFirstAndKeepTheirPlaceWhenReplaced() {
+    IEventSeries series = EventSeries.getBuilder()
+            .subject("Series Test")
+            .eventStartDate(2, 6, 2025)
+            .eventEndDate(2, 6, 2025)
+            .eventStartTime(7, 0)
+            .eventEndTime(8, 0)
+            .weekDays("M")
+            .seriesEndDate(LocalDate.of(2025, 6, 2))
+            .buildSeries();
+    IEvent first = testEvent.shiftDays(1);
+    IEvent second = Event.of("Second", null, null, LocalDate.of(2025, 6, 2),
+            LocalTime.of(12, 0), LocalDate.of(2025, 6, 2), LocalTime.of(13, 0), null);
+    IEvent renamed = Event.of("Renamed", null, null, LocalDate.of(2025, 6, 2),
+            LocalTime.of(9, 0), LocalDate.of(2025, 6, 2), LocalTime.of(10, 0), null);
+
+    calendar.addEventSeries(series);
+    calendar.addEvent(first);
+    calendar.addEvent(second);
+    IEvent occurrence = series.iterator().next();
+    LocalDate day = LocalDate.of(2025, 6, 2);
+    assertEquals(List.of(first, second, occurrence), calendar.getScheduleInRange(day, day));
+
+    calendar.replaceEvent(first, renamed);
+    assertEquals(List.of(renamed, second, occurrence), calendar.getScheduleInRange(day, day));
+  }
+
+  @Test
+  public void removedSeriesLeavesTheSchedule() {
+    IEventSeries series = EventSeries.getBuilder()
+            .subject("Series Test")
+            .eventStartDate(2, 6, 2025)
+            .eventEndDate(2, 6, 2025)
+            .eventStartTime(10, 0)
+            .eventEndTime(11, 0)
+            .weekDays("MW")
+            .seriesEndDate(LocalDate.of(2025, 6, 11))
+            .buildSeries();
+
+    calendar.addEventSeries(series);
+    calendar.removeEventSeries(series);
+
+    assertTrue(calendar.getScheduleInRange(
+            LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 30)).isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void addingEventMatchingSeriesOccurrenceThrows() {
+    IEventSeries series = EventSeries.getBuilder()
+            .subject("Test Event")
+            .eventStartDate(1, 6, 2025)
+            .eventEndDate(1, 6, 2025)
+            .eventStartTime(9, 0)
+            .eventEndTime(10, 0)
+            .weekDays("U")
+            .seriesEndDate(LocalDate.of(2025, 6, 15))
+            .buildSeries();
+
+    calendar.addEventSeries(series);
+    calendar.addEvent(testEvent); // the series already holds this on June 1st
+  }
+
+  @Test
+  public void removedEventCanBeAddedAgain() {
+    calendar.addEvent(testEvent);
+    calendar.removeEvent(testEvent);
+    calendar.addEvent(testEvent);
+    assertEquals(1, calendar.getEvents().size());
+  }
+
+  @Test
+  public void getSeriesForFollowsReplaceAndRemove() {
+    EventSeries series = EventSeries.getBuilder()
+            .subject("Series Test")
+            .eventStartDate(2, 6, 2025)
+            .eventEndDate(2, 6, 2025)
+            .eventStartTime(10, 0)
+            .eventEndTime(11, 0)
+            .weekDays("MW")
+            .seriesEndDate(LocalDate.of(2025, 6, 11))
+            .buildSeries();
+    IEvent first = series.getEvents().get(0);
+    IEvent moved = first.shiftDays(-1);
+
+    calendar.addEvent(testEvent);
+    calendar.addEventSeries(series);
+    assertSame(series, calendar.getSeriesFor(first));
+    assertNull(calendar.getSeriesFor(testEvent));
+
+    EventSeries edited = new SeriesEditor(series).replace(first, moved).getSeries();
+    calendar.replaceSeries(series, edited);
+    assertNull(calendar.getSeriesFor(first));
+    assertSame(edited, calendar.getSeriesFor(moved));
+
+    calendar.removeEventSeries(edited);
+    assertNull(calendar.getSeriesFor(moved));
+  }
+
+  @Test
+  public void lazySeriesAnswersRangeQueries() {
+    EventSeries lazy = EventSeries.getBuilder()
+            .subject("Series Test")
+            .eventStartDate(2, 6, 2025)
+            .eventEndDate(2, 6, 2025)
+            .eventStartTime(10, 0)
+            .eventEndTime(11, 0)
+            .weekDays("MW")
+            .seriesEndDate(LocalDate.of(2030, 6, 11))
+            .lazyExpansion()
+            .buildSeries();
+
+    calendar.addEvent(shiftedEvent);
+    calendar.addEventSeries(lazy);
+
+    List<IEvent> result = calendar.getScheduleInRange(
+            LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 8));
+    assertEquals(3, result.size());
+    assertEquals(LocalDate.of(2025, 6, 2), result.get(0).getStartDate());
+    assertEquals(shiftedEvent, result.get(1));
+    assertSame(lazy, calendar.getSeriesFor(result.get(2)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void addingEventMatchingLazyOccurrenceThrows() {
+    EventSeries lazy = EventSeries.getBuilder()
+            .subject("Test Event")
+            .eventStartDate(1, 6, 2025)
+            .eventEndDate(1, 6, 2025)
+            .eventStartTime(9, 0)
+            .eventEndTime(10, 0)
+            .weekDays("U")
+            .seriesEndDate(LocalDate.of(2030, 6, 15))
+            .lazyExpansion()
+            .buildSeries();
+
+    calendar.addEventSeries(lazy);
+    calendar.addEvent(testEvent);
+  }
+
+  @Test
+  public void revertingToASnapshotPutsEventsBackInOrder() {
+    Calendar plain = new Calendar();
+    List<IEvent> events = List.of(testEvent, Event.of("Second", null, null,
+            LocalDate.of(2025, 6, 1), LocalTime.of(9, 0), LocalDate.of(2025, 6, 1),
+            LocalTime.of(10, 0), null), Event.of("Third", null, null, LocalDate.of(2025, 6, 1),
+            LocalTime.of(11, 0), LocalDate.of(2025, 6, 1), LocalTime.of(12, 0), null));
+    events.forEach(plain::addEvent);
+    List<IEvent> schedule = plain.getScheduleInRange(
+            LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 1));
+    Calendar snapshot = plain.snapshot();
+
+    plain.removeEvent(events.get(0));
+    plain.addEvent(events.get(0));
+    plain.addEvent(shiftedEvent);
+    plain.revertTo(snapshot);
+    assertEquals(events, plain.getEvents());
+    assertEquals(schedule, plain.getScheduleInRange(
+            LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 1)));
+  }
+
+  @Test
+  public void lazySeriesKeepTheOrderOfEagerOnes() {
+    ICalendar eager = new Calendar();
+    ICalendar mixed = new Calendar();
+    for (String subject : List.of("First", "Second", "Third")) {
+      EventSeries.EventSeriesBuilder builder = EventSeries.getBuilder()
+              .subject(subject)
+              .eventStartDate(2, 6, 2025)
+              .eventEndDate(2, 6, 2025)
+              .eventStartTime(12, 0)
+              .eventEndTime(13, 0)
+              .weekDays("MW")
+              .seriesEndDate(LocalDate.of(2025, 8, 31));
+      eager.addEventSeries(builder.buildSeries());
+      mixed.addEventSeries("Second".equals(subject)
+              ? builder.lazyExpansion().buildSeries() : builder.buildSeries());
+    }
+    eager.addEvent(shiftedEvent);
+    mixed.addEvent(shiftedEvent);
+
+    List<IEvent> schedule = eager.getScheduleInRange(
+            LocalDate.of(2025, 6, 1), LocalDate.of(2025, 7, 31));
+    assertEquals(schedule, mixed.getScheduleInRange(
+            LocalDate.of(2025, 6, 1), LocalDate.of(2025, 7, 31)));
+    assertEquals(List.of("First", "Second", "Third"), List.of(schedule.get(0).getSubject(),
+            schedule.get(1).getSubject(), schedule.get(2).getSubject()));
+  }
+
+  @Test
+  public void lazySeriesAnswerForOccurrencesMovedOutOfTheirRule() {
+    EventSeries lazy = EventSeries.getBuilder()
+            .subject("Series Test")
+            .eventStartDate(2, 6, 2025)
+            .eventEndDate(2, 6, 2025)
+            .eventStartTime(10, 0)
+            .eventEndTime(11, 0)
+            .weekDays("M")
+            .seriesEndDate(LocalDate.of(2025, 6, 30))
+            .lazyExpansion()
+            .buildSeries();
+    IEvent last = lazy.getEventsInRange(
+            LocalDate.of(2025, 6, 30), LocalDate.of(2025, 6, 30)).get(0);
+    IEvent moved = last.shiftDays(3);
+    EventSeries edited = new SeriesEditor(lazy).replace(last, moved).getSeries();
+
+    calendar.addEventSeries(edited);
+    assertEquals(List.of(moved), calendar.getScheduleInRange(
+            LocalDate.of(2025, 7, 1), LocalDate.of(2025, 7, 31)));
+    assertSame(edited, calendar.getSeriesFor(moved));
+  }
+
+}
@@ -0,0 +1,248 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import model.Calendar;
+import model.ColumnarCalendar;
+import model.Event;
+import model.EventLocation;
+import model.EventSeries;
+import model.EventStatus;
+import model.ICalendar;
+import model.IEvent;
+import model.IEventSeries;
+import model.SeriesEditor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Class containing tests for the ColumnarCalendar Implementation.
+ */
+public class ColumnarCalendarTest {
+  private ICalendar calendar;
+  private IEvent testEvent;
+  private IEvent shiftedEvent;
+
+  @Before
+  public void setup() {
+    calendar = new ColumnarCalendar();
+
+    testEvent = Event.getBuilder()
+            .subject("Test Event")
+            .startDate(1, 6, 2025)
+            .startTime(9, 0)
+            .endDate(1, 6, 2025)
+            .endTime(10, 0)
+            .location(EventLocation.ONLINE)
+            .status(EventStatus.PRIVATE)
+            .description("notes")
+            .buildEvent();
+
+    shiftedEvent = testEvent.shiftDays(3);
+  }
+
+  private EventSeries mondaysAndWednesdays() {
+    return EventSeries.getBuilder()
+            .subject("Series Test")
+            .eventStartDate(2, 6, 2025)
+            .eventEndDate(2, 6, 2025)
+            .eventStartTime(10, 0)
+            .eventEndTime(11, 0)
+            .weekDays("MW")
+            .seriesEndDate(LocalDate.of(2025, 6, 11))
+            .buildSeries();
+  }
+
+  @Test
+  public void addEventKeepsEveryField() {
+    calendar.addEvent(testEvent);
+    IEvent stored = calendar.getEvents().get(0);
+    assertEquals(testEvent, stored);
+    assertEquals(EventLocation.ONLINE, stored.getLocation());
+    assertEquals(EventStatus.PRIVATE, stored.getStatus());
+    assertEquals("notes", stored.getDescription());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void addingDuplicateEventThrows() {
+    calendar.addEvent(testEvent);
+    calendar.addEvent(testEvent);
+  }
+
+  @Test
+  public void removeEventWorks() {
+    calendar.addEvent(testEvent);
+    calendar.removeEvent(testEvent);
+    assertFalse(calendar.getEvents().contains(testEvent));
+    calendar.addEvent(testEvent);
+    assertEquals(1, calendar.getEvents().size());
+  }
+
+  @Test
+  public void replaceEventWorks() {
+    calendar.addEvent(testEvent);
+    calendar.replaceEvent(testEvent, shiftedEvent);
+    assertTrue(calendar.getEvents().contains(shiftedEvent));
+    assertFalse(calendar.getEvents().contains(testEvent));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void replaceEventThrowsWhenEventNotFound() {
+    calendar.replaceEvent(testEvent, shiftedEvent);
+  }
+
+  @Test
+  public void getScheduleInRangeIsOrderedByStartDate() {
+    calendar.addEvent(shiftedEvent);
+    calendar.addEventSeries(mondaysAndWednesdays());
+    calendar.addEvent(testEvent);
+
+    List<IEvent> result = calendar.getScheduleInRange(
+            LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 30));
+
+    assertEquals(6, result.size());
+    for (int i = 1; i < result.size(); i++) {
+      assertFalse(result.get(i).getStartDate().isBefore(result.get(i - 1).getStartDate()));
+    }
+    assertEquals(testEvent, result.get(0));
+    assertTrue(calendar.getScheduleInRange(
+            LocalDate.of(2025, 6, 5), LocalDate.of(2025, 6, 8)).isEmpty());
+  }
+
+  @Test
+  public void seriesCanBeFoundReplacedAndRemoved() {
+    EventSeries series = mondaysAndWednesdays();
+    IEvent first = series.getEvents().get(0);
+    calendar.addEvent(testEvent);
+    calendar.addEventSeries(series);
+
+    // only the rule of a series is kept, the series handed back is rebuilt from it.
+    assertEquals(series, calendar.getSeriesFor(first));
+    assertNull(calendar.getSeriesFor(testEvent));
+
+    IEventSeries edited = series.adopt(List.of(first.shiftDays(-1)));
+    calendar.replaceSeries(series, edited);
+    assertNull(calendar.getSeriesFor(first));
+    assertEquals(edited, calendar.getSeriesFor(first.shiftDays(-1)));
+
+    calendar.removeEventSeries(edited);
+    assertEquals(List.of(testEvent), calendar.getEvents());
+  }
+
+  @Test
+  public void lazySeriesComeBackLazyWithTheirEdits() {
+    EventSeries lazy = EventSeries.editSeries(mondaysAndWednesdays()).lazyExpansion()
+            .buildSeries();
+    IEvent first = lazy.getEvents().get(0);
+    calendar.addEventSeries(lazy);
+    IEventSeries edited = new SeriesEditor(lazy).replace(first, first.shiftDays(-1)).getSeries();
+    calendar.replaceSeries(lazy, edited);
+
+    IEventSeries found = calendar.getSeriesFor(first.shiftDays(-1));
+    assertTrue(found.isLazy());
+    assertEquals(edited, found);
+    assertEquals(edited.getEvents(), found.getEvents());
+  }
+
+  @Test
+  public void removingKeepsTheOrderOfTheRest() {
+    EventSeries series = mondaysAndWednesdays();
+    IEvent early = Event.of("Early", null, null, LocalDate.of(2025, 6, 2), LocalTime.of(8, 0),
+            LocalDate.of(2025, 6, 2), LocalTime.of(9, 0), null);
+    IEvent late = Event.of("Late", null, null, LocalDate.of(2025, 6, 2), LocalTime.of(18, 0),
+            LocalDate.of(2025, 6, 2), LocalTime.of(19, 0), null);
+    calendar.addEvent(testEvent.shiftDays(1));
+    calendar.addEvent(early);
+    calendar.addEventSeries(series);
+    calendar.addEvent(late);
+
+    calendar.removeEvent(testEvent.shiftDays(1));
+    assertEquals(List.of(early, series.getEvents().get(0), late),
+            calendar.getScheduleInRange(LocalDate.of(2025, 6, 2), LocalDate.of(2025, 6, 2)));
+    calendar.removeEventSeries(series);
+    assertEquals(List.of(early, late), calendar.getEvents());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void addingEventMatchingSeriesOccurrenceThrows() {
+    EventSeries series = mondaysAndWednesdays();
+    calendar.addEventSeries(series);
+    calendar.addEvent(series.getEvents().get(1));
+  }
+
+  @Test
+  public void copyEventsAndShiftWorks() {
+    ICalendar source = new ColumnarCalendar();
+    source.addEvent(testEvent);
+
+    calendar.copyEventsAndShift(LocalDate.of(2025, 6, 1), LocalDate.of(2025, 6, 2),
+            source, LocalDate.of(2025, 6, 10));
+
+    assertEquals(List.of(testEvent.shiftDays(9)), calendar.getEvents());
+  }
+
+  @Test
+  public void setTimeZoneShiftsEvents() {
+    calendar.addEvent(testEvent);
+    ICalendar shifted = calendar.setTimeZone(ZoneId.of("UTC"));
+    assertEquals(ZoneId.of("UTC"), shifted.getTimeZone());
+    assertEquals(1, shifted.getEvents().size());
+    assertEquals(LocalTime.of(13, 0), shifted.getEvents().get(0).getStartTime());
+  }
+
+  @Test
+  public void matchesCalendarUnderRandomEdits() {
+    Random random = new Random(42);
+    ICalendar expected = new Calendar();
+    List<IEvent> added = new ArrayList<>();
+
+    for (int i = 0; i < 3000; i++) {
+      int op = random.nextInt(10);
+      if (op < 7 || added.isEmpty()) {
+        LocalDate day = LocalDate.of(2025, 1, 1).plusDays(random.nextInt(365));
+        LocalTime time = LocalTime.of(random.nextInt(20), 15 * random.nextInt(4));
+        IEvent e = Event.of("E" + random.nextInt(40), null, null,
+                day, time, day, time.plusMinutes(30), null);
+        try {
+          expected.addEvent(e);
+        } catch (IllegalArgumentException duplicate) {
+          continue;
+        }
+        calendar.addEvent(e);
+        added.add(e);
+      } else if (op < 9) {
+        IEvent e = added.remove(random.nextInt(added.size()));
+        expected.removeEvent(e);
+        calendar.removeEvent(e);
+      } else {
+        IEvent e = added.remove(random.nextInt(added.size()));
+        IEvent moved = e.shiftDays(400);
+        expected.replaceEvent(e, moved);
+        calendar.replaceEvent(e, moved);
+        added.add(moved);
+      }
+    }
+
+    LocalDate from = LocalDate.of(2025, 3, 1);
+    LocalDate to = LocalDate.of(2026, 3, 1);
+    assertEquals(expected.getScheduleInRange(from, to), calendar.getScheduleInRange(from, to));
+    assertEquals(expected.getEvents(), calendar.getEvents());
+    for (IEvent e : added) {
+      try {
+        calendar.addEvent(e);
+        throw new AssertionError("expected a duplicate for " + e);
+      } catch (IllegalArgumentException duplicate) {
+        // every stored event must still be found through the hash table.
+      }
+    }
+  }
+}
@@ -0,0 +1,167 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import model.Calendar;
+import model.ConcurrentCalendar;
+import model.ConcurrentCalendarManager;
+import model.Event;
+import model.ICalendar;
+import model.ICalendarManager;
+import model.IEvent;
+
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Class containing tests for the ConcurrentCalendar and ConcurrentCalendarManager, several of
+ * which hammer them from many threads at once.
+ */
+public class ConcurrentCalendarTest {
+  private static final LocalDate DAY = LocalDate.of(2025, 6, 2);
+
+  private static IEvent event(String subject, int minutes) {
+    LocalTime start = LocalTime.of(0, 0).plusMinutes(minutes);
+    return Event.of(subject, null, null, DAY, start, DAY, start.plusMinutes(1), null);
+  }
+
+  private static void runAll(List<Callable<Object>> tasks) throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(tasks.size());
+    try {
+      List<Future<Object>> results = new ArrayList<>();
+      for (Callable<Object> task : tasks) {
+        results.add(pool.submit(task));
+      }
+      for (Future<Object> result : results) {
+        result.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void readersOnlyEverSeeWholeBatches() throws Exception {
+    ICalendar calendar = new ConcurrentCalendar();
+    AtomicBoolean writing = new AtomicBoolean(true);
+    List<Callable<Object>> tasks = new ArrayList<>();
+
+    tasks.add(() -> {
+      for (int i = 0; i < 500; i++) {
+        calendar.addEvents(List.of(event("A", i), event("B", i)));
+      }
+      writing.set(false);
+      return null;
+    });
+    for (int r = 0; r < 4; r++) {
+      tasks.add(() -> {
+        while (writing.get()) {
+          int seen = calendar.getScheduleInRange(DAY, DAY).size();
+          if (seen % 2 != 0) {
+            throw new AssertionError("saw half a batch: " + seen);
+          }
+        }
+        return null;
+      });
+    }
+    runAll(tasks);
+
+    assertEquals(1000, calendar.getEvents().size());
+  }
+
+  @Test
+  public void concurrentWritersLoseNothing() throws Exception {
+    ICalendar calendar = new ConcurrentCalendar();
+    List<Callable<Object>> tasks = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      String subject = "Writer " + t;
+      tasks.add(() -> {
+        for (int i = 0; i < 250; i++) {
+          calendar.addEvent(event(subject, i));
+          if (i % 5 == 0) {
+            calendar.removeEvent(event(subject, i));
+          }
+        }
+        return null;
+      });
+    }
+    runAll(tasks);
+
+    assertEquals(8 * 200, calendar.getEvents().size());
+    assertEquals(8 * 200, calendar.getScheduleInRange(DAY, DAY).size());
+  }
+
+  @Test
+  public void failedChangeLeavesCalendarUntouched() {
+    ConcurrentCalendar calendar = new ConcurrentCalendar();
+    calendar.addEvent(event("A", 0));
+    Calendar before = calendar.snapshot();
+    try {
+      calendar.addEvents(List.of(event("A", 1), event("A", 0)));
+    } catch (IllegalArgumentException expected) {
+      assertEquals(before.getEvents(), calendar.getEvents());
+      return;
+    }
+    throw new AssertionError("expected the clashing batch to be rejected");
+  }
+
+  @Test
+  public void snapshotIsUnaffectedByLaterChanges() {
+    ConcurrentCalendar calendar = new ConcurrentCalendar();
+    calendar.addEvent(event("A", 0));
+    Calendar snapshot = calendar.snapshot();
+    calendar.addEvent(event("A", 1));
+
+    assertEquals(1, snapshot.getEvents().size());
+    assertEquals(2, calendar.getEvents().size());
+  }
+
+  @Test
+  public void managerHandsOutOneDefaultCalendar() throws Exception {
+    ICalendarManager manager = new ConcurrentCalendarManager();
+    List<ICalendar> defaults = new ArrayList<>();
+    List<Callable<Object>> tasks = new ArrayList<>();
+    for (int t = 0; t < 8; t++) {
+      tasks.add(() -> {
+        ICalendar calendar = manager.getOrCreateDefault();
+        synchronized (defaults) {
+          defaults.add(calendar);
+        }
+        return null;
+      });
+    }
+    runAll(tasks);
+
+    for (ICalendar calendar : defaults) {
+      assertSame(defaults.get(0), calendar);
+    }
+    assertTrue(defaults.get(0) instanceof ConcurrentCalendar);
+  }
+
+  @Test
+  public void managerWrapsPlainCalendars() {
+    ICalendarManager manager = new ConcurrentCalendarManager();
+    Calendar plain = new Calendar();
+    plain.addEvent(event("A", 0));
+    manager.addCalendar("work", plain);
+
+    ICalendar stored = manager.getCalendar("work");
+    assertTrue(stored instanceof ConcurrentCalendar);
+    assertEquals(plain.getEvents(), stored.getEvents());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void managerThrowsForMissingCalendar() {
+    new ConcurrentCalendarManager().getCalendar("missing");
+  }
+}
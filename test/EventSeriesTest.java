@@ -14,9 +14,11 @@ import model.EventSeries;
 import model.IDateTimeFacade;
 import model.IEvent;
 import model.IEventSeries;
+import model.SeriesEditor;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertThrows;
 
 /**
@@ -202,4 +204,71 @@ public class EventSeriesTest {
 
     assertEquals(expectedDays, actualDays);
   }
+
+  private EventSeries.EventSeriesBuilder weekdayStandup() {
+    return EventSeries.getBuilder()
+            .subject("Standup")
+            .eventStartDate(2, 6, 2025)
+            .eventEndDate(2, 6, 2025)
+            .eventStartTime(9, 0)
+            .eventEndTime(9, 15)
+            .weekDays("MWF")
+            .seriesEndDate(LocalDate.of(2026, 6, 1));
+  }
+
+  @Test
+  public void lazySeriesMatchesEagerSeries() {
+    EventSeries eager = weekdayStandup().buildSeries();
+    EventSeries lazy = weekdayStandup().lazyExpansion().buildSeries();
+
+    assertTrue(lazy.isLazy());
+    assertFalse(eager.isLazy());
+    assertEquals(eager.getEvents(), lazy.getEvents());
+    assertEquals(eager, lazy);
+  }
+
+  @Test
+  public void lazySeriesOnlyExpandsTheRequestedWindow() {
+    EventSeries lazy = weekdayStandup().lazyExpansion().buildSeries();
+
+    List<IEvent> window = lazy.getEventsInRange(
+            LocalDate.of(2025, 6, 9), LocalDate.of(2025, 6, 15));
+
+    assertEquals(3, window.size()); // June 9, 11 and 13
+    assertEquals(LocalDate.of(2025, 6, 9), window.get(0).getStartDate());
+    assertEquals(LocalDate.of(2025, 6, 13), window.get(2).getStartDate());
+  }
+
+  @Test
+  public void editingLazySeriesKeepsItLazy() {
+    EventSeries lazy = weekdayStandup().lazyExpansion().buildSeries();
+    IEvent old = lazy.getEventsInRange(
+            LocalDate.of(2025, 6, 11), LocalDate.of(2025, 6, 11)).get(0);
+    IEvent moved = old.shiftDays(1);
+
+    EventSeries edited = new SeriesEditor(lazy).replace(old, moved).getSeries();
+
+    assertTrue(edited.isLazy());
+    assertFalse(edited.containsEvent(old));
+    assertTrue(edited.containsEvent(moved));
+    assertEquals(lazy.getEvents().size(), edited.getEvents().size());
+    assertEquals(List.of(moved), edited.getEventsInRange(
+            LocalDate.of(2025, 6, 11), LocalDate.of(2025, 6, 12)));
+  }
+
+  @Test
+  public void lazySeriesHashLikeTheEventsTheyHold() {
+    EventSeries eager = weekdayStandup().buildSeries();
+    EventSeries lazy = weekdayStandup().lazyExpansion().buildSeries();
+    IEvent old = lazy.getEventsInRange(
+            LocalDate.of(2025, 6, 11), LocalDate.of(2025, 6, 11)).get(0);
+    EventSeries edited = new SeriesEditor(lazy).replace(old, old.shiftDays(1)).getSeries();
+
+    assertEquals(eager.hashCode(), lazy.hashCode());
+    assertEquals(lazy, weekdayStandup().lazyExpansion().buildSeries());
+    assertFalse(lazy.equals(edited));
+    assertFalse(edited.equals(eager));
+    assertFalse(lazy.equals(weekdayStandup().lazyExpansion()
+            .seriesEndDate(LocalDate.of(2026, 5, 1)).buildSeries()));
+  }
 }
@@ -332,4 +332,46 @@ public class EventTest {
     IEvent edited = eventEditor.startTime(7,0).buildEvent();
     assertEquals(facade.timeOf(7, 0), edited.getStartTime());
   }
+
+  @Test
+  public void ofMatchesTheBuilder() {
+    Event built = builder.subject("Fishing")
+            .startDate(1, 1, 2021)
+            .startTime(9, 30)
+            .endDate(1, 1, 2021)
+            .endTime(11, 0)
+            .location(EventLocation.ONLINE)
+            .status(EventStatus.PRIVATE)
+            .description("at the lake")
+            .buildEvent();
+
+    Event direct = Event.of("Fishing", EventLocation.ONLINE, EventStatus.PRIVATE,
+            facade.dateOf(1, 1, 2021), facade.timeOf(9, 30),
+            facade.dateOf(1, 1, 2021), facade.timeOf(11, 0),
+            "at the lake");
+
+    assertEquals(built, direct);
+    assertEquals(built.getLocation(), direct.getLocation());
+    assertEquals(built.getStatus(), direct.getStatus());
+    assertEquals(built.getDescription(), direct.getDescription());
+  }
+
+  @Test
+  public void ofWithoutEndMakesAnAllDayEvent() {
+    Event e = Event.of("Holiday", null, null,
+            facade.dateOf(25, 12, 2025), facade.timeOf(10, 0), null, null, null);
+    assertTrue(e.isAllDayEvent());
+    assertEquals(facade.timeOf(8, 0), e.getStartTime());
+    assertEquals(facade.timeOf(17, 0), e.getEndTime());
+  }
+
+  @Test
+  public void ofThrowsWhenEndIsBeforeStart() {
+    assertThrows(IllegalArgumentException.class, () -> Event.of("Fishing", null, null,
+            facade.dateOf(2, 1, 2021), facade.timeOf(9, 0),
+            facade.dateOf(1, 1, 2021), facade.timeOf(10, 0), null));
+    assertThrows(IllegalArgumentException.class, () -> Event.of("Fishing", null, null,
+            facade.dateOf(1, 1, 2021), facade.timeOf(11, 0),
+            facade.dateOf(1, 1, 2021), facade.timeOf(10, 0), null));
+  }
 }
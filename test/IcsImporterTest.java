@@ -0,0 +1,207 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import model.Calendar;
+import model.Event;
+import model.EventLocation;
+import model.EventStatus;
+import model.ICalendar;
+import model.IEvent;
+import model.IcsImporter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Class containing tests for importing iCalendar files.
+ */
+public class IcsImporterTest {
+  private static final LocalDate FROM = LocalDate.of(2025, 1, 1);
+  private static final LocalDate TO = LocalDate.of(2027, 12, 31);
+
+  private ICalendar calendar;
+
+  @Before
+  public void setup() {
+    calendar = new Calendar(ZoneId.of("America/New_York"));
+  }
+
+  private static String ics(String... events) {
+    StringBuilder sb = new StringBuilder("BEGIN:VCALENDAR\r\nVERSION:2.0\r\n");
+    for (String e : events) {
+      sb.append("BEGIN:VEVENT\r\n").append(e.replace("\n", "\r\n")).append("END:VEVENT\r\n");
+    }
+    return sb.append("END:VCALENDAR\r\n").toString();
+  }
+
+  private IcsImporter.Result importText(String text) throws IOException {
+    return new IcsImporter(calendar, 2).importFrom(new StringReader(text));
+  }
+
+  private List<IEvent> named(String subject) {
+    return calendar.getScheduleInRange(FROM, TO).stream()
+            .filter(e -> e.getSubject().equals(subject)).collect(Collectors.toList());
+  }
+
+  @Test
+  public void importsEventsWithTheirFields() throws IOException {
+    IcsImporter.Result result = importText(ics(
+            "UID:1\nSUMMARY:Review\\, Q2\nDTSTART:20250603T140000\nDTEND:20250603T153000\n"
+                    + "DESCRIPTION:numbers\\nand plans\nLOCATION:Room 4\nCLASS:CONFIDENTIAL\n",
+            "UID:2\nSUMMARY:Call\nDTSTART:20250604T090000\nDURATION:PT45M\n"
+                    + "LOCATION:https://meet.example.com/x\n",
+            "UID:3\nSUMMARY:Holiday\nDTSTART;VALUE=DATE:20250704\nDTEND;VALUE=DATE:20250705\n"));
+    assertEquals(3, result.getEvents());
+    assertEquals(0, result.getSkipped());
+
+    IEvent review = named("Review, Q2").get(0);
+    assertEquals(LocalTime.of(14, 0), review.getStartTime());
+    assertEquals(LocalTime.of(15, 30), review.getEndTime());
+    assertEquals("numbers\nand plans", review.getDescription());
+    assertEquals(EventLocation.PHYSICAL, review.getLocation());
+    assertEquals(EventStatus.PRIVATE, review.getStatus());
+
+    IEvent call = named("Call").get(0);
+    assertEquals(LocalTime.of(9, 45), call.getEndTime());
+    assertEquals(EventLocation.ONLINE, call.getLocation());
+    assertTrue(named("Holiday").get(0).isAllDayEvent());
+  }
+
+  @Test
+  public void foldedLinesAndNestedComponentsAreHandled() throws IOException {
+    importText(ics("UID:1\nSUMMARY:A very long\n  title\nDTSTART:20250603T140000\n"
+            + "DTEND:20250603T150000\nBEGIN:VALARM\nDESCRIPTION:ignored\nEND:VALARM\n"));
+    assertEquals(1, named("A very long title").size());
+    assertNull(named("A very long title").get(0).getDescription());
+  }
+
+  @Test
+  public void timesAreMovedIntoTheCalendarZone() throws IOException {
+    importText(ics(
+            "UID:1\nSUMMARY:Utc\nDTSTART:20250603T140000Z\nDTEND:20250603T150000Z\n",
+            "UID:2\nSUMMARY:Paris\nDTSTART;TZID=Europe/Paris:20250603T140000\n"
+                    + "DTEND;TZID=Europe/Paris:20250603T150000\n"));
+    assertEquals(LocalTime.of(10, 0), named("Utc").get(0).getStartTime());
+    assertEquals(LocalTime.of(8, 0), named("Paris").get(0).getStartTime());
+  }
+
+  @Test
+  public void weeklyRulesBecomeSeries() throws IOException {
+    IcsImporter.Result result = importText(ics(
+            "UID:1\nSUMMARY:Standup\nDTSTART:20250602T090000\nDTEND:20250602T091500\n"
+                    + "RRULE:FREQ=WEEKLY;BYDAY=MO,WE,FR;COUNT=6\n",
+            "UID:2\nSUMMARY:Gym\nDTSTART:20250601T180000\nDTEND:20250601T190000\n"
+                    + "RRULE:FREQ=DAILY;UNTIL=20250607T235959Z\n"));
+    assertEquals(2, result.getSeries());
+    assertEquals(0, result.getEvents());
+
+    List<IEvent> standups = named("Standup");
+    assertEquals(6, standups.size());
+    assertEquals(LocalDate.of(2025, 6, 13), standups.get(5).getStartDate());
+    assertNotNull(calendar.getSeriesFor(standups.get(0)));
+    assertEquals(7, named("Gym").size());
+  }
+
+  @Test
+  public void otherRulesAreExpanded() throws IOException {
+    IcsImporter.Result result = importText(ics(
+            "UID:1\nSUMMARY:Rent\nDTSTART:20250131T090000\nDTEND:20250131T091500\n"
+                    + "RRULE:FREQ=MONTHLY;COUNT=4\n",
+            "UID:2\nSUMMARY:Sync\nDTSTART:20250602T100000\nDTEND:20250602T110000\n"
+                    + "RRULE:FREQ=WEEKLY;INTERVAL=2;BYDAY=MO,TH;UNTIL=20250630\n"
+                    + "EXDATE:20250605T100000\n"));
+    assertEquals(0, result.getSeries());
+
+    // the 31st only comes round in January, March, May and July.
+    List<LocalDate> rent = named("Rent").stream().map(IEvent::getStartDate)
+            .collect(Collectors.toList());
+    assertEquals(List.of(LocalDate.of(2025, 1, 31), LocalDate.of(2025, 3, 31),
+            LocalDate.of(2025, 5, 31), LocalDate.of(2025, 7, 31)), rent);
+
+    List<LocalDate> sync = named("Sync").stream().map(IEvent::getStartDate)
+            .collect(Collectors.toList());
+    assertEquals(List.of(LocalDate.of(2025, 6, 2), LocalDate.of(2025, 6, 16),
+            LocalDate.of(2025, 6, 19), LocalDate.of(2025, 6, 30)), sync);
+    assertNull(calendar.getSeriesFor(named("Sync").get(0)));
+  }
+
+  @Test
+  public void editedOccurrencesReplaceTheRuleOccurrence() throws IOException {
+    importText(ics(
+            "UID:s\nSUMMARY:Standup\nDTSTART:20250602T090000\nDTEND:20250602T091500\n"
+                    + "RRULE:FREQ=WEEKLY;BYDAY=MO,TU;COUNT=4\n",
+            "UID:s\nRECURRENCE-ID:20250603T090000\nSUMMARY:Standup\n"
+                    + "DTSTART:20250603T100000\nDTEND:20250603T101500\n"));
+    List<IEvent> standups = named("Standup");
+    assertEquals(4, standups.size());
+    assertEquals(LocalTime.of(10, 0), standups.get(1).getStartTime());
+    assertNotNull(calendar.getSeriesFor(standups.get(1)));
+  }
+
+  @Test
+  public void unsupportedEntriesAreSkipped() throws IOException {
+    calendar.addEvent(Event.of("Taken", null, null, LocalDate.of(2025, 6, 3),
+            LocalTime.of(9, 0), LocalDate.of(2025, 6, 3), LocalTime.of(10, 0), null));
+    IcsImporter.Result result = importText(ics(
+            "UID:1\nSUMMARY:Taken\nDTSTART:20250603T090000\nDTEND:20250603T100000\n",
+            "UID:2\nSUMMARY:Board\nDTSTART:20250603T090000\nDTEND:20250603T100000\n"
+                    + "RRULE:FREQ=MONTHLY;BYDAY=1MO\n",
+            "UID:3\nSUMMARY:No start\n",
+            "UID:4\nSUMMARY:Fine\nDTSTART:20250605T090000\nDTEND:20250605T100000\n"));
+    assertEquals(3, result.getSkipped());
+    // the rule couldn't be read, so only its first occurrence is imported.
+    assertEquals(1, named("Board").size());
+    assertEquals(1, named("Fine").size());
+  }
+
+  @Test
+  public void largeFilesAreReadInOnePass() throws IOException {
+    int count = 20_000;
+    String event = "BEGIN:VEVENT\r\nUID:%d\r\nSUMMARY:Event %d\r\nDTSTART:%s\r\n"
+            + "DURATION:PT30M\r\nEND:VEVENT\r\n";
+    // generates the file as it is read, so it is never held in memory as a whole.
+    Reader generated = new Reader() {
+      private int next = -1;
+      private String chunk = "BEGIN:VCALENDAR\r\n";
+      private int position = 0;
+
+      @Override
+      public int read(char[] buffer, int offset, int length) {
+        if (position == chunk.length()) {
+          next++;
+          if (next > count) {
+            return -1;
+          }
+          LocalDate day = LocalDate.of(2025, 1, 1).plusDays(next / 20);
+          chunk = next == count ? "END:VCALENDAR\r\n" : String.format(event, next, next,
+                  day.toString().replace("-", "") + String.format("T%02d0000", next % 20));
+          position = 0;
+        }
+        int n = Math.min(length, chunk.length() - position);
+        chunk.getChars(position, position + n, buffer, offset);
+        position += n;
+        return n;
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+    IcsImporter.Result result = new IcsImporter(calendar).importFrom(generated);
+    assertEquals(count, result.getEvents());
+    assertEquals(count, calendar.getEvents().size());
+    assertEquals(DayOfWeek.WEDNESDAY, calendar.getEvents().get(0).getStartDate().getDayOfWeek());
+  }
+}
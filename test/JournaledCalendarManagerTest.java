@@ -0,0 +1,284 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import model.Calendar;
+import model.Event;
+import model.EventSeries;
+import model.ICalendar;
+import model.IEvent;
+import model.IEventSeries;
+import model.JournaledCalendarManager;
+import model.SeriesEditor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Class containing tests for the journaled calendar manager, which keeps calendars on disk.
+ */
+public class JournaledCalendarManagerTest {
+  private static final LocalDate FROM = LocalDate.of(2025, 1, 1);
+  private static final LocalDate TO = LocalDate.of(2026, 12, 31);
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path dir;
+  private JournaledCalendarManager manager;
+
+  @Before
+  public void setup() throws IOException {
+    dir = folder.getRoot().toPath();
+    manager = JournaledCalendarManager.open(dir);
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    manager.close();
+  }
+
+  private static IEvent meeting(int day, int hour) {
+    return Event.getBuilder()
+            .subject("Meeting")
+            .startDate(day, 6, 2025)
+            .startTime(hour, 0)
+            .endDate(day, 6, 2025)
+            .endTime(hour, 30)
+            .description("room " + hour)
+            .buildEvent();
+  }
+
+  private static EventSeries standup() {
+    return EventSeries.getBuilder()
+            .subject("Standup")
+            .eventStartDate(2, 6, 2025)
+            .eventEndDate(2, 6, 2025)
+            .eventStartTime(9, 0)
+            .eventEndTime(9, 15)
+            .weekDays("MTWRF")
+            .seriesEndDate(LocalDate.of(2025, 6, 30))
+            .buildSeries();
+  }
+
+  private JournaledCalendarManager reopen() throws IOException {
+    manager.close();
+    manager = JournaledCalendarManager.open(dir);
+    return manager;
+  }
+
+  private static List<IEvent> schedule(ICalendar calendar) {
+    return calendar.getScheduleInRange(FROM, TO);
+  }
+
+  @Test
+  public void changesSurviveAReopen() throws IOException {
+    manager.addCalendar("work", new Calendar(ZoneId.of("Europe/Paris")));
+    ICalendar work = manager.getCalendar("work");
+    work.addEvent(meeting(3, 10));
+    work.addEvent(meeting(4, 10));
+    work.replaceEvent(meeting(4, 10), meeting(4, 11));
+    work.removeEvent(meeting(3, 10));
+    work.addEventSeries(standup());
+    manager.getOrCreateDefault().addEvent(meeting(5, 8));
+    List<IEvent> expected = schedule(work);
+
+    reopen();
+    assertEquals(new HashSet<>(List.of("work", "default")),
+            new HashSet<>(manager.getCalendars()));
+    assertEquals(ZoneId.of("Europe/Paris"), manager.getCalendar("work").getTimeZone());
+    assertEquals(expected, schedule(manager.getCalendar("work")));
+    assertEquals("room 11", manager.getCalendar("work").getScheduleInRange(
+            LocalDate.of(2025, 6, 4), LocalDate.of(2025, 6, 4)).stream()
+            .filter(e -> e.getSubject().equals("Meeting")).findFirst().orElseThrow()
+            .getDescription());
+    assertEquals(List.of(meeting(5, 8)), manager.getCalendar("default").getEvents());
+  }
+
+  @Test
+  public void seriesEditsSurviveAReopen() throws IOException {
+    ICalendar calendar = manager.getOrCreateDefault();
+    EventSeries standup = standup();
+    calendar.addEventSeries(standup);
+    IEvent fourth = standup.getEvents().get(3);
+    IEventSeries edited = new SeriesEditor(standup).replace(fourth, fourth.shiftDays(1))
+            .getSeries();
+    calendar.replaceSeries(standup, edited);
+
+    reopen();
+    ICalendar reopened = manager.getCalendar("default");
+    assertEquals(edited.getEvents(), reopened.getEvents());
+    assertNotNull(reopened.getSeriesFor(edited.getEvents().get(0)));
+
+    reopened.removeEventSeries(reopened.getSeriesFor(edited.getEvents().get(0)));
+    reopen();
+    assertTrue(manager.getCalendar("default").getEvents().isEmpty());
+  }
+
+  @Test
+  public void renamesAndTimeZoneChangesSurviveAReopen() throws IOException {
+    manager.addCalendar("work", new Calendar(ZoneId.of("America/New_York")));
+    manager.getCalendar("work").addEvent(meeting(3, 10));
+    manager.changeName("work", "office");
+
+    // the same steps the edit calendar command takes.
+    ICalendar shifted = manager.getCalendar("office").setTimeZone(ZoneId.of("Europe/Paris"));
+    manager.removeCalendar("office");
+    manager.addCalendar("office", shifted);
+    shifted.addEvent(meeting(3, 10));
+    List<IEvent> expected = schedule(shifted);
+
+    reopen();
+    assertEquals(List.of("office"), manager.getCalendars());
+    assertEquals(ZoneId.of("Europe/Paris"), manager.getCalendar("office").getTimeZone());
+    assertEquals(expected, schedule(manager.getCalendar("office")));
+  }
+
+  @Test
+  public void checkpointStartsAFreshJournal() throws IOException {
+    ICalendar calendar = manager.getOrCreateDefault();
+    calendar.addEvent(meeting(3, 10));
+    ICalendar unnamed = calendar.setTimeZone(ZoneId.of("Asia/Tokyo"));
+    manager.checkpoint();
+    calendar.addEvent(meeting(4, 10));
+    // a calendar made before the checkpoint but not under any name isn't in the snapshot.
+    manager.addCalendar("tokyo", unnamed);
+    unnamed.addEvent(meeting(5, 10));
+    List<IEvent> expected = schedule(unnamed);
+
+    reopen();
+    assertEquals(List.of(meeting(3, 10), meeting(4, 10)),
+            manager.getCalendar("default").getEvents());
+    assertEquals(expected, schedule(manager.getCalendar("tokyo")));
+    List<String> files = Files.list(dir).map(p -> p.getFileName().toString()).sorted()
+            .collect(Collectors.toList());
+    assertEquals(List.of("journal-1.bin", "snapshot-1.bin"), files);
+  }
+
+  @Test
+  public void aTornRecordAtTheEndIsDropped() throws IOException {
+    manager.getOrCreateDefault().addEvent(meeting(3, 10));
+    manager.getOrCreateDefault().addEvent(meeting(4, 10));
+    manager.close();
+    Path journal = dir.resolve("journal-0.bin");
+    try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 3);
+    }
+
+    manager = JournaledCalendarManager.open(dir);
+    assertEquals(List.of(meeting(3, 10)), manager.getCalendar("default").getEvents());
+    manager.getOrCreateDefault().addEvent(meeting(5, 10));
+    reopen();
+    assertEquals(List.of(meeting(3, 10), meeting(5, 10)),
+            manager.getCalendar("default").getEvents());
+  }
+
+  @Test
+  public void descriptionsLongerThan64KbSurviveAReopen() throws IOException {
+    String description = "x".repeat(70_000) + "\u00e9";
+    IEvent imported = Event.getBuilder()
+            .subject("Imported")
+            .startDate(3, 6, 2025)
+            .startTime(10, 0)
+            .endDate(3, 6, 2025)
+            .endTime(11, 0)
+            .description(description)
+            .buildEvent();
+    manager.getOrCreateDefault().addEvent(imported);
+    manager.addCalendar("x".repeat(70_000), new Calendar());
+    manager.checkpoint();
+    manager.getOrCreateDefault().addEvent(meeting(4, 10));
+
+    reopen();
+    assertEquals(description,
+            manager.getCalendar("default").getEvents().get(0).getDescription());
+    assertTrue(manager.getCalendars().contains("x".repeat(70_000)));
+  }
+
+  @Test
+  public void failedChangesAreNotJournaled() throws IOException {
+    ICalendar calendar = manager.getOrCreateDefault();
+    calendar.addEvent(meeting(3, 10));
+    assertThrows(IllegalArgumentException.class, () -> calendar.addEvent(meeting(3, 10)));
+    assertThrows(IllegalArgumentException.class,
+        () -> manager.addCalendar("default", new Calendar()));
+    reopen();
+    assertEquals(List.of(meeting(3, 10)), manager.getCalendar("default").getEvents());
+  }
+
+  @Test
+  public void concurrentWritersAreAllRecovered() throws Exception {
+    int threads = 4;
+    int perThread = 50;
+    for (int t = 0; t < threads; t++) {
+      manager.addCalendar("c" + t, new Calendar());
+    }
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> done = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        ICalendar calendar = manager.getCalendar("c" + t);
+        done.add(pool.submit(() -> {
+          for (int i = 0; i < perThread; i++) {
+            calendar.addEvent(meeting(1 + i % 28, i / 28));
+          }
+        }));
+      }
+      for (Future<?> f : done) {
+        f.get();
+      }
+    } finally {
+      pool.shutdown();
+    }
+
+    reopen();
+    for (int t = 0; t < threads; t++) {
+      assertEquals(perThread, manager.getCalendar("c" + t).getEvents().size());
+    }
+  }
+
+  @Test
+  public void openRejectsAJournalWithoutACheckpoint() throws IOException {
+    manager.close();
+    Files.write(dir.resolve("journal-0.bin"), new byte[] {0, 0, 0, 1, 0, 0, 0, 0, 9});
+    assertThrows(IOException.class, () -> JournaledCalendarManager.open(dir));
+    manager = JournaledCalendarManager.open(folder.newFolder().toPath());
+  }
+
+  @Test
+  public void aRevertSurvivesAReopen() throws IOException {
+    manager.addCalendar("work", new Calendar(ZoneId.of("Europe/Paris")));
+    ICalendar work = manager.getCalendar("work");
+    List<IEvent> events = List.of(meeting(3, 10), meeting(3, 11), meeting(3, 9));
+    events.forEach(work::addEvent);
+    Calendar snapshot = work.snapshot();
+    work.removeEvent(meeting(3, 10));
+    work.addEvent(meeting(3, 10));
+    work.addEventSeries(standup());
+    work.revertTo(snapshot);
+    assertEquals(events, work.getEvents());
+
+    reopen();
+    assertEquals(events, manager.getCalendar("work").getEvents());
+  }
+
+}
@@ -0,0 +1,132 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import model.Calendar;
+import model.CalendarManager;
+import model.CalendarStore;
+import model.Event;
+import model.ICalendar;
+import model.ICalendarManager;
+import model.IEvent;
+import model.LazyCalendarManager;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Class containing tests for the calendar manager which loads calendars on demand.
+ */
+public class LazyCalendarManagerTest {
+  private static final LocalDate FROM = LocalDate.of(2025, 1, 1);
+  private static final LocalDate TO = LocalDate.of(2025, 12, 31);
+  // each calendar holds 100 events, so the budget fits two of them.
+  private static final long BUDGET = 250 * 350;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path dir;
+
+  @Before
+  public void setup() throws IOException {
+    dir = folder.getRoot().toPath();
+    CalendarManager manager = new CalendarManager();
+    for (String name : List.of("a", "b", "c", "d")) {
+      ICalendar calendar = new Calendar(ZoneId.of("Europe/Paris"));
+      for (int i = 0; i < 100; i++) {
+        calendar.addEvent(event(name + i, FROM.plusDays(i)));
+      }
+      manager.addCalendar(name, calendar);
+    }
+    CalendarStore.open(dir).save(manager);
+  }
+
+  private static IEvent event(String subject, LocalDate day) {
+    return Event.of(subject, null, null, day, LocalTime.of(9, 0), day, LocalTime.of(10, 0), null);
+  }
+
+  @Test
+  public void listingLoadsNothing() throws IOException {
+    LazyCalendarManager manager = LazyCalendarManager.open(dir, BUDGET);
+    assertEquals(List.of("a", "b", "c", "d"), manager.getCalendars());
+    assertEquals(List.of(), manager.getLoadedCalendars());
+
+    assertEquals(100, manager.getCalendar("c").getScheduleInRange(FROM, TO).size());
+    assertEquals(ZoneId.of("Europe/Paris"), manager.getCalendar("c").getTimeZone());
+    assertEquals(List.of("c"), manager.getLoadedCalendars());
+  }
+
+  @Test
+  public void leastRecentlyUsedCalendarsAreEvicted() throws IOException {
+    LazyCalendarManager manager = LazyCalendarManager.open(dir, BUDGET);
+    ICalendar a = manager.getCalendar("a");
+    a.addEvent(event("kept", TO));
+    manager.getCalendar("b");
+    a.getEvents();
+    manager.getCalendar("c");
+    // b was used least recently.
+    assertEquals(List.of("a", "c"), manager.getLoadedCalendars());
+
+    manager.getCalendar("d");
+    assertEquals(List.of("c", "d"), manager.getLoadedCalendars());
+    // the view loads a again, with the change saved on eviction.
+    assertEquals(101, a.getScheduleInRange(FROM, TO).size());
+    a.removeEvent(event("a0", FROM));
+    manager.getCalendar("b");
+    manager.getCalendar("c");
+    assertEquals(100, manager.getCalendar("a").getScheduleInRange(FROM, TO).size());
+  }
+
+  @Test
+  public void calendarsArchivePastEventsAsTheyAreLoaded() throws IOException {
+    LazyCalendarManager manager = LazyCalendarManager.open(dir, BUDGET, FROM.plusDays(90));
+    for (String name : List.of("a", "b", "c", "d")) {
+      assertEquals(100, manager.getCalendar(name).getScheduleInRange(FROM, TO).size());
+    }
+    // only ten events of each calendar stay in memory, so all four fit the budget.
+    assertEquals(List.of("a", "b", "c", "d"), manager.getLoadedCalendars());
+    manager.getCalendar("a").removeEvent(event("a0", FROM));
+    manager.close();
+    ICalendarManager reopened = CalendarStore.open(dir).load(new CalendarManager());
+    assertEquals(99, reopened.getCalendar("a").getScheduleInRange(FROM, TO).size());
+    assertEquals(100, reopened.getCalendar("b").getEvents().size());
+  }
+
+  @Test
+  public void changesSurviveReopening() throws IOException {
+    try (LazyCalendarManager manager = LazyCalendarManager.open(dir, BUDGET)) {
+      manager.getCalendar("a").addEvent(event("new", TO));
+      manager.changeName("b", "renamed");
+      manager.removeCalendar("c");
+      manager.addCalendar("e", new Calendar());
+      manager.getCalendar("e").addEvent(event("e0", FROM));
+      assertThrows(IllegalArgumentException.class, () -> manager.getCalendar("c"));
+    }
+    ICalendarManager reopened = CalendarStore.open(dir).load(new CalendarManager());
+    assertEquals(Set.of("a", "renamed", "d", "e"), Set.copyOf(reopened.getCalendars()));
+    assertEquals(101, reopened.getCalendar("a").getScheduleInRange(FROM, TO).size());
+    assertEquals(100, reopened.getCalendar("renamed").getScheduleInRange(FROM, TO).size());
+    assertEquals(1, reopened.getCalendar("e").getScheduleInRange(FROM, TO).size());
+  }
+
+  @Test
+  public void viewsOfRemovedCalendarsFail() throws IOException {
+    LazyCalendarManager manager = LazyCalendarManager.open(dir, BUDGET);
+    ICalendar d = manager.getCalendar("d");
+    manager.removeCalendar("d");
+    assertThrows(IllegalArgumentException.class, d::getEvents);
+    assertTrue(manager.getOrCreateDefault().getEvents().isEmpty());
+    assertTrue(manager.getCalendars().contains("default"));
+  }
+}
@@ -0,0 +1,186 @@
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import model.Calendar;
+import model.Event;
+import model.EventSeries;
+import model.IEvent;
+import model.IEventSeries;
+import model.LoggedCalendar;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Class containing tests for calendars kept as an append-only log.
+ */
+public class LoggedCalendarTest {
+  private static final LocalDate FROM = LocalDate.of(2025, 1, 1);
+  private static final LocalDate TO = LocalDate.of(2025, 12, 31);
+  private static final long SEGMENT = 4096;
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path dir;
+
+  @Before
+  public void setup() {
+    dir = folder.getRoot().toPath().resolve("work");
+  }
+
+  private static IEvent event(String subject, LocalDate day) {
+    return Event.of(subject, null, null, day, LocalTime.of(9, 0), day, LocalTime.of(10, 0), null);
+  }
+
+  private LoggedCalendar open() throws IOException {
+    return LoggedCalendar.open(dir, ZoneId.of("Europe/Paris"), SEGMENT);
+  }
+
+  private List<String> segments() throws IOException {
+    try (Stream<Path> files = Files.list(dir)) {
+      return files.map(f -> f.getFileName().toString())
+              .filter(name -> name.startsWith("segment-")).sorted().collect(Collectors.toList());
+    }
+  }
+
+  @Test
+  public void changesSurviveReopening() throws IOException {
+    IEventSeries standup = EventSeries.getBuilder()
+            .subject("Standup")
+            .eventStartDate(3, 2, 2025)
+            .eventEndDate(3, 2, 2025)
+            .eventStartTime(9, 0)
+            .eventEndTime(9, 15)
+            .weekDays("MWF")
+            .seriesEndDate(LocalDate.of(2025, 2, 28))
+            .buildSeries();
+    List<IEvent> expected;
+    try (LoggedCalendar calendar = open()) {
+      calendar.addEvent(event("Dentist", FROM));
+      calendar.addEvents(List.of(event("Gym", FROM.plusDays(1)), event("Gym", FROM.plusDays(2))));
+      calendar.replaceEvent(event("Gym", FROM.plusDays(1)), event("Swim", FROM.plusDays(1)));
+      calendar.removeEvent(event("Dentist", FROM));
+      calendar.addEventSeries(standup);
+      calendar.copyEventsAndShift(FROM, FROM.plusDays(3), calendar, FROM.plusDays(100));
+      expected = calendar.getScheduleInRange(FROM, TO);
+    }
+    try (LoggedCalendar reopened = open()) {
+      assertEquals(ZoneId.of("Europe/Paris"), reopened.getTimeZone());
+      assertEquals(expected, reopened.getScheduleInRange(FROM, TO));
+      assertEquals(standup, reopened.getSeriesFor(standup.getEvents().get(0)));
+    }
+  }
+
+  @Test
+  public void compactionKeepsDiskUseProportionalToLiveEvents() throws IOException {
+    long written = 0;
+    try (LoggedCalendar calendar = open()) {
+      for (int i = 0; i < 10; i++) {
+        calendar.addEvent(event("Kept " + i, FROM.plusDays(i)));
+      }
+      // thousands of changes which all cancel out.
+      for (int i = 0; i < 3000; i++) {
+        IEvent churn = event("Churn " + i, FROM.plusDays(i % 365));
+        calendar.addEvent(churn);
+        calendar.removeEvent(churn);
+        written += 2 * 60;
+      }
+    }
+    try (LoggedCalendar reopened = open()) {
+      assertTrue(reopened.diskBytes() < 8 * SEGMENT);
+      assertTrue(reopened.diskBytes() * 20 < written);
+      assertEquals(10, reopened.getScheduleInRange(FROM, TO).size());
+
+      reopened.compact();
+      assertEquals(List.of(), segments());
+      assertTrue(reopened.diskBytes() < SEGMENT);
+    }
+    try (LoggedCalendar reopened = open()) {
+      assertEquals(10, reopened.getScheduleInRange(FROM, TO).size());
+    }
+  }
+
+  @Test
+  public void recordCutShortIsDropped() throws IOException {
+    try (LoggedCalendar calendar = open()) {
+      calendar.addEvent(event("Kept", FROM));
+    }
+    List<String> segments = segments();
+    Files.write(dir.resolve(segments.get(segments.size() - 1)), new byte[] {0, 0, 0, 40, 1, 2},
+            StandardOpenOption.APPEND);
+    try (LoggedCalendar reopened = open()) {
+      assertEquals(List.of(event("Kept", FROM)), reopened.getEvents());
+      reopened.addEvent(event("Later", FROM));
+    }
+    try (LoggedCalendar reopened = open()) {
+      assertEquals(new HashSet<>(List.of(event("Kept", FROM), event("Later", FROM))),
+              new HashSet<>(reopened.getEvents()));
+    }
+  }
+
+  @Test
+  public void timeZoneChangesAreLogged() throws IOException {
+    List<IEvent> expected;
+    try (LoggedCalendar calendar = open()) {
+      calendar.addEvent(event("Dentist", FROM.plusDays(1)));
+      assertSame(calendar, calendar.setTimeZone(ZoneId.of("Asia/Tokyo")));
+      calendar.addEvent(event("Gym", FROM.plusDays(2)));
+      expected = calendar.getScheduleInRange(FROM, TO);
+    }
+    try (LoggedCalendar reopened = open()) {
+      assertEquals(ZoneId.of("Asia/Tokyo"), reopened.getTimeZone());
+      assertEquals(expected, reopened.getScheduleInRange(FROM, TO));
+    }
+  }
+
+  @Test
+  public void aChangeWhichCantBeLoggedIsDropped() throws IOException {
+    LoggedCalendar calendar = open();
+    // the first record creates a segment, which fails once the directory is gone.
+    try (Stream<Path> files = Files.list(dir)) {
+      for (Path file : files.collect(Collectors.toList())) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(dir);
+    assertThrows(UncheckedIOException.class, () -> calendar.addEvent(event("Lost", FROM)));
+    assertEquals(List.of(), calendar.getEvents());
+  }
+
+  @Test
+  public void aRevertSurvivesReopening() throws IOException {
+    List<IEvent> events = List.of(event("Dentist", FROM), event("Gym", FROM),
+            event("Swim", FROM));
+    try (LoggedCalendar calendar = open()) {
+      events.forEach(calendar::addEvent);
+      Calendar snapshot = calendar.snapshot();
+      calendar.removeEvent(events.get(0));
+      calendar.addEvent(events.get(0));
+      calendar.addEvent(event("Lost", FROM.plusDays(1)));
+      calendar.revertTo(snapshot);
+      assertEquals(events, calendar.getEvents());
+    }
+    try (LoggedCalendar reopened = open()) {
+      assertEquals(events, reopened.getEvents());
+    }
+  }
+
+}
@@ -0,0 +1,162 @@
+package controller;
+
+import model.Calendar;
+import model.CalendarManager;
+import model.ColumnarCalendar;
+import model.Event;
+import model.ICalendar;
+import model.IEvent;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A Test class to ensure batch blocks apply all of their changes, or none of them.
+ */
+public class CommandBatchTest {
+  private CalendarManager mgr;
+
+  @Before
+  public void setup() {
+    mgr = new CalendarManager();
+  }
+
+  private String[] run(String script) throws IOException {
+    StringBuilder out = new StringBuilder();
+    new CalendarController(mgr, new StringReader("create calendar --name Work "
+            + "--timezone America/New_York\nuse calendar --name Work\n"
+            + "create event Existing from 2025-06-02T08:00 to 2025-06-02T08:30\n" + script),
+            out).goo();
+    String[] lines = out.toString().split("\n");
+    return Arrays.copyOfRange(lines, 2, lines.length);
+  }
+
+  private List<String> subjects() {
+    ICalendar work = mgr.getCalendar("Work");
+    return work.getEvents().stream().map(IEvent::getSubject).sorted()
+            .collect(Collectors.toList());
+  }
+
+  @Test
+  public void testCommitAppliesEveryStagedLine() throws IOException {
+    String[] out = run("begin batch\n"
+            + "create event Standup from 2025-06-02T09:00 to 2025-06-02T09:15\n"
+            + "create event Review on 2025-06-03\n"
+            + "edit event subject Standup from 2025-06-02T09:00 to 2025-06-02T09:15 with Sync\n"
+            + "create event Gym from 2025-06-02T18:00 to 2025-06-02T19:00 repeats MW"
+            + " for 3 times\n"
+            + "commit\n"
+            + "print events on 2025-06-02\n");
+    assertEquals("Started a batch on calendar: Work", out[0]);
+    assertEquals("Committed 4 commands to calendar: Work", out[1]);
+    assertEquals(List.of("Existing", "Gym", "Gym", "Gym", "Review", "Sync"), subjects());
+    // the events of the day, printed after the commit.
+    assertEquals(5, out.length);
+  }
+
+  @Test
+  public void testAFailingLineRollsBackTheWholeBlock() throws IOException {
+    String[] out = run("begin batch\n"
+            + "create event Standup from 2025-06-02T09:00 to 2025-06-02T09:15\n"
+            + "edit event subject Existing from 2025-06-02T08:00 to 2025-06-02T08:30 with Moved\n"
+            + "create event Review on 2025-06-03\n"
+            + "create event Standup from 2025-06-02T09:00 to 2025-06-02T09:15\n"
+            + "commit\n");
+    assertEquals(2, out.length);
+    assertTrue(out[1].startsWith("Batch rolled back: Duplicate event"));
+    assertEquals(List.of("Existing"), subjects());
+  }
+
+  @Test
+  public void testLinesWhichCantBeStagedFailTheBlock() throws IOException {
+    String[] out = run("commit\n"
+            + "begin batch\n"
+            + "begin batch\n"
+            + "create event Review on 2025-06-03\n"
+            + "create event Broken on 2025-13-03\n"
+            + "use calendar --name Work\n"
+            + "commit\n"
+            + "begin batch\n"
+            + "create event Review on 2025-06-03\n"
+            + "abort\n"
+            + "abort\n");
+    assertEquals("No batch is open", out[0]);
+    assertEquals("Not allowed inside a batch: begin batch", out[2]);
+    assertEquals("Not allowed inside a batch: use calendar --name Work", out[4]);
+    assertEquals("Batch rolled back: 3 of its lines failed, none of its 1 commands were run",
+            out[5]);
+    assertEquals("Batch aborted: 1 commands dropped", out[7]);
+    assertEquals("No batch is open", out[8]);
+    assertEquals(9, out.length);
+    assertEquals(List.of("Existing"), subjects());
+  }
+
+  @Test
+  public void testABatchLeftOpenAtTheEndOfInputIsAborted() throws IOException {
+    String[] out = run("begin batch\n"
+            + "create event Standup from 2025-06-02T09:00 to 2025-06-02T09:15\n"
+            + "create event Review on 2025-06-03\n");
+    assertEquals("Started a batch on calendar: Work", out[0]);
+    assertEquals("Batch aborted at end of input: 2 commands dropped", out[1]);
+    assertEquals(2, out.length);
+    assertEquals(List.of("Existing"), subjects());
+  }
+
+  @Test
+  public void testARollbackPutsEventsBackWhereTheyWere() {
+    Calendar calendar = new Calendar();
+    List<IEvent> events = List.of(
+            Event.of("Standup", null, null, LocalDate.of(2025, 6, 2), LocalTime.of(9, 0),
+                    LocalDate.of(2025, 6, 2), LocalTime.of(9, 15), null),
+            Event.of("Review", null, null, LocalDate.of(2025, 6, 2), LocalTime.of(9, 0),
+                    LocalDate.of(2025, 6, 2), LocalTime.of(9, 30), null),
+            Event.of("Lunch", null, null, LocalDate.of(2025, 6, 2), LocalTime.of(12, 0),
+                    LocalDate.of(2025, 6, 2), LocalTime.of(13, 0), null));
+    events.forEach(calendar::addEvent);
+    List<IEvent> schedule = calendar.getScheduleInRange(LocalDate.of(2025, 6, 2),
+            LocalDate.of(2025, 6, 2));
+    BatchCalendar batch = new BatchCalendar(calendar);
+    batch.removeEvent(events.get(0));
+    batch.addEvent(events.get(0));
+    batch.flush();
+
+    IllegalArgumentException cause = new IllegalArgumentException("a line failed");
+    batch.rollback(cause);
+    assertEquals(0, cause.getSuppressed().length);
+    assertEquals(events, calendar.getEvents());
+    assertEquals(schedule, calendar.getScheduleInRange(LocalDate.of(2025, 6, 2),
+            LocalDate.of(2025, 6, 2)));
+  }
+
+  @Test
+  public void testAFailedUndoDoesNotHideWhyTheBatchRolledBack() {
+    // a calendar taking no snapshots has its changes undone one by one.
+    ICalendar calendar = new ColumnarCalendar();
+    IEvent standup = Event.of("Standup", null, null, LocalDate.of(2025, 6, 2),
+            LocalTime.of(9, 0), LocalDate.of(2025, 6, 2), LocalTime.of(9, 15), null);
+    IEvent sync = Event.of("Sync", null, null, LocalDate.of(2025, 6, 2),
+            LocalTime.of(9, 0), LocalDate.of(2025, 6, 2), LocalTime.of(9, 15), null);
+    calendar.addEvent(standup);
+    BatchCalendar batch = new BatchCalendar(calendar);
+    batch.addEvent(sync.shiftDays(1));
+    batch.replaceEvent(standup, sync);
+    // the replacement is gone, so it can't be replaced back.
+    calendar.removeEvent(sync);
+
+    IllegalArgumentException cause = new IllegalArgumentException("a line failed");
+    batch.rollback(cause);
+    assertEquals(1, cause.getSuppressed().length);
+    // the change before the failed one is still taken back.
+    assertEquals(List.of(), calendar.getEvents());
+  }
+}
@@ -0,0 +1,91 @@
+package controller;
+
+import controller.command.ParsedCommand;
+import model.CalendarManager;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A Test class to ensure command lines are dispatched to the right commands.
+ */
+public class CommandRegistryTest {
+
+  @Test
+  public void testLongestPrefixWins() {
+    List<String> ran = new ArrayList<>();
+    CommandRegistry registry = new CommandRegistry()
+            .register("copy events on", ParsedCommand.CopyEventsOn.class, true,
+                    (c, s, v) -> ran.add("on " + c.getDate()))
+            .register("copy events between", ParsedCommand.CopyEventsBetween.class, false,
+                    (c, s, v) -> ran.add("between " + c.getStart()))
+            .register("copy event", ParsedCommand.CopyEvent.class, true,
+                    (c, s, v) -> ran.add("event " + c.getSubject()));
+    CommandSession session = new CommandSession(new CalendarManager());
+
+    registry.lookup("copy  events\tbetween 2025-06-01 and 2025-06-02 --target B to 2025-07-01")
+            .run("copy events between 2025-06-01 and 2025-06-02 --target B to 2025-07-01",
+                    session, null);
+    registry.lookup("copy event Lunch on 2025-06-01T12:00 --target B to 2025-06-02T12:00")
+            .run("copy event Lunch on 2025-06-01T12:00 --target B to 2025-06-02T12:00",
+                    session, null);
+    assertEquals(List.of("between 2025-06-01", "event Lunch"), ran);
+
+    assertFalse(registry.lookup("copy events between").needsCalendar());
+    assertNull(registry.lookup("copy events"));
+    assertNull(registry.lookup("copy eventsx on"));
+    assertNull(registry.lookup(""));
+    assertThrows(IllegalArgumentException.class, () -> registry.register("copy  event",
+            ParsedCommand.CopyEvent.class, true, (c, s, v) -> { }));
+  }
+
+  @Test
+  public void testSessionErrorsAreReportedAndTheLoopGoesOn() throws IOException {
+    String script = "print events on 2025-06-02\n"
+            + "use calendar --name Missing\n"
+            + "create calendar --name Work --timezone Nowhere/Zone\n"
+            + "create calendar --name Work --timezone America/New_York\n"
+            + "use calendar --name Work\n"
+            + "create event Standup on 2025-06-02\n"
+            + "print events on 2025-06-02\n"
+            + "frobnicate\n";
+    StringBuilder out = new StringBuilder();
+    new CalendarController(new CalendarManager(), new StringReader(script), out).goo();
+    String[] lines = out.toString().split("\n");
+    assertEquals("ERROR: no calendar selected. Use \"use calendar --name <name>\"", lines[0]);
+    assertEquals("Invalid timezone: Nowhere/Zone", lines[2]);
+    assertEquals("Using calendar: Work", lines[4]);
+    assertTrue(lines[5].startsWith("• Standup"));
+    assertEquals("Unknown command: frobnicate", lines[6]);
+  }
+
+  @Test
+  public void testLinesBeforeACalendarIsPickedAskForOne() throws IOException {
+    String script = "create evnt Holiday on 2025-12-25\n"
+            + "\n"
+            + "create event Meeting from 2025-06-10T09:00\n"
+            + "create calendar --name Work --timezone America/New_York\n"
+            + "copy event Lunch on 2025-06-01T12:00 --target Work to 2025-06-02T12:00\n"
+            + "use calendar --name Work\n"
+            + "create evnt Holiday on 2025-12-25\n";
+    StringBuilder out = new StringBuilder();
+    new CalendarController(new CalendarManager(), new StringReader(script), out).goo();
+    String noCalendar = "ERROR: no calendar selected. Use \"use calendar --name <name>\"";
+    String[] lines = out.toString().split("\n");
+    assertEquals(noCalendar, lines[0]);
+    assertEquals(noCalendar, lines[1]);
+    assertEquals(noCalendar, lines[2]);
+    assertEquals(noCalendar, lines[4]);
+    assertEquals("Using calendar: Work", lines[5]);
+    assertEquals("Unknown command: create evnt Holiday on 2025-12-25", lines[6]);
+  }
+}
@@ -13,6 +13,7 @@ import org.junit.Test;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import static org.junit.Assert.*;
@@ -73,6 +74,9 @@ public class GuiControllerTest {
     @Override
     public void addEvent(IEvent e) { addedEvents.add(e); }
 
+    @Override
+    public void addEvents(Collection<IEvent> events) { addedEvents.addAll(events); }
+
     /* Remaining ICalendar methods stubbed out */
     @Override
     public void removeEvent(IEvent e) {
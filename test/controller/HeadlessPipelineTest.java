@@ -0,0 +1,110 @@
+package controller;
+
+import model.CalendarManager;
+import model.ICalendar;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A Test class to ensure a pipelined replay runs and prints exactly what the controller does.
+ */
+public class HeadlessPipelineTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path script(String text) throws IOException {
+    Path file = folder.getRoot().toPath().resolve("script.txt");
+    Files.writeString(file, text);
+    return file;
+  }
+
+  private static String replay(Path file) throws IOException {
+    StringBuilder out = new StringBuilder();
+    try (ScriptReader reader = ScriptReader.open(file)) {
+      new CalendarController(new CalendarManager(), reader, out).goo();
+    }
+    return out.toString();
+  }
+
+  private static String pipelined(Path file) throws IOException {
+    StringBuilder out = new StringBuilder();
+    try (ScriptReader reader = ScriptReader.open(file)) {
+      new HeadlessPipeline(new CalendarManager(), reader, out).run();
+    }
+    return out.toString();
+  }
+
+  @Test
+  public void testOutputMatchesTheController() throws IOException {
+    StringBuilder text = new StringBuilder("print events on 2025-01-01\n"
+            + "create calendar --name Work --timezone America/New_York\n"
+            + "create calendar --name Home --timezone Europe/London\n"
+            + "use calendar --name Work\n");
+    LocalDate first = LocalDate.of(2025, 1, 1);
+    // enough lines for several batches, with failures and output among them.
+    for (int i = 0; i < 3000; i++) {
+      LocalDate day = first.plusDays(i / 4);
+      text.append(String.format("create event E%d from %sT%02d:00 to %sT%02d:30%n",
+              i, day, 8 + i % 4, day, 8 + i % 4));
+      if (i % 97 == 0) {
+        text.append("print events on ").append(day).append('\n');
+        text.append("create event E").append(i).append(" on 2025-13-01\n");
+        text.append("copy events on ").append(day).append(" --target Home to ")
+                .append(day).append('\n');
+        text.append("use calendar --name ").append(i % 2 == 0 ? "Home" : "Work").append('\n');
+      }
+      if (i % 500 == 0) {
+        text.append("bogus line ").append(i).append('\n');
+      }
+    }
+    text.append("show status on 2025-01-02T08:15\n");
+    Path file = script(text.toString());
+
+    String expected = replay(file);
+    assertTrue(expected.contains("Copied all events on"));
+    assertEquals(expected, pipelined(file));
+  }
+
+  @Test
+  public void testABatchLeftOpenIsAbortedLikeInTheController() throws IOException {
+    Path file = script("create calendar --name Work --timezone America/New_York\n"
+            + "use calendar --name Work\n"
+            + "begin batch\n"
+            + "create event Standup from 2025-06-02T09:00 to 2025-06-02T09:15\n");
+    String expected = replay(file);
+    assertTrue(expected.endsWith("Batch aborted at end of input: 1 commands dropped\n"));
+    assertEquals(expected, pipelined(file));
+  }
+
+  @Test
+  public void testCommandsFailingOutrightStopTheReplay() throws IOException {
+    Path file = script("create calendar --name Work --timezone America/New_York\n"
+            + "use calendar --name Work\n"
+            + "create event Lunch from 2025-06-02T12:00 to 2025-06-02T13:00\n"
+            + "print events on 2025-06-02\n");
+    CalendarManager mgr = new CalendarManager() {
+      @Override
+      public ICalendar getCalendar(String name) {
+        throw new IllegalStateException("broken");
+      }
+    };
+    StringBuilder out = new StringBuilder();
+    try (ScriptReader reader = ScriptReader.open(file)) {
+      HeadlessPipeline pipeline = new HeadlessPipeline(mgr, reader, out);
+      assertThrows(IllegalStateException.class, pipeline::run);
+    }
+    // the output of the lines before the failing one is still written.
+    assertEquals("Created calendar \"Work\" in timezone America/New_York\n", out.toString());
+  }
+}
@@ -0,0 +1,100 @@
+package controller;
+
+import model.CalendarManager;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A Test class to ensure scripts are split into lines and decoded correctly.
+ */
+public class ScriptReaderTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private static List<String> lines(byte[] bytes, int capacity) throws IOException {
+    List<String> lines = new ArrayList<>();
+    try (ScriptReader reader = new ScriptReader(
+            Channels.newChannel(new ByteArrayInputStream(bytes)), capacity)) {
+      for (CharSequence line = reader.nextLine(); line != null; line = reader.nextLine()) {
+        lines.add(line.toString());
+      }
+      assertNull(reader.nextLine());
+    }
+    return lines;
+  }
+
+  private static List<String> lines(String text, int capacity) throws IOException {
+    return lines(text.getBytes(StandardCharsets.UTF_8), capacity);
+  }
+
+  @Test
+  public void testSplitsOnLineFeeds() throws IOException {
+    assertEquals(List.of("first", "", "third\tline", "last"),
+            lines("first\r\n\nthird\tline\nlast", 1024));
+    assertEquals(List.of("only"), lines("only\n", 1024));
+    assertEquals(List.of(), lines("", 1024));
+  }
+
+  @Test
+  public void testDecodesAcrossBufferBoundaries() throws IOException {
+    String text = "café 東京 📅 done\n" + "x".repeat(1000) + "\nnaïve\r\n";
+    List<String> expected = List.of("café 東京 📅 done", "x".repeat(1000), "naïve");
+    // every buffer size splits some character or line ending differently.
+    for (int capacity = 4; capacity < 12; capacity++) {
+      assertEquals(expected, lines(text, capacity));
+    }
+  }
+
+  @Test
+  public void testMalformedBytesBecomeReplacementCharacters() throws IOException {
+    byte[] bytes = {'a', (byte) 0xFF, 'b', (byte) 0xE6, (byte) 0x9D, 'c', '\n', (byte) 0xC3};
+    assertEquals(List.of("a�b�c", "�"), lines(bytes, 4));
+  }
+
+  @Test
+  public void testViewsCanBeSliced() throws IOException {
+    try (ScriptReader reader = new ScriptReader(Channels.newChannel(
+            new ByteArrayInputStream("use calendar --name Work\n".getBytes())))) {
+      CharSequence line = reader.nextLine();
+      assertEquals("calendar", line.subSequence(4, 12).toString());
+      assertEquals('W', line.subSequence(4, 24).charAt(16));
+    }
+  }
+
+  @Test
+  public void testReplayMatchesTheScannerPath() throws IOException {
+    String script = "create calendar --name Work --timezone America/New_York\n"
+            + "  use calendar --name Work  \r\n"
+            + "create event Standup from 2025-06-02T09:00 to 2025-06-02T09:15\n"
+            + "\n"
+            + "print events on 2025-06-02\n"
+            + "bogus";
+    Path file = folder.getRoot().toPath().resolve("script.txt");
+    Files.writeString(file, script);
+
+    StringBuilder scanned = new StringBuilder();
+    new CalendarController(new CalendarManager(), new StringReader(script), scanned).goo();
+    StringBuilder replayed = new StringBuilder();
+    try (ScriptReader reader = ScriptReader.open(file)) {
+      new CalendarController(new CalendarManager(), reader, replayed).goo();
+    }
+    assertEquals(scanned.toString(), replayed.toString());
+    assertTrue(replayed.toString().contains("Standup"));
+  }
+}
@@ -0,0 +1,133 @@
+package controller.command;
+
+import model.CalendarExporter;
+import org.junit.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * A Test class to ensure command lines are read into the right parsed commands.
+ */
+public class CommandParserTest {
+
+  private static final LocalDateTime NINE = LocalDateTime.of(2025, 6, 9, 9, 0);
+  private static final LocalDateTime TEN = LocalDateTime.of(2025, 6, 9, 10, 0);
+  private static final LocalDate DAY = LocalDate.of(2025, 6, 9);
+
+  @Test
+  public void testParsesEveryFormOfCreate() {
+    ParsedCommand.CreateTimedEvent timed = CommandParser.parse(
+            "create event Standup from 2025-06-09T09:00 to 2025-06-09T10:00",
+            ParsedCommand.CreateTimedEvent.class);
+    assertEquals("Standup", timed.getSubject());
+    assertEquals(NINE, timed.getFrom());
+    assertEquals(TEN, timed.getTo());
+
+    ParsedCommand.CreateTimedSeries series = CommandParser.parse(
+            "create event Standup from 2025-06-09T09:00 to 2025-06-09T10:00 "
+                    + "repeats MWF for 5 times",
+            ParsedCommand.CreateTimedSeries.class);
+    assertEquals("MWF", series.getDays());
+    assertEquals(5, series.getCount());
+
+    ParsedCommand.CreateTimedSeriesUntil until = CommandParser.parse(
+            "create event Standup repeats TR until 2025-07-01 from 2025-06-09T09:00 "
+                    + "to 2025-06-09T10:00",
+            ParsedCommand.CreateTimedSeriesUntil.class);
+    assertEquals(NINE, until.getFrom());
+    assertEquals(LocalDate.of(2025, 7, 1), until.getUntil());
+
+    assertEquals(DAY, CommandParser.parse("create event Holiday on 2025-06-09",
+            ParsedCommand.CreateAllDayEvent.class).getOn());
+    assertEquals(3, CommandParser.parse("create event Gym on 2025-06-09 repeats SU for 3 times",
+            ParsedCommand.CreateAllDaySeries.class).getCount());
+    assertEquals("U", CommandParser.parse(
+            "create event Gym on 2025-06-09 repeats U until 2025-07-01",
+            ParsedCommand.CreateAllDaySeriesUntil.class).getDays());
+  }
+
+  @Test
+  public void testQuotedWordsKeepTheirSpaces() {
+    ParsedCommand.CreateAllDayEvent event = CommandParser.parse(
+            "create   event \"Team  offsite\" on\t2025-06-09",
+            ParsedCommand.CreateAllDayEvent.class);
+    assertEquals("Team  offsite", event.getSubject());
+
+    ParsedCommand.EditEvent edit = CommandParser.parse("edit series description \"Team sync\" "
+            + "from 2025-06-09T09:00 with \"Weekly, in room 4\"", ParsedCommand.EditEvent.class);
+    assertEquals(ParsedCommand.EditEvent.Scope.SERIES, edit.getScope());
+    assertEquals("Team sync", edit.getSubject());
+    assertEquals("Weekly, in room 4", edit.getValue());
+    assertNull(edit.getTo());
+
+    assertThrows(IllegalArgumentException.class,
+        () -> CommandParser.parse("create event \"Team offsite on 2025-06-09"));
+  }
+
+  @Test
+  public void testParsesTheOtherCommands() {
+    ParsedCommand.PrintEvents print = CommandParser.parse(
+            "print events from 2025-06-09T09:00 to 2025-06-12T10:00",
+            ParsedCommand.PrintEvents.class);
+    assertEquals(DAY, print.getStart());
+    assertEquals(LocalDate.of(2025, 6, 12), print.getEnd());
+    assertEquals(NINE, CommandParser.parse("show status on 2025-06-09T09:00",
+            ParsedCommand.ShowStatus.class).getAt());
+
+    ParsedCommand.CopyEventsBetween copy = CommandParser.parse(
+            "copy events between 2025-06-01 and 2025-06-09 --target Work to 2025-07-01",
+            ParsedCommand.CopyEventsBetween.class);
+    assertEquals(DAY, copy.getEnd());
+    assertEquals("Work", copy.getTarget());
+    assertEquals(LocalDate.of(2025, 7, 1), copy.getTo());
+
+    ParsedCommand.CreateCalendar create = CommandParser.parse(
+            "create calendar --timezone Asia/Tokyo --name Home",
+            ParsedCommand.CreateCalendar.class);
+    assertEquals("Home", create.getName());
+    assertEquals(ZoneId.of("Asia/Tokyo"), create.getZone());
+
+    ParsedCommand.EditCalendar edit = CommandParser.parse(
+            "edit calendar --property name Work --name name", ParsedCommand.EditCalendar.class);
+    assertEquals("name", edit.getName());
+    assertEquals("Work", edit.getValue());
+
+    ParsedCommand.ExportCalendar export = CommandParser.parse("export calendar --name Work "
+            + "--format ICS --from 2025-06-01T00:00 --to 2025-06-30 --file out.ics",
+            ParsedCommand.ExportCalendar.class);
+    assertEquals(CalendarExporter.Format.ICS, export.getFormat());
+    assertEquals(LocalDate.of(2025, 6, 1), export.getFrom());
+  }
+
+  @Test
+  public void testRejectsMalformedLines() {
+    String[] lines = {
+        "",
+        "create events Standup on 2025-06-09",
+        "create event Standup on 2025-06-09 on 2025-06-10",
+        "create event Standup on 2025-06-09 repeats MWF",
+        "create event Standup on 2025-06-09 repeats MXF for 3 times",
+        "create event Standup on 2025-06-09 repeats MWF for 3",
+        "create event Standup on 2025-06-09 repeats MWF for 3 times until 2025-07-01",
+        "create event Standup from 2025-06-09T09:00 to 2025-06-09T10:00 on 2025-06-09",
+        "create event Standup on 2025-06-32",
+        "edit events subject Standup from 2025-06-09T09:00 to 2025-06-09T10:00 with Sync",
+        "edit event subject Standup from 2025-06-09T09:00 with Sync",
+        "print events on 2025-06-09 to 2025-06-10",
+        "copy events on 2025-06-09 and 2025-06-10 --target Work to 2025-07-01",
+        "use calendar --name",
+        "export calendar --name Work --format pdf --from 2025-06-01 --to 2025-06-30 --file x",
+    };
+    for (String line : lines) {
+      assertThrows(line, IllegalArgumentException.class, () -> CommandParser.parse(line));
+    }
+    assertThrows(IllegalArgumentException.class, () -> CommandParser.parse(
+            "show status on 2025-06-09T09:00", ParsedCommand.PrintEvents.class));
+  }
+}
@@ -12,6 +12,7 @@ import org.junit.Test;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneId;
+import java.util.Collection;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
@@ -50,6 +51,14 @@ public class CreateCommandTest {
       // no‐op
     }
 
+    /**
+     * No‐op.
+     */
+    @Override
+    public void addEvents(Collection<IEvent> events) {
+      // no‐op
+    }
+
     /**
      * No‐op.
      */
@@ -185,6 +194,11 @@ public class CreateCommandTest {
       singleCount++;
     }
 
+    @Override
+    public void addEvents(Collection<IEvent> events) {
+      singleCount += events.size();
+    }
+
     @Override
     public void addEventSeries(IEventSeries s) {
       seriesCount = s.getEvents().size();
@@ -283,4 +297,19 @@ public class CreateCommandTest {
     ).execute(cal, dummyView);
     assertEquals("Sunday on June 1 yields exactly 1", 1, cal.seriesCount);
   }
+
+  @Test
+  public void testCreateSeriesClashingWithAnEventAddsNothing() {
+    Calendar cal = new Calendar();
+    new CreateCommand("create event Standup from 2025-06-11T09:00 to 2025-06-11T09:15")
+            .execute(cal, dummyView);
+    try {
+      new CreateCommand("create event Standup from 2025-06-09T09:00 to 2025-06-09T09:15 "
+              + "repeats MWF for 3 times").execute(cal, dummyView);
+    } catch (IllegalArgumentException expected) {
+      assertEquals(1, cal.getEvents().size());
+      return;
+    }
+    throw new AssertionError("expected the clashing series to be rejected");
+  }
 }
@@ -0,0 +1,72 @@
+package controller.command;
+
+import model.CalendarManager;
+import model.Event;
+import model.ICalendarManager;
+import view.ITextView;
+import view.TextView;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A Test class to ensure the Export Calendar Command works as intended.
+ */
+public class ExportCalendarCommandTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private ICalendarManager mgr;
+  private ITextView view;
+
+  @Before
+  public void setUp() {
+    this.mgr  = new CalendarManager();
+    this.view = new TextView(new StringBuilder());
+    mgr.addCalendar("Work", new model.Calendar());
+    mgr.getCalendar("Work").addEvent(Event.of("Review", null, null,
+            LocalDate.of(2025, 6, 3), LocalTime.of(14, 0),
+            LocalDate.of(2025, 6, 3), LocalTime.of(15, 0), null));
+  }
+
+  @Test
+  public void testExportCsv() throws IOException {
+    Path file = folder.getRoot().toPath().resolve("work.csv");
+    new ExportCalendarCommand("export calendar --name Work --format csv --from 2025-06-01"
+            + " --to 2025-06-30 --file " + file).execute(mgr, view);
+
+    List<String> lines = Files.readAllLines(file);
+    assertEquals(2, lines.size());
+    assertEquals("Review,06/03/2025,02:00 PM,06/03/2025,03:00 PM,False,,,False", lines.get(1));
+    assertEquals(List.of("Exported 1 events from \"Work\" to " + file), view.getTextInBuffer());
+  }
+
+  @Test
+  public void testExportIcs() throws IOException {
+    Path file = folder.getRoot().toPath().resolve("work.ics");
+    new ExportCalendarCommand("export calendar --name Work --format ics --from 2025-06-01"
+            + " --to 2025-06-30 --file " + file).execute(mgr, view);
+
+    assertTrue(Files.readString(file).contains("SUMMARY:Review\r\n"));
+  }
+
+  @Test
+  public void testExportInvalidFormatFails() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new ExportCalendarCommand("export calendar --name Work --format pdf"
+                + " --from 2025-06-01 --to 2025-06-30 --file x.pdf").execute(mgr, view));
+  }
+}
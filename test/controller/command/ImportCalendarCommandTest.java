@@ -0,0 +1,68 @@
+package controller.command;
+
+import model.CalendarManager;
+import model.ICalendarManager;
+import view.ITextView;
+import view.TextView;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * A Test class to ensure the Import Calendar Command works as intended.
+ */
+public class ImportCalendarCommandTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private ICalendarManager mgr;
+  private ITextView view;
+
+  @Before
+  public void setUp() {
+    this.mgr  = new CalendarManager();
+    this.view = new TextView(new StringBuilder());
+    mgr.addCalendar("Work", new model.Calendar());
+  }
+
+  @Test
+  public void testImportIntoCalendar() throws IOException {
+    Path file = folder.newFile("work.ics").toPath();
+    Files.writeString(file, "BEGIN:VCALENDAR\r\n"
+            + "BEGIN:VEVENT\r\nSUMMARY:Review\r\nDTSTART:20250603T140000\r\n"
+            + "DTEND:20250603T150000\r\nEND:VEVENT\r\n"
+            + "BEGIN:VEVENT\r\nSUMMARY:Standup\r\nDTSTART:20250602T090000\r\n"
+            + "DTEND:20250602T091500\r\nRRULE:FREQ=WEEKLY;COUNT=3\r\nEND:VEVENT\r\n"
+            + "END:VCALENDAR\r\n");
+
+    new ImportCalendarCommand("import calendar --name Work --file " + file).execute(mgr, view);
+
+    assertEquals(4, mgr.getCalendar("Work").getEvents().size());
+    assertEquals(List.of("Imported 1 events and 1 series into \"Work\""),
+            view.getTextInBuffer());
+  }
+
+  @Test
+  public void testImportMissingFileFails() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new ImportCalendarCommand("import calendar --name Work --file "
+                + folder.getRoot().toPath().resolve("missing.ics")).execute(mgr, view));
+  }
+
+  @Test
+  public void testImportIntoMissingCalendarFails() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new ImportCalendarCommand("import calendar --name Home --file x.ics")
+                .execute(mgr, view));
+  }
+}
@@ -14,6 +14,7 @@ import org.junit.Test;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
@@ -59,6 +60,11 @@ public class PrintCommandTest {
       /* no‐op */
     }
 
+    @Override
+    public void addEvents(Collection<IEvent> events) {
+      /* no‐op */
+    }
+
     @Override
     public void removeEvent(IEvent e) {
       /* no‐op */
@@ -15,6 +15,7 @@ import java.time.LocalDate;
 
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
@@ -31,6 +32,11 @@ public class ShowCommandTest {
       //command
     }
 
+    @Override
+    public void addEvents(Collection<IEvent> events) {
+      //command
+    }
+
     @Override
     public void removeEvent(IEvent e) {
       //comment
@@ -0,0 +1,83 @@
+package view;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+/**
+ * A Test class to ensure the streaming view writes what TextView would, only in fewer pieces.
+ */
+public class StreamingTextViewTest {
+
+  // an output recording each piece written to it.
+  private static final class Pieces implements Appendable {
+    private final List<String> written = new ArrayList<>();
+
+    @Override
+    public Appendable append(CharSequence csq) {
+      written.add(csq.toString());
+      return this;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) {
+      return append(csq.subSequence(start, end));
+    }
+
+    @Override
+    public Appendable append(char c) {
+      return append(String.valueOf(c));
+    }
+  }
+
+  @Test
+  public void testDisplayedTextIsWrittenInChunks() throws IOException {
+    Pieces out = new Pieces();
+    StreamingTextView view = new StreamingTextView(out, 12, false);
+    view.takeMessage("one");
+    view.takeMessage("two");
+    view.displayTextInBuffer();
+    view.clearTextBuffer();
+    view.takeMessage("dropped");
+    view.clearTextBuffer();
+    assertEquals(List.of(), out.written);
+
+    view.takeMessage("three");
+    view.displayTextInBuffer();
+    view.takeMessage("pending");
+    view.takeMessage("");
+    assertEquals(List.of("one\ntwo\nthree\n"), out.written);
+    assertEquals(List.of("pending", ""), view.getTextInBuffer());
+
+    view.clearTextBuffer();
+    view.takeMessage("four");
+    view.displayTextInBuffer();
+    view.flush();
+    view.flush();
+    assertEquals(List.of("one\ntwo\nthree\n", "four\n"), out.written);
+    assertEquals(List.of(), view.getTextInBuffer());
+  }
+
+  @Test
+  public void testCaptureKeepsTheMessagesLikeTextView() throws IOException {
+    StringBuilder streamed = new StringBuilder();
+    StringBuilder plain = new StringBuilder();
+    List<ITextView> views = List.of(new StreamingTextView(streamed, 8, true),
+            new TextView(plain));
+    for (ITextView view : views) {
+      view.takeMessage("Created calendar \"Work\"");
+      view.takeMessage("");
+      assertEquals(List.of("Created calendar \"Work\"", ""), view.getTextInBuffer());
+      view.displayTextInBuffer();
+      view.clearTextBuffer();
+      assertEquals(List.of(), view.getTextInBuffer());
+    }
+    assertEquals(plain.toString(), streamed.toString());
+    assertThrows(IllegalArgumentException.class, () -> new StreamingTextView(plain, 0, true));
+  }
+}